@@ -0,0 +1,299 @@
+package generator2;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reader of position files in the columnar format written by ColumnarWriter.
+ * The index of the chunks is read when the file is opened; the chunks
+ * themselves are read and decoded on demand, e.g. only the chunks
+ * intersecting a time interval:
+ * <pre>
+ * ColumnarReader reader = new ColumnarReader(name);
+ * int[] chunks = reader.findChunks(from,to);
+ * for (int i=0; i&lt;chunks.length; i++) {
+ *     ColumnarReader.Chunk chunk = reader.readChunk(chunks[i]);
+ *     ...
+ * }
+ * reader.close();
+ * </pre>
+ *
+ * @version 1.00	17.10.2026	first version
+ */
+public class ColumnarReader {
+
+	/**
+	 * Decoded chunk. The records are stored in the order of their reporting.
+	 */
+	public static class Chunk {
+		/**
+		 * Number of records.
+		 */
+		public final int size;
+		/**
+		 * Actions (see Reporter.NEW_OBJECT, MOVE_OBJECT, DEL_OBJECT).
+		 */
+		public final byte[] action;
+		/**
+		 * Object ids.
+		 */
+		public final long[] id;
+		/**
+		 * Object classes.
+		 */
+		public final int[] objClass;
+		/**
+		 * Time stamps.
+		 */
+		public final int[] time;
+		/**
+		 * Coordinates.
+		 */
+		public final double[] x, y;
+
+		/**
+		 * Constructor.
+		 * @param size number of records
+		 */
+		Chunk (int size) {
+			this.size = size;
+			action = new byte[size];
+			id = new long[size];
+			objClass = new int[size];
+			time = new int[size];
+			x = new double[size];
+			y = new double[size];
+		}
+	}
+
+	/**
+	 * The input channel.
+	 */
+	private FileChannel channel;
+	/**
+	 * Scale of the coordinates.
+	 */
+	private int scale;
+	/**
+	 * Number of chunks.
+	 */
+	private int numOfChunks;
+	/**
+	 * The footer (see ColumnarWriter).
+	 */
+	private ByteBuffer footer;
+
+/**
+ * Constructor; reads the header and the index of the chunks.
+ * @param  name  name of the file
+ * @exception  IOException  if the file cannot be read or has a wrong format
+ */
+public ColumnarReader (String name) throws IOException {
+	channel = new FileInputStream(name).getChannel();
+	try {
+		ByteBuffer header = read(0,12);
+		if (header.getInt() != ColumnarWriter.MAGIC)
+			throw new IOException(name+" is no columnar position file");
+		if (header.getInt() > ColumnarWriter.VERSION)
+			throw new IOException(name+" has an unknown version");
+		scale = header.getInt();
+		ByteBuffer trailer = read(channel.size()-16,16);
+		long footerPos = trailer.getLong();
+		numOfChunks = trailer.getInt();
+		if (trailer.getInt() != ColumnarWriter.MAGIC)
+			throw new IOException(name+" is incomplete");
+		footer = read(footerPos,numOfChunks*ColumnarWriter.ENTRY_SIZE);
+	}
+	catch (IOException ex) {
+		channel.close();
+		throw ex;
+	}
+}
+
+/**
+ * Closes the file.
+ * @exception  IOException  if the file cannot be closed
+ */
+public void close () throws IOException {
+	channel.close();
+}
+
+/**
+ * Determines the chunks containing records of a time interval.
+ * @return indices of the chunks in ascending order
+ * @param  fromTime  first time stamp
+ * @param  toTime  last time stamp
+ */
+public int[] findChunks (int fromTime, int toTime) {
+	int num = 0;
+	int[] chunks = new int[numOfChunks];
+	for (int c=0; c<numOfChunks; c++)
+		if (getMinTime(c) <= toTime && getMaxTime(c) >= fromTime)
+			chunks[num++] = c;
+	int[] result = new int[num];
+	System.arraycopy (chunks,0,result,0,num);
+	return result;
+}
+
+/**
+ * Returns the maximum time stamp of a chunk.
+ * @return time stamp
+ * @param  c  index of the chunk
+ */
+public int getMaxTime (int c) {
+	return footer.getInt(c*ColumnarWriter.ENTRY_SIZE+20);
+}
+
+/**
+ * Returns the maximum x-coordinate of a chunk.
+ * @return x-coordinate
+ * @param  c  index of the chunk
+ */
+public double getMaxX (int c) {
+	return footer.getDouble(c*ColumnarWriter.ENTRY_SIZE+40);
+}
+
+/**
+ * Returns the maximum y-coordinate of a chunk.
+ * @return y-coordinate
+ * @param  c  index of the chunk
+ */
+public double getMaxY (int c) {
+	return footer.getDouble(c*ColumnarWriter.ENTRY_SIZE+48);
+}
+
+/**
+ * Returns the minimum time stamp of a chunk.
+ * @return time stamp
+ * @param  c  index of the chunk
+ */
+public int getMinTime (int c) {
+	return footer.getInt(c*ColumnarWriter.ENTRY_SIZE+16);
+}
+
+/**
+ * Returns the minimum x-coordinate of a chunk.
+ * @return x-coordinate
+ * @param  c  index of the chunk
+ */
+public double getMinX (int c) {
+	return footer.getDouble(c*ColumnarWriter.ENTRY_SIZE+24);
+}
+
+/**
+ * Returns the minimum y-coordinate of a chunk.
+ * @return y-coordinate
+ * @param  c  index of the chunk
+ */
+public double getMinY (int c) {
+	return footer.getDouble(c*ColumnarWriter.ENTRY_SIZE+32);
+}
+
+/**
+ * Returns the number of chunks.
+ * @return number of chunks
+ */
+public int getNumOfChunks () {
+	return numOfChunks;
+}
+
+/**
+ * Returns the number of records of a chunk.
+ * @return number of records
+ * @param  c  index of the chunk
+ */
+public int getNumOfRecords (int c) {
+	return footer.getInt(c*ColumnarWriter.ENTRY_SIZE+12);
+}
+
+/**
+ * Returns the scale of the coordinates; the coordinates are multiples of 1/scale.
+ * @return scale
+ */
+public int getScale () {
+	return scale;
+}
+
+/**
+ * Reads bytes of the file.
+ * @return buffer containing the bytes
+ * @param  pos  position in the file
+ * @param  length  number of bytes
+ * @exception  IOException  if the bytes cannot be read
+ */
+private ByteBuffer read (long pos, int length) throws IOException {
+	ByteBuffer buf = ByteBuffer.allocate(length);
+	while (buf.hasRemaining())
+		if (channel.read(buf,pos+buf.position()) < 0)
+			throw new EOFException();
+	buf.flip();
+	return buf;
+}
+
+/**
+ * Reads and decodes a chunk.
+ * @return the chunk
+ * @param  c  index of the chunk
+ * @exception  IOException  if the chunk cannot be read
+ */
+public Chunk readChunk (int c) throws IOException {
+	ByteBuffer buf = read(footer.getLong(c*ColumnarWriter.ENTRY_SIZE),footer.getInt(c*ColumnarWriter.ENTRY_SIZE+8));
+	Chunk chunk = new Chunk(buf.getInt());
+	// action
+	buf.getInt();
+	buf.get(chunk.action);
+	// object id
+	buf.getInt();
+	long prev = 0;
+	for (int k=0; k<chunk.size; k++)
+		chunk.id[k] = prev += readZigZag(buf);
+	// object class
+	buf.getInt();
+	for (int k=0; k<chunk.size; k++)
+		chunk.objClass[k] = (int)readVarLong(buf);
+	// time
+	buf.getInt();
+	prev = 0;
+	for (int k=0; k<chunk.size; k++)
+		chunk.time[k] = (int)(prev += readZigZag(buf));
+	// x and y
+	buf.getInt();
+	prev = 0;
+	for (int k=0; k<chunk.size; k++)
+		chunk.x[k] = (double)(prev += readZigZag(buf))/scale;
+	buf.getInt();
+	prev = 0;
+	for (int k=0; k<chunk.size; k++)
+		chunk.y[k] = (double)(prev += readZigZag(buf))/scale;
+	return chunk;
+}
+
+/**
+ * Reads a varint (see ColumnarWriter).
+ * @return the number
+ * @param  buf  the buffer
+ */
+private static long readVarLong (ByteBuffer buf) {
+	long v = 0;
+	int shift = 0;
+	byte b;
+	do {
+		b = buf.get();
+		v |= (long)(b & 0x7F) << shift;
+		shift += 7;
+	} while (b < 0);
+	return v;
+}
+
+/**
+ * Reads a zig-zag encoded varint (see ColumnarWriter).
+ * @return the number
+ * @param  buf  the buffer
+ */
+private static long readZigZag (ByteBuffer buf) {
+	long v = readVarLong(buf);
+	return (v >>> 1) ^ -(v & 1);
+}
+
+}
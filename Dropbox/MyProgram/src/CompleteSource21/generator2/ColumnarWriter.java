@@ -0,0 +1,277 @@
+package generator2;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writer of reported positions in a columnar format, which is read by
+ * ColumnarReader. The positions are grouped into chunks; each chunk stores
+ * the columns action, object id, object class, time, x and y separately:
+ * <ul>
+ * <li>actions as bytes,
+ * <li>object classes as varints,
+ * <li>object ids and times as zig-zag encoded deltas to the previous record (varints),
+ * <li>coordinates as zig-zag encoded deltas of fixed-point values (varints).
+ * </ul>
+ * The coordinates are rounded to multiples of 1/scale.
+ * A footer stores for each chunk its position, its time interval and its MBR,
+ * so that a reader only needs to read the chunks of a time interval.
+ * <p>
+ * Layout of the file (all numbers in big-endian order):
+ * <pre>
+ * header:  int MAGIC, int VERSION, int scale
+ * chunk:   int number of records, for each column: int length, bytes
+ * footer:  for each chunk: long position, int length, int number of records,
+ *          int min. time, int max. time, double minX, minY, maxX, maxY
+ * trailer: long position of the footer, int number of chunks, int MAGIC
+ * </pre>
+ *
+ * @version 1.00	17.10.2026	first version
+ */
+public class ColumnarWriter {
+
+	/**
+	 * Identification of the file format.
+	 */
+	public static final int MAGIC = 0x4D434631;
+	/**
+	 * Version of the file format.
+	 */
+	public static final int VERSION = 1;
+	/**
+	 * Default scale of the coordinates.
+	 */
+	public static final int DEFAULT_SCALE = 1000;
+	/**
+	 * Default number of records of a chunk.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 65536;
+	/**
+	 * Size of a chunk entry of the footer in bytes.
+	 */
+	static final int ENTRY_SIZE = 56;
+
+	/**
+	 * Column of a chunk, encoded as bytes.
+	 */
+	private static class Column {
+		/**
+		 * The bytes.
+		 */
+		byte[] buf = new byte[1024];
+		/**
+		 * Number of used bytes.
+		 */
+		int len = 0;
+
+		/**
+		 * Appends a byte.
+		 * @param b the byte
+		 */
+		void putByte (int b) {
+			if (len == buf.length) {
+				byte[] newBuf = new byte[2*buf.length];
+				System.arraycopy (buf,0,newBuf,0,len);
+				buf = newBuf;
+			}
+			buf[len++] = (byte)b;
+		}
+		/**
+		 * Appends a non-negative number as varint (7 bits per byte, lowest bits first).
+		 * @param v the number
+		 */
+		void putVarLong (long v) {
+			while ((v & ~0x7FL) != 0) {
+				putByte ((int)(v & 0x7F) | 0x80);
+				v >>>= 7;
+			}
+			putByte ((int)v);
+		}
+		/**
+		 * Appends a signed number as zig-zag encoded varint.
+		 * @param v the number
+		 */
+		void putZigZag (long v) {
+			putVarLong ((v << 1) ^ (v >> 63));
+		}
+	}
+
+	/**
+	 * The output channel.
+	 */
+	private FileChannel channel;
+	/**
+	 * Scale of the coordinates.
+	 */
+	private final int scale;
+	/**
+	 * Maximum number of records of a chunk.
+	 */
+	private final int chunkSize;
+	/**
+	 * Columns of the current chunk.
+	 */
+	private final byte[] action;
+	private final long[] id;
+	private final int[] objClass;
+	private final int[] time;
+	private final long[] x, y;
+	/**
+	 * Number of records of the current chunk.
+	 */
+	private int size = 0;
+	/**
+	 * Encoded columns.
+	 */
+	private final Column[] column = new Column[6];
+	/**
+	 * The footer.
+	 */
+	private Column footer = new Column();
+	/**
+	 * Number of written chunks.
+	 */
+	private int numOfChunks = 0;
+
+/**
+ * Constructor; writes the header.
+ * @param  name  name of the output file
+ * @param  scale  scale of the coordinates
+ * @param  chunkSize  maximum number of records of a chunk
+ * @exception  IOException  if the file cannot be written
+ */
+public ColumnarWriter (String name, int scale, int chunkSize) throws IOException {
+	this.scale = scale;
+	this.chunkSize = chunkSize;
+	action = new byte[chunkSize];
+	id = new long[chunkSize];
+	objClass = new int[chunkSize];
+	time = new int[chunkSize];
+	x = new long[chunkSize];
+	y = new long[chunkSize];
+	for (int i=0; i<column.length; i++)
+		column[i] = new Column();
+	channel = new FileOutputStream(name).getChannel();
+	ByteBuffer header = ByteBuffer.allocate(12);
+	header.putInt(MAGIC).putInt(VERSION).putInt(scale);
+	header.flip();
+	write (header);
+}
+
+/**
+ * Adds a position (see PositionReporter.print).
+ * @param  action  the action of the object
+ * @param  id  object id
+ * @param  repNum  report number (not stored)
+ * @param  objClass  object class
+ * @param  time  time stamp
+ * @param  x  current x-coordinate
+ * @param  y  current y-coordinate
+ * @param  speed  current speed (not stored)
+ * @param  doneDist  the distance since the last reporting (not stored)
+ * @param  nextNodeX  x-coordinate of the next node (not stored)
+ * @param  nextNodeY  y-coordinate of the next node (not stored)
+ * @exception  IOException  if the file cannot be written
+ */
+public void add (byte action, long id, int repNum, int objClass, int time, double x, double y, double speed, double doneDist, int nextNodeX, int nextNodeY) throws IOException {
+	this.action[size] = action;
+	this.id[size] = id;
+	this.objClass[size] = objClass;
+	this.time[size] = time;
+	this.x[size] = Math.round(x*scale);
+	this.y[size] = Math.round(y*scale);
+	if (++size == chunkSize)
+		writeChunk();
+}
+
+/**
+ * Writes the last chunk and the footer and closes the file.
+ * @exception  IOException  if the file cannot be written
+ */
+public void close () throws IOException {
+	if (channel == null)
+		return;
+	try {
+		if (size > 0)
+			writeChunk();
+		long footerPos = channel.position();
+		write (ByteBuffer.wrap(footer.buf,0,footer.len));
+		ByteBuffer trailer = ByteBuffer.allocate(16);
+		trailer.putLong(footerPos).putInt(numOfChunks).putInt(MAGIC);
+		trailer.flip();
+		write (trailer);
+	}
+	finally {
+		channel.close();
+		channel = null;
+	}
+}
+
+/**
+ * Writes the remaining bytes of a buffer into the channel.
+ * @param  buf  the buffer
+ * @exception  IOException  if the writing fails
+ */
+private void write (ByteBuffer buf) throws IOException {
+	while (buf.hasRemaining())
+		channel.write(buf);
+}
+
+/**
+ * Encodes the current chunk, writes it and adds its entry to the footer.
+ * @exception  IOException  if the file cannot be written
+ */
+private void writeChunk () throws IOException {
+	for (int i=0; i<column.length; i++)
+		column[i].len = 0;
+	int minTime = Integer.MAX_VALUE, maxTime = Integer.MIN_VALUE;
+	long minX = Long.MAX_VALUE, minY = Long.MAX_VALUE, maxX = Long.MIN_VALUE, maxY = Long.MIN_VALUE;
+	long prevId = 0, prevX = 0, prevY = 0;
+	int prevTime = 0;
+	for (int k=0; k<size; k++) {
+		column[0].putByte(action[k]);
+		column[1].putZigZag(id[k]-prevId);
+		column[2].putVarLong(objClass[k]);
+		column[3].putZigZag(time[k]-prevTime);
+		column[4].putZigZag(x[k]-prevX);
+		column[5].putZigZag(y[k]-prevY);
+		prevId = id[k];
+		prevTime = time[k];
+		prevX = x[k];
+		prevY = y[k];
+		minTime = Math.min(minTime,time[k]);
+		maxTime = Math.max(maxTime,time[k]);
+		minX = Math.min(minX,x[k]);
+		maxX = Math.max(maxX,x[k]);
+		minY = Math.min(minY,y[k]);
+		maxY = Math.max(maxY,y[k]);
+	}
+	int length = 4;
+	for (int i=0; i<column.length; i++)
+		length += 4+column[i].len;
+	ByteBuffer buf = ByteBuffer.allocate(4+4*column.length);
+	buf.putInt(size);
+	for (int i=0; i<column.length; i++)
+		buf.putInt(column[i].len);
+	long pos = channel.position();
+	// count and the lengths of the columns, which are written in front of each column
+	buf.flip();
+	buf.limit(4);
+	write (buf);
+	for (int i=0; i<column.length; i++) {
+		buf.limit(8+4*i);
+		write (buf);
+		write (ByteBuffer.wrap(column[i].buf,0,column[i].len));
+	}
+	// entry of the footer
+	ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+	entry.putLong(pos).putInt(length).putInt(size).putInt(minTime).putInt(maxTime);
+	entry.putDouble((double)minX/scale).putDouble((double)minY/scale).putDouble((double)maxX/scale).putDouble((double)maxY/scale);
+	for (int i=0; i<ENTRY_SIZE; i++)
+		footer.putByte(entry.get(i));
+	numOfChunks++;
+	size = 0;
+}
+
+}
@@ -10,8 +10,10 @@ import java.util.Enumeration;
 import java.util.Properties;
 
 import routing.BorderHeap;
+import routing.CompactGraph;
 import routing.Edge;
 import routing.Edges;
+import routing.Landmarks;
 import routing.Network;
 import routing.Node;
 import routing.Nodes;
@@ -33,6 +35,16 @@ import drawables.DrawableSymbol;
  * subclasses as Java applications. See the additional documentation for the
  * supported properties in the property file.
  * 
+ * @version 2.20 17.10.2026 grid of the external objects over the dataspace
+ * @version 2.19 17.10.2026 weight cache, switched off by property noWeightCache
+ * @version 2.18 17.10.2026 packed store of the moving objects with property packedObjects
+ * @version 2.17 17.10.2026 in-process generation by run, main as wrapper
+ * @version 2.16 17.10.2026 keyed random streams with property threads
+ * @version 2.15 17.10.2026 parallel time stamps with property threads
+ * @version 2.14 17.10.2026 ALT landmarks with property useALT
+ * @version 2.13 17.10.2026 customizable route planning with property useCRP
+ * @version 2.12 17.10.2026 contraction hierarchies with property useCH
+ * @version 2.11 17.10.2026 heap timing only with property heapTiming
  * @version 2.10 19.08.2003 considering null routes, tuned
  * @version 2.00 04.09.2001 complete revision
  * @version 1.22 15.06.2001 report of external objects added
@@ -90,6 +102,16 @@ public abstract class DataGenerator extends ShowNetworkMap {
 	 * The reporter.
 	 */
 	protected Reporter reporter = null;
+	/**
+	 * Receiver of the positions if the generator runs in-process (may be null).
+	 */
+	protected ResultSink sink = null;
+	/**
+	 * Names of the properties containing the parameters of the generation.
+	 */
+	public static final String[] PARAMETERS = { "objBegin", "extObjBegin",
+			"objPerTime", "extObjPerTime", "numObjClasses", "numExtObjClasses",
+			"maxTime", "reportProb", "msd" };
 
 	/**
 	 * Property file error
@@ -186,10 +208,6 @@ public abstract class DataGenerator extends ShowNetworkMap {
 	 */
 	private String reportProbText = null;
 
-	private static String networkFileName = null;
-
-	private static boolean computeDone = false;
-
 	private static boolean applicationReady = false;
 
 	public static void main(String nameOfApplet) {
@@ -197,43 +215,32 @@ public abstract class DataGenerator extends ShowNetworkMap {
 	}
 
 	/**
-	 * main entrypoint - starts the part when it is run as an application
+	 * main entrypoint - starts the part when it is run as an application.
+	 * Reads the property file of the request and calls
+	 * DefaultDataGenerator.generate.
 	 * 
 	 * @param nameOfApplet
 	 *            complete name of the calling subclass
+	 * @param args
+	 *            request id, base name of the network files, and the
+	 *            parameters in the order of PARAMETERS
 	 */
 	public static void main(String nameOfApplet, String[] args) {
 		try {
 			String requestid = args[0];
-			DataGenerator.networkFileName = "file:" + args[1];
-
-			propFilename = "/home/yackel/TrafficGenerator/"+requestid+"/properties.txt";
-
-			// frame = new Frame("Network Generator");
-			final DataGenerator aDataGenerator;
-			aDataGenerator = new DefaultDataGenerator();
-			/*
-			 * // aDataGenerator = new DefaultDataGenerator();
-			 * frame.add("Center", aDataGenerator); Dimension size =
-			 * aDataGenerator.getSize(); size.setSize(size.width + 10,
-			 * size.height + 50); frame.setSize(size); // add a windowListener
-			 * for the windowClosedEvent frame.addWindowListener(new
-			 * WindowAdapter() { public void windowClosing(WindowEvent e) {
-			 * System.exit(0); }; }); frame.setVisible(false);
-			 */
-
-			aDataGenerator.init();
-
-			Thread.sleep(5000);
-
-			setTextFieldValues(aDataGenerator, args);
-
-			aDataGenerator.compute();
-			System.out.println(MAX_OBJBEGIN);
-			while (!computeDone) {
-				Thread.sleep(200);
+			propFilename = "/home/yackel/TrafficGenerator/" + requestid
+					+ "/properties.txt";
+			Properties properties = new Properties();
+			FileInputStream in = new FileInputStream(propFilename);
+			try {
+				properties.load(in);
+			} finally {
+				in.close();
 			}
-
+			for (int i = 0; i < PARAMETERS.length; i++)
+				properties.setProperty(PARAMETERS[i], args[i + 2]);
+			if (!DefaultDataGenerator.generate(properties, args[1], null))
+				System.exit(NETWORKFILE_ERROR);
 			System.exit(0);
 		} catch (Throwable exception) {
 			exception.printStackTrace();
@@ -241,17 +248,39 @@ public abstract class DataGenerator extends ShowNetworkMap {
 		}
 	}
 
-	private static void setTextFieldValues(DataGenerator dataGenerator,
-			String[] args) {
-		dataGenerator.setObjBeginText(args[2]);
-		dataGenerator.setExtobjBeginText(args[3]);
-		dataGenerator.setObjPerTimeText(args[4]);
-		dataGenerator.setExtobjPerTimeText(args[5]);
-		dataGenerator.setNumObjClassesText(args[6]);
-		dataGenerator.setNumExtObjClassesText(args[7]);
-		dataGenerator.setMaxTimeText(args[8]);
-		dataGenerator.setReportProbText(args[9]);
-		dataGenerator.setMsdText(args[10]);
+	/**
+	 * Computes a dataset in the calling thread, without loading thread and
+	 * application frame. The parameters of the generation are taken from the
+	 * properties named by PARAMETERS. The positions are passed to the sink;
+	 * without a sink, the reporter of createReporter is used.
+	 * 
+	 * @param properties
+	 *            properties of the generator
+	 * @param net
+	 *            the network
+	 * @param objects
+	 *            container of the drawable objects of the network
+	 * @param sink
+	 *            receiver of the positions (may be null)
+	 */
+	public void run(Properties properties, Network net,
+			DrawableObjects objects, ResultSink sink) {
+		this.properties = properties;
+		this.net = net;
+		this.drawableObjects = objects;
+		this.sink = sink;
+		edgeClasses = createEdgeClasses(properties);
+		initDrawablePresentation();
+		setObjBeginText(properties.getProperty(PARAMETERS[0]));
+		setExtobjBeginText(properties.getProperty(PARAMETERS[1]));
+		setObjPerTimeText(properties.getProperty(PARAMETERS[2]));
+		setExtobjPerTimeText(properties.getProperty(PARAMETERS[3]));
+		setNumObjClassesText(properties.getProperty(PARAMETERS[4]));
+		setNumExtObjClassesText(properties.getProperty(PARAMETERS[5]));
+		setMaxTimeText(properties.getProperty(PARAMETERS[6]));
+		setReportProbText(properties.getProperty(PARAMETERS[7]));
+		setMsdText(properties.getProperty(PARAMETERS[8]));
+		compute();
 	}
 
 	/**
@@ -322,8 +351,12 @@ public abstract class DataGenerator extends ShowNetworkMap {
 						true));
 		boolean extObjectsExist = extObjGen.externalObjectsExist();
 		if (extObjectsExist && (extObjects == null))
-			extObjects = new ExternalObjects(properties, time, extObjClasses);
-		reporter = createReporter(properties, drawableObjects);
+			extObjects = new ExternalObjects(properties, time, extObjClasses,
+					dataspace);
+		if (sink != null)
+			reporter = new SinkReporter(properties, drawableObjects, sink);
+		else
+			reporter = createReporter(properties, drawableObjects);
 
 		WeightManagerForDataGenerator wm = null;
 		if (extObjectsExist)
@@ -333,6 +366,16 @@ public abstract class DataGenerator extends ShowNetworkMap {
 			wm = new WeightManagerForDataGenerator(edgeClasses, objClasses,
 					null);
 		edges.setWeightManager(wm);
+		if (properties.getProperty("noWeightCache") == null)
+			wm.useWeightCache(net.getCompactGraph());
+		if (properties.getProperty("useALT") != null) {
+			CompactGraph graph = net.getCompactGraph();
+			double[] freeFlow = wm.computeFreeFlowWeights(graph);
+			String base = getLocalNetworkBaseName();
+			net.setLandmarks(Landmarks.loadOrCreate(graph, freeFlow, freeFlow,
+					Landmarks.DEFAULT_NUMBER, (base == null) ? null : base + ".lmk"));
+		} else
+			net.setLandmarks(null);
 		ReRoute reroute = createReRoute(properties, time, dataspace);
 		ObjectGenerator objGen = createObjectGenerator(
 				properties,
@@ -345,6 +388,14 @@ public abstract class DataGenerator extends ShowNetworkMap {
 				getValueOfTextField(getObjBeginText(), 0, MAX_OBJBEGIN, true));
 		MovingObjects movingObjects = new MovingObjects(wm, net, objGen,
 				reporter, reroute);
+		if ((properties.getProperty("useCH") != null)
+				&& !movingObjects.useContractionHierarchies(getLocalNetworkBaseName()))
+			System.err.println("useCH ignored: weights are not static");
+		if (properties.getProperty("useCRP") != null)
+			movingObjects.useCustomizableRoutes();
+		if (properties.getProperty("packedObjects") != null)
+			movingObjects.usePackedStore();
+		movingObjects.useThreads(getProperty("threads", 0));
 		// the time starts
 		showStatus("generate data, please wait...");
 		util.Timer.reset(1);
@@ -370,7 +421,9 @@ public abstract class DataGenerator extends ShowNetworkMap {
 			}
 			// generate new moving objects
 			int numOfNewObjects = objGen.numberOfNewObjects(actTime);
-			for (int i = 0; i < numOfNewObjects; i++) {
+			if (movingObjects.isSharded())
+				createObjectsInParallel(numOfNewObjects, objGen, movingObjects);
+			else for (int i = 0; i < numOfNewObjects; i++) {
 				// for each new moving object, determine its properties and
 				// create it, ...
 				int id = objGen.computeId(actTime);
@@ -415,8 +468,6 @@ public abstract class DataGenerator extends ShowNetworkMap {
 			// to the next time stamp
 			time.increaseCurrTime();
 			actTime = time.getCurrTime();
-			if (actTime % 25 == 0)
-				System.gc();
 			// wait
 			if (waitingPeriod > 0)
 				try {
@@ -470,9 +521,11 @@ public abstract class DataGenerator extends ShowNetworkMap {
 		reporter.reportDouble("total time/point: ",
 				((double) totalTime / reporter.getNumberOfReportedPoints()));
 		reporter.reportDouble("routing time in ms: ", routingTime);
-		reporter.reportDouble("insert time: ", BorderHeap.insertTimer.get());
-		reporter.reportDouble("fetch time:  ", BorderHeap.fetchTimer.get());
-		reporter.reportDouble("change time: ", BorderHeap.changeTimer.get());
+		if (BorderHeap.isTiming()) {
+			reporter.reportDouble("insert time: ", BorderHeap.insertTimer.get());
+			reporter.reportDouble("fetch time:  ", BorderHeap.fetchTimer.get());
+			reporter.reportDouble("change time: ", BorderHeap.changeTimer.get());
+		}
 		reporter.reportDouble("routing time/obj: ",
 				((double) routingTime / movingObjects.getTotalNumOfObjects()));
 		reporter.reportDouble("routing time/point: ",
@@ -509,7 +562,48 @@ public abstract class DataGenerator extends ShowNetworkMap {
 		// this.addTimeButton.setEnabled(true);
 		// repaint();
 		// showStatus("ready...");
-		computeDone = true;
+	}
+
+	/**
+	 * Creates new moving objects if the objects are sharded. The properties of
+	 * the objects are determined first, then their routes are computed in
+	 * parallel. For objects without a valid route, new starting and destination
+	 * nodes are determined and the routes are computed by the calling thread.
+	 * 
+	 * @param numOfNewObjects
+	 *            number of new objects
+	 * @param objGen
+	 *            the object generator
+	 * @param movingObjects
+	 *            the container of the moving objects
+	 */
+	private void createObjectsInParallel(int numOfNewObjects,
+			ObjectGenerator objGen, MovingObjects movingObjects) {
+		MovingObject[] newObjs = new MovingObject[numOfNewObjects];
+		for (int i = 0; i < numOfNewObjects; i++) {
+			int id = objGen.computeId(actTime);
+			int objClass = objGen.computeObjectClass(actTime);
+			Node start = objGen.computeStartingNode(actTime, objClass);
+			Node dest = objGen.computeDestinationNode(actTime, start,
+					objGen.computeLengthOfRoute(actTime, objClass), objClass);
+			newObjs[i] = new MovingObject(id, objClass, start, dest, actTime);
+			newObjs[i].addToContainer(movingObjects);
+		}
+		boolean[] routed = movingObjects.computeRoutes(newObjs);
+		for (int i = 0; i < numOfNewObjects; i++) {
+			MovingObject obj = newObjs[i];
+			int objClass = obj.getObjectClass();
+			Node start = obj.getStartingNode();
+			if (!routed[i])
+				while (!obj.computeRoute()) {
+					obj.setStart(objGen.computeStartingNode(actTime, objClass));
+					obj.setDestination(objGen.computeDestinationNode(actTime,
+							start,
+							objGen.computeLengthOfRoute(actTime, objClass),
+							objClass));
+				}
+			obj.reportNewObject(reporter);
+		}
 	}
 
 	/**
@@ -717,9 +811,6 @@ public abstract class DataGenerator extends ShowNetworkMap {
 			System.exit(PROPERTY_FILE_ERROR);
 		}
 
-		if (networkFileName != null) {
-			properties.setProperty("urlne", networkFileName);
-		}
 		// init drawable objects
 		edgeClasses = createEdgeClasses(properties);
 		if (drawableObjects == null)
@@ -772,6 +863,7 @@ public abstract class DataGenerator extends ShowNetworkMap {
 		MAX_EXTOBJBEGIN = getProperty("MAX_EXTOBJBEGIN", MAX_EXTOBJBEGIN);
 
 		waitingPeriod = getProperty("waitingPeriod", waitingPeriod);
+		BorderHeap.setTiming(properties.getProperty("heapTiming") != null);
 		// evaluate showmap parameters
 		baseScaleFactor = getProperty("baseScaleFactor", 1);
 		minScale = getProperty("minScale", minScale);
@@ -910,6 +1002,23 @@ public abstract class DataGenerator extends ShowNetworkMap {
 		new LoadDrawables(this, url, 0).start();
 	}
 
+	/**
+	 * Returns the path and base name of the network files if the network is
+	 * read from unzipped local files (property "urlne"); otherwise null.
+	 * 
+	 * @return base name or null
+	 */
+	protected String getLocalNetworkBaseName() {
+		String filename = properties.getProperty("urlne");
+		if (filename == null)
+			return null;
+		URL url = computeURL(filename + ".node");
+		if ((url == null) || !"file".equals(url.getProtocol()))
+			return null;
+		String path = url.getPath();
+		return path.substring(0, path.length() - ".node".length());
+	}
+
 	/**
 	 * Sets the viewpoint to the value predefined by the parameters.
 	 */
@@ -2,14 +2,18 @@ package generator2;
 
 import java.util.Properties;
 
+import routing.Network;
 import routing.Nodes;
+import spatial.MemoryRTree;
 import drawables.DrawableObjects;
+import drawables.DrawableObjectsWithSearchTree;
 
 /**
  * Default controller applet for the computation of network-based spatiotemporal
  * datasets. generator2.PositionReporter is used. It is also possible to run
  * this class as Java application.
  * 
+ * @version 2.02 17.10.2026 generate for in-process calls
  * @version 2.01 03.09.2003 call of PositionGenerator, makeAbsolute
  * @version 2.00 07.07.2001 separated from the class "DataGenerator"
  * @author FH Oldenburg
@@ -148,17 +152,40 @@ public class DefaultDataGenerator extends DataGenerator {
 		return new ReRoute(properties, time, ds);
 	}
 
+	/**
+	 * Reads the network files and computes a dataset in the calling thread
+	 * (see DataGenerator.run).
+	 * 
+	 * @return false if the network files cannot be read
+	 * @param properties
+	 *            properties of the generator including the parameters
+	 * @param networkBaseName
+	 *            path and base name of the network files
+	 * @param sink
+	 *            receiver of the positions (may be null)
+	 */
+	public static boolean generate(Properties properties,
+			String networkBaseName, ResultSink sink) {
+		DefaultDataGenerator dataGenerator = new DefaultDataGenerator();
+		DrawableObjects objects = new DrawableObjectsWithSearchTree(
+				dataGenerator.numOfLayers, new MemoryRTree());
+		Network net = new Network();
+		if (!net.createByNetworkFiles(networkBaseName, objects))
+			return false;
+		if (properties.getProperty("urlne") == null)
+			properties.setProperty("urlne", "file:" + networkBaseName);
+		dataGenerator.run(properties, net, objects, sink);
+		return true;
+	}
+
 	/**
 	 * main entrypoint - starts the part when it is run as an application
 	 * 
 	 * @param args
-	 *            args[0] = name of the property file
+	 *            request id, base name of the network files, and the
+	 *            parameters of the generation
 	 */
 	public static void main(java.lang.String[] args) {
-		String requestid = args[1];
-		if ((args.length > 0) && (args[0] != null)) {
-			propFilename = makeAbsolute(args[0]);
-		}
 		main("generator2.DefaultDataGenerator", args);
 	}
 
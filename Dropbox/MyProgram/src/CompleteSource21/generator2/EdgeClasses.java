@@ -6,6 +6,9 @@ import java.util.Properties;
 /**
  * Definition of the properties of the classes of the network edges.
  *
+ * @version 2.21	17.10.2026	deceleratedSpeed derived from getCongestionLevel
+ * @version 2.20	17.10.2026	getCongestionLevel added
+ * @version 2.10	17.10.2026	property noCongestion added
  * @version 2.01	19.08.2003	capacities reduced, minimum scales modified
  * @version 2.00	04.09.2001	revision for generator v2.0
  * @version 1.20	07.05.2001	maxSpeedDivisor added
@@ -49,6 +52,10 @@ public class EdgeClasses {
 	 * Color of the edge classes.
 	 */
 	protected Color color[] = null;
+	/**
+	 * Is the speed decelerated on congested edges?
+	 */
+	protected boolean congestion = true;
 
 /**
  * EdgeClasses constructor. Is called by the init method of the DataGenerator.
@@ -58,6 +65,7 @@ public class EdgeClasses {
 public EdgeClasses (Properties properties) {
 	// the following code may be modified
 	this.properties = properties;
+	this.congestion = (properties == null) || (properties.getProperty("noCongestion") == null);
 	this.num = 8;
 	// maximum speed
 	maxSpeed = new int[num]; // the values in the array are calculated in the method announceDataspace
@@ -110,29 +118,17 @@ public void announce (Time time, DataSpace ds, int maxSpeedDivisor) {
 }
 /**
  * Computes the decelerated speed of an edge class depending on the usage and the capacity
- * of the edge.
+ * of the edge: the maximum speed is halved per congestion level (see getCongestionLevel).
  * @return decelerated speed
  * @param c edge class
  * @param edgeUsage usage of the edge
  */
 public int deceleratedSpeed (int c, int edgeUsage) {
 	//return maxSpeed[c];   // <- for no speed deceleration
+	if (!congestion)
+		return getMaxSpeed(c);
 	if ((c >= 0) && (c < num))
-		if (edgeUsage <= capacity[c])
-			return maxSpeed[c];
-		else {
-			// the computation of the decreased speed may be changed
-			int speed = maxSpeed[c];
-			if ((speed > 1) && (edgeUsage-capacity[c] > 0)) {
-				edgeUsage -= capacity[c];
-				speed = speed / 2;
-			}
-			if ((speed > 1) && (edgeUsage-capacity[c] > 0)) {
-				edgeUsage -= capacity[c];
-				speed = speed / 2;
-			}
-			return speed;
-		}
+		return maxSpeed[c] >> getCongestionLevel(c,edgeUsage);
 	else
 		return 0;
 }
@@ -147,6 +143,28 @@ public int getCapacity (int c) {
 	else
 		return 0;
 }
+/**
+ * Returns the number of halvings of the speed of an edge class depending on
+ * the usage (see deceleratedSpeed). The decelerated speed only changes if the
+ * level changes. The computation of the decreased speed may be changed here.
+ * @return congestion level (0..2)
+ * @param c edge class
+ * @param edgeUsage usage of the edge
+ */
+public int getCongestionLevel (int c, int edgeUsage) {
+	if (!congestion || (c < 0) || (c >= num) || (edgeUsage <= capacity[c]))
+		return 0;
+	int level = 0;
+	int speed = maxSpeed[c];
+	if ((speed > 1) && (edgeUsage-capacity[c] > 0)) {
+		edgeUsage -= capacity[c];
+		speed = speed / 2;
+		level++;
+	}
+	if ((speed > 1) && (edgeUsage-capacity[c] > 0))
+		level++;
+	return level;
+}
 /**
  * Returns the color for depicting an edge class.
  * @return color of class c
@@ -169,6 +187,14 @@ public int getMaxSpeed (int c) {
 	else
 		return 0;
 }
+/**
+ * Returns whether the speed is decelerated on congested edges.
+ * Can be switched off by the property "noCongestion".
+ * @return congestion enabled?
+ */
+public boolean isCongestionEnabled () {
+	return congestion;
+}
 /**
  * Returns the maximum speed divisor.
  * @return maximum speed divisor
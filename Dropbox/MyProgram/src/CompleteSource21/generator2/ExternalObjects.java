@@ -1,12 +1,20 @@
 package generator2;
 
+import java.awt.Rectangle;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import routing.*;
 import spatial.*;
 
 /**
  * Container class for all external objects.
+ * The objects are stored in a vector and indexed by a uniform grid over the
+ * dataspace; each cell lists the objects whose MBRs overlap the cell.
+ * computeDecrease only inspects the cells covered by the MBR of the edge.
  *
+ * @version 2.30	17.10.2026	grid index instead of an R-tree
+ * @version 2.20	17.10.2026	modification count added
+ * @version 2.10	17.10.2026	computeDecrease thread-safe
  * @version 2.02	05.04.2003	adapted to ST_RegionQuery
  * @version 2.01	06.10.2002	adapted to MBR
  * @version 2.00	03.09.2001	revision for generator v2.0
@@ -18,6 +26,11 @@ import spatial.*;
 
 public class ExternalObjects {
 
+	/**
+	 * Number of grid cells per dimension.
+	 */
+	private static final int GRID_SIZE = 64;
+
 	/**
 	 * The properties of the generator.
 	 */
@@ -33,26 +46,26 @@ public class ExternalObjects {
 	private ExternalObjectClasses objClasses;
 
 	/**
-	 * R-tree storing all external objects.
+	 * Vector storing all external objects.
 	 */
-	private MemoryRTree objs = null;
+	private Vector objs = new Vector (200,200);
 	/**
 	 * Vector temporarily storing the dead external objects.
 	 */
 	private Vector deadObjs = new Vector (20,20);
+
 	/**
-	 * Vector temporarily storing the living external objects.
+	 * Origin and extension of the grid.
 	 */
-	private Vector moveObjs = new Vector (200,200);
-
+	private int minX, minY, width, height;
 	/**
-	 * Query for determining all external objects.
+	 * Objects of the grid cells (cell index = y*GRID_SIZE+x).
 	 */
-	private RegionQuery allQuery = new RegionQuery(new AllQuery());
+	private ExternalObject[][] cell = new ExternalObject[GRID_SIZE*GRID_SIZE][];
 	/**
-	 * Query for determining external objects intersecting a window.
+	 * Number of objects in the grid cells.
 	 */
-	private RegionQuery intersectionQuery = new RegionQuery(new WindowQuery());
+	private int[] cellSize = new int[GRID_SIZE*GRID_SIZE];
 
 	/**
 	 * The number of created external objects.
@@ -61,23 +74,31 @@ public class ExternalObjects {
 	/**
 	 * The number of computed decreases.
 	 */
-	private long decNum = 0;
+	private AtomicLong decNum = new AtomicLong();
 	/**
 	 * The number of real decreases.
 	 */
-	private long realDecNum = 0;
+	private AtomicLong realDecNum = new AtomicLong();
+	/**
+	 * The number of changes of the set or the MBRs of the objects.
+	 */
+	private int modCount = 0;
 
 /**
  * MovingObjects constructor.
  * @param properties properties of the generator
  * @param time the time object
  * @param objClasses description of the external object classes
+ * @param dataspace the dataspace covered by the grid
  */
-public ExternalObjects (Properties properties, Time time, ExternalObjectClasses objClasses) {
+public ExternalObjects (Properties properties, Time time, ExternalObjectClasses objClasses, DataSpace dataspace) {
 	this.properties = properties;
 	this.time = time;
 	this.objClasses = objClasses;
-	objs = new MemoryRTree();
+	minX = dataspace.getMinX();
+	minY = dataspace.getMinY();
+	width = dataspace.getMaxX()-minX+1;
+	height = dataspace.getMaxY()-minY+1;
 	util.Timer.reset(7);
 }
 /**
@@ -86,52 +107,98 @@ public ExternalObjects (Properties properties, Time time, ExternalObjectClasses
  */
 protected void add (ExternalObject obj) {
 	util.Timer.start(7);
-	objs.insert(obj);
+	objs.addElement(obj);
+	insertIntoGrid(obj);
 	totalNum++;
+	modCount++;
 	util.Timer.stop(7);
 }
+/**
+ * Computes the grid column of an x-coordinate; coordinates outside of the
+ * dataspace are assigned to the border cells.
+ * @return column
+ * @param x the x-coordinate
+ */
+private int computeColumn (int x) {
+	return computeGridCoord (x-minX,width);
+}
 /**
  * Computes the decrease of speed on the given edge by external objects.
+ * May be called by several threads at the same time.
  * @return decrease in per cent
  * @param edge the edge
  */
 public int computeDecrease (Edge edge) {
 	util.Timer.start(7);
-	decNum++;
+	decNum.incrementAndGet();
 	// if no object exists, no decrease
-	if (objs.getTotalNumberOfObjects()==0) {
+	if (objs.size()==0) {
 		util.Timer.stop(7);
 		return 100;
 	}
-	// find intersecting external object(s) and determine highest decrease
-	intersectionQuery.initWithRect (objs,new MBR(edge.getMBR()));
+	// find intersecting external object(s) in the covered cells and determine highest decrease
+	Rectangle r = edge.getMBR();
+	int x1 = computeColumn(r.x), x2 = computeColumn(r.x+r.width);
+	int y1 = computeRow(r.y), y2 = computeRow(r.y+r.height);
 	int minFactor = 100;
-	ExternalObject extObj = (ExternalObject)intersectionQuery.getNextObject();
-	while (extObj != null) {
-		int decF = objClasses.getDecreasingFactor(extObj.getObjectClass());
-		if (decF < minFactor) {
-			minFactor = decF;
+	for (int y=y1; y<=y2; y++)
+		for (int x=x1; x<=x2; x++) {
+			int c = y*GRID_SIZE+x;
+			for (int k=0; k<cellSize[c]; k++) {
+				ExternalObject extObj = cell[c][k];
+				int decF = objClasses.getDecreasingFactor(extObj.getObjectClass());
+				if ((decF < minFactor) && intersects(extObj.getMBR(),r))
+					minFactor = decF;
+			}
 		}
-		extObj = (ExternalObject)intersectionQuery.getNextObject();
-	}
 	if (minFactor < 100)
-		realDecNum++;
+		realDecNum.incrementAndGet();
 	util.Timer.stop(7);
 	return minFactor;
 }
+/**
+ * Computes the grid coordinate of a coordinate relative to the origin.
+ * @return grid coordinate (0 .. GRID_SIZE-1)
+ * @param d relative coordinate
+ * @param extension extension of the dataspace
+ */
+private static int computeGridCoord (int d, int extension) {
+	if (d <= 0 || extension <= 0)
+		return 0;
+	if (d >= extension)
+		return GRID_SIZE-1;
+	return (int)((long)d*GRID_SIZE/extension);
+}
+/**
+ * Computes the grid row of a y-coordinate; coordinates outside of the
+ * dataspace are assigned to the border cells.
+ * @return row
+ * @param y the y-coordinate
+ */
+private int computeRow (int y) {
+	return computeGridCoord (y-minY,height);
+}
+/**
+ * Returns the number of changes of the set or the MBRs of the objects.
+ * The results of computeDecrease only change if this number changes.
+ * @return modification count
+ */
+public int getModCount () {
+	return modCount;
+}
 /**
  * Returns the number of computed decreases.
  * @return number
  */
 public long getNumOfComputedDecreases () {
-	return decNum;
+	return decNum.get();
 }
 /**
  * Returns the number of real decreases.
  * @return number
  */
 public long getNumOfRealDecreases () {
-	return realDecNum;
+	return realDecNum.get();
 }
 /**
  * Returns the description of the external object classes.
@@ -161,6 +228,38 @@ public int getTotalNumOfObjects () {
 public long getUsedTime () {
 	return util.Timer.get(7);
 }
+/**
+ * Inserts an external object into the cells covered by its MBR.
+ * @param obj external object
+ */
+private void insertIntoGrid (ExternalObject obj) {
+	MBR mbr = obj.getMBR();
+	int x1 = computeColumn(mbr.min(MBR.X)), x2 = computeColumn(mbr.max(MBR.X));
+	int y1 = computeRow(mbr.min(MBR.Y)), y2 = computeRow(mbr.max(MBR.Y));
+	for (int y=y1; y<=y2; y++)
+		for (int x=x1; x<=x2; x++) {
+			int c = y*GRID_SIZE+x;
+			if (cell[c] == null)
+				cell[c] = new ExternalObject[4];
+			else if (cellSize[c] == cell[c].length) {
+				ExternalObject[] newCell = new ExternalObject[2*cellSize[c]];
+				System.arraycopy (cell[c],0,newCell,0,cellSize[c]);
+				cell[c] = newCell;
+			}
+			cell[c][cellSize[c]++] = obj;
+		}
+}
+/**
+ * Determines whether the MBR of an external object and the MBR of an edge
+ * intersect (see MBR.intersects).
+ * @return true if the MBRs intersect
+ * @param mbr MBR of the external object
+ * @param r MBR of the edge
+ */
+private static boolean intersects (MBR mbr, Rectangle r) {
+	return (r.x+r.width > mbr.min(MBR.X)) && (r.x < mbr.max(MBR.X)) &&
+		(r.y+r.height > mbr.min(MBR.Y)) && (r.y < mbr.max(MBR.Y));
+}
 /**
  * Updates (moves and resizes) all external objects.
  * @param  time  the current time stamp
@@ -169,68 +268,61 @@ public long getUsedTime () {
  */
 public void moveAndResizeAndRemoveObjects (int time, ExternalObjectGenerator gen, Reporter reporter) {
 	util.Timer.start(7);
-	allQuery.init (objs);
 	// determine moving and dead objects
-	ExternalObject extObj = (ExternalObject)allQuery.getNextObject();
-	while (extObj != null) {
+	int num = 0;
+	for (int i=0; i<objs.size(); i++) {
+		ExternalObject extObj = (ExternalObject)objs.elementAt(i);
 		if (!extObj.isAlive(time))
 			deadObjs.addElement(extObj);
 		else
-			moveObjs.addElement(extObj);
-		extObj = (ExternalObject)allQuery.getNextObject();
+			objs.setElementAt(extObj,num++);
 	}
-	// delete dead objects from tree
+	objs.setSize(num);
+	boolean changed = deadObjs.size() > 0;
+	// report dead objects
 	for (int i=0; i<deadObjs.size(); i++) {
 		ExternalObject actObj = (ExternalObject)deadObjs.elementAt(i);
 		actObj.reportDeletedObject(reporter,time);
-		if (!objs.remove(actObj))
-			System.err.println("ext. obj. "+actObj.getMBR()+" not deleted!");
 		deadObjs.setElementAt (null,i);
 	}
 	deadObjs.setSize(0);
 	// move and resize external objects
-	for (int i=0; i<moveObjs.size(); i++) {
-		ExternalObject actObj = (ExternalObject)moveObjs.elementAt(i);
+	for (int i=0; i<objs.size(); i++) {
+		ExternalObject actObj = (ExternalObject)objs.elementAt(i);
 		MBR oldMBR = actObj.getMBR();
 		MBR mbr = gen.computeNewPositionAndSize (time,actObj);
 		if (mbr != oldMBR) {
-			if (! oldMBR.contains(mbr,-1))
-				if (!objs.remove(actObj))
-					System.err.println("ext. obj. "+mbr+" not deleted (2)!");
-				else {
-					actObj.setMBR(mbr);
-					objs.insert(actObj);
-				}
-			else
-				actObj.setMBR(mbr);
+			changed = true;
+			actObj.setMBR(mbr);
 		}
 		actObj.reportMovingObject(reporter,time);
-		moveObjs.setElementAt (null,i);
 	}
-	moveObjs.setSize(0);
+	if (changed) {
+		modCount++;
+		rebuildGrid();
+	}
 	util.Timer.stop(7);
 }
 /**
- * All external objects are removed from the tree into the dead object container.
+ * Rebuilds the grid from the vector of the objects.
+ */
+private void rebuildGrid () {
+	for (int c=0; c<cell.length; c++) {
+		if (cellSize[c] > 0)
+			Arrays.fill (cell[c],0,cellSize[c],null);
+		cellSize[c] = 0;
+	}
+	for (int i=0; i<objs.size(); i++)
+		insertIntoGrid ((ExternalObject)objs.elementAt(i));
+}
+/**
+ * All external objects are removed from the container.
  */
 public void removeObjects() {
 	util.Timer.start(7);
-	allQuery.init (objs);
-	// move and store dead objects
-	ExternalObject extObj = (ExternalObject)allQuery.getNextObject();
-	while (extObj != null) {
-		moveObjs.addElement(extObj);
-		extObj = (ExternalObject)allQuery.getNextObject();
-	}
-	// delete all objects from tree
-	for (int i=0; i<moveObjs.size(); i++) {
-		if (!objs.remove((ExternalObject)moveObjs.elementAt(i)))
-			System.err.println("ext. obj. "+((ExternalObject)deadObjs.elementAt(i)).getMBR()+" not deleted!");
-		moveObjs.setElementAt (null,i);
-	}
-	moveObjs.setSize(0);
-	// reset variables
-	objs = new MemoryRTree();
+	objs.setSize(0);
+	rebuildGrid();
+	modCount++;
 	util.Timer.stop(7);
 }
 }
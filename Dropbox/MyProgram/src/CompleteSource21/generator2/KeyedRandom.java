@@ -0,0 +1,110 @@
+package generator2;
+
+import java.io.*;
+import java.util.Random;
+
+/**
+ * Random generator with deterministic streams for parallel computations.
+ * Without a key, the generator behaves like java.util.Random. After a thread
+ * has set a key (e.g. object id and time stamp), its numbers are computed by a
+ * counter-based generator (SplitMix64) from the seed, the stream number, and
+ * the key; so they do not depend on the order in which the threads draw.
+ *
+ * @version 1.01	17.10.2026	serialVersionUID added, state not serialized
+ * @version 1.00	17.10.2026	first version
+ */
+public class KeyedRandom extends Random {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Increment of the counter (golden ratio).
+	 */
+	private static final long GAMMA = 0x9e3779b97f4a7c15L;
+
+	/**
+	 * The seed.
+	 */
+	private final long seed;
+	/**
+	 * Number of the stream (distinguishes generators with the same seed).
+	 */
+	private final long stream;
+	/**
+	 * Counter state of the current thread (null if no key is set).
+	 * Not serialized; a deserialized generator has no key.
+	 */
+	private transient ThreadLocal state = new ThreadLocal();
+
+/**
+ * Constructor.
+ * @param seed the seed
+ * @param stream number of the stream
+ */
+public KeyedRandom (long seed, long stream) {
+	super (seed);
+	this.seed = seed;
+	this.stream = stream;
+}
+
+/**
+ * Removes the key of the current thread.
+ */
+public void clearKey () {
+	long[] s = (long[])state.get();
+	if (s != null)
+		s[1] = 0;
+}
+
+/**
+ * Mixes the bits of a value (finalizer of SplitMix64).
+ * @return mixed value
+ * @param z the value
+ */
+private static long mix (long z) {
+	z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+	z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+	return z ^ (z >>> 31);
+}
+
+/**
+ * Generates the next random bits.
+ * @return random bits
+ * @param bits number of bits
+ */
+protected int next (int bits) {
+	long[] s = (long[])state.get();
+	if ((s == null) || (s[1] == 0))
+		return super.next(bits);
+	s[0] += GAMMA;
+	return (int)(mix(s[0]) >>> (64-bits));
+}
+
+/**
+ * Reads the generator from a stream; no thread has a key afterwards.
+ * @param in the stream
+ * @exception IOException if the stream cannot be read
+ * @exception ClassNotFoundException if a class of the stream is unknown
+ */
+private void readObject (ObjectInputStream in) throws IOException, ClassNotFoundException {
+	in.defaultReadObject();
+	state = new ThreadLocal();
+}
+
+/**
+ * Sets the key of the current thread; the following numbers of the thread
+ * only depend on the seed, the stream and the key.
+ * @param id first part of the key (e.g. object id)
+ * @param time second part of the key (e.g. time stamp)
+ */
+public void setKey (long id, int time) {
+	long[] s = (long[])state.get();
+	if (s == null) {
+		s = new long[2];
+		state.set(s);
+	}
+	s[0] = mix(mix(mix(seed+stream*GAMMA)+id)+time);
+	s[1] = 1;
+}
+
+}
@@ -0,0 +1,277 @@
+package generator2;
+
+import routing.*;
+
+/**
+ * Computation of the movement of moving objects along their routes, shared by
+ * MovingObject and PackedObjects. The state of an object is accessed by the
+ * abstract methods with the position i of the object in its store; a
+ * MovingObject holds one object and ignores i. The edges of a route are
+ * addressed by positions k between the current position and the end of the
+ * route; the edges traversed during the last time period start at the last
+ * position (-1 if none).
+ *
+ * @version 1.00	17.10.2026	first version (taken from MovingObject)
+ */
+abstract class Movement {
+
+/**
+ * Computes the total degree of the starting nodes of a route without its last edge
+ * (see Route.computeDegree).
+ * @return degree
+ * @param i position of the object
+ * @param from position of the first edge
+ * @param to end of the route
+ */
+private int computeDegree (int i, int from, int to) {
+	int degree = 0;
+	for (int k=from; k<to-1; k++)
+		degree += getStartingNode(i,k).getNumOfEdges();
+	return degree;
+}
+
+/**
+ * Computes and reports next point on the route.
+ * @return destination reached?
+ * @param i position of the object
+ * @param newTime new time
+ * @param reporter reporter
+ */
+private boolean computeNextPoint (int i, int newTime, Reporter reporter) {
+	if (getPosition(i) >= getEnd(i))
+		return true;
+	MovingObjects container = getContainer();
+	ObjectClasses objClasses = getObjectClasses();
+	int objClass = getObjectClass(i);
+	// decrease usage of the edge traversed during the last time period
+	Edge actEdge = getEdge(i,getPosition(i));
+	decreaseUsage (i,getPosition(i));
+	setLastPosition(i,getPosition(i));
+	// if event then re-route
+	if (container.getReRoute().computeNewRouteByEvent (getLastTime(i),getActTime(i))) {
+		reroute(i,actEdge);
+	}
+	// traverse path
+	double remainingTime = 1;
+	double llx = getLastX(i);
+	double lly = getLastY(i);
+	// set edge characteristics
+	double actDist = actEdge.getLength();
+	if (actDist == 0)	// in the case of identical nodes
+		actDist = 1;
+	double actWeight = actEdge.getWeight(getForwards(i,getPosition(i)),container.getProfile(objClass));
+	double speed = actDist/actWeight;
+	double maxDistOnEdge = remainingTime*speed;
+	while (true) {
+		// case 1: next node is not reached
+		if (getRelDist(i)+maxDistOnEdge < actDist) {
+			setRelDist(i,getRelDist(i)+maxDistOnEdge);
+			computePoint(i,actEdge,getLastNode(i),getRelDist(i));
+			util.Timer.stop(1);
+			double doneDist = getDoneDist(i) + MovingObject.computeDistance(llx,lly,getLastX(i),getLastY(i));
+			int oldRepNum = getRepNum(i);
+			Node nextNode = getDestinationNode(i,getPosition(i));
+ 			int repNum = reporter.reportMovingObject(newTime,getId(i),oldRepNum,objClass,getLastX(i),getLastY(i),speed,doneDist,nextNode.getX(),nextNode.getY(),objClasses.getReportProbability(objClass));
+ 			setRepNum(i,repNum);
+ 			setDoneDist(i,(repNum != oldRepNum) ? 0 : doneDist);
+			util.Timer.start(1);
+			return false;
+		}
+		// case 2: next node is reached
+		else {
+			remainingTime -= (actDist-getRelDist(i))*actWeight/actDist;
+			setRelDist(i,0);
+			Node lastNode = actEdge.getOppositeNode(getLastNode(i));
+			setLastNode(i,lastNode);
+			setDoneDist(i,getDoneDist(i)+MovingObject.computeDistance(llx,lly,lastNode.getX(),lastNode.getY()));
+			llx = lastNode.getX();
+			lly = lastNode.getY();
+			// case 2a next node is destination
+			if (lastNode == getDestination(i)) {
+				decreaseUsage (i,-1);
+				setArrivalTime(i,newTime-remainingTime);
+				return true;
+			}
+			// else: fetch next edge
+			int pos = getPosition(i)+1;
+			setPosition(i,pos);
+			if (pos >= getEnd(i)) {
+				setDestination(i,lastNode);
+				decreaseUsage (i,-1);
+				setArrivalTime(i,newTime-remainingTime);
+				return true;
+			}
+			actEdge = getEdge(i,pos);
+			container.incUsage(actEdge);
+			// update edge characteristics
+			actDist = actEdge.getLength();
+			if (actDist == 0)	// in the case of identical nodes
+				actDist = 1;
+			actWeight = actEdge.getWeight(getForwards(i,pos),container.getProfile(objClass));
+			speed = actDist/actWeight;
+			maxDistOnEdge = remainingTime*speed;
+			// report
+			util.Timer.stop(1);
+			Node from = getStartingNode(i,pos);
+			Node to = getDestinationNode(i,pos);
+			reporter.reportEdge(newTime-remainingTime,getId(i),incEdgeNum(i),objClass,actEdge.getId(),actEdge.getEdgeClass(),from.getX(),from.getY(),speed,to.getX(),to.getY(),objClasses.getReportProbability(objClass));
+			util.Timer.start(1);
+			// if significant speed change then re-route
+			if (container.getReRoute().computeNewRouteByComparison (getLastTime(i),getActTime(i),(int)(0x7fffffff/getOrigWeight(i,pos)),(int)(0x7fffffff/actWeight))) {
+				reroute(i,actEdge);
+			}
+		}
+	}
+}
+
+/**
+ * Computes the position (lastX,lastY) of an object on an edge.
+ * @param i position of the object
+ * @param edge the edge
+ * @param start the node which the object traversed last
+ * @param portion distance from start
+ */
+private void computePoint (int i, Edge edge, Node start, double portion) {
+	Node from = edge.getNode1();
+	Node to = edge.getNode2();
+	if (start != from) {
+		from = edge.getNode2();
+		to = edge.getNode1();
+	}
+	double length = edge.getLength();
+	if (length == 0)
+		length = 1;
+	setLastPoint(i,from.getX()+(to.getX()-from.getX())*portion/length,from.getY()+(to.getY()-from.getY())*portion/length);
+}
+
+/**
+ * Decreases the usage of the edges traversed since the last time stamp until
+ * a position of the route is reached.
+ * @param i position of the object
+ * @param to position of the edge which stops the operation (-1: end of the route)
+ */
+protected void decreaseUsage (int i, int to) {
+	int last = getLastPosition(i);
+	if (last < 0)
+		return;
+	if (to < 0)
+		to = getEnd(i);
+	MovingObjects container = getContainer();
+	for (int k=last; k<to; k++)
+		container.decUsage(getEdge(i,k));
+}
+
+/**
+ * Moves an object to the position at the new time.
+ * The position(s) are reported.
+ * @return has the object reached its destination?
+ * @param i position of the object
+ * @param newTime new time
+ * @param reporter reporter
+ */
+protected boolean moveObject (int i, int newTime, Reporter reporter) {
+	while (getActTime(i) < newTime) {
+		int actTime = getActTime(i)+1;
+		setActTime(i,actTime);
+		if (computeNextPoint(i,actTime,reporter))
+			return true;
+	}
+	return false;
+}
+
+/**
+ * Reports that an object has reached its destination.
+ * @param i position of the object
+ * @param reporter reporter
+ */
+protected void reportArrival (int i, Reporter reporter) {
+	util.Timer.stop(1);
+	if (reporter != null) {
+		int objClass = getObjectClass(i);
+		Node dest = getDestination(i);
+ 		reporter.reportDisappearingObject (getArrivalTime(i),getId(i),getRepNum(i),objClass,dest.getX(),dest.getY(),getDoneDist(i),getObjectClasses().getReportProbability(objClass));
+	}
+	util.Timer.start(1);
+}
+
+/**
+ * Reroutes an object. The new route consists of the edges traversed since
+ * the last time stamp, the current edge and the computed route.
+ * @param i position of the object
+ * @param actEdge current edge
+ */
+private void reroute (int i, Edge actEdge) {
+	MovingObjects container = getContainer();
+	util.Timer.start(2);
+	Route newRoute = container.computeRoute (actEdge.getOppositeNode(getLastNode(i)),getDestination(i),getObjectClass(i));
+	util.Timer.stop(2);
+	if (newRoute != null) {
+		replaceRoute(i,newRoute);
+		container.incTraversedNodesBy(getEnd(i)-getPosition(i));
+		container.incTraversedDegreeBy(computeDegree(i,getPosition(i),getEnd(i)));
+	}
+	setLastTime(i,getActTime(i));
+}
+
+/**
+ * Replaces the route of an object by the edges from the last to the current
+ * position followed by a new route; the last position becomes the first one.
+ * @param i position of the object
+ * @param newRoute the new route
+ */
+protected abstract void replaceRoute (int i, Route newRoute);
+
+// state of the objects
+
+protected abstract MovingObjects getContainer ();
+protected abstract ObjectClasses getObjectClasses ();
+protected abstract int getId (int i);
+protected abstract int getObjectClass (int i);
+protected abstract int getLastTime (int i);
+protected abstract void setLastTime (int i, int time);
+protected abstract int getActTime (int i);
+protected abstract void setActTime (int i, int time);
+protected abstract int getRepNum (int i);
+protected abstract void setRepNum (int i, int num);
+/**
+ * Increments the number of passed edges.
+ * @return the new number
+ */
+protected abstract int incEdgeNum (int i);
+protected abstract Node getLastNode (int i);
+protected abstract void setLastNode (int i, Node node);
+protected abstract Node getDestination (int i);
+protected abstract void setDestination (int i, Node node);
+protected abstract double getRelDist (int i);
+protected abstract void setRelDist (int i, double dist);
+protected abstract double getDoneDist (int i);
+protected abstract void setDoneDist (int i, double dist);
+protected abstract double getLastX (int i);
+protected abstract double getLastY (int i);
+protected abstract void setLastPoint (int i, double x, double y);
+protected abstract double getArrivalTime (int i);
+protected abstract void setArrivalTime (int i, double time);
+
+// routes of the objects
+
+/**
+ * Returns the position of the current edge.
+ */
+protected abstract int getPosition (int i);
+protected abstract void setPosition (int i, int pos);
+/**
+ * Returns the position of the first edge traversed during the last time period (-1 if none).
+ */
+protected abstract int getLastPosition (int i);
+protected abstract void setLastPosition (int i, int pos);
+/**
+ * Returns the end of the route (0 if there is no route).
+ */
+protected abstract int getEnd (int i);
+protected abstract Edge getEdge (int i, int k);
+protected abstract boolean getForwards (int i, int k);
+protected abstract double getOrigWeight (int i, int k);
+protected abstract Node getStartingNode (int i, int k);
+protected abstract Node getDestinationNode (int i, int k);
+
+}
@@ -5,6 +5,13 @@ import routing.*;
 /**
  * Class representing a moving object.
  *
+ * @version 2.60	17.10.2026	movement computed by Movement (shared with PackedObjects)
+ * @version 2.51	17.10.2026	weights computed for the routing profile of the object class
+ * @version 2.50	17.10.2026	route kept as Route with the positions of the current and the last edge
+ * @version 2.40	17.10.2026	packInto added
+ * @version 2.31	17.10.2026	object class set for reporting a new object
+ * @version 2.30	17.10.2026	usage changed by the container
+ * @version 2.20	17.10.2026	routes computed by the container
  * @version 2.10	26.08.2003	computeRoute returns boolean result, setXXXNode added, modified reporting
  * @version 2.00	04.09.2001	revision for generator v2.0
  * @version 1.50	11.04.2001	getDestinationNode added
@@ -16,7 +23,7 @@ import routing.*;
  * @author FH Oldenburg
  */
 
-public class MovingObject {
+public class MovingObject extends Movement {
 
 	/**
 	 * Description of the object classes.
@@ -61,13 +68,17 @@ public class MovingObject {
 	 */
 	private int repNum = 0;
 	/**
-	 * The remaining route.
+	 * The route.
 	 */
-	private PathEdge route = null;
+	private Route route = null;
 	/**
-	 * The part of the route traversed during the last time period.
+	 * The position of the current edge on the route.
 	 */
-	private PathEdge lastRoute = null;
+	private int pos = 0;
+	/**
+	 * The position of the first edge traversed during the last time period (-1 if none).
+	 */
+	private int lastPos = -1;
 	/**
 	 * The last traversed node.
 	 */
@@ -145,139 +156,23 @@ public static double computeDistance (double x1, double y1, double x2, double y2
 	return Math.sqrt(xDist*xDist + yDist*yDist);
 }
 
-/**
- * Computes and reports next point on the route.
- * @return destination reached?
- * @param newTime new time
- * @param reporter reporter
- */
-private boolean computeNextPoint (int newTime, Reporter reporter) {
-	if (route == null)
-		return true;
-	// decrease usage of the edge traversed during the last time period
-	Edge actEdge = route.getEdge();
-	decreaseUsage (route);
-	lastRoute = route;
-	// if event then re-route
-	if (container.getReRoute().computeNewRouteByEvent (lastTime,actTime)) {
-		reroute(actEdge);
-	}
-	// traverse path
-	double remainingTime = 1;
-	double llx = lastX;
-	double lly = lastY;
-	// set edge characteristics
-	double actDist = actEdge.getLength();
-	if (actDist == 0)	// in the case of identical nodes
-		actDist = 1;
-	double actWeight = actEdge.getWeight();
-	double speed = actDist/actWeight;
-	double maxDistOnEdge = remainingTime*speed;
-	while (true) {
-		// case 1: next node is not reached
-		if (relDist+maxDistOnEdge < actDist) {
-			relDist += maxDistOnEdge;
-			computePoint(actEdge,lastNode,relDist);
-			util.Timer.stop(1);
-			doneDist += computeDistance(llx,lly,lastX,lastY);
-			int oldRepNum = repNum;
-			Node nextNode = route.getDestinationNode();
- 			repNum = reporter.reportMovingObject(newTime,id,repNum,objClass,lastX,lastY,speed,doneDist,nextNode.getX(),nextNode.getY(),objClasses.getReportProbability(objClass));
- 			if (repNum != oldRepNum)
- 				doneDist = 0;
-			util.Timer.start(1);
-			return false;
-		}
-		// case 2: next node is reached
-		else {
-			remainingTime -= (actDist-relDist)*actWeight/actDist;
-			relDist = 0;
-			lastNode = actEdge.getOppositeNode(lastNode);
-			doneDist += computeDistance(llx,lly,lastNode.getX(),lastNode.getY());
-			llx = lastNode.getX();
-			lly = lastNode.getY();
-			// case 2a next node is destination
-			if (lastNode == dest) {
-				decreaseUsage (null);
-				arrivalTime = newTime-remainingTime;
-				return true;
-			}
-			// else: fetch next edge
-			route = route.getNext();
-			if (route == null) {
-				//System.err.println("computeNextPoint: route == null! (2)"+id+" at "+newTime);
-				dest = lastNode;
-				decreaseUsage (null);
-				arrivalTime = newTime-remainingTime;
-				return true;
-			}
-			actEdge = route.getEdge();
-			actEdge.incUsage();
-			// update edge characteristics
-			actDist = actEdge.getLength();
-			if (actDist == 0)	// in the case of identical nodes
-				actDist = 1;
-			actWeight = actEdge.getWeight();
-			speed = actDist/actWeight;
-			maxDistOnEdge = remainingTime*speed;
-			// report
-			util.Timer.stop(1);
-			reporter.reportEdge(newTime-remainingTime,id,++edgeNum,objClass,actEdge.getId(),actEdge.getEdgeClass(),route.getStartingNode().getX(),route.getStartingNode().getY(),speed,route.getDestinationNode().getX(),route.getDestinationNode().getY(),objClasses.getReportProbability(objClass));
-			util.Timer.start(1);
-			// if significant speed change then re-route
-			if (container.getReRoute().computeNewRouteByComparison (lastTime,actTime,(int)(0x7fffffff/route.getOrigWeight()),(int)(0x7fffffff/actWeight))) {
-				reroute(actEdge);
-			}
-		}
-	}
-}
-
-/**
- * Computes intermediate point (lastX,lastY) on an edge.
- * @param x1 x1-coordinate of the edge
- * @param y1 y1-coordinate of the edge
- * @param x2 x2-coordinate of the edge
- * @param y2 y2-coordinate of the edge
- * @param portion portion of the edge
- * @param length distance between (x1,y1) and (x2,y2)
- */
-private void computePoint (int x1, int y1, int x2, int y2, double portion, double length) {
-	if (length == 0)
-		length = 1;
-	lastX = x1+(x2-x1)*portion/length;
-	lastY = y1+(y2-y1)*portion/length;
-}
-
-/**
- * Computes the position (lastX,lastY) on the edge.
- * @param edge the edge
- * @param start the node which the object traversed last
- * @param portion distance from start
- */
-private void computePoint (Edge edge, Node start, double portion) {
-	if (start == edge.getNode1())
-		computePoint (edge.getNode1().getX(),edge.getNode1().getY(),edge.getNode2().getX(),edge.getNode2().getY(),portion,edge.getLength());
-	else
-		computePoint (edge.getNode2().getX(),edge.getNode2().getY(),edge.getNode1().getX(),edge.getNode1().getY(),portion,edge.getLength());
-}
-
 /**
  * Computes a new route from the current position of the object to its destination.
  * @return  computation successful?
  */
 public boolean computeRoute() {
 	if (container != null) {
-		container.getWeightManager().setActualObjectClass(objClass);
 		util.Timer.start(2);
-		route = container.getNetwork().computeFastWay2 (start,dest);
+		route = container.computeRoute (start,dest,objClass);
+		pos = 0;
 		util.Timer.stop(2);
 		if (route != null) {
-			if ((route.getNext() == null) || (route.getNext().getNext() == null))
+			if (route.size() < 3)
 				return false;
-			route.getEdge().incUsage();
+			container.incUsage(route.getEdge(0));
 			if (container != null) {
-				container.incTraversedNodesBy(route.computeNumber());
-				container.incTraversedDegreeBy(route.computeDegree());
+				container.incTraversedNodesBy(route.size());
+				container.incTraversedDegreeBy(route.computeDegree(0));
 			}
 		}
 		else
@@ -287,28 +182,28 @@ public boolean computeRoute() {
 }
 
 /**
- * Decreases the usage in the path until one path edge is reached.
- * @param actPathEdge the path edge which stops the operation
+ * Decreases the usage of the edges traversed since the last time stamp until
+ * a position of the route is reached.
+ * @param to position of the edge which stops the operation (-1: end of the route)
  */
-protected void decreaseUsage (PathEdge actPathEdge) {
-	PathEdge path = lastRoute;
-	if (path != null) {
-		Edge travEdge = path.getEdge();
-		while ((path != null) && (path != actPathEdge)) {
-			travEdge.decUsage();
-			path = path.getNext();
-			if (path != null)
-				travEdge = path.getEdge();
-		}
-	}
+protected void decreaseUsage (int to) {
+	decreaseUsage (0,to);
 }
 
 /**
- * Return the current path edge where the object is.
- * @return current path edge
+ * Return the current edge where the object is.
+ * @return current edge
  */
-protected PathEdge getActPathEdge () {
-	return route;
+protected Edge getActEdge () {
+	return route.getEdge(pos);
+}
+
+/**
+ * Return the position of the current edge on the route.
+ * @return position
+ */
+protected int getActPosition () {
+	return pos;
 }
 
 /**
@@ -359,27 +254,25 @@ protected Node getStartingNode () {
  * @param reporter reporter
  */
 public boolean move (int newTime, Reporter reporter) {
-	if (container != null) {
-		container.getWeightManager().setActualObjectClass(objClass);
-		while (actTime < newTime) {
-			actTime++;
-			if (computeNextPoint(actTime,reporter))
-				return true;
-		}
-	}
+	if (container != null)
+		return moveObject (0,newTime,reporter);
 	return false;
 }
 
+/**
+ * Transfers the state of the object into a packed store.
+ * @param store the store
+ */
+protected void packInto (PackedObjects store) {
+	store.add (id,objClass,start,dest,startTime,lastTime,actTime,repNum,edgeNum,lastNode,relDist,doneDist,lastX,lastY,route,lastPos,pos);
+}
+
 /**
  * Reports that the moving object has reached its destination.
  * @param reporter reporter
  */
 public void reportEnd (Reporter reporter) {
-	util.Timer.stop(1);
-	if (reporter != null) {
- 		reporter.reportDisappearingObject (arrivalTime,id,repNum,objClass,dest.getX(),dest.getY(),doneDist,objClasses.getReportProbability(objClass));
-	}
-	util.Timer.start(1);
+	reportArrival (0,reporter);
 }
 
 /**
@@ -389,32 +282,27 @@ public void reportEnd (Reporter reporter) {
 public void reportNewObject (Reporter reporter) {
 	util.Timer.stop(1);
 	if (reporter != null) {
-		Edge currEdge = route.getEdge();
+		Edge currEdge = route.getEdge(pos);
 		double actDist = currEdge.getLength();
-		double actWeight = currEdge.getWeight();
+		double actWeight = currEdge.getWeight(route.getForwards(pos),container.getProfile(objClass));
 		double speed = actDist/actWeight;
-		Node nextNode = route.getDestinationNode();
+		Node nextNode = route.getDestinationNode(pos);
 		repNum = reporter.reportNewMovingObject (startTime,id,objClass,start.getX(),start.getY(),speed,nextNode.getX(),nextNode.getY(),objClasses.getReportProbability(objClass));
-		reporter.reportEdge(startTime,id,++edgeNum,objClass,currEdge.getId(),currEdge.getEdgeClass(),route.getStartingNode().getX(),route.getStartingNode().getY(),speed,route.getDestinationNode().getX(),route.getDestinationNode().getY(),objClasses.getReportProbability(objClass));
+		reporter.reportEdge(startTime,id,++edgeNum,objClass,currEdge.getId(),currEdge.getEdgeClass(),route.getStartingNode(pos).getX(),route.getStartingNode(pos).getY(),speed,route.getDestinationNode(pos).getX(),route.getDestinationNode(pos).getY(),objClasses.getReportProbability(objClass));
 	}
 	util.Timer.start(1);
 }
 
 /**
- * Reroutes the object.
- * @param actPath current edge
+ * Replaces the route by the edges traversed since the last time stamp, the
+ * current edge and a new route (see Movement.reroute).
+ * @param i ignored
+ * @param newRoute the new route
  */
-private void reroute (Edge actEdge) {
-	container.getWeightManager().setActualObjectClass(objClass);
-	util.Timer.start(2);
-	PathEdge newPath = container.getNetwork().computeFastWay2 (actEdge.getOppositeNode(lastNode),dest);
-	util.Timer.stop(2);
-	if ((newPath != null) && (container != null)) {
-		route.setNext(newPath);
-		container.incTraversedNodesBy(route.computeNumber());
-		container.incTraversedDegreeBy(route.computeDegree());
-	}
-	lastTime = actTime;
+protected void replaceRoute (int i, Route newRoute) {
+	route = route.concat(lastPos,pos+1,newRoute);
+	pos -= lastPos;
+	lastPos = 0;
 }
 
 /**
@@ -444,4 +332,110 @@ public void setStart (Node start) {
 	lastY = start.getY();
 }
 
+// state of the object for Movement (i is ignored)
+
+protected MovingObjects getContainer () {
+	return container;
+}
+protected ObjectClasses getObjectClasses () {
+	return objClasses;
+}
+protected int getId (int i) {
+	return id;
+}
+protected int getObjectClass (int i) {
+	return objClass;
+}
+protected int getLastTime (int i) {
+	return lastTime;
+}
+protected void setLastTime (int i, int time) {
+	lastTime = time;
+}
+protected int getActTime (int i) {
+	return actTime;
+}
+protected void setActTime (int i, int time) {
+	actTime = time;
+}
+protected int getRepNum (int i) {
+	return repNum;
+}
+protected void setRepNum (int i, int num) {
+	repNum = num;
+}
+protected int incEdgeNum (int i) {
+	return ++edgeNum;
+}
+protected Node getLastNode (int i) {
+	return lastNode;
+}
+protected void setLastNode (int i, Node node) {
+	lastNode = node;
+}
+protected Node getDestination (int i) {
+	return dest;
+}
+protected void setDestination (int i, Node node) {
+	dest = node;
+}
+protected double getRelDist (int i) {
+	return relDist;
+}
+protected void setRelDist (int i, double dist) {
+	relDist = dist;
+}
+protected double getDoneDist (int i) {
+	return doneDist;
+}
+protected void setDoneDist (int i, double dist) {
+	doneDist = dist;
+}
+protected double getLastX (int i) {
+	return lastX;
+}
+protected double getLastY (int i) {
+	return lastY;
+}
+protected void setLastPoint (int i, double x, double y) {
+	lastX = x;
+	lastY = y;
+}
+protected double getArrivalTime (int i) {
+	return arrivalTime;
+}
+protected void setArrivalTime (int i, double time) {
+	arrivalTime = time;
+}
+protected int getPosition (int i) {
+	return pos;
+}
+protected void setPosition (int i, int pos) {
+	this.pos = pos;
+}
+protected int getLastPosition (int i) {
+	return lastPos;
+}
+protected void setLastPosition (int i, int pos) {
+	lastPos = pos;
+}
+protected int getEnd (int i) {
+	return (route != null) ? route.size() : 0;
+}
+protected Edge getEdge (int i, int k) {
+	return route.getEdge(k);
+}
+protected boolean getForwards (int i, int k) {
+	return route.getForwards(k);
+}
+protected double getOrigWeight (int i, int k) {
+	return route.getOrigWeight(k);
+}
+protected Node getStartingNode (int i, int k) {
+	return route.getStartingNode(k);
+}
+protected Node getDestinationNode (int i, int k) {
+	return route.getDestinationNode(k);
+}
+
 }
\ No newline at end of file
@@ -1,11 +1,19 @@
 package generator2;
 
 import java.util.*;
+import java.util.concurrent.*;
 import routing.*;
 
 /**
  * Container class for all current moving objects.
  *
+ * @version 2.50	17.10.2026	routing profiles of the object classes
+ * @version 2.41	17.10.2026	routes returned as Route
+ * @version 2.40	17.10.2026	packed store of the objects
+ * @version 2.31	17.10.2026	keyed random decisions, sharding also for one thread
+ * @version 2.30	17.10.2026	parallel movement and routing by shards of objects
+ * @version 2.20	17.10.2026	routes computed by customizable overlay metrics
+ * @version 2.10	17.10.2026	routes computed by contraction hierarchies for static weights
  * @version 2.00	04.09.01	revision for generator v2.0
  * @version 1.20	11.04.01	object generator added
  * @version 1.11	10.10.00	calling reportEnd
@@ -18,9 +26,13 @@ import routing.*;
 public class MovingObjects {
 
 	/**
-	 * the moving objects
+	 * the moving objects (only the new objects if the packed store is used)
 	 */
 	private Vector objs = null;
+	/**
+	 * the packed store of the moving objects (null if not used)
+	 */
+	private PackedObjects packed = null;
 
 	/**
 	 * the weight manager
@@ -30,6 +42,10 @@ public class MovingObjects {
 	 * description of the object classes
 	 */
 	private ObjectClasses objClasses = null;
+	/**
+	 * routing profiles of the object classes
+	 */
+	private RoutingProfile[] profiles = null;
 	/**
 	 * description of the network
 	 */
@@ -46,6 +62,38 @@ public class MovingObjects {
 	 * re-routing decider
 	 */
 	private ReRoute reroute = null;
+	/**
+	 * contraction hierarchies of the object classes (null if not used)
+	 */
+	private ContractionHierarchy[] hierarchies = null;
+	/**
+	 * base name of the files of the contraction hierarchies (may be null)
+	 */
+	private String hierarchyBase = null;
+	/**
+	 * customizable metrics of the object classes (null if not used)
+	 */
+	private OverlayMetric[] metrics = null;
+	/**
+	 * time stamps of the last customization of the metrics
+	 */
+	private int[] metricTime = null;
+	/**
+	 * the current time stamp
+	 */
+	private int time = -1;
+	/**
+	 * worker threads (null if the shards are processed by the calling thread)
+	 */
+	private ExecutorService pool = null;
+	/**
+	 * the shards of the worker threads (null if the objects are not sharded)
+	 */
+	private Shard[] shards = null;
+	/**
+	 * the shard of the current worker thread
+	 */
+	private ThreadLocal currentShard = new ThreadLocal();
 
 	/**
 	 * number of moving objects
@@ -64,6 +112,81 @@ public class MovingObjects {
 	 */
 	private int travDegree = 0;
 
+	/**
+	 * A contiguous range of objects processed by a worker thread. The reports and
+	 * the changes of the edge usage are buffered until the end of the phase.
+	 */
+	private class Shard implements Callable {
+		int from, to;
+		boolean routing = false;
+		MovingObject[] newObjs = null;
+		boolean[] routed = null;
+		ReportBuffer buffer = new ReportBuffer(reporter.properties);
+		Edge[] usageEdge = new Edge[1024];
+		boolean[] usageInc = new boolean[1024];
+		int usageNum = 0;
+		int[] finished = new int[64];
+		int finishedNum = 0;
+		int travNodes = 0;
+		int travDegree = 0;
+		public Object call () {
+			currentShard.set(this);
+			try {
+				if (routing)
+					for (int i=from; i<to; i++)
+						routed[i] = newObjs[i].computeRoute();
+				else
+					for (int i=to-1; i>=from; i--) {
+						if (moveObject (i,buffer,true)) {
+							if (finishedNum == finished.length) {
+								int[] newFinished = new int[2*finishedNum];
+								System.arraycopy (finished,0,newFinished,0,finishedNum);
+								finished = newFinished;
+							}
+							finished[finishedNum++] = i;
+						}
+					}
+			}
+			finally {
+				RandomGenerator.clearKey();
+				currentShard.set(null);
+			}
+			return null;
+		}
+		void addUsage (Edge edge, boolean inc) {
+			if (usageNum == usageEdge.length) {
+				Edge[] newEdge = new Edge[2*usageNum];
+				System.arraycopy (usageEdge,0,newEdge,0,usageNum);
+				usageEdge = newEdge;
+				boolean[] newInc = new boolean[2*usageNum];
+				System.arraycopy (usageInc,0,newInc,0,usageNum);
+				usageInc = newInc;
+			}
+			usageEdge[usageNum] = edge;
+			usageInc[usageNum++] = inc;
+		}
+		/**
+		 * Takes over the buffered reports, usage changes and counters.
+		 */
+		void merge () {
+			buffer.replay(reporter);
+			for (int i=0; i<usageNum; i++) {
+				if (usageInc[i])
+					usageEdge[i].incUsage();
+				else
+					usageEdge[i].decUsage();
+				usageEdge[i] = null;
+			}
+			usageNum = 0;
+			MovingObjects.this.travNodes += travNodes;
+			MovingObjects.this.travDegree += travDegree;
+			travNodes = 0;
+			travDegree = 0;
+			newObjs = null;
+			routed = null;
+		}
+	}
+
 /**
  * MovingObjects constructor.
  * @param wm the weight manager
@@ -75,12 +198,40 @@ public class MovingObjects {
 public MovingObjects (WeightManagerForDataGenerator wm, Network net, ObjectGenerator objGen, Reporter reporter, ReRoute reroute) {
 	this.wm = wm;
 	this.objClasses = wm.getObjectClasses();
+	profiles = new RoutingProfile[objClasses.getNumber()];
+	for (int c=0; c<profiles.length; c++)
+		profiles[c] = new RoutingProfile(c);
 	this.net = net;
 	this.objGen = objGen;
 	this.reporter = reporter;
 	this.reroute = reroute;
 	objs = new Vector (10000,10000);
 }
+/**
+ * Moves the object at a given index and reports its end if it has reached
+ * its destination.
+ * @return has the object reached its destination?
+ * @param index index of the object
+ * @param reporter the reporter
+ * @param keyed set the key of the random decisions?
+ */
+private boolean moveObject (int index, Reporter reporter, boolean keyed) {
+	if (packed != null) {
+		if (keyed)
+			RandomGenerator.setKey (packed.getId(index),time);
+		if (!packed.move (index,time,reporter))
+			return false;
+		packed.reportEnd(index,reporter);
+		return true;
+	}
+	MovingObject obj = (MovingObject)objs.elementAt(index);
+	if (keyed)
+		RandomGenerator.setKey (obj.getId(),time);
+	if (!obj.move (time,reporter))
+		return false;
+	obj.reportEnd(reporter);
+	return true;
+}
 /**
  * Adds a moving object to the container.
  * @param obj moving object
@@ -90,6 +241,95 @@ protected void add (MovingObject obj) {
 	num++;
 	totalNum++;
 }
+/**
+ * Computes a route for an object of the given class.
+ * If contraction hierarchies are used, the hierarchy of the object class is
+ * read or built at its first use. If customizable metrics are used, the metric
+ * of the object class is customized once per time stamp.
+ * @return the route or null
+ * @param start start node
+ * @param dest destination node
+ * @param objClass class of the object
+ */
+public Route computeRoute (Node start, Node dest, int objClass) {
+	if ((hierarchies == null) && (metrics != null))
+		return net.computeFastRouteCRP (start,dest,getMetric(objClass));
+	if (hierarchies == null)
+		return net.computeFastRoute2 (start,dest,profiles[objClass]);
+	return net.computeFastRouteCH (start,dest,getHierarchy(objClass),profiles[objClass]);
+}
+/**
+ * Computes the first routes of new objects. If the objects are sharded, the
+ * routes are computed in parallel concerning the weights at the beginning of
+ * the call; the changes of the edge usage are applied afterwards in the order
+ * of the objects.
+ * @return computation successful? (see MovingObject.computeRoute)
+ * @param newObjs the new objects
+ */
+public boolean[] computeRoutes (MovingObject[] newObjs) {
+	boolean[] routed = new boolean[newObjs.length];
+	if (shards == null) {
+		for (int i=0; i<newObjs.length; i++)
+			routed[i] = newObjs[i].computeRoute();
+		return routed;
+	}
+	for (int s=0; s<shards.length; s++) {
+		shards[s].routing = true;
+		shards[s].newObjs = newObjs;
+		shards[s].routed = routed;
+	}
+	runShards (newObjs.length);
+	for (int s=0; s<shards.length; s++)
+		shards[s].merge();
+	return routed;
+}
+/**
+ * Decrements the usage of an edge. In a worker thread, the change is buffered
+ * until the end of the phase.
+ * @param edge the edge
+ */
+protected void decUsage (Edge edge) {
+	Shard shard = (shards == null) ? null : (Shard)currentShard.get();
+	if (shard == null)
+		edge.decUsage();
+	else
+		shard.addUsage(edge,false);
+}
+/**
+ * Returns the contraction hierarchy of an object class; it is read or built
+ * at its first use.
+ * @return the hierarchy
+ * @param objClass class of the object
+ */
+private synchronized ContractionHierarchy getHierarchy (int objClass) {
+	CompactGraph graph = net.getCompactGraph();
+	if ((hierarchies[objClass] == null) || (hierarchies[objClass].getGraph() != graph)) {
+		String filename = null;
+		if (hierarchyBase != null)
+			filename = hierarchyBase+"."+objClass+".ch";
+		hierarchies[objClass] = ContractionHierarchy.loadOrCreate (graph,wm.computeStaticWeights(graph,objClass),filename);
+	}
+	return hierarchies[objClass];
+}
+/**
+ * Returns the customizable metric of an object class; it is customized at its
+ * first use during a time stamp.
+ * @return the metric
+ * @param objClass class of the object
+ */
+private synchronized OverlayMetric getMetric (int objClass) {
+	Overlay overlay = net.getOverlay();
+	if ((metrics[objClass] == null) || (metrics[objClass].getOverlay() != overlay))
+		metrics[objClass] = new OverlayMetric (overlay,profiles[objClass]);
+	else if (metricTime[objClass] != time) {
+		if (wm.hasExternalObjects())
+			metrics[objClass].customizeAll();
+		else
+			metrics[objClass].customize();
+	}
+	metricTime[objClass] = time;
+	return metrics[objClass];
+}
 /**
  * Returns the network.
  * @return network
@@ -104,6 +344,14 @@ public Network getNetwork() {
 public ObjectClasses getObjectClasses() {
 	return objClasses;
 }
+/**
+ * Returns the routing profile of an object class.
+ * @return routing profile
+ * @param objClass class of the object
+ */
+public RoutingProfile getProfile (int objClass) {
+	return profiles[objClass];
+}
 /**
  * Returns the rerouting decider.
  * @return reroute
@@ -139,39 +387,99 @@ public int getTotalNumOfObjects () {
 public WeightManagerForDataGenerator getWeightManager () {
 	return wm;
 }
+/**
+ * Returns whether the objects are processed in shards (see useThreads).
+ * @return sharded?
+ */
+public boolean isSharded () {
+	return shards != null;
+}
 /**
  * Increments the counter for the degree of traversed nodes by a given value.
  * @param value the increment
  */
 public void incTraversedDegreeBy (int value) {
-	travDegree += value;
+	Shard shard = (shards == null) ? null : (Shard)currentShard.get();
+	if (shard == null)
+		travDegree += value;
+	else
+		shard.travDegree += value;
 }
 /**
  * Increments the counter for the number of traversed nodes by a given value.
  * @param value the increment
  */
 public void incTraversedNodesBy (int value) {
-	travNodes += value;
+	Shard shard = (shards == null) ? null : (Shard)currentShard.get();
+	if (shard == null)
+		travNodes += value;
+	else
+		shard.travNodes += value;
+}
+/**
+ * Increments the usage of an edge. In a worker thread, the change is buffered
+ * until the end of the phase.
+ * @param edge the edge
+ */
+protected void incUsage (Edge edge) {
+	Shard shard = (shards == null) ? null : (Shard)currentShard.get();
+	if (shard == null)
+		edge.incUsage();
+	else
+		shard.addUsage(edge,true);
 }
 /**
  * Moves all objects. The positions during the route of the objects, which have reached
  * the destination node, are reported; these objects are removed from the container.
+ * If the objects are sharded, they are moved in parallel concerning the
+ * weights at the beginning of the time stamp; the reports and the changes of the
+ * edge usage are taken over afterwards in the same order as by a single thread.
+ * The random decisions about an object depend only on its id and the time stamp.
  * @param time the current time stamp
  */
 public void move (int time) {
-	for (int i=num-1; i>=0; i--) {
-		MovingObject obj = (MovingObject)objs.elementAt(i);
-		if (obj.move (time,reporter)) {
-			obj.reportEnd(reporter);
-			remove(i);
-		}
+	this.time = time;
+	if (packed != null) {
+		packNewObjects();
+		packed.compact();
 	}
+	if (shards == null) {
+		for (int i=num-1; i>=0; i--)
+			if (moveObject (i,reporter,false))
+				remove(i);
+		return;
+	}
+	for (int s=0; s<shards.length; s++)
+		shards[s].routing = false;
+	runShards (num);
+	for (int s=shards.length-1; s>=0; s--)
+		shards[s].merge();
+	for (int s=shards.length-1; s>=0; s--) {
+		for (int i=0; i<shards[s].finishedNum; i++)
+			remove(shards[s].finished[i]);
+		shards[s].finishedNum = 0;
+	}
+}
+/**
+ * Transfers the new objects into the packed store.
+ */
+private void packNewObjects () {
+	for (int i=0; i<objs.size(); i++)
+		((MovingObject)objs.elementAt(i)).packInto(packed);
+	objs.removeAllElements();
 }
 /**
  * Removes the moving object at a given index.
  * @param index index of the object
  */
 public void remove (int index) {
+	if (packed != null) {
+		if (objGen != null)
+			objGen.reachDestination(packed.getMovingObject(index));
+		packed.remove(index);
+		num--;
+		return;
+	}
 	MovingObject obj = (MovingObject)objs.elementAt(index);
 	if ((objGen != null) && (obj!=null))
 		objGen.reachDestination(obj);
@@ -181,18 +489,117 @@ public void remove (int index) {
 	objs.setSize(num);
 
 }
+/**
+ * Divides the range 0..n-1 into contiguous parts, runs the shards by the
+ * worker threads and waits until all of them are finished.
+ * @param n number of objects
+ */
+private void runShards (int n) {
+	Vector tasks = new Vector (shards.length);
+	for (int s=0; s<shards.length; s++) {
+		shards[s].from = (int)((long)n*s/shards.length);
+		shards[s].to = (int)((long)n*(s+1)/shards.length);
+		tasks.addElement(shards[s]);
+	}
+	if (pool == null) {
+		shards[0].call();
+		return;
+	}
+	try {
+		List results = pool.invokeAll(tasks);
+		for (int s=0; s<results.size(); s++)
+			((Future)results.get(s)).get();
+	}
+	catch (InterruptedException ex) {
+		throw new RuntimeException ("MovingObjects: interrupted");
+	}
+	catch (ExecutionException ex) {
+		Throwable cause = ex.getCause();
+		if (cause instanceof RuntimeException)
+			throw (RuntimeException)cause;
+		if (cause instanceof Error)
+			throw (Error)cause;
+		throw new RuntimeException ("MovingObjects: "+cause);
+	}
+}
+/**
+ * Switches to route computations by contraction hierarchies.
+ * Only possible if the weights are static; the hierarchy of an object class is
+ * stored in the file [base].[class].ch.
+ * @return switched?
+ * @param base base name of the files of the hierarchies (may be null)
+ */
+public boolean useContractionHierarchies (String base) {
+	if (!wm.hasStaticWeights())
+		return false;
+	hierarchies = new ContractionHierarchy[objClasses.getNumber()];
+	hierarchyBase = base;
+	return true;
+}
+/**
+ * Switches to the packed store of the objects (see PackedObjects). A new object
+ * is transferred into the store at the beginning of the next time stamp.
+ * Must be called before objects are added.
+ */
+public void usePackedStore () {
+	packed = new PackedObjects (this,net.getCompactGraph());
+}
+/**
+ * Switches to route computations by customizable metrics on the overlay of the
+ * network. The metrics consider the weights at the beginning of a time stamp.
+ */
+public void useCustomizableRoutes () {
+	metrics = new OverlayMetric[objClasses.getNumber()];
+	metricTime = new int[objClasses.getNumber()];
+}
+/**
+ * Moves the objects and computes the routes of new objects in shards by the
+ * given number of worker threads; for 1 thread, the single shard is processed
+ * by the calling thread. If the random generators are KeyedRandoms (property
+ * "threads"), the result does not depend on the number of threads. For 0
+ * threads, the objects are processed one after the other as before.
+ * @param threads number of worker threads
+ */
+public void useThreads (int threads) {
+	if (pool != null)
+		pool.shutdown();
+	pool = null;
+	shards = null;
+	if (threads <= 0)
+		return;
+	shards = new Shard[threads];
+	for (int s=0; s<threads; s++)
+		shards[s] = new Shard();
+	if (threads == 1)
+		return;
+	pool = Executors.newFixedThreadPool(threads,new ThreadFactory() {
+		public Thread newThread (Runnable r) {
+			Thread thread = new Thread(r,"MovingObjects");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+}
 /**
  * The positions during the route of all objects in the container are reported.
  * Then, all objects are removed from the container.
  */
 public void removeObjects() {
+	if (packed != null) {
+		packNewObjects();
+		packed.removeAll();
+		num = 0;
+		useThreads (0);
+		return;
+	}
 	for (int i=0; i<num; i++) {
 		MovingObject obj = (MovingObject)objs.elementAt(i);
-		obj.decreaseUsage (obj.getActPathEdge());
-		obj.getActPathEdge().getEdge().decUsage();
+		obj.decreaseUsage (obj.getActPosition());
+		obj.getActEdge().decUsage();
 		objs.setElementAt(null,i);
 	}
 	num = 0;
 	objs.setSize(num);
+	useThreads (0);
 }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package generator2;
 
 import java.io.*;
 import java.util.Arrays;
+import java.util.PriorityQueue;
 import java.util.Properties;
 import java.util.Vector;
 
@@ -9,8 +10,14 @@ import drawables.DrawableObjects;
 
 /**
  * Class for reporting the passed nodes into a file.
+ * The reports are written sorted by time. If more than "nodeReportRunSize"
+ * reports (property, default 1048576) are waiting, they are sorted and
+ * written into a temporary file; these runs are merged when the reports
+ * are written.
  * Requires SDK 1.2 or higher.
  *
+ * @version 1.11	17.10.2026	failed writing of a run detected, objects left in memory merged with the runs
+ * @version 1.10	17.10.2026	sorted runs in temporary files, stable order of reports with equal time
  * @version 1.00	27.08.2003	first version
  * @author FH Oldenburg
  */
@@ -44,14 +51,29 @@ public class NodeReporter extends Reporter {
 			this.y2 = y2;
 		}
 
-		// compare method
+		// constructor reading an object written by print(DataOutputStream):
+		protected ReportObject (DataInputStream in) throws IOException {
+			action = in.readByte();
+			id = in.readLong();
+			objClass = in.readInt();
+			time = in.readDouble();
+			x1 = in.readInt();
+			y1 = in.readInt();
+			speed = in.readDouble();
+			x2 = in.readInt();
+			y2 = in.readInt();
+		}
+
+		// compare method (by time; Arrays.sort keeps the order of objects with the same time)
 		public int compareTo (Object obj) {
 			try {
 				ReportObject o = (ReportObject)obj;
 				if (time < o.time)
 					return -1;
+				else if (time > o.time)
+					return 1;
 				else
-					return 1; 
+					return 0;
 			} catch (Exception ex) {
 				return 1;
 			}
@@ -77,20 +99,95 @@ public class NodeReporter extends Reporter {
 			if (out == null)
 				return;
 			try {
-				out.writeByte(action);
-				out.writeLong(id);
-				out.writeInt(objClass);
-				out.writeDouble(time);
-				out.writeInt(x1); 
-				out.writeInt(y1);
-				out.writeDouble(speed);
-				out.writeInt(x2); 
-				out.writeInt(y2);
+				write(out);
 			} catch (Exception ex) {
 			}
 		}
+
+		// output method throwing the exceptions (for the runs)
+		protected void write (DataOutputStream out) throws IOException {
+			out.writeByte(action);
+			out.writeLong(id);
+			out.writeInt(objClass);
+			out.writeDouble(time);
+			out.writeInt(x1); 
+			out.writeInt(y1);
+			out.writeDouble(speed);
+			out.writeInt(x2); 
+			out.writeInt(y2);
+		}
 	}
 
+	/**
+	 * Internal class for representing a sorted run of report objects in a
+	 * temporary file or in memory and for reading it during the merge.
+	 */
+	protected class Run implements Comparable {
+
+		protected File file;	// the temporary file (null for a run in memory)
+		protected Object[] objects = null;	// the sorted objects of a run in memory
+		protected int size;	// number of report objects
+		protected int index;	// number of the run; decides between objects with the same time
+		protected DataInputStream in = null;	// input during the merge
+		protected ReportObject current = null;	// current object during the merge
+
+		// constructor:
+		protected Run (File file, int size, int index) {
+			this.file = file;
+			this.size = size;
+			this.index = index;
+		}
+
+		// constructor of a run in memory:
+		protected Run (Object[] objects, int index) {
+			this.objects = objects;
+			this.size = objects.length;
+			this.index = index;
+		}
+
+		// reads the next object; returns false at the end of the run
+		protected boolean advance () throws IOException {
+			if (objects != null) {
+				current = (size > 0) ? (ReportObject)objects[objects.length-size--] : null;
+				return current != null;
+			}
+			if (in == null)
+				in = new DataInputStream(new BufferedInputStream(new FileInputStream(file),1<<16));
+			if (size == 0) {
+				current = null;
+				return false;
+			}
+			current = new ReportObject(in);
+			size--;
+			return true;
+		}
+
+		// closes and deletes the file
+		protected void delete () {
+			try {
+				if (in != null)
+					in.close();
+			} catch (IOException ex) {
+			}
+			if (file != null)
+				file.delete();
+		}
+
+		// compare method (by the time of the current objects, then by the number of the run)
+		public int compareTo (Object obj) {
+			Run r = (Run)obj;
+			int c = current.compareTo(r.current);
+			if (c != 0)
+				return c;
+			return (index < r.index) ? -1 : ((index == r.index) ? 0 : 1);
+		}
+	}
+
+	/**
+	 * Default maximum number of report objects kept in memory.
+	 */
+	public static final int DEFAULT_RUN_SIZE = 1<<20;
+
 	/**
 	 * The data output stream.
 	 */
@@ -103,6 +200,14 @@ public class NodeReporter extends Reporter {
 	 * Vector for storing report objects.
 	 */
 	protected Vector repObjs = new Vector();
+	/**
+	 * Maximum number of report objects kept in memory.
+	 */
+	protected int runSize = DEFAULT_RUN_SIZE;
+	/**
+	 * Vector of the sorted runs in temporary files.
+	 */
+	protected Vector runs = new Vector();
 	
 /**
  * Constructor of the reporter.
@@ -111,6 +216,14 @@ public class NodeReporter extends Reporter {
  */
 public NodeReporter (Properties properties, DrawableObjects objects) {
 	super (properties,objects);
+	String size = properties.getProperty("nodeReportRunSize");
+	if (size != null)
+		try {
+			runSize = Math.max(1,Integer.parseInt(size));
+		}
+		catch (NumberFormatException ex) {
+			System.err.println("Illegal nodeReportRunSize "+size);
+		}
 	String name = properties.getProperty("outputFile");
 	if (name != null)
 		try {
@@ -124,6 +237,16 @@ public NodeReporter (Properties properties, DrawableObjects objects) {
 		}
 }
 
+/**
+ * Adds a report object; if too many objects are waiting, they are written as run.
+ * @param  ro  the report object
+ */
+protected void addReportObject (ReportObject ro) {
+	repObjs.add(ro);
+	if (repObjs.size() >= runSize)
+		writeRun();
+}
+
 /**
  * Closes the reporter.
  */
@@ -151,7 +274,7 @@ public void close() {
  */
 public void reportDisappearingObject (double time, long id, int repNum, int objClass, int x, int y, double doneDist, int reportProbability) {
 	if (reportProbability > 0) {
-		repObjs.add(new ReportObject(DEL_OBJECT,id,objClass,time,x,y,0.0,x,y));
+		addReportObject(new ReportObject(DEL_OBJECT,id,objClass,time,x,y,0.0,x,y));
 	}
 }
 
@@ -173,8 +296,8 @@ public void reportDisappearingObject (double time, long id, int repNum, int objC
  */
 public void reportEdge (double time, long objId, int edgeRepNum, int objClass, long edgeId, int edgeClass, int x1, int y1, double speed, int x2, int y2, int reportProbability) {
 	if (reportProbability > 0) {
-		repObjs.add(new ReportObject(edgeRepNum==1 ? NEW_OBJECT : MOVE_OBJECT,
-		                             objId,objClass,time,x1,y1,speed,x2,y2));
+		addReportObject(new ReportObject(edgeRepNum==1 ? NEW_OBJECT : MOVE_OBJECT,
+		                                 objId,objClass,time,x1,y1,speed,x2,y2));
 		if (edgeRepNum == 1)
 			reportObjects();
 	}
@@ -217,20 +340,87 @@ public int reportNewMovingObject (int time, long id, int objClass, int x, int y,
 }
 
 /**
- * Reports the objects from the "repObjs" vector.
+ * Merges the runs and writes their objects.
+ */
+protected void mergeRuns() {
+	PriorityQueue queue = new PriorityQueue(runs.size());
+	try {
+		for (int i=0; i<runs.size(); i++) {
+			Run run = (Run)runs.elementAt(i);
+			if (run.advance())
+				queue.add(run);
+		}
+		while (!queue.isEmpty()) {
+			Run run = (Run)queue.poll();
+			run.current.print(dOut);
+			run.current.print(pOut);
+			if (run.advance())
+				queue.add(run);
+		}
+	}
+	catch (IOException ex) {
+		System.err.println("Error occured by reading a temporary file: "+ex);
+	}
+	for (int i=0; i<runs.size(); i++)
+		((Run)runs.elementAt(i)).delete();
+	runs.clear();
+}
+
+/**
+ * Reports the objects from the "repObjs" vector and the runs.
  */
 protected void reportObjects() {
-	if (repObjs.isEmpty())
+	if (repObjs.isEmpty() && runs.isEmpty())
 		return;
 	// case: more than one object -> sort
 	Object[] ro = repObjs.toArray();
 	if (ro.length > 1)
 		Arrays.sort(ro);
+	if (!runs.isEmpty()) {
+		// the objects are merged with the runs as last run
+		runs.add(new Run(ro,runs.size()));
+		repObjs.clear();
+		mergeRuns();
+		return;
+	}
 	for (int i=0; i<ro.length; i++) {
 		((ReportObject)ro[i]).print(dOut);
 		((ReportObject)ro[i]).print(pOut);
 	}
 	repObjs.clear();
 }
+
+/**
+ * Sorts the objects from the "repObjs" vector and writes them as run into a
+ * temporary file. If the file cannot be written, the objects are kept in memory.
+ */
+protected void writeRun() {
+	if (repObjs.isEmpty())
+		return;
+	Object[] ro = repObjs.toArray();
+	Arrays.sort(ro);
+	File file = null;
+	try {
+		file = File.createTempFile("nodes",".run");
+		file.deleteOnExit();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file),1<<16));
+		try {
+			for (int i=0; i<ro.length; i++)
+				((ReportObject)ro[i]).write(out);
+		}
+		finally {
+			out.close();
+		}
+	}
+	catch (IOException ex) {
+		System.err.println("Error occured by writing a temporary file: "+ex);
+		if (file != null)
+			file.delete();
+		runSize = Integer.MAX_VALUE;
+		return;
+	}
+	runs.add(new Run(file,ro.length,runs.size()));
+	repObjs.clear();
+}
 
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import routing.*;
  * Class for defining the properties of moving objects. An example is the computations of new starting and
  * destination nodes.
  *
+ * @version 2.11	17.10.2026	nodes kept in the order of the former Hashtable of Nodes
  * @version 2.10	27.08.2003	distance becomes double, use RandomGenerator
  * @version 2.00	04.09.2001	revision for generator v2.0
  * @version 1.30	11.04.2001	reachDestination added
@@ -46,7 +47,9 @@ public class ObjectGenerator {
 	 */
 	protected Nodes nodes = null;
 	/**
-	 * The nodes of the network as an array.
+	 * The nodes of the network as an array. The order is the order of the
+	 * Hashtable in which the class Nodes kept the nodes up to version 1.31;
+	 * it determines the generated data for a given seed.
 	 */
 	protected Node node[] = null;
 
@@ -94,10 +97,15 @@ public ObjectGenerator (Properties properties, Time time, DataSpace ds, Nodes no
 	this.nodes = nodes;
 	this.objClasses = objClasses;
 	this.dataspace = ds;
-	// transfer node to array
-	node = new Node[nodes.numOfNodes()];
+	// transfer node to array (in the order of the former Hashtable of Nodes)
+	Hashtable hashTable = new Hashtable (10000);
+	for (Enumeration e = nodes.elements(); e.hasMoreElements();) {
+		Node actNode = (Node)e.nextElement();
+		hashTable.put (actNode,actNode);
+	}
+	node = new Node[hashTable.size()];
 	int i=0;
-	for (Enumeration e = nodes.elements(); e.hasMoreElements();)
+	for (Enumeration e = hashTable.elements(); e.hasMoreElements();)
 		node[i++] = (Node)e.nextElement();
 	// initialize other variables
 	double dx = dataspace.getMaxX()-dataspace.getMinX();
@@ -3,23 +3,110 @@ package generator2;
 import java.awt.Rectangle;
 import java.sql.*;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import drawables.DrawableObjects;
 
 /**
  * Class for reporting the computed moving objects into an Oracle database.
  * Requires classes111.zip or classes12.zip in the classpath.
+ * The objects are collected into batches of the size given by the property
+ * "dbBatchSize"; a writer thread stores the batches by addBatch / executeBatch
+ * and commits them. The SQL statements are created by a SQLDialect (see there),
+ * so that also other databases can be used. A batch which cannot be stored is
+ * rolled back and its objects are counted as lost per table; if the writer
+ * thread fails, all further batches are dropped, so that the generator never
+ * waits for it.
  *
+ * @version 1.22	17.10.2026	separate pools of written batches for moving and external objects
+ * @version 1.21	17.10.2026	runtime exceptions and errors of the writer handled, lost objects logged
+ * @version 1.20	17.10.2026	batches written by a separate thread, SQL dialect
  * @version 1.10	16.08.2003	additional parameters reported
  * @version 1.00	03.09.2001	first version
  * @author FH Oldenburg
  */
-public class OracleReporter extends Reporter {
+public class OracleReporter extends Reporter implements Runnable {
+
+	/**
+	 * Batch of objects to be stored.
+	 */
+	static class Batch {
+		/**
+		 * Does the batch contain external objects?
+		 */
+		final boolean external;
+		/**
+		 * Values of the objects.
+		 */
+		final long[] id;
+		final int[] num;
+		final int[] time;
+		final int[] objClass;
+		final int[] x, y;
+		final int[] width, height;
+		/**
+		 * Number of objects.
+		 */
+		int size = 0;
+
+		/**
+		 * Constructor.
+		 * @param external does the batch contain external objects?
+		 * @param capacity maximum number of objects
+		 */
+		Batch (boolean external, int capacity) {
+			this.external = external;
+			id = new long[capacity];
+			num = new int[capacity];
+			time = new int[capacity];
+			objClass = new int[capacity];
+			x = new int[capacity];
+			y = new int[capacity];
+			width = external ? new int[capacity] : null;
+			height = external ? new int[capacity] : null;
+		}
+		/**
+		 * Adds an object.
+		 * @return is the batch full?
+		 */
+		boolean add (long id, int num, int time, int objClass, int x, int y, int width, int height) {
+			this.id[size] = id;
+			this.num[size] = num;
+			this.time[size] = time;
+			this.objClass[size] = objClass;
+			this.x[size] = x;
+			this.y[size] = y;
+			if (external) {
+				this.width[size] = width;
+				this.height[size] = height;
+			}
+			return ++size == this.id.length;
+		}
+	}
+
+	/**
+	 * Default number of objects of a batch.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+	/**
+	 * Number of full batches waiting for the writer.
+	 */
+	private static final int QUEUE_SIZE = 4;
+	/**
+	 * Marker for the end of the batches.
+	 */
+	private static final Batch END = new Batch(false,0);
 
 	/**
 	 * Database connection.
 	 */
 	protected Connection con = null;
+	/**
+	 * The SQL dialect.
+	 */
+	protected SQLDialect dialect = null;
 	/**
 	 * Name of the table storing the external objects.
 	 */
@@ -36,6 +123,41 @@ public class OracleReporter extends Reporter {
 	 * Prepared database statement for storing moving objects.
 	 */
 	protected PreparedStatement prepMovObjStmt = null;
+	/**
+	 * Number of objects of a batch.
+	 */
+	protected int batchSize = DEFAULT_BATCH_SIZE;
+	/**
+	 * Batches currently filled by the generator.
+	 */
+	private Batch extBatch = null;
+	private Batch movBatch = null;
+	/**
+	 * Full batches waiting for the writer.
+	 */
+	private BlockingQueue fullBatches = new ArrayBlockingQueue(QUEUE_SIZE);
+	/**
+	 * Written batches of moving and external objects for reuse.
+	 */
+	private BlockingQueue freeMovBatches = new LinkedBlockingQueue();
+	private BlockingQueue freeExtBatches = new LinkedBlockingQueue();
+	/**
+	 * Number of batches handed to the writer and not yet written.
+	 */
+	private int pending = 0;
+	/**
+	 * The writer thread.
+	 */
+	private Thread writer = null;
+	/**
+	 * Has the writer thread failed? Then the batches are dropped.
+	 */
+	private volatile boolean failed = false;
+	/**
+	 * Number of objects which could not be stored (written by the writer thread).
+	 */
+	private long lostMovingObjects = 0;
+	private long lostExternalObjects = 0;
 
 /**
  * Constructor of the Oracle reporter.
@@ -48,28 +170,94 @@ public OracleReporter (Properties properties, DrawableObjects objects) {
 		dbMovingObjectTableName = properties.getProperty("dbMovingObjectTableName");
 	if (properties.getProperty("dbExternalObjectTableName") != null)
 		dbExternalObjectTableName = properties.getProperty("dbExternalObjectTableName");
+	if (properties.getProperty("dbBatchSize") != null)
+		try {
+			batchSize = Math.max(1,Integer.parseInt(properties.getProperty("dbBatchSize").trim()));
+		}
+		catch (NumberFormatException ex) {
+			System.err.println("OracleReporter: wrong dbBatchSize: "+ex);
+		}
+	dialect = SQLDialect.create(properties);
 	try {
 		con = getConnection(properties);
-		prepMovObjStmt = con.prepareStatement(
-			"INSERT INTO "+dbMovingObjectTableName+"(id,num,time,class,x,y,dbtime) VALUES (?,?,?,?,?,?,sysdate)");
-		prepExtObjStmt = con.prepareStatement(
-			"INSERT INTO "+dbExternalObjectTableName+"(id,num,time,class,x,y,width,height,dbtime) VALUES (?,?,?,?,?,?,?,?,sysdate)");
+		con.setAutoCommit(false);
+		prepMovObjStmt = dialect.prepareStatement(con,dialect.getInsertMovingObjectSQL(dbMovingObjectTableName));
+		prepExtObjStmt = dialect.prepareStatement(con,dialect.getInsertExternalObjectSQL(dbExternalObjectTableName));
 	}
 	catch (Exception ex) {
 		System.err.println("OracleReporter: Error while connecting: "+ex);
 		con = null;
+		return;
 	}
+	movBatch = new Batch(false,batchSize);
+	extBatch = new Batch(true,batchSize);
+	writer = new Thread(this,"OracleReporter");
+	writer.setDaemon(true);
+	writer.start();
 }
 
 /**
- * Closes the reporter.
+ * Adds an external object to the current batch.
+ */
+private void addExternalObject (long id, int num, int time, int objClass, int x, int y, int width, int height) {
+	if (extBatch.add(id,num,time,objClass,x,y,width,height))
+		extBatch = submit(extBatch);
+}
+
+/**
+ * Adds a moving object to the current batch.
+ */
+private void addMovingObject (long id, int num, int time, int objClass, int x, int y) {
+	if (movBatch.add(id,num,time,objClass,x,y,0,0))
+		movBatch = submit(movBatch);
+}
+
+/**
+ * Closes the reporter; waits until all objects are stored.
  */
 public void close() {
-	if (con != null)
+	if (con == null)
+		return;
+	flush();
+	try {
+		fullBatches.put(END);
+		writer.join();
+	}
+	catch (InterruptedException ex) {
+		Thread.currentThread().interrupt();
+	}
+	if (lostMovingObjects > 0)
+		System.err.println("OracleReporter: "+lostMovingObjects+" objects not stored into "+dbMovingObjectTableName);
+	if (lostExternalObjects > 0)
+		System.err.println("OracleReporter: "+lostExternalObjects+" objects not stored into "+dbExternalObjectTableName);
+	try {
+		prepMovObjStmt.close();
+		prepExtObjStmt.close();
+		con.close();
+	}
+	catch (Exception ex) {}
+	con = null;
+}
+
+/**
+ * Hands the partially filled batches to the writer and waits until all batches are stored.
+ */
+public void flush () {
+	if (con == null)
+		return;
+	if (movBatch.size > 0)
+		movBatch = submit(movBatch);
+	if (extBatch.size > 0)
+		extBatch = submit(extBatch);
+	synchronized (this) {
 		try {
-			con.close();
+			while (pending > 0)
+				wait();
 		}
-		catch (Exception ex) {}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
 }
 
 /**
@@ -98,12 +286,15 @@ public static Connection getConnection (Properties properties) throws SQLExcepti
  */
 public void removeReportedObjects() {
 	super.removeReportedObjects();
+	flush();
 	try {
 		Connection con = getConnection(properties);
 		Statement stmt = con.createStatement();
 		stmt.executeUpdate("DELETE FROM "+dbMovingObjectTableName);
 		stmt.executeUpdate("DELETE FROM "+dbExternalObjectTableName);
 		stmt.close();
+		if (!con.getAutoCommit())
+			con.commit();
 		con.close();
 	}
 	catch (Exception e) {
@@ -121,26 +312,12 @@ public void removeReportedObjects() {
  */
 public void reportDisappearingExternalObject (int time, long id, int repNum, int objClass, Rectangle rect) {
 	if (con != null)
-		try {
-			prepExtObjStmt.setLong (1,id);
-			prepExtObjStmt.setInt (2,repNum);
-			prepExtObjStmt.setInt (3,time);
-			prepExtObjStmt.setInt (4,objClass);
-			prepExtObjStmt.setInt (5,-1);
-			prepExtObjStmt.setInt (6,-1);
-			prepExtObjStmt.setInt (7,0);
-			prepExtObjStmt.setInt (8,0);
-			prepExtObjStmt.execute();
-		}
-		catch (Exception ex) {
-			System.err.println("reportDisappearingExternalObject: "+ex+" VALUES ("+
-				id+","+repNum+","+time+","+objClass+","+rect+")");
-		}
+		addExternalObject (id,repNum,time,objClass,-1,-1,0,0);
 }
 
 /**
  * Reports the characteristic properties of a dispappering object at a time stamp
- * @param  time  time stamp
+ * @param  time  the arrival time (with fraction)
  * @param  id  object id
  * @param  repNum  report number
  * @param  objClass  object class
@@ -149,22 +326,9 @@ public void reportDisappearingExternalObject (int time, long id, int repNum, int
  * @param  doneDist  the distance since the last reporting
  * @param  reportProbability  value between (0..1000)
  */
-public void reportDisappearingObject (int time, long id, int repNum, int objClass, int x, int y, double doneDist, int reportProbability) {
-	if ((reportProbability > 0) && (con != null)) {
-		try {
-			prepMovObjStmt.setLong (1,id);
-			prepMovObjStmt.setInt (2,repNum+1);
-			prepMovObjStmt.setInt (3,time);
-			prepMovObjStmt.setInt (4,objClass);
-			prepMovObjStmt.setInt (5,-1);
-			prepMovObjStmt.setInt (6,-1);
-			prepMovObjStmt.execute();
-		}
-		catch (Exception ex) {
-			System.err.println("reportDisappearingObject: "+ex+" VALUES ("+
-				id+","+(repNum+1)+","+time+","+objClass+","+x+","+y+")");
-		}
-	}
+public void reportDisappearingObject (double time, long id, int repNum, int objClass, int x, int y, double doneDist, int reportProbability) {
+	if ((reportProbability > 0) && (con != null))
+		addMovingObject (id,repNum+1,(int)Math.ceil(time),objClass,-1,-1);
 }
 
 /**
@@ -178,21 +342,7 @@ public void reportDisappearingObject (int time, long id, int repNum, int objClas
 public void reportMovingExternalObject (int time, long id, int repNum, int objClass, Rectangle rect) {
 	super.reportMovingExternalObject (time,id,repNum,objClass,rect);
 	if (con != null)
-		try {
-			prepExtObjStmt.setLong (1,id);
-			prepExtObjStmt.setInt (2,repNum);
-			prepExtObjStmt.setInt (3,time);
-			prepExtObjStmt.setInt (4,objClass);
-			prepExtObjStmt.setInt (5,rect.x);
-			prepExtObjStmt.setInt (6,rect.y);
-			prepExtObjStmt.setInt (7,rect.width);
-			prepExtObjStmt.setInt (8,rect.height);
-			prepExtObjStmt.execute();
-		}
-		catch (Exception ex) {
-			System.err.println("reportMovingExternalObject: "+ex+" VALUES ("+
-				id+","+repNum+","+time+","+objClass+","+rect+")");
-		}
+		addExternalObject (id,repNum,time,objClass,rect.x,rect.y,rect.width,rect.height);
 }
 
 /**
@@ -213,19 +363,7 @@ public void reportMovingExternalObject (int time, long id, int repNum, int objCl
 public int reportMovingObject (int time, long id, int repNum, int objClass, double x, double y, double speed, double doneDist, int nextNodeX, int nextNodeY, int reportProbability) {
 	int newRepNum = super.reportMovingObject (time,id,repNum,objClass,x,y,speed,doneDist,nextNodeX,nextNodeY,reportProbability);
 	if ((repNum != newRepNum) && (con != null))
-		try {
-			prepMovObjStmt.setLong (1,id);
-			prepMovObjStmt.setInt (2,newRepNum);
-			prepMovObjStmt.setInt (3,time);
-			prepMovObjStmt.setInt (4,objClass);
-			prepMovObjStmt.setInt (5,(int)x);
-			prepMovObjStmt.setInt (6,(int)y);
-			prepMovObjStmt.execute();
-		}
-		catch (Exception ex) {
-			System.err.println("reportMovingOject: "+ex+" VALUES ("+
-				id+","+newRepNum+","+time+","+objClass+","+x+","+y+")");
-		}
+		addMovingObject (id,newRepNum,time,objClass,(int)x,(int)y);
 	return newRepNum;
 }
 
@@ -239,21 +377,7 @@ public int reportMovingObject (int time, long id, int repNum, int objClass, doub
 public void reportNewExternalObject (int time, long id, int objClass, Rectangle rect) {
 	super.reportNewExternalObject (time,id,objClass,rect);
 	if (con != null)
-		try {
-			prepExtObjStmt.setLong (1,id);
-			prepExtObjStmt.setInt (2,1);
-			prepExtObjStmt.setInt (3,time);
-			prepExtObjStmt.setInt (4,objClass);
-			prepExtObjStmt.setInt (5,rect.x);
-			prepExtObjStmt.setInt (6,rect.y);
-			prepExtObjStmt.setInt (7,rect.width);
-			prepExtObjStmt.setInt (8,rect.height);
-			prepExtObjStmt.execute();
-		}
-		catch (Exception ex) {
-			System.err.println("reportNewExternalObject: "+ex+" VALUES ("+
-				id+",1,"+time+","+objClass+","+rect+")");
-		}
+		addExternalObject (id,1,time,objClass,rect.x,rect.y,rect.width,rect.height);
 }
 
 /**
@@ -271,20 +395,123 @@ public void reportNewExternalObject (int time, long id, int objClass, Rectangle
 public int reportNewMovingObject (int time, long id, int objClass, int x, int y, double speed, int nextNodeX, int nextNodeY, int reportProbability) {
 	int repNum = super.reportNewMovingObject(time,id,objClass,x,y,speed,nextNodeX,nextNodeY,reportProbability);
 	if ((repNum > 0) && (con != null))
+		addMovingObject (id,repNum,time,objClass,x,y);
+	return repNum;
+}
+
+/**
+ * Counts the objects of a batch which could not be stored.
+ * @param batch the batch
+ */
+private void lose (Batch batch) {
+	if (batch.external)
+		lostExternalObjects += batch.size;
+	else
+		lostMovingObjects += batch.size;
+}
+
+/**
+ * Loop of the writer thread: stores the full batches until the end marker arrives.
+ * A batch is always released, so that flush and close do not wait forever.
+ */
+public void run () {
+	while (true) {
+		Batch batch;
 		try {
-			prepMovObjStmt.setLong (1,id);
-			prepMovObjStmt.setInt (2,repNum);
-			prepMovObjStmt.setInt (3,time);
-			prepMovObjStmt.setInt (4,objClass);
-			prepMovObjStmt.setInt (5,x);
-			prepMovObjStmt.setInt (6,y);
-			prepMovObjStmt.execute();
+			batch = (Batch)fullBatches.take();
 		}
-		catch (Exception ex) {
-			System.err.println("reportNewMovingOject: "+ex+" VALUES ("+
-				id+","+repNum+","+time+","+objClass+","+x+","+y+")");
+		catch (InterruptedException ex) {
+			continue;
 		}
-	return repNum;
+		if (batch == END)
+			return;
+		try {
+			if (failed)
+				lose (batch);
+			else
+				write (batch);
+		}
+		catch (Throwable ex) {
+			failed = true;
+			lose (batch);
+			System.err.println("Error occured in the writer of the OracleReporter, further objects are dropped: "+ex);
+		}
+		finally {
+			batch.size = 0;
+			(batch.external ? freeExtBatches : freeMovBatches).offer(batch);
+			synchronized (this) {
+				pending--;
+				notifyAll();
+			}
+		}
+	}
 }
 
-}
\ No newline at end of file
+/**
+ * Hands a batch to the writer; waits if too many batches are waiting.
+ * @return an empty batch
+ * @param batch the batch
+ */
+private Batch submit (Batch batch) {
+	synchronized (this) {
+		pending++;
+	}
+	boolean interrupted = false;
+	while (true)
+		try {
+			fullBatches.put(batch);
+			break;
+		}
+		catch (InterruptedException ex) {
+			interrupted = true;
+		}
+	if (interrupted)
+		Thread.currentThread().interrupt();
+	Batch empty = (Batch)(batch.external ? freeExtBatches : freeMovBatches).poll();
+	if (empty == null)
+		empty = new Batch(batch.external,batchSize);
+	return empty;
+}
+
+/**
+ * Stores a batch and commits it; called by the writer thread.
+ * If the batch cannot be stored, it is rolled back and its objects are counted as lost.
+ * @param batch the batch
+ */
+private void write (Batch batch) {
+	PreparedStatement stmt = batch.external ? prepExtObjStmt : prepMovObjStmt;
+	try {
+		for (int i=0; i<batch.size; i++) {
+			stmt.setLong (1,batch.id[i]);
+			stmt.setInt (2,batch.num[i]);
+			stmt.setInt (3,batch.time[i]);
+			stmt.setInt (4,batch.objClass[i]);
+			stmt.setInt (5,batch.x[i]);
+			stmt.setInt (6,batch.y[i]);
+			if (batch.external) {
+				stmt.setInt (7,batch.width[i]);
+				stmt.setInt (8,batch.height[i]);
+				dialect.setExternalObjectGeometry (stmt,(batch.x[i] == -1) && (batch.y[i] == -1) ? null :
+					new Rectangle(batch.x[i],batch.y[i],batch.width[i],batch.height[i]));
+			}
+			else
+				dialect.setMovingObjectGeometry (stmt,batch.x[i],batch.y[i],(batch.x[i] == -1) && (batch.y[i] == -1));
+			stmt.addBatch();
+		}
+		stmt.executeBatch();
+		con.commit();
+	}
+	catch (Exception ex) {
+		SQLException next = (ex instanceof SQLException) ? ((SQLException)ex).getNextException() : null;
+		System.err.println("Error occured by storing "+batch.size+" objects into "+
+			(batch.external ? dbExternalObjectTableName : dbMovingObjectTableName)+": "+ex+(next != null ? " ("+next+")" : ""));
+		lose (batch);
+		try {
+			stmt.clearBatch();
+			con.rollback();
+		}
+		catch (Exception ex2) {}
+	}
+}
+
+}
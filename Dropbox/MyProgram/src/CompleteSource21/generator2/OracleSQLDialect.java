@@ -0,0 +1,109 @@
+package generator2;
+
+import java.awt.Rectangle;
+import java.sql.*;
+import java.util.Properties;
+
+import spatialdb.PreparedSpatialStatement;
+
+/**
+ * SQL dialect for an Oracle database.
+ * If the property "dbGeometry" contains the name of a column, the position
+ * of a moving object is additionally stored as point and the area of an
+ * external object as rectangle (SDO_GEOMETRY) by a PreparedSpatialStatement.
+ * Requires classes12.zip and sdoapi.zip in the classpath for this purpose.
+ *
+ * @version 1.00	17.10.2026	first version
+ */
+public class OracleSQLDialect extends SQLDialect {
+
+	/**
+	 * Name of the geometry column (null if no geometry is stored).
+	 */
+	protected String dbGeometry = null;
+
+/**
+ * Returns the SQL expression for the current time of the database.
+ * @return SQL expression
+ */
+public String getCurrentTime () {
+	return "sysdate";
+}
+
+/**
+ * Returns the SQL statement for storing an external object.
+ * @return SQL statement
+ * @param table name of the table
+ */
+public String getInsertExternalObjectSQL (String table) {
+	if (dbGeometry == null)
+		return super.getInsertExternalObjectSQL(table);
+	return "INSERT INTO "+table+"(id,num,time,class,x,y,width,height,dbtime,"+dbGeometry+") VALUES (?,?,?,?,?,?,?,?,sysdate,?)";
+}
+
+/**
+ * Returns the SQL statement for storing a moving object.
+ * @return SQL statement
+ * @param table name of the table
+ */
+public String getInsertMovingObjectSQL (String table) {
+	if (dbGeometry == null)
+		return super.getInsertMovingObjectSQL(table);
+	return "INSERT INTO "+table+"(id,num,time,class,x,y,dbtime,"+dbGeometry+") VALUES (?,?,?,?,?,?,sysdate,?)";
+}
+
+/**
+ * Initializes the dialect.
+ * @param properties properties of the generator
+ */
+protected void init (Properties properties) {
+	dbGeometry = properties.getProperty("dbGeometry");
+}
+
+/**
+ * Prepares a statement; a spatial statement if the geometry is stored.
+ * @return the prepared statement
+ * @param con the database connection
+ * @param sql the SQL statement
+ * @exception SQLException if a database access error occurs
+ */
+public PreparedStatement prepareStatement (Connection con, String sql) throws SQLException {
+	PreparedStatement stmt = con.prepareStatement(sql);
+	if (dbGeometry == null)
+		return stmt;
+	return new PreparedSpatialStatement(stmt);
+}
+
+/**
+ * Sets the rectangle of an external object.
+ * @param stmt the prepared statement
+ * @param rect the area (null for a disappearing object)
+ * @exception SQLException if a database access error occurs
+ */
+public void setExternalObjectGeometry (PreparedStatement stmt, Rectangle rect) throws SQLException {
+	if (dbGeometry == null)
+		return;
+	if (rect == null)
+		stmt.setNull(9,Types.STRUCT,"MDSYS.SDO_GEOMETRY");
+	else
+		((PreparedSpatialStatement)stmt).setRectangle(9,rect.x,rect.y,rect.x+rect.width,rect.y+rect.height);
+}
+
+/**
+ * Sets the point of a moving object.
+ * @param stmt the prepared statement
+ * @param x x-coordinate
+ * @param y y-coordinate
+ * @param disappearing is the object disappearing?
+ * @exception SQLException if a database access error occurs
+ */
+public void setMovingObjectGeometry (PreparedStatement stmt, int x, int y, boolean disappearing) throws SQLException {
+	if (dbGeometry == null)
+		return;
+	if (disappearing)
+		stmt.setNull(7,Types.STRUCT,"MDSYS.SDO_GEOMETRY");
+	else
+		((PreparedSpatialStatement)stmt).setPoint(7,x,y);
+}
+
+}
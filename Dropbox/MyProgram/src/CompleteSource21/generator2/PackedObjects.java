@@ -0,0 +1,425 @@
+package generator2;
+
+import routing.*;
+
+/**
+ * Struct-of-arrays store of the moving objects of a MovingObjects container
+ * (see MovingObjects.usePackedStore). The state of an object is kept in parallel
+ * primitive arrays indexed by the position of the object; the nodes and edges
+ * are referenced by their ordinals in the CompactGraph of the network.
+ * The routes are stored as spans of a shared arena (edge ordinal, direction,
+ * original weight). A span is not changed after its creation: a rerouting
+ * appends a new span consisting of the edges traversed since the last time
+ * stamp, the current edge and the new route. The arena is compacted at the
+ * beginning of a time stamp if it contains more garbage than live entries.
+ * The movement is computed by Movement like the one of a MovingObject, so that
+ * both stores produce the same data.
+ *
+ * @version 1.20	17.10.2026	movement computed by Movement (shared with MovingObject)
+ * @version 1.11	17.10.2026	weights computed for the routing profile of the object class
+ * @version 1.10	17.10.2026	routes taken from Route
+ * @version 1.00	17.10.2026	first version
+ */
+public class PackedObjects extends Movement {
+
+	/**
+	 * The arena of the routes. The arrays are replaced when the arena grows;
+	 * entries are only appended.
+	 */
+	private static class Arena {
+		final int[] edge;
+		final boolean[] forwards;
+		final double[] origWeight;
+		int top = 0;
+		Arena (int capacity) {
+			edge = new int[capacity];
+			forwards = new boolean[capacity];
+			origWeight = new double[capacity];
+		}
+	}
+
+	/**
+	 * The container of the objects.
+	 */
+	private MovingObjects container = null;
+	/**
+	 * The graph of the network.
+	 */
+	private CompactGraph graph = null;
+	/**
+	 * Description of the object classes.
+	 */
+	private ObjectClasses objClasses = null;
+	/**
+	 * The arena of the routes.
+	 */
+	private volatile Arena arena = new Arena(1024);
+
+	/**
+	 * Number of objects.
+	 */
+	private int num = 0;
+	/**
+	 * Identifier, object class, time stamps, report numbers and number of passed edges.
+	 */
+	private int[] id, objClass, startTime, lastTime, actTime, repNum, edgeNum;
+	/**
+	 * Ordinals of the starting node, the destination node and the last traversed node.
+	 */
+	private int[] start, dest, lastNode;
+	/**
+	 * Relative distance on the current edge, distance since the last report,
+	 * last computed position and arrival time.
+	 */
+	private double[] relDist, doneDist, lastX, lastY, arrivalTime;
+	/**
+	 * Positions in the arena: first edge traversed during the last time period
+	 * (-1 if none), current edge and end of the route.
+	 */
+	private int[] last, head, end;
+
+/**
+ * Constructor.
+ * @param container the container of the objects
+ * @param graph the graph of the network
+ */
+public PackedObjects (MovingObjects container, CompactGraph graph) {
+	this.container = container;
+	this.graph = graph;
+	this.objClasses = container.getObjectClasses();
+	allocate (1024);
+}
+
+/**
+ * Adds an object.
+ */
+void add (int id, int objClass, Node start, Node dest, int startTime, int lastTime, int actTime, int repNum, int edgeNum,
+		Node lastNode, double relDist, double doneDist, double lastX, double lastY, Route route, int lastPos, int pos) {
+	if (num == this.id.length)
+		allocate (2*num);
+	int i = num++;
+	this.id[i] = id;
+	this.objClass[i] = objClass;
+	this.start[i] = start.getIndex();
+	this.dest[i] = dest.getIndex();
+	this.startTime[i] = startTime;
+	this.lastTime[i] = lastTime;
+	this.actTime[i] = actTime;
+	this.repNum[i] = repNum;
+	this.edgeNum[i] = edgeNum;
+	this.lastNode[i] = lastNode.getIndex();
+	this.relDist[i] = relDist;
+	this.doneDist[i] = doneDist;
+	this.lastX[i] = lastX;
+	this.lastY[i] = lastY;
+	if ((route == null) || (pos >= route.size())) {
+		last[i] = -1;
+		head[i] = end[i] = 0;
+		return;
+	}
+	int first = (lastPos >= 0) ? lastPos : pos;
+	int at = appendRoute (0,0,route,first);
+	last[i] = (lastPos >= 0) ? at : -1;
+	head[i] = at+pos-first;
+	end[i] = at+route.size()-first;
+}
+
+/**
+ * Allocates the arrays of the objects.
+ * @param capacity number of objects
+ */
+private void allocate (int capacity) {
+	id = grow(id,capacity); objClass = grow(objClass,capacity);
+	startTime = grow(startTime,capacity); lastTime = grow(lastTime,capacity); actTime = grow(actTime,capacity);
+	repNum = grow(repNum,capacity); edgeNum = grow(edgeNum,capacity);
+	start = grow(start,capacity); dest = grow(dest,capacity); lastNode = grow(lastNode,capacity);
+	relDist = grow(relDist,capacity); doneDist = grow(doneDist,capacity);
+	lastX = grow(lastX,capacity); lastY = grow(lastY,capacity); arrivalTime = grow(arrivalTime,capacity);
+	last = grow(last,capacity); head = grow(head,capacity); end = grow(end,capacity);
+}
+
+/**
+ * Appends a span to the arena consisting of the entries from..to-1 of the arena
+ * and the edges of a route from a given position.
+ * @return position of the span
+ * @param from first entry to be copied
+ * @param to end of the entries to be copied
+ * @param route the route (may be null)
+ * @param routeFrom position of the first edge of the route to be copied
+ */
+private synchronized int appendRoute (int from, int to, Route route, int routeFrom) {
+	Arena a = arena;
+	int len = to-from+((route != null) ? route.size()-routeFrom : 0);
+	if (a.top+len > a.edge.length) {
+		Arena b = new Arena(Math.max(2*a.edge.length,a.top+len));
+		System.arraycopy (a.edge,0,b.edge,0,a.top);
+		System.arraycopy (a.forwards,0,b.forwards,0,a.top);
+		System.arraycopy (a.origWeight,0,b.origWeight,0,a.top);
+		b.top = a.top;
+		a = b;
+	}
+	int pos = a.top;
+	int k = pos;
+	for (int j=from; j<to; j++, k++) {
+		a.edge[k] = a.edge[j];
+		a.forwards[k] = a.forwards[j];
+		a.origWeight[k] = a.origWeight[j];
+	}
+	for (int j=routeFrom; (route != null) && (j<route.size()); j++, k++) {
+		a.edge[k] = route.getEdgeIndex(j);
+		a.forwards[k] = route.getForwards(j);
+		a.origWeight[k] = route.getOrigWeight(j);
+	}
+	a.top = k;
+	arena = a;
+	return pos;
+}
+
+/**
+ * Compacts the arena if it contains more garbage than live entries.
+ * Must not be called while objects are moved.
+ */
+void compact () {
+	Arena a = arena;
+	int live = 0;
+	for (int i=0; i<num; i++)
+		live += end[i]-((last[i] >= 0) ? last[i] : head[i]);
+	if (a.top <= 2*live+1024)
+		return;
+	Arena b = new Arena(Math.max(2*live,1024));
+	for (int i=0; i<num; i++) {
+		int from = (last[i] >= 0) ? last[i] : head[i];
+		int len = end[i]-from;
+		System.arraycopy (a.edge,from,b.edge,b.top,len);
+		System.arraycopy (a.forwards,from,b.forwards,b.top,len);
+		System.arraycopy (a.origWeight,from,b.origWeight,b.top,len);
+		if (last[i] >= 0)
+			last[i] = b.top;
+		head[i] += b.top-from;
+		end[i] = b.top+len;
+		b.top += len;
+	}
+	arena = b;
+}
+
+/**
+ * Returns the identifier of an object.
+ * @return the id
+ * @param i position of the object
+ */
+public int getId (int i) {
+	return id[i];
+}
+
+/**
+ * Returns an object with the identifier, class, starting and destination
+ * node of a stored object (for ObjectGenerator.reachDestination).
+ * @return the moving object
+ * @param i position of the object
+ */
+public MovingObject getMovingObject (int i) {
+	return new MovingObject (id[i],objClass[i],graph.getNode(start[i]),graph.getNode(dest[i]),startTime[i]);
+}
+
+/**
+ * Enlarges an array.
+ */
+private static int[] grow (int[] array, int capacity) {
+	int[] res = new int[capacity];
+	if (array != null)
+		System.arraycopy (array,0,res,0,Math.min(array.length,capacity));
+	return res;
+}
+
+/**
+ * Enlarges an array.
+ */
+private static double[] grow (double[] array, int capacity) {
+	double[] res = new double[capacity];
+	if (array != null)
+		System.arraycopy (array,0,res,0,Math.min(array.length,capacity));
+	return res;
+}
+
+/**
+ * Moves an object to the position at the new time (see MovingObject.move).
+ * The position(s) are reported.
+ * @return has the object reached its destination?
+ * @param i position of the object
+ * @param newTime new time
+ * @param reporter reporter
+ */
+public boolean move (int i, int newTime, Reporter reporter) {
+	return moveObject (i,newTime,reporter);
+}
+
+/**
+ * Removes the object at a given position; the last object takes its position.
+ * @param i position of the object
+ */
+public void remove (int i) {
+	int j = --num;
+	id[i] = id[j]; objClass[i] = objClass[j];
+	startTime[i] = startTime[j]; lastTime[i] = lastTime[j]; actTime[i] = actTime[j];
+	repNum[i] = repNum[j]; edgeNum[i] = edgeNum[j];
+	start[i] = start[j]; dest[i] = dest[j]; lastNode[i] = lastNode[j];
+	relDist[i] = relDist[j]; doneDist[i] = doneDist[j];
+	lastX[i] = lastX[j]; lastY[i] = lastY[j]; arrivalTime[i] = arrivalTime[j];
+	last[i] = last[j]; head[i] = head[j]; end[i] = end[j];
+}
+
+/**
+ * Removes all objects; the usage of the edges traversed since the last time
+ * stamp and of the current edges is decreased.
+ */
+public void removeAll () {
+	for (int i=0; i<num; i++) {
+		if (head[i] >= end[i])
+			continue;
+		decreaseUsage (i,head[i]);
+		getEdge(i,head[i]).decUsage();
+	}
+	num = 0;
+	arena = new Arena(1024);
+}
+
+/**
+ * Reports that an object has reached its destination.
+ * @param i position of the object
+ * @param reporter reporter
+ */
+public void reportEnd (int i, Reporter reporter) {
+	reportArrival (i,reporter);
+}
+
+/**
+ * Replaces the route of an object by a new span consisting of the edges
+ * traversed since the last time stamp, the current edge and a new route
+ * (see Movement.reroute).
+ * @param i position of the object
+ * @param newRoute the new route
+ */
+protected void replaceRoute (int i, Route newRoute) {
+	int len = head[i]+1-last[i];
+	int pos = appendRoute (last[i],head[i]+1,newRoute,0);
+	last[i] = pos;
+	head[i] = pos+len-1;
+	end[i] = pos+len+newRoute.size();
+}
+
+/**
+ * Returns the number of objects.
+ * @return number of objects
+ */
+public int size () {
+	return num;
+}
+
+// state of the objects for Movement
+
+protected MovingObjects getContainer () {
+	return container;
+}
+protected ObjectClasses getObjectClasses () {
+	return objClasses;
+}
+protected int getObjectClass (int i) {
+	return objClass[i];
+}
+protected int getLastTime (int i) {
+	return lastTime[i];
+}
+protected void setLastTime (int i, int time) {
+	lastTime[i] = time;
+}
+protected int getActTime (int i) {
+	return actTime[i];
+}
+protected void setActTime (int i, int time) {
+	actTime[i] = time;
+}
+protected int getRepNum (int i) {
+	return repNum[i];
+}
+protected void setRepNum (int i, int num) {
+	repNum[i] = num;
+}
+protected int incEdgeNum (int i) {
+	return ++edgeNum[i];
+}
+protected Node getLastNode (int i) {
+	return graph.getNode(lastNode[i]);
+}
+protected void setLastNode (int i, Node node) {
+	lastNode[i] = node.getIndex();
+}
+protected Node getDestination (int i) {
+	return graph.getNode(dest[i]);
+}
+protected void setDestination (int i, Node node) {
+	dest[i] = node.getIndex();
+}
+protected double getRelDist (int i) {
+	return relDist[i];
+}
+protected void setRelDist (int i, double dist) {
+	relDist[i] = dist;
+}
+protected double getDoneDist (int i) {
+	return doneDist[i];
+}
+protected void setDoneDist (int i, double dist) {
+	doneDist[i] = dist;
+}
+protected double getLastX (int i) {
+	return lastX[i];
+}
+protected double getLastY (int i) {
+	return lastY[i];
+}
+protected void setLastPoint (int i, double x, double y) {
+	lastX[i] = x;
+	lastY[i] = y;
+}
+protected double getArrivalTime (int i) {
+	return arrivalTime[i];
+}
+protected void setArrivalTime (int i, double time) {
+	arrivalTime[i] = time;
+}
+protected int getPosition (int i) {
+	return head[i];
+}
+protected void setPosition (int i, int pos) {
+	head[i] = pos;
+}
+protected int getLastPosition (int i) {
+	return last[i];
+}
+protected void setLastPosition (int i, int pos) {
+	last[i] = pos;
+}
+protected int getEnd (int i) {
+	return end[i];
+}
+protected Edge getEdge (int i, int k) {
+	return graph.getEdge(arena.edge[k]);
+}
+protected boolean getForwards (int i, int k) {
+	return arena.forwards[k];
+}
+protected double getOrigWeight (int i, int k) {
+	return arena.origWeight[k];
+}
+protected Node getStartingNode (int i, int k) {
+	Arena a = arena;
+	Edge edge = graph.getEdge(a.edge[k]);
+	return a.forwards[k] ? edge.getNode1() : edge.getNode2();
+}
+protected Node getDestinationNode (int i, int k) {
+	Arena a = arena;
+	Edge edge = graph.getEdge(a.edge[k]);
+	return a.forwards[k] ? edge.getNode2() : edge.getNode1();
+}
+
+}
@@ -1,13 +1,29 @@
 package generator2;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.Properties;
 
 import drawables.DrawableObjects;
 
 /**
  * Class for reporting the positions of moving objects into a file.
+ * The format depends on the extension of the file: .mpf for binary records,
+ * .mtr for result records of 32 bytes after a header of the same size
+ * (see putResultHeader and putResultRecord), .mcf for the
+ * columnar format of ColumnarWriter (the scale of the coordinates is set by
+ * the property "columnarScale", the number of records per chunk by
+ * "columnarChunkSize"), otherwise text.
+ * The positions are put into a ReportQueue, which is written by a separate
+ * thread. The size of its buffer (in records) is set by the property
+ * "reportQueueSize"; if the property "reportQueueDrop" is set, positions are
+ * dropped instead of waiting for the writer if the buffer is full. The
+ * property "syncReport" switches to writing in the generator thread.
  *
+ * @version 2.41	17.10.2026	header of the result records
+ * @version 2.40	17.10.2026	result records
+ * @version 2.30	17.10.2026	columnar format
+ * @version 2.20	17.10.2026	asynchronous writing by a ReportQueue
  * @version 2.10	27.08.2003	additional parameters reported
  * @version 2.01	17.09.2001	repNum added to file
  * @version 2.00	03.09.2001	separated from the class "Reporter"
@@ -15,6 +31,19 @@ import drawables.DrawableObjects;
  */
 public class PositionReporter extends Reporter {
 
+	/**
+	 * Size of a result record in bytes.
+	 */
+	public static final int RESULT_RECORD_SIZE = 32;
+	/**
+	 * Magic number at the beginning of a file of result records ("MTR" and 0).
+	 */
+	public static final int RESULT_MAGIC = 0x4d545200;
+	/**
+	 * Version of the result records.
+	 */
+	public static final int RESULT_VERSION = 1;
+
 	/**
 	 * The data output stream.
 	 */
@@ -23,6 +52,22 @@ public class PositionReporter extends Reporter {
 	 * The print writer.
 	 */
 	protected PrintWriter pOut = null;
+	/**
+	 * The queue of the positions (null if written synchronously).
+	 */
+	private ReportQueue queue = null;
+	/**
+	 * The columnar output (if written synchronously).
+	 */
+	private ColumnarWriter cOut = null;
+	/**
+	 * The output stream of result records (if written synchronously).
+	 */
+	private DataOutputStream rOut = null;
+	/**
+	 * Buffer of a result record.
+	 */
+	private ByteBuffer resultRecord = ByteBuffer.allocate(RESULT_RECORD_SIZE);
 
 /**
  * Constructor of the default reporter.
@@ -34,10 +79,37 @@ public PositionReporter (Properties properties, DrawableObjects objects) {
 	String name = properties.getProperty("outputFile");
 	if (name != null)
 		try {
-			if (name.endsWith(".mpf"))
-				this.dOut = new DataOutputStream(new FileOutputStream(name));
-			else
-				this.pOut = new PrintWriter(new FileOutputStream(name));
+			int queueSize = getIntProperty(properties,"reportQueueSize",ReportQueue.DEFAULT_CAPACITY);
+			boolean drop = properties.getProperty("reportQueueDrop") != null;
+			boolean sync = properties.getProperty("syncReport") != null;
+			if (name.endsWith(".mcf")) {
+				ColumnarWriter columnar = new ColumnarWriter(name,
+					getIntProperty(properties,"columnarScale",ColumnarWriter.DEFAULT_SCALE),
+					getIntProperty(properties,"columnarChunkSize",ColumnarWriter.DEFAULT_CHUNK_SIZE));
+				if (sync)
+					this.cOut = columnar;
+				else
+					this.queue = new ReportQueue(columnar,queueSize,drop);
+			}
+			else {
+				int format = ReportQueue.TEXT;
+				if (name.endsWith(".mpf"))
+					format = ReportQueue.MPF;
+				else if (name.endsWith(".mtr"))
+					format = ReportQueue.MTR;
+				if (!sync)
+					this.queue = new ReportQueue(name,format,queueSize,drop);
+				else if (format == ReportQueue.MPF)
+					this.dOut = new DataOutputStream(new FileOutputStream(name));
+				else if (format == ReportQueue.MTR) {
+					this.rOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(name),1<<16));
+					resultRecord.clear();
+					putResultHeader(resultRecord);
+					rOut.write(resultRecord.array());
+				}
+				else
+					this.pOut = new PrintWriter(new FileOutputStream(name));
+			}
 		}
 		catch (Exception ioe) {
 			System.err.println("Error occured by creating the output file "+name);
@@ -48,15 +120,40 @@ public PositionReporter (Properties properties, DrawableObjects objects) {
  * Closes the reporter.
  */
 public void close() {
+	if (queue != null)
+		queue.close();
 	try {
 		if (dOut != null)
 			dOut.close();
 		if (pOut != null)
 			pOut.close();
+		if (cOut != null)
+			cOut.close();
+		if (rOut != null)
+			rOut.close();
 	} catch (Exception ex) {
 	}
 }
 
+/**
+ * Returns the positive value of an integer property.
+ * @return the value or the default value if the property is not set
+ * @param properties properties of the generator
+ * @param key name of the property
+ * @param defaultValue the default value
+ */
+private static int getIntProperty (Properties properties, String key, int defaultValue) {
+	String value = properties.getProperty(key);
+	if (value != null)
+		try {
+			return Math.max(1,Integer.parseInt(value));
+		}
+		catch (NumberFormatException ex) {
+			System.err.println("Illegal "+key+" "+value);
+		}
+	return defaultValue;
+}
+
 /**
  * Prints the given point to the print writer.
  * @param  out  the print writer
@@ -87,6 +184,30 @@ protected static void print (PrintWriter out, String action, long id, int repNum
 	out.println(nextNodeY);
 }
 
+/**
+ * Prints the given point to the ColumnarWriter.
+ * @param  out  the ColumnarWriter
+ * @param  action  the action of the object
+ * @param  id  object id
+ * @param  repNum  report number
+ * @param  objClass  object class
+ * @param  time  time stamp
+ * @param  x  current x-coordinate
+ * @param  y  current y-coordinate
+ * @param  speed  current speed
+ * @param  doneDist  the distance since the last reporting
+ * @param  nextNodeX  x-coordinate of the next node
+ * @param  nextNodeY  y-coordinate of the next node
+ */
+protected static void print (ColumnarWriter out, byte action, long id, int repNum, int objClass, int time, double x, double y, double speed, double doneDist, int nextNodeX, int nextNodeY) {
+	if (out == null)
+		return;
+	try {
+		out.add(action,id,repNum,objClass,time,x,y,speed,doneDist,nextNodeX,nextNodeY);
+	} catch (Exception ex) {
+	}
+}
+
 /**
  * Prints the given point to the DataOutputStream.
  * @param  out  the DataOutputStream
@@ -121,6 +242,67 @@ protected static void print (DataOutputStream out, byte action, long id, int rep
 	}
 }
 
+/**
+ * Prints the given point as result record to the DataOutputStream.
+ * @param  out  the DataOutputStream
+ * @param  action  the action of the object
+ * @param  id  object id
+ * @param  repNum  report number
+ * @param  objClass  object class
+ * @param  time  time stamp
+ * @param  x  current x-coordinate
+ * @param  y  current y-coordinate
+ */
+protected void printResultRecord (DataOutputStream out, byte action, long id, int repNum, int objClass, int time, double x, double y) {
+	if (out == null)
+		return;
+	try {
+		resultRecord.clear();
+		putResultRecord(resultRecord,action,id,repNum,objClass,time,x,y);
+		out.write(resultRecord.array());
+	} catch (Exception ex) {
+	}
+}
+
+/**
+ * Puts the header of a file of result records into a buffer. The header has
+ * the size of a record: int RESULT_MAGIC, int RESULT_VERSION, zeros. Readers
+ * must reject files without it, e.g. text written by an older generator into
+ * a file ending with ".mtr".
+ * @param  buf  the buffer
+ */
+static void putResultHeader (ByteBuffer buf) {
+	buf.putInt(RESULT_MAGIC);
+	buf.putInt(RESULT_VERSION);
+	for (int i=8; i<RESULT_RECORD_SIZE; i++)
+		buf.put((byte)0);
+}
+
+/**
+ * Puts a result record into a buffer. A result record has 32 bytes
+ * (big-endian order): long id, int time, int action (NEW_OBJECT, MOVE_OBJECT
+ * or DEL_OBJECT), int x, int y (the coordinates rounded to integers),
+ * int objClass, int repNum. It can be read without parsing, e.g. by the
+ * MNTG server.
+ * @param  buf  the buffer
+ * @param  action  the action of the object
+ * @param  id  object id
+ * @param  repNum  report number
+ * @param  objClass  object class
+ * @param  time  time stamp
+ * @param  x  current x-coordinate
+ * @param  y  current y-coordinate
+ */
+static void putResultRecord (ByteBuffer buf, byte action, long id, int repNum, int objClass, int time, double x, double y) {
+	buf.putLong(id);
+	buf.putInt(time);
+	buf.putInt(action);
+	buf.putInt((int)Math.round(x));
+	buf.putInt((int)Math.round(y));
+	buf.putInt(objClass);
+	buf.putInt(repNum);
+}
+
 /**
  * Reports the characteristic properties of a dispappering object at a time stamp
  * @param  time  the arrival time (with fraction)
@@ -134,10 +316,16 @@ protected static void print (DataOutputStream out, byte action, long id, int rep
  */
 public void reportDisappearingObject (double time, long id, int repNum, int objClass, int x, int y, double doneDist, int reportProbability) {
 	if (reportProbability > 0) {
+		if (queue != null)
+			queue.put(DEL_OBJECT,id,repNum,objClass,(int)Math.ceil(time),x,y,0.0,doneDist,x,y);
 		if (pOut != null)
 			print(pOut,"disappearpoint",id,repNum,objClass,(int)Math.ceil(time),x,y,0.0,doneDist,x,y);
 		if (dOut != null)
 			print(dOut,DEL_OBJECT,id,repNum,objClass,(int)Math.ceil(time),x,y,0.0,doneDist,x,y);
+		if (cOut != null)
+			print(cOut,DEL_OBJECT,id,repNum,objClass,(int)Math.ceil(time),x,y,0.0,doneDist,x,y);
+		if (rOut != null)
+			printResultRecord(rOut,DEL_OBJECT,id,repNum,objClass,(int)Math.ceil(time),x,y);
 	}
 }
 
@@ -160,10 +348,16 @@ public void reportDisappearingObject (double time, long id, int repNum, int objC
 public int reportMovingObject (int time, long id, int repNum, int objClass, double x, double y, double speed, double doneDist, int nextNodeX, int nextNodeY, int reportProbability) {
 	int newRepNum = super.reportMovingObject (time,id,repNum,objClass,x,y,speed,doneDist,nextNodeX,nextNodeY,reportProbability);
 	if (repNum != newRepNum) {
+		if (queue != null)
+			queue.put(MOVE_OBJECT,id,newRepNum,objClass,time,x,y,speed,doneDist,nextNodeX,nextNodeY);
 		if (pOut != null)
 			print(pOut,"point",id,newRepNum,objClass,time,x,y,speed,doneDist,nextNodeX,nextNodeY);
 		if (dOut != null)
 			print(dOut,MOVE_OBJECT,id,newRepNum,objClass,time,x,y,speed,doneDist,nextNodeX,nextNodeY);
+		if (cOut != null)
+			print(cOut,MOVE_OBJECT,id,newRepNum,objClass,time,x,y,speed,doneDist,nextNodeX,nextNodeY);
+		if (rOut != null)
+			printResultRecord(rOut,MOVE_OBJECT,id,newRepNum,objClass,time,x,y);
 	}
 	return newRepNum;
 }
@@ -183,10 +377,16 @@ public int reportMovingObject (int time, long id, int repNum, int objClass, doub
 public int reportNewMovingObject (int time, long id, int objClass, int x, int y, double speed, int nextNodeX, int nextNodeY, int reportProbability) {
 	int repNum = super.reportNewMovingObject(time,id,objClass,x,y,speed,nextNodeX,nextNodeY,reportProbability);
 	if (repNum > 0) {
+		if (queue != null)
+			queue.put(NEW_OBJECT,id,repNum,objClass,time,x,y,speed,0.0,nextNodeX,nextNodeY);
 		if (pOut != null)
 			print(pOut,"newpoint",id,repNum,objClass,time,x,y,speed,0.0,nextNodeX,nextNodeY);
 		if (dOut != null)
 			print(dOut,NEW_OBJECT,id,repNum,objClass,time,x,y,speed,0.0,nextNodeX,nextNodeY);
+		if (cOut != null)
+			print(cOut,NEW_OBJECT,id,repNum,objClass,time,x,y,speed,0.0,nextNodeX,nextNodeY);
+		if (rOut != null)
+			printResultRecord(rOut,NEW_OBJECT,id,repNum,objClass,time,x,y);
 	}
 	return repNum;
 }
@@ -6,6 +6,7 @@ import java.util.Random;
 /**
  * Class for providing the random generator.
  * 
+ * @version 1.10	17.10.2026	keyed streams if the property threads is set
  * @version 1.00	27.08.2003	first version
  * @author FH Oldenburg
  */
@@ -31,15 +32,35 @@ public class RandomGenerator {
 	static public Random get (Properties properties) {
 		if (r != null)
 			return r;
+		r = create(properties,1);
+		return r;
+	}
+
+	/**
+	 * Removes the keys of the current thread (see setKey).
+	 */
+	static public void clearKey () {
+		if (r instanceof KeyedRandom)
+			((KeyedRandom)r).clearKey();
+		if (rep instanceof KeyedRandom)
+			((KeyedRandom)rep).clearKey();
+	}
+
+	/**
+	 * Creates a random generator initialized by the property "seed".
+	 * If the property "threads" is set, a KeyedRandom is created.
+	 * @param  properties  the properties of the generator
+	 * @param  stream  number of the stream of the KeyedRandom
+	 */
+	static protected Random create (Properties properties, int stream) {
+		boolean keyed = properties.getProperty ("threads") != null;
 		if (properties.getProperty ("seed") != null)
 			try {
-				r = new Random(Long.parseLong(properties.getProperty ("seed")));
+				long seed = Long.parseLong(properties.getProperty ("seed"));
+				return keyed ? new KeyedRandom(seed,stream) : new Random(seed);
 			} catch (Exception ex) {
-				r = new Random();
 			}
-		else
-			r = new Random();
-		return r;
+		return keyed ? new KeyedRandom(new Random().nextLong(),stream) : new Random();
 	}
 
 	/**
@@ -49,14 +70,7 @@ public class RandomGenerator {
 	static public Random getForReport (Properties properties) {
 		if (rep != null)
 			return rep;
-		if (properties.getProperty ("seed") != null)
-			try {
-				rep = new Random(Long.parseLong(properties.getProperty ("seed")));
-			} catch (Exception ex) {
-				rep = new Random();
-			}
-		else
-			rep = new Random();
+		rep = create(properties,2);
 		return rep;
 	}
 
@@ -78,4 +92,19 @@ public class RandomGenerator {
 		return viz;
 	}
 
+	/**
+	 * Sets the keys of the current thread for the random generators of the data
+	 * generation and of the reporting if these are KeyedRandoms. Then, the
+	 * random decisions about an object at a time stamp do not depend on other
+	 * threads.
+	 * @param  id  the object id
+	 * @param  time  the time stamp
+	 */
+	static public void setKey (long id, int time) {
+		if (r instanceof KeyedRandom)
+			((KeyedRandom)r).setKey(id,time);
+		if (rep instanceof KeyedRandom)
+			((KeyedRandom)rep).setKey(id,time);
+	}
+
 }
@@ -5,6 +5,7 @@ import java.util.*;
 /**
  * Class which decides about the re-routing.
  * 
+ * @version 2.10	17.10.2026	decisions synchronized for worker threads
  * @version 2.01	27.08.2003	use of RandomGenerator
  * @version 2.00	04.09.2001	revision for generator v2.0
  * @version 1.10	29.04.2000	time object added
@@ -82,7 +83,7 @@ public ReRoute (Properties properties, Time time, DataSpace ds) {
  * @param origSpeed speed of the edge when the last route was computed
  * @param actTime actual speed of the edge
  */
-public boolean computeNewRouteByComparison (int lastTime, int actTime, int origSpeed, int actSpeed) {
+public synchronized boolean computeNewRouteByComparison (int lastTime, int actTime, int origSpeed, int actSpeed) {
 	// implementation to be changed
 	if ((actTime-lastTime < timeLimit) || (actSpeed > origSpeed/speedThreshold))
 		return false;
@@ -98,7 +99,7 @@ public boolean computeNewRouteByComparison (int lastTime, int actTime, int origS
  * @param lastTime time when the last route was computed
  * @param actTime actual time
  */
-public boolean computeNewRouteByEvent (int lastTime, int actTime) {
+public synchronized boolean computeNewRouteByEvent (int lastTime, int actTime) {
 	// implementation to be changed
 	if (actTime-lastTime < timeLimit)
 		return false;
@@ -0,0 +1,163 @@
+package generator2;
+
+import java.util.*;
+
+/**
+ * Reporter buffering the reports of moving objects, which are moved by a
+ * worker thread (see MovingObjects). The decision whether a position is
+ * reported is made immediately; at the end of the time stamp, the buffered
+ * reports are replayed into the actual reporter in their original order.
+ * Only the reports of moving objects (positions, edges, disappearing objects)
+ * are buffered.
+ *
+ * @version 1.00	17.10.2026	first version
+ */
+class ReportBuffer extends Reporter {
+
+	/**
+	 * Kinds of buffered reports.
+	 */
+	private static final byte POSITION = 0;
+	private static final byte EDGE = 1;
+	private static final byte DISAPPEARING = 2;
+
+	/**
+	 * A buffered report.
+	 */
+	private static class Report {
+		byte kind;
+		double time;
+		long id;
+		int repNum;
+		int objClass;
+		double x, y;
+		double speed;
+		double doneDist;
+		long edgeId;
+		int edgeClass;
+		int x1, y1, x2, y2;
+		int reportProbability;
+	}
+
+	/**
+	 * The buffered reports.
+	 */
+	private Vector reports = new Vector (1000,1000);
+	/**
+	 * Number of used reports (the other ones are reused).
+	 */
+	private int num = 0;
+
+/**
+ * Constructor.
+ * @param  properties  properties of the generator
+ */
+public ReportBuffer (Properties properties) {
+	super (properties,null);
+}
+
+/**
+ * Returns an unused report.
+ * @return the report
+ * @param kind kind of the report
+ */
+private Report next (byte kind) {
+	Report rep = null;
+	if (num < reports.size())
+		rep = (Report)reports.elementAt(num);
+	else {
+		rep = new Report();
+		reports.addElement(rep);
+	}
+	num++;
+	rep.kind = kind;
+	return rep;
+}
+
+/**
+ * Replays the buffered reports into the given reporter and clears the buffer.
+ * @param reporter the actual reporter
+ */
+public void replay (Reporter reporter) {
+	reporter.replaying = true;
+	try {
+		for (int i=0; i<num; i++) {
+			Report rep = (Report)reports.elementAt(i);
+			switch (rep.kind) {
+				case POSITION:
+					reporter.reportMovingObject ((int)rep.time,rep.id,rep.repNum,rep.objClass,rep.x,rep.y,rep.speed,rep.doneDist,rep.x1,rep.y1,rep.reportProbability);
+					break;
+				case EDGE:
+					reporter.reportEdge (rep.time,rep.id,rep.repNum,rep.objClass,rep.edgeId,rep.edgeClass,rep.x1,rep.y1,rep.speed,rep.x2,rep.y2,rep.reportProbability);
+					break;
+				case DISAPPEARING:
+					reporter.reportDisappearingObject (rep.time,rep.id,rep.repNum,rep.objClass,rep.x1,rep.y1,rep.doneDist,rep.reportProbability);
+					break;
+			}
+		}
+	}
+	finally {
+		reporter.replaying = false;
+	}
+	num = 0;
+	numOfPoints = 0;
+}
+
+/**
+ * Buffers the report of a disappearing object.
+ */
+public void reportDisappearingObject (double time, long id, int repNum, int objClass, int x, int y, double doneDist, int reportProbability) {
+	Report rep = next(DISAPPEARING);
+	rep.time = time;
+	rep.id = id;
+	rep.repNum = repNum;
+	rep.objClass = objClass;
+	rep.x1 = x;
+	rep.y1 = y;
+	rep.doneDist = doneDist;
+	rep.reportProbability = reportProbability;
+}
+
+/**
+ * Buffers the report of a traversed edge.
+ */
+public void reportEdge (double time, long objId, int edgeRepNum, int objClass, long edgeId, int edgeClass, int x1, int y1, double speed, int x2, int y2, int reportProbability) {
+	Report rep = next(EDGE);
+	rep.time = time;
+	rep.id = objId;
+	rep.repNum = edgeRepNum;
+	rep.objClass = objClass;
+	rep.edgeId = edgeId;
+	rep.edgeClass = edgeClass;
+	rep.x1 = x1;
+	rep.y1 = y1;
+	rep.speed = speed;
+	rep.x2 = x2;
+	rep.y2 = y2;
+	rep.reportProbability = reportProbability;
+}
+
+/**
+ * Decides whether the position is reported and buffers the report.
+ * @return  new report number
+ */
+public int reportMovingObject (int time, long id, int repNum, int objClass, double x, double y, double speed, double doneDist, int nextNodeX, int nextNodeY, int reportProbability) {
+	int newRepNum = super.reportMovingObject (time,id,repNum,objClass,x,y,speed,doneDist,nextNodeX,nextNodeY,reportProbability);
+	if (newRepNum != repNum) {
+		Report rep = next(POSITION);
+		rep.time = time;
+		rep.id = id;
+		rep.repNum = repNum;
+		rep.objClass = objClass;
+		rep.x = x;
+		rep.y = y;
+		rep.speed = speed;
+		rep.doneDist = doneDist;
+		rep.x1 = nextNodeX;
+		rep.y1 = nextNodeY;
+		rep.reportProbability = reportProbability;
+	}
+	return newRepNum;
+}
+
+}
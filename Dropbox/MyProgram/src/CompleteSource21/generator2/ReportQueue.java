@@ -0,0 +1,339 @@
+package generator2;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Queue of position records between the generator and a writer thread.
+ * The records have a fixed size and are stored in a pre-allocated ring
+ * buffer in the format of the .mpf files (see PositionReporter). The writer
+ * thread drains the buffer in large batches into a FileChannel, either as
+ * binary records, as result records of 32 bytes (see
+ * PositionReporter.putResultRecord) or as lines of text, or passes them to a
+ * ColumnarWriter.
+ * There must be only one thread putting records into the queue.
+ * If the buffer is full, the generator waits for the writer or, if the
+ * queue drops records, the record is lost.
+ *
+ * @version 1.22	17.10.2026	header of the result records
+ * @version 1.21	17.10.2026	all failures of the writer handled, the queue is drained afterwards
+ * @version 1.20	17.10.2026	result records as output
+ * @version 1.10	17.10.2026	ColumnarWriter as output
+ * @version 1.00	17.10.2026	first version
+ */
+class ReportQueue implements Runnable {
+
+	/**
+	 * Size of a record in bytes.
+	 */
+	static final int RECORD_SIZE = 61;
+	/**
+	 * Default number of records in the buffer.
+	 */
+	static final int DEFAULT_CAPACITY = 65536;
+	/**
+	 * Output formats: the records of the buffer (.mpf), lines of text or result records (.mtr).
+	 */
+	static final int MPF = 0;
+	static final int TEXT = 1;
+	static final int MTR = 2;
+
+	/**
+	 * The ring buffer.
+	 */
+	private final byte[] ring;
+	/**
+	 * Number of records in the buffer.
+	 */
+	private final int capacity;
+	/**
+	 * View of the buffer used by the generator.
+	 */
+	private final ByteBuffer in;
+	/**
+	 * View of the buffer used by the writer.
+	 */
+	private final ByteBuffer out;
+	/**
+	 * Number of records put into the queue.
+	 */
+	private final AtomicLong head = new AtomicLong();
+	/**
+	 * Number of records taken by the writer.
+	 */
+	private final AtomicLong tail = new AtomicLong();
+	/**
+	 * The output channel.
+	 */
+	private final FileChannel channel;
+	/**
+	 * The output format (MPF, TEXT or MTR).
+	 */
+	private final int format;
+	/**
+	 * The columnar output (null if the records are written into the channel).
+	 */
+	private final ColumnarWriter columnar;
+	/**
+	 * Drop records if the buffer is full?
+	 */
+	private final boolean drop;
+	/**
+	 * Number of dropped records.
+	 */
+	private long dropped = 0;
+	/**
+	 * Is the queue closed?
+	 */
+	private volatile boolean closed = false;
+	/**
+	 * Has the writing failed?
+	 */
+	private volatile boolean failed = false;
+	/**
+	 * The writer thread.
+	 */
+	private final Thread writer;
+
+/**
+ * Constructor; starts the writer thread.
+ * @param  name  name of the output file
+ * @param  format  the output format (MPF, TEXT or MTR)
+ * @param  capacity  number of records in the buffer
+ * @param  drop  drop records if the buffer is full?
+ * @exception  IOException  if the file cannot be created
+ */
+public ReportQueue (String name, int format, int capacity, boolean drop) throws IOException {
+	this(openChannel(name,format),format,null,capacity,drop);
+}
+
+/**
+ * Creates the output file; a file of result records starts with its header
+ * (see PositionReporter.putResultHeader).
+ * @return  the output channel
+ * @param  name  name of the output file
+ * @param  format  the output format (MPF, TEXT or MTR)
+ * @exception  IOException  if the file cannot be created
+ */
+private static FileChannel openChannel (String name, int format) throws IOException {
+	FileChannel channel = new FileOutputStream(name).getChannel();
+	if (format == MTR) {
+		ByteBuffer header = ByteBuffer.allocate(PositionReporter.RESULT_RECORD_SIZE);
+		PositionReporter.putResultHeader(header);
+		header.flip();
+		while (header.hasRemaining())
+			channel.write(header);
+	}
+	return channel;
+}
+
+/**
+ * Constructor of a queue passing the records to a ColumnarWriter; starts the writer thread.
+ * @param  columnar  the columnar output
+ * @param  capacity  number of records in the buffer
+ * @param  drop  drop records if the buffer is full?
+ */
+public ReportQueue (ColumnarWriter columnar, int capacity, boolean drop) {
+	this(null,MPF,columnar,capacity,drop);
+}
+
+/**
+ * Constructor; starts the writer thread.
+ * @param  channel  the output channel (or null)
+ * @param  format  the output format (MPF, TEXT or MTR)
+ * @param  columnar  the columnar output (or null)
+ * @param  capacity  number of records in the buffer
+ * @param  drop  drop records if the buffer is full?
+ */
+private ReportQueue (FileChannel channel, int format, ColumnarWriter columnar, int capacity, boolean drop) {
+	this.channel = channel;
+	this.format = format;
+	this.columnar = columnar;
+	this.capacity = capacity;
+	this.drop = drop;
+	ring = new byte[capacity*RECORD_SIZE];
+	in = ByteBuffer.wrap(ring);
+	out = ByteBuffer.wrap(ring);
+	writer = new Thread(this,"ReportQueue");
+	writer.setDaemon(true);
+	writer.start();
+}
+
+/**
+ * Appends a record as line of text to a string buffer (see PositionReporter.print).
+ * @param  sb  the string buffer
+ * @param  pos  position of the record in the ring
+ * @param  lineSeparator  the line separator
+ */
+private void appendText (StringBuilder sb, int pos, String lineSeparator) {
+	switch (out.get(pos)) {
+		case Reporter.NEW_OBJECT:
+			sb.append("newpoint");
+			break;
+		case Reporter.MOVE_OBJECT:
+			sb.append("point");
+			break;
+		default:
+			sb.append("disappearpoint");
+	}
+	sb.append('\t').append(out.getLong(pos+1));
+	sb.append('\t').append(out.getInt(pos+9));
+	sb.append('\t').append(out.getInt(pos+13));
+	sb.append('\t').append(out.getInt(pos+17));
+	sb.append('\t').append(out.getDouble(pos+21));
+	sb.append('\t').append(out.getDouble(pos+29));
+	sb.append('\t').append(out.getDouble(pos+37));
+	sb.append('\t').append(out.getInt(pos+53));
+	sb.append('\t').append(out.getInt(pos+57));
+	sb.append(lineSeparator);
+}
+
+/**
+ * Closes the queue: waits until the writer has written all records and
+ * closes the file.
+ */
+public void close () {
+	closed = true;
+	LockSupport.unpark(writer);
+	try {
+		writer.join();
+	} catch (InterruptedException ex) {
+		Thread.currentThread().interrupt();
+	}
+	try {
+		if (columnar != null)
+			columnar.close();
+		else
+			channel.close();
+	} catch (IOException ex) {
+		System.err.println("Error occured by closing the output file: "+ex);
+	}
+	if (dropped > 0)
+		System.err.println(dropped+" reported positions dropped by the report queue");
+}
+
+/**
+ * Puts a record into the queue.
+ * @param  action  the action of the object
+ * @param  id  object id
+ * @param  repNum  report number
+ * @param  objClass  object class
+ * @param  time  time stamp
+ * @param  x  current x-coordinate
+ * @param  y  current y-coordinate
+ * @param  speed  current speed
+ * @param  doneDist  the distance since the last reporting
+ * @param  nextNodeX  x-coordinate of the next node
+ * @param  nextNodeY  y-coordinate of the next node
+ */
+public void put (byte action, long id, int repNum, int objClass, int time, double x, double y, double speed, double doneDist, int nextNodeX, int nextNodeY) {
+	long h = head.get();
+	long used = h-tail.get();
+	while (used >= capacity) {
+		if (drop || failed) {
+			dropped++;
+			return;
+		}
+		LockSupport.unpark(writer);
+		LockSupport.parkNanos(100000);
+		used = h-tail.get();
+	}
+	int pos = (int)(h%capacity)*RECORD_SIZE;
+	in.put(pos,action);
+	in.putLong(pos+1,id);
+	in.putInt(pos+9,repNum);
+	in.putInt(pos+13,objClass);
+	in.putInt(pos+17,time);
+	in.putDouble(pos+21,x);
+	in.putDouble(pos+29,y);
+	in.putDouble(pos+37,speed);
+	in.putDouble(pos+45,doneDist);
+	in.putInt(pos+53,nextNodeX);
+	in.putInt(pos+57,nextNodeY);
+	head.lazySet(h+1);
+	// the writer should not wait until the buffer is full
+	if (used == capacity>>1)
+		LockSupport.unpark(writer);
+}
+
+/**
+ * Loop of the writer thread: writes the records of the queue until it is closed.
+ */
+public void run () {
+	String lineSeparator = System.getProperty("line.separator");
+	StringBuilder sb = new StringBuilder();
+	ByteBuffer results = (format == MTR) ? ByteBuffer.allocate(1024*PositionReporter.RESULT_RECORD_SIZE) : null;
+	while (true) {
+		boolean last = closed;
+		long t = tail.get();
+		long h = head.get();
+		if (h == t) {
+			if (last)
+				return;
+			LockSupport.parkNanos(1000000);
+			continue;
+		}
+		if (failed) {
+			tail.lazySet(h);
+			continue;
+		}
+		try {
+			// the records up to the end of the ring and the records from its beginning
+			while (t < h) {
+				int from = (int)(t%capacity);
+				int to = (int)Math.min(capacity,from+h-t);
+				if (columnar != null) {
+					for (int i=from; i<to; i++) {
+						int pos = i*RECORD_SIZE;
+						columnar.add(out.get(pos),out.getLong(pos+1),out.getInt(pos+9),out.getInt(pos+13),out.getInt(pos+17),out.getDouble(pos+21),out.getDouble(pos+29),out.getDouble(pos+37),out.getDouble(pos+45),out.getInt(pos+53),out.getInt(pos+57));
+					}
+				}
+				else if (format == MTR) {
+					for (int i=from; i<to; i++) {
+						int pos = i*RECORD_SIZE;
+						PositionReporter.putResultRecord(results,out.get(pos),out.getLong(pos+1),out.getInt(pos+9),out.getInt(pos+13),out.getInt(pos+17),out.getDouble(pos+21),out.getDouble(pos+29));
+						if (!results.hasRemaining() || i == to-1) {
+							results.flip();
+							write(results);
+							results.clear();
+						}
+					}
+				}
+				else if (format == TEXT) {
+					sb.setLength(0);
+					for (int i=from; i<to; i++)
+						appendText(sb,i*RECORD_SIZE,lineSeparator);
+					write(ByteBuffer.wrap(sb.toString().getBytes("ISO-8859-1")));
+				}
+				else {
+					out.limit(to*RECORD_SIZE);
+					out.position(from*RECORD_SIZE);
+					write(out);
+					out.clear();
+				}
+				t += to-from;
+				tail.lazySet(t);
+			}
+		} catch (Throwable ex) {
+			// the records are dropped from now on, so that the generator never waits
+			if (!failed)
+				System.err.println("Error occured by writing the output file: "+ex);
+			failed = true;
+		}
+	}
+}
+
+/**
+ * Writes the remaining bytes of a buffer into the channel.
+ * @param  buf  the buffer
+ * @exception  IOException  if the writing fails
+ */
+private void write (ByteBuffer buf) throws IOException {
+	while (buf.hasRemaining())
+		channel.write(buf);
+}
+
+}
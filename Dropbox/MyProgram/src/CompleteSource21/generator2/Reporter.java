@@ -9,6 +9,7 @@ import drawables.*;
  * Abstract class for reporting the computed moving objects.
  * Non-abstract subclasses are generator2.DefaultReporter and generator2.OracleReporter.
  *
+ * @version 2.20	17.10.2026	isReported separated for buffered reports
  * @version 2.10	27.08.2003	additional parameters reported, use of RandomGenerator
  * @version 2.00	06.07.2001	complete revision
  * @version 1.50	15.06.2001	report of external objects added
@@ -69,6 +70,10 @@ public class Reporter {
 	 * The random generator.
 	 */
 	protected Random random;
+	/**
+	 * Are buffered reports replayed (see ReportBuffer)?
+	 */
+	boolean replaying = false;
 
 /**
  * Reporter constructor.
@@ -106,6 +111,18 @@ public int getNumberOfReportedPoints() {
 	return numOfPoints;
 }
 
+/**
+ * Decides by the random generator whether a position is reported.
+ * Positions replayed from a ReportBuffer are always reported.
+ * @return report the position?
+ * @param  reportProbability  value between (1..1000)
+ */
+protected boolean isReported (int reportProbability) {
+	if (replaying)
+		return true;
+	return Math.abs(random.nextInt())%1000 < reportProbability;
+}
+
 /**
  * Removes the reported moving objects.
  */
@@ -210,7 +227,7 @@ public void reportMovingExternalObject (int time, long id, int repNum, int objCl
 public int reportMovingObject (int time, long id, int repNum, int objClass, double x, double y, double speed, double doneDist, int nextNodeX, int nextNodeY, int reportProbability) {
 	if (reportProbability == 0)
 		return repNum;
-	if (Math.abs(random.nextInt())%1000 >= reportProbability)
+	if (!isReported(reportProbability))
 		return repNum;
 	numOfPoints++;
 	repNum++;
@@ -0,0 +1,25 @@
+package generator2;
+
+/**
+ * Receiver of the positions computed by a data generator which runs in the
+ * process of its caller (see DataGenerator.run). The parameters only use
+ * classes of the Java platform, so an implementation may be loaded by another
+ * class loader than the generator.
+ *
+ * @version 1.00	17.10.2026	first version
+ */
+public interface ResultSink {
+
+/**
+ * Receives a reported position.
+ * @param  action  "newpoint", "point" or "disappearpoint"
+ * @param  id  object id
+ * @param  repNum  report number
+ * @param  objClass  object class
+ * @param  time  time stamp
+ * @param  x  x-coordinate
+ * @param  y  y-coordinate
+ */
+public void report (String action, long id, int repNum, int objClass, int time, double x, double y);
+
+}
@@ -0,0 +1,124 @@
+package generator2;
+
+import java.awt.Rectangle;
+import java.sql.*;
+import java.util.Properties;
+
+/**
+ * SQL dialect used by OracleReporter for storing the reported objects.
+ * This class uses standard SQL, so that the reporter can also write into
+ * other databases, e.g. an embedded database for testing.
+ * The dialect is determined by the property "dbDialect" containing the name
+ * of a subclass; otherwise OracleSQLDialect is used for an Oracle driver.
+ * <p>
+ * Expected tables:
+ * <pre>
+ * moving objects:   id, num, time, class, x, y, dbtime
+ * external objects: id, num, time, class, x, y, width, height, dbtime
+ * </pre>
+ *
+ * @version 1.01	17.10.2026	dialect created by its declared constructor
+ * @version 1.00	17.10.2026	first version
+ */
+public class SQLDialect {
+
+	/**
+	 * Name of the Oracle dialect.
+	 */
+	private static final String ORACLE_DIALECT = "generator2.OracleSQLDialect";
+
+/**
+ * Creates the dialect according to the properties.
+ * @return the dialect
+ * @param properties properties of the generator
+ */
+public static SQLDialect create (Properties properties) {
+	String name = properties.getProperty("dbDialect");
+	if (name == null) {
+		String driver = properties.getProperty("dbDriverClassName");
+		if ((driver == null) || (driver.toLowerCase().indexOf("oracle") >= 0))
+			name = ORACLE_DIALECT;
+	}
+	SQLDialect dialect = null;
+	if (name != null)
+		try {
+			dialect = (SQLDialect)Class.forName(name).getDeclaredConstructor().newInstance();
+		}
+		catch (Exception ex) {
+			System.err.println("Error occured by creating the SQL dialect "+name+": "+ex);
+		}
+	if (dialect == null)
+		dialect = new SQLDialect();
+	dialect.init(properties);
+	return dialect;
+}
+
+/**
+ * Returns the SQL expression for the current time of the database.
+ * @return SQL expression
+ */
+public String getCurrentTime () {
+	return "CURRENT_TIMESTAMP";
+}
+
+/**
+ * Returns the SQL statement for storing an external object. The parameters
+ * 1 to 8 are id, num, time, class, x, y, width and height; further parameters
+ * are set by setExternalObjectGeometry.
+ * @return SQL statement
+ * @param table name of the table
+ */
+public String getInsertExternalObjectSQL (String table) {
+	return "INSERT INTO "+table+"(id,num,time,class,x,y,width,height,dbtime) VALUES (?,?,?,?,?,?,?,?,"+getCurrentTime()+")";
+}
+
+/**
+ * Returns the SQL statement for storing a moving object. The parameters
+ * 1 to 6 are id, num, time, class, x and y; further parameters are set by
+ * setMovingObjectGeometry.
+ * @return SQL statement
+ * @param table name of the table
+ */
+public String getInsertMovingObjectSQL (String table) {
+	return "INSERT INTO "+table+"(id,num,time,class,x,y,dbtime) VALUES (?,?,?,?,?,?,"+getCurrentTime()+")";
+}
+
+/**
+ * Initializes the dialect; called by create.
+ * @param properties properties of the generator
+ */
+protected void init (Properties properties) {
+}
+
+/**
+ * Prepares a statement.
+ * @return the prepared statement
+ * @param con the database connection
+ * @param sql the SQL statement
+ * @exception SQLException if a database access error occurs
+ */
+public PreparedStatement prepareStatement (Connection con, String sql) throws SQLException {
+	return con.prepareStatement(sql);
+}
+
+/**
+ * Sets the additional parameters of an external object; does nothing.
+ * @param stmt the prepared statement
+ * @param rect the area (null for a disappearing object)
+ * @exception SQLException if a database access error occurs
+ */
+public void setExternalObjectGeometry (PreparedStatement stmt, Rectangle rect) throws SQLException {
+}
+
+/**
+ * Sets the additional parameters of a moving object; does nothing.
+ * @param stmt the prepared statement
+ * @param x x-coordinate
+ * @param y y-coordinate
+ * @param disappearing is the object disappearing?
+ * @exception SQLException if a database access error occurs
+ */
+public void setMovingObjectGeometry (PreparedStatement stmt, int x, int y, boolean disappearing) throws SQLException {
+}
+
+}
@@ -0,0 +1,90 @@
+package generator2;
+
+import java.util.Properties;
+
+import drawables.DrawableObjects;
+
+/**
+ * Class for reporting the positions of moving objects to a result sink.
+ * The reported positions correspond to the lines of the text file written
+ * by PositionReporter.
+ *
+ * @version 1.00	17.10.2026	first version
+ */
+public class SinkReporter extends Reporter {
+
+	/**
+	 * The result sink.
+	 */
+	protected ResultSink sink = null;
+
+/**
+ * Constructor.
+ * @param properties properties of the generator
+ * @param objects container of drawable objects
+ * @param sink the result sink
+ */
+public SinkReporter (Properties properties, DrawableObjects objects, ResultSink sink) {
+	super (properties,objects);
+	this.sink = sink;
+}
+
+/**
+ * Reports the characteristic properties of a dispappering object at a time stamp
+ * @param  time  the arrival time (with fraction)
+ * @param  id  object id
+ * @param  repNum  report number
+ * @param  objClass  object class
+ * @param  x  x-coordinate
+ * @param  y  y-coordinate
+ * @param  doneDist  the distance since the last reporting
+ * @param  reportProbability  value between (0..1000)
+ */
+public void reportDisappearingObject (double time, long id, int repNum, int objClass, int x, int y, double doneDist, int reportProbability) {
+	if (reportProbability > 0)
+		sink.report("disappearpoint",id,repNum,objClass,(int)Math.ceil(time),x,y);
+}
+
+/**
+ * Reports the characteristic properties of a moving object at a time stamp
+ * according to its report probability.
+ * @return  new report number
+ * @param  time  time stamp
+ * @param  id  object id
+ * @param  repNum  report number
+ * @param  objClass  object class
+ * @param  x  x-coordinate
+ * @param  y  y-coordinate
+ * @param  speed  current speed
+ * @param  doneDist  the distance since the last reporting
+ * @param  nextNodeX  x-coordinate of the next node
+ * @param  nextNodeY  y-coordinate of the next node
+ * @param  reportProbability  value between (0..1000)
+ */
+public int reportMovingObject (int time, long id, int repNum, int objClass, double x, double y, double speed, double doneDist, int nextNodeX, int nextNodeY, int reportProbability) {
+	int newRepNum = super.reportMovingObject (time,id,repNum,objClass,x,y,speed,doneDist,nextNodeX,nextNodeY,reportProbability);
+	if (repNum != newRepNum)
+		sink.report("point",id,newRepNum,objClass,time,x,y);
+	return newRepNum;
+}
+
+/**
+ * Reports an new moving object if its report probability > 0.
+ * @param  time  time stamp
+ * @param  id  object id
+ * @param  objClass  object class
+ * @param  x  x-coordinate of start
+ * @param  y  y-coordinate of start
+ * @param  speed  current speed
+ * @param  nextNodeX  x-coordinate of the next node
+ * @param  nextNodeY  y-coordinate of the next node
+ * @param  reportProbability  value between (0..1000)
+ */
+public int reportNewMovingObject (int time, long id, int objClass, int x, int y, double speed, int nextNodeX, int nextNodeY, int reportProbability) {
+	int repNum = super.reportNewMovingObject(time,id,objClass,x,y,speed,nextNodeX,nextNodeY,reportProbability);
+	if (repNum > 0)
+		sink.report("newpoint",id,repNum,objClass,time,x,y);
+	return repNum;
+}
+
+}
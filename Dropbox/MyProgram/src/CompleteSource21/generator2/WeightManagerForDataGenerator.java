@@ -1,10 +1,17 @@
 package generator2;
 
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import routing.*;
 
 /**
  * Class for weighting the edges.
  * 
+ * @version	2.60	17.10.2026	weights of the adjacency slots computed from the lengths and classes of the graph
+ * @version	2.50	17.10.2026	object class given by a RoutingProfile instead of setActualObjectClass
+ * @version	2.40	17.10.2026	cache of the weights per edge and object class
+ * @version	2.30	17.10.2026	class of the actual moving object per thread
+ * @version	2.20	17.10.2026	free-flow weights for landmarks
+ * @version	2.10	17.10.2026	static weights for contraction hierarchies, hasExternalObjects added
  * @version	2.00	16.08.2003	long becomes double
  * @version	1.20	30.04.2000	support of external objects
  * @version	1.10	02.03.2000	distances as long
@@ -26,9 +33,21 @@ public class WeightManagerForDataGenerator implements WeightManager {
 	 */
 	private ExternalObjects extObjects = null;
 	/**
-	 * class of the actual moving object
+	 * graph whose edge ordinals index the cache (null if the cache is not used)
 	 */
-	private int actObjClass = 0;
+	private CompactGraph cacheGraph = null;
+	/**
+	 * cached weights indexed by edge ordinal * number of object classes + object class
+	 */
+	private double[] cachedWeight = null;
+	/**
+	 * keys of the cached weights (0: not cached; see computeCacheKey)
+	 */
+	private AtomicIntegerArray cacheKey = null;
+	/**
+	 * number of object classes of the cache
+	 */
+	private int numOfCachedClasses = 0;
 
 /**
  * WeightManagerForDataGenerator constructor.
@@ -42,8 +61,7 @@ public WeightManagerForDataGenerator (EdgeClasses edgeClasses, ObjectClasses obj
 	this.extObjects = extObjects;
 }
 /**
- * Computes the weight for a distance assuming edge class 0.
- * The class of the actual moving object must be set before by setActualObjectClass!
+ * Computes the weight for a distance assuming object class 0.
  * @return weight
  * @param distance distance
  */
@@ -52,7 +70,6 @@ public double computeWeight (double distance) {
 }
 /**
  * Computes the weight for a given distance and speed.
- * The class of the actual moving object must be set before by setActualObjectClass!
  * @return weight
  * @param distance distance
  * @param speed speed
@@ -63,6 +80,53 @@ public double computeWeight (double distance, double speed) {
 	else
 		return Double.MAX_VALUE;
 }
+/**
+ * Computes the key of the cached weights of an edge. The key changes if the
+ * congestion level of the edge or the set of external objects changes.
+ * @return key (never 0)
+ * @param edgeClass the class of the edge
+ * @param usage the usage of the edge
+ */
+private int computeCacheKey (int edgeClass, int usage) {
+	int key = edgeClasses.getCongestionLevel(edgeClass,usage);
+	if (extObjects != null)
+		key |= extObjects.getModCount() << 2;
+	return key+1;
+}
+/**
+ * Computes the free-flow weights of all edges, i.e. the weights without
+ * congestion and external objects for the fastest object class. These weights
+ * are never greater than the actual weights of any object.
+ * @return the weights indexed by the ordinals of the edges
+ * @param graph the graph of the network
+ */
+public double[] computeFreeFlowWeights (CompactGraph graph) {
+	double maxObjSpeed = 0;
+	for (int c=0; c<objClasses.getNumber(); c++)
+		maxObjSpeed = Math.max(maxObjSpeed,objClasses.getMaxSpeed(c));
+	double[] weight = new double[graph.numOfEdges()];
+	for (int e=0; e<weight.length; e++) {
+		Edge edge = graph.getEdge(e);
+		double edgeLength = edge.getLength();
+		weight[e] = Math.max(computeWeight(edgeLength,edgeClasses.getMaxSpeed(edge.getEdgeClass())),computeWeight(edgeLength,maxObjSpeed));
+	}
+	return weight;
+}
+/**
+ * Computes the weights of all edges for an object class.
+ * Only useful if the weights are static (see hasStaticWeights).
+ * @return the weights indexed by the ordinals of the edges
+ * @param graph the graph of the network
+ * @param objClass the object class
+ */
+public double[] computeStaticWeights (CompactGraph graph, int objClass) {
+	double[] weight = new double[graph.numOfEdges()];
+	for (int e=0; e<weight.length; e++) {
+		Edge edge = graph.getEdge(e);
+		weight[e] = getWeight(edge,edge.getLength(),objClass);
+	}
+	return weight;
+}
 /**
  * Returns the description of the edge classes.
  * @return description of the edge classes
@@ -78,29 +142,83 @@ public ObjectClasses getObjectClasses () {
 	return objClasses;
 }
 /**
- * Returns the weight of the edge.
- * The class of the actual moving object must be set before by setActualObjectClass!
+ * Returns whether external objects influence the weights.
+ * @return external objects considered?
+ */
+public boolean hasExternalObjects () {
+	return extObjects != null;
+}
+/**
+ * Returns whether the weights of the edges depend only on the object class,
+ * i.e. there are no external objects and no congestion.
+ * @return static weights?
+ */
+public boolean hasStaticWeights () {
+	return !hasExternalObjects() && !edgeClasses.isCongestionEnabled();
+}
+/**
+ * Returns the weight of the edge for object class 0.
  * @return weigth
  * @param edge the edge
  */
 public double getWeight(Edge edge) {
-	return getWeight(edge,edge.getLength());
+	return getWeight(edge,edge.getLength(),0);
+}
+/**
+ * Returns the weight of the edge considering the usage, external
+ * objects and the maximum object speed. The weight is taken from the cache
+ * if it is still valid.
+ * @return directed weight
+ * @param  edge  the edge
+ * @param  edgeLength  the length of the edge
+ * @param  objClass  the class of the moving object
+ */
+private double getWeight (Edge edge, double edgeLength, int objClass) {
+	int e = edge.getIndex();
+	if ((cacheGraph == null) || (e < 0) || (e >= cacheGraph.numOfEdges()) || (cacheGraph.getEdge(e) != edge))
+		return computeWeight(edge,edgeLength,edge.getEdgeClass(),edge.getUsage(),objClass);
+	return getWeight(e,edge,edgeLength,edge.getEdgeClass(),objClass);
+}
+/**
+ * Returns the weight of an edge of the graph of the cache; the weight is
+ * taken from the cache if it is still valid.
+ * @return directed weight
+ * @param  e  the ordinal of the edge
+ * @param  edge  the edge
+ * @param  edgeLength  the length of the edge
+ * @param  edgeClass  the class of the edge
+ * @param  objClass  the class of the moving object
+ */
+private double getWeight (int e, Edge edge, double edgeLength, int edgeClass, int objClass) {
+	int usage = edge.getUsage();
+	if ((objClass < 0) || (objClass >= numOfCachedClasses))
+		return computeWeight(edge,edgeLength,edgeClass,usage,objClass);
+	int i = e*numOfCachedClasses+objClass;
+	int key = computeCacheKey(edgeClass,usage);
+	if (cacheKey.get(i) == key)
+		return cachedWeight[i];
+	double weight = computeWeight(edge,edgeLength,edgeClass,usage,objClass);
+	cachedWeight[i] = weight;
+	cacheKey.lazySet(i,key);	// publishes the weight
+	return weight;
 }
 /**
  * Computes the weight of the edge considering the usage, external
  * objects and the maximum object speed.
- * The class of the actual moving object must be set before by setActualObjectClass!
  * @return directed weight
- * @param  edge  the edge
+ * @param  edge  the edge (only needed for external objects)
  * @param  edgeLength  the length of the edge
+ * @param  edgeClass  the class of the edge
+ * @param  usage  the usage of the edge
+ * @param  objClass  the class of the moving object
  */
-private double getWeight (Edge edge, double edgeLength) {
-	double objWeight = computeWeight(edgeLength,objClasses.getMaxSpeed(actObjClass));
-	double edgeWeight = computeWeight(edgeLength,edgeClasses.deceleratedSpeed(edge.getEdgeClass(),edge.getUsage()));
+private double computeWeight (Edge edge, double edgeLength, int edgeClass, int usage, int objClass) {
+	double objWeight = computeWeight(edgeLength,objClasses.getMaxSpeed(objClass));
+	double edgeWeight = computeWeight(edgeLength,edgeClasses.deceleratedSpeed(edgeClass,usage));
 	if (extObjects != null) {
 		int decFactor = extObjects.computeDecrease(edge);
 		if (decFactor < 100) {
-			double newEdgeWeight = computeWeight(edgeLength,edgeClasses.getMaxSpeed(edge.getEdgeClass())*decFactor/100);
+			double newEdgeWeight = computeWeight(edgeLength,edgeClasses.getMaxSpeed(edgeClass)*decFactor/100);
 			if (newEdgeWeight > edgeWeight)
 				edgeWeight = newEdgeWeight;
 		}
@@ -111,20 +229,58 @@ private double getWeight (Edge edge, double edgeLength) {
 		return objWeight;
 }
 /**
- * Returns the directed weight of the edge.
- * The class of the actual moving object must be set before by setActualObjectClass!
+ * Returns the directed weight of the edge for object class 0.
  * @return directed weight
  * @param edge the edge
  * @param forwards forwards direction?
  */
 public double getWeight(Edge edge, boolean forwards) {
-	return getWeight(edge,edge.getLength());
+	return getWeight(edge,edge.getLength(),0);
+}
+/**
+ * Returns the directed weight of the edge for the object class of a profile.
+ * @return directed weight
+ * @param edge the edge
+ * @param forwards forwards direction?
+ * @param profile the routing profile
+ */
+public double getWeight(Edge edge, boolean forwards, RoutingProfile profile) {
+	return getWeight(edge,edge.getLength(),profile.getObjectClass());
+}
+/**
+ * Returns the directed weight of the edge of an adjacency slot for the object
+ * class of a profile. Length and class are taken from the graph; the edge is
+ * only loaded for its usage if the speed is decelerated on congested edges and
+ * for the external objects.
+ * @return directed weight
+ * @param graph the graph
+ * @param slot the adjacency slot
+ * @param profile the routing profile
+ */
+public double getWeight(CompactGraph graph, int slot, RoutingProfile profile) {
+	int objClass = profile.getObjectClass();
+	double edgeLength = graph.getLength(slot);
+	int edgeClass = graph.getEdgeClass(slot);
+	if (hasStaticWeights())
+		return computeWeight(null,edgeLength,edgeClass,0,objClass);
+	int e = graph.getEdgeIndex(slot);
+	if (graph != cacheGraph) {
+		Edge edge = graph.getEdge(e);
+		return computeWeight(edge,edgeLength,edgeClass,edge.getUsage(),objClass);
+	}
+	return getWeight(e,graph.getEdge(e),edgeLength,edgeClass,objClass);
 }
 /**
- * Sets the class of the actual moving object.
- * @param actObjClass actual class
+ * Caches the weights per edge and object class. A cached weight is
+ * recomputed if the usage of the edge crosses a capacity step (see
+ * EdgeClasses.getCongestionLevel) or if the external objects have changed.
+ * The lengths and classes of the edges must not change.
+ * @param graph graph of the network whose edge ordinals index the cache
  */
-public void setActualObjectClass (int actObjClass) {
-	this.actObjClass = actObjClass;
+public synchronized void useWeightCache (CompactGraph graph) {
+	numOfCachedClasses = objClasses.getNumber();
+	cachedWeight = new double[graph.numOfEdges()*numOfCachedClasses];
+	cacheKey = new AtomicIntegerArray(cachedWeight.length);
+	cacheGraph = graph;
 }
 }
\ No newline at end of file
@@ -4,7 +4,15 @@ import util.CPUTimer;
 
 /**
  * A heap for border elements.
+ * The heap is an indexed 4-ary heap. An element is identified by the ordinal
+ * of its node and its way (id = 2*node + way-1); the key of an element is the
+ * stored estimate plus the current distance of the node concerning the way in
+ * the search context. The positions of the elements are kept in an array, so
+ * that decreasing a key does not require any allocation.
  *
+ * @version	3.01	17.10.2026	contains added
+ * @version	3.00	17.10.2026	indexed 4-ary heap over node ordinals, timing optional
+ * @version	2.10	17.10.2026	bound to a SearchContext, nodes referenced by their ordinals
  * @version	2.00	21.08.2003	completely revised
  * @version	1.01	09.03.2000	distance error corrected
  * @version	1.00	01.02.2000	first version
@@ -13,31 +21,43 @@ import util.CPUTimer;
 public class BorderHeap {
 
 	/**
-	 * Class representing an element in the border.
+	 * Number of children of an entry.
 	 */
-	private class BorderElement {
-		protected Node node;	// the node
-		protected int way;		// the path the element belongs to 
-		protected double dist;	// the (remaining) distance
-		protected BorderElement (Node node, int way, double dist) {	//constructor
-			this.node = node;
-			this.way = way;
-			this.dist = dist;
-		}
-	}
-	
+	private static final int ARITY = 4;
+
+	/**
+	 * The ids of the elements in heap order.
+	 */
+	private int heap[] = new int[2000];
+	/**
+	 * The keys of the elements in heap order.
+	 */
+	private double key[] = new double[2000];
 	/**
-	 * The elements in the heap. The first element is not used.
+	 * The position of each element in the heap (-1 if not contained).
 	 */
-	private BorderElement elements[] = new BorderElement[2000];
+	private int position[] = new int[0];
 	/**
-	 * The return elemnet.
+	 * The estimated remaining distance of each element.
 	 */
-	private BorderElement retElement = null;
+	private double estimate[] = new double[0];
 	/**
 	 * The number of entries.
 	 */
 	private int num = 0;
+	/**
+	 * The id of the return element.
+	 */
+	private int retId = -1;
+	/**
+	 * The search context holding the distances of the nodes.
+	 */
+	private SearchContext ctx = null;
+
+	/**
+	 * Are the operations timed?
+	 */
+	static private boolean timing = false;
 	/**
 	 * Fetch timer.
 	 */
@@ -53,8 +73,10 @@ public class BorderHeap {
 
 /**
  * Creates a new heap.
+ * @param  ctx  the search context
  */
-public BorderHeap () {
+public BorderHeap (SearchContext ctx) {
+	this.ctx = ctx;
 }
 
 /**
@@ -63,13 +85,46 @@ public BorderHeap () {
  * @param  way  the direction of the distance
  */
 public void adaptToDecreasedDistance (Node node, int way) {
-	changeTimer.start();
-	int k = node.heapPos[way-1];
-	if ((k < 1) || (k > num))
-		System.err.println("adaptToDecreasedDistance: heapPos "+0+"wrong!");
-	else
+	adaptToDecreasedDistance (node.index,way);
+}
+
+/**
+ * Adapts an element in the heap according to its decreased distances.
+ * @param  node  ordinal of the modified node in the border
+ * @param  way  the direction of the distance
+ */
+public void adaptToDecreasedDistance (int node, int way) {
+	if (timing)
+		changeTimer.start();
+	int id = 2*node+way-1;
+	int k = position[id];
+	if (k < 0)
+		System.err.println("adaptToDecreasedDistance: node "+node+" not in heap!");
+	else {
+		key[k] = computeKey(id);
 		upheap(k);
-	changeTimer.stop();
+	}
+	if (timing)
+		changeTimer.stop();
+}
+
+/**
+ * Computes the current key of an element.
+ * @return  the key
+ * @param  id  the id of the element
+ */
+private double computeKey (int id) {
+	return estimate[id]+ctx.distanceOfWay[id&1][id>>1];
+}
+
+/**
+ * Tests whether an element is contained in the heap.
+ * @return  contained?
+ * @param  node  the node
+ * @param  way  the path the element belongs to
+ */
+public boolean contains (Node node, int way) {
+	return position[2*node.index+way-1] >= 0;
 }
 
 /**
@@ -77,31 +132,26 @@ public void adaptToDecreasedDistance (Node node, int way) {
  * @param  k  the index of the element
  */
 private void downheap (int k) {
-	if (k > num)
-		return;
-	BorderElement v = elements[k];
-	double vValue = v.dist+v.node.getDistanceOfWay(v.way);
-	while (k <= num/2) {
-		int j = k+k;
-		BorderElement aj = elements[j];
-		double ajValue = aj.dist+aj.node.getDistanceOfWay(aj.way);
-		if (j < num) {
-			BorderElement aj1 = elements[j+1];
-			double aj1Value = aj1.dist+aj1.node.getDistanceOfWay(aj1.way);
-			if (ajValue > aj1Value) {
-				j++;
-				aj = aj1;
-				ajValue = aj1Value;
-			}
-		}
-		if (vValue <= ajValue)
+	int v = heap[k];
+	double vValue = key[k];
+	while (true) {
+		int j = ARITY*k+1;
+		if (j >= num)
+			break;
+		int last = Math.min(j+ARITY,num);
+		for (int c=j+1; c<last; c++)
+			if (key[c] < key[j])
+				j = c;
+		if (vValue <= key[j])
 			break;
-		elements[k] = aj;
-		setHeapPos(k);
+		heap[k] = heap[j];
+		key[k] = key[j];
+		position[heap[k]] = k;
 		k = j;
 	}
-	elements[k] = v;
-	setHeapPos(k);
+	heap[k] = v;
+	key[k] = vValue;
+	position[v] = k;
 }
 
 /**
@@ -111,41 +161,94 @@ private void downheap (int k) {
 public boolean fetchFirst () {
 	if (num == 0)
 		return false;
-	fetchTimer.start();
-	retElement = elements[1];
-	elements[1] = elements[num];
+	if (timing)
+		fetchTimer.start();
+	retId = heap[0];
+	position[retId] = -1;
 	num--;
-	downheap(1);
-	fetchTimer.stop();
+	if (num > 0) {
+		heap[0] = heap[num];
+		key[0] = key[num];
+		downheap(0);
+	}
+	if (timing)
+		fetchTimer.stop();
 	return true;
 }
 
 /**
  * Inserts a new border element into the heap.
- * @param obj new border element
+ * @param  node  the node
+ * @param  way  the path the element belongs to
+ * @param  distance  the estimated remaining distance
  */
 public void insert (Node node, int way, double distance) {
-	// enlarge Heap if necessary
-	insertTimer.start();
-	if (num+1 == elements.length) {
-		BorderElement newElements[] = new BorderElement[elements.length*2];
-		for (int i=0; i<elements.length; i++)
-			newElements[i] = elements[i];
-		elements = newElements;
+	insert (node.index,way,distance);
+}
+
+/**
+ * Inserts a new border element into the heap.
+ * If the element is already contained, its estimate is replaced.
+ * @param  node  ordinal of the node
+ * @param  way  the path the element belongs to
+ * @param  distance  the estimated remaining distance
+ */
+public void insert (int node, int way, double distance) {
+	if (timing)
+		insertTimer.start();
+	int id = 2*node+way-1;
+	estimate[id] = distance;
+	int k = position[id];
+	if (k >= 0) {
+		key[k] = computeKey(id);
+		upheap(k);
+		downheap(position[id]);
+	}
+	else {
+		// enlarge Heap if necessary
+		if (num == heap.length) {
+			int newHeap[] = new int[2*heap.length];
+			System.arraycopy (heap,0,newHeap,0,num);
+			heap = newHeap;
+			double newKey[] = new double[2*key.length];
+			System.arraycopy (key,0,newKey,0,num);
+			key = newKey;
+		}
+		// insert
+		heap[num] = id;
+		key[num] = computeKey(id);
+		num++;
+		upheap (num-1);
 	}
-	// insert
-	num++;
-	elements[num] = new BorderElement(node,way,distance);
-	upheap (num);
-	insertTimer.stop();
+	if (timing)
+		insertTimer.stop();
+}
+
+/**
+ * Returns whether the operations are timed.
+ * @return  timed?
+ */
+public static boolean isTiming () {
+	return timing;
+}
+
+/**
+ * Prepares the heap for a graph with the given number of nodes.
+ * @param  numOfNodes  number of nodes
+ */
+protected void prepare (int numOfNodes) {
+	position = new int[2*numOfNodes];
+	java.util.Arrays.fill (position,-1);
+	estimate = new double[2*numOfNodes];
+	num = 0;
 }
 
 /**
  * Removes all elements from the heap.
  */
 public void reset () {
-	for (int i=0; i<=num; i++)
-		elements[i] = null;
+	for (int i=0; i<num; i++)
+		position[heap[i]] = -1;
 	num = 0;
 }
 
@@ -154,7 +257,7 @@ public void reset () {
  * @return  the distance
  */
 public double returnDistance () {
-	return retElement.dist+retElement.node.getDistanceOfWay(retElement.way);
+	return computeKey(retId);
 }
 
 /**
@@ -162,7 +265,15 @@ public double returnDistance () {
  * @return  the node
  */
 public Node returnNode () {
-	return retElement.node;
+	return ctx.graph.node[retId>>1];
+}
+
+/**
+ * Returns the ordinal of the return node.
+ * @return  the ordinal
+ */
+public int returnNodeIndex () {
+	return retId>>1;
 }
 
 /**
@@ -170,15 +281,16 @@ public Node returnNode () {
  * @return  the direction
  */
 public int returnWay () {
-	return retElement.way;
+	return (retId&1)+1;
 }
 
 /**
- * Set the position of the node in the heap
- * @param  k  position in the heap
+ * Switches the timing of the heap operations on or off.
+ * The timers are shared by all heaps.
+ * @param  value  timing on?
  */
-private void setHeapPos (int k) {
-	elements[k].node.heapPos[elements[k].way-1] = (short)k;
+public static void setTiming (boolean value) {
+	timing = value;
 }
 
 /**
@@ -186,19 +298,20 @@ private void setHeapPos (int k) {
  * @param  k  the index of the element
  */
 private void upheap (int k) {
-	BorderElement v = elements[k];
-	double vValue = v.dist+v.node.getDistanceOfWay(v.way);
-	while (k > 1) {
-		BorderElement a = elements[k/2];
-		double aValue = a.dist+a.node.getDistanceOfWay(v.way);
-		if (aValue <= vValue)
+	int v = heap[k];
+	double vValue = key[k];
+	while (k > 0) {
+		int p = (k-1)/ARITY;
+		if (key[p] <= vValue)
 			break;
-		elements[k] = elements[k/2];
-		setHeapPos(k);
-		k = k/2;
+		heap[k] = heap[p];
+		key[k] = key[p];
+		position[heap[k]] = k;
+		k = p;
 	}
-	elements[k] = v;
-	setHeapPos(k);
+	heap[k] = v;
+	key[k] = vValue;
+	position[v] = k;
 }
 
 }
@@ -0,0 +1,246 @@
+package routing;
+
+import java.util.*;
+
+/**
+ * Compressed-sparse-row (CSR) representation of the adjacency of a network.
+ * The nodes and edges get dense ordinals (see Node.getIndex and Edge.getIndex);
+ * the adjacency slots of node i are firstEdge[i] .. firstEdge[i+1]-1.
+ * The objects of the classes Node and Edge remain the views for drawing,
+ * editing and reporting; the routing algorithms iterate over the arrays.
+ * The graph is held in addition to the adjacency of the nodes, i.e. it does
+ * not reduce the memory of a network but speeds up the searches. The lengths
+ * and classes of the edges are copied per slot, so the weights can be computed
+ * without loading the edges (see WeightManager.getWeight(CompactGraph,int,RoutingProfile));
+ * only the usage and the external objects are taken from the edges.
+ *
+ * @version 1.04	17.10.2026	lengths and classes of the edges per slot
+ * @version 1.03	17.10.2026	unused arrays length and edgeClass removed
+ * @version 1.02	17.10.2026	constructor taking the arrays of a MappedNetwork
+ * @version 1.01	17.10.2026	edges numbered in the order of their IDs
+ * @version 1.00	17.10.2026	first version
+ */
+public class CompactGraph {
+
+	/**
+	 * Nodes indexed by their ordinal.
+	 */
+	protected final Node[] node;
+	/**
+	 * Edges indexed by their ordinal.
+	 */
+	protected final Edge[] edge;
+	/**
+	 * Index of the first adjacency slot of each node (length: number of nodes + 1).
+	 */
+	protected final int[] firstEdge;
+	/**
+	 * Ordinal of the node reached by an adjacency slot.
+	 */
+	protected final int[] target;
+	/**
+	 * Ordinal of the edge of an adjacency slot.
+	 */
+	protected final int[] edgeIndex;
+	/**
+	 * Is the edge of an adjacency slot traversed from node1 to node2?
+	 */
+	protected final boolean[] forwards;
+	/**
+	 * Length of the edge of an adjacency slot.
+	 */
+	protected final double[] length;
+	/**
+	 * Class of the edge of an adjacency slot.
+	 */
+	protected final int[] edgeClass;
+	/**
+	 * Modification counters of the containers at construction time.
+	 */
+	private final int nodesModCount, edgesModCount;
+
+/**
+ * Constructor. Assigns the ordinals to the nodes and edges (sorted by ID)
+ * and builds the adjacency arrays.
+ * @param nodes container of the nodes
+ * @param edges container of the edges
+ */
+public CompactGraph (Nodes nodes, Edges edges) {
+	nodesModCount = nodes.modCount;
+	edgesModCount = edges.modCount;
+	// number the nodes
+	node = new Node[nodes.numOfNodes()];
+	int n = 0;
+	for (Enumeration e = nodes.elements(); e.hasMoreElements();)
+		node[n++] = (Node)e.nextElement();
+	Arrays.sort (node, new Comparator() {
+		public int compare (Object o1, Object o2) {
+			long id1 = ((Node)o1).getID();
+			long id2 = ((Node)o2).getID();
+			return id1 < id2 ? -1 : (id1 == id2 ? 0 : 1);
+		}
+	});
+	for (int i=0; i<n; i++)
+		node[i].index = i;
+	// number the edges
+	edge = new Edge[edges.numOfEdges()];
+	int m = 0;
+	for (Enumeration e = edges.elements(); e.hasMoreElements();)
+		edge[m++] = (Edge)e.nextElement();
+	Arrays.sort (edge, new Comparator() {
+		public int compare (Object o1, Object o2) {
+			long id1 = ((Edge)o1).getID();
+			long id2 = ((Edge)o2).getID();
+			return id1 < id2 ? -1 : (id1 == id2 ? 0 : 1);
+		}
+	});
+	for (int i=0; i<m; i++)
+		edge[i].index = i;
+	// adjacency arrays in the order of the edges at the nodes
+	firstEdge = new int[n+1];
+	int slots = 0;
+	for (int i=0; i<n; i++) {
+		firstEdge[i] = slots;
+		slots += node[i].getNumOfEdges();
+	}
+	firstEdge[n] = slots;
+	target = new int[slots];
+	edgeIndex = new int[slots];
+	forwards = new boolean[slots];
+	int s = 0;
+	for (int i=0; i<n; i++) {
+		Node actNode = node[i];
+		for (int j=0; j<actNode.getNumOfEdges(); j++) {
+			Edge actEdge = actNode.getEdge(j);
+			edgeIndex[s] = actEdge.index;
+			forwards[s] = actEdge.node1.equals(actNode);
+			target[s] = actEdge.getOppositeNode(actNode).index;
+			s++;
+		}
+	}
+	length = new double[slots];
+	edgeClass = new int[slots];
+	fillEdgeColumns();
+}
+
+/**
+ * Constructor taking the ordinals and adjacency arrays of a graph built
+ * before (see MappedNetwork).
+ * @param node nodes indexed by their ordinal
+ * @param edge edges indexed by their ordinal
+ * @param firstEdge index of the first adjacency slot of each node
+ * @param target ordinal of the node reached by a slot
+ * @param edgeIndex ordinal of the edge of a slot
+ * @param forwards is the edge of a slot traversed from node1 to node2?
+ * @param nodes container of the nodes
+ * @param edges container of the edges
+ */
+CompactGraph (Node[] node, Edge[] edge, int[] firstEdge, int[] target, int[] edgeIndex, boolean[] forwards, Nodes nodes, Edges edges) {
+	nodesModCount = nodes.modCount;
+	edgesModCount = edges.modCount;
+	this.node = node;
+	this.edge = edge;
+	for (int i=0; i<node.length; i++)
+		node[i].index = i;
+	for (int i=0; i<edge.length; i++)
+		edge[i].index = i;
+	this.firstEdge = firstEdge;
+	this.target = target;
+	this.edgeIndex = edgeIndex;
+	this.forwards = forwards;
+	length = new double[target.length];
+	edgeClass = new int[target.length];
+	fillEdgeColumns();
+}
+
+/**
+ * Copies the lengths and classes of the edges into the slots.
+ */
+private void fillEdgeColumns () {
+	for (int s=0; s<edgeIndex.length; s++) {
+		Edge actEdge = edge[edgeIndex[s]];
+		length[s] = actEdge.getLength();
+		edgeClass[s] = actEdge.getEdgeClass();
+	}
+}
+
+/**
+ * Returns the edge with the given ordinal.
+ * @return the edge
+ * @param i ordinal
+ */
+public Edge getEdge (int i) {
+	return edge[i];
+}
+
+/**
+ * Returns the ordinal of the edge of an adjacency slot.
+ * @return ordinal of the edge
+ * @param s slot
+ */
+public int getEdgeIndex (int s) {
+	return edgeIndex[s];
+}
+
+/**
+ * Returns the class of the edge of an adjacency slot.
+ * @return edge class
+ * @param s slot
+ */
+public int getEdgeClass (int s) {
+	return edgeClass[s];
+}
+
+/**
+ * Returns the length of the edge of an adjacency slot.
+ * @return length
+ * @param s slot
+ */
+public double getLength (int s) {
+	return length[s];
+}
+
+/**
+ * Returns the node with the given ordinal.
+ * @return the node
+ * @param i ordinal
+ */
+public Node getNode (int i) {
+	return node[i];
+}
+
+/**
+ * Returns the number of adjacency slots.
+ * @return number of slots
+ */
+public int getNumOfSlots () {
+	return target.length;
+}
+
+/**
+ * Returns the number of edges.
+ * @return number of edges
+ */
+public int numOfEdges () {
+	return edge.length;
+}
+
+/**
+ * Returns the number of nodes.
+ * @return number of nodes
+ */
+public int numOfNodes () {
+	return node.length;
+}
+
+/**
+ * Tests whether the graph still corresponds to the containers.
+ * @return up to date?
+ * @param nodes container of the nodes
+ * @param edges container of the edges
+ */
+public boolean isValidFor (Nodes nodes, Edges edges) {
+	return (nodes.modCount == nodesModCount) && (edges.modCount == edgesModCount);
+}
+
+}
@@ -0,0 +1,838 @@
+package routing;
+
+import java.io.*;
+
+/**
+ * Contraction hierarchy of a network for a static metric.
+ * The nodes are contracted in the order of their edge difference (number of
+ * necessary shortcuts minus number of removed edges plus number of contracted
+ * neighbours), which is updated lazily. A shortcut stores the two arcs it
+ * replaces and is unpacked into the original edges after a query. The metric
+ * must be symmetric, as it is for the weight managers of this package. The
+ * hierarchy can be written to and read from a file; the file contains a
+ * checksum of the graph and the metric, so that an outdated file is detected.
+ *
+ * @version 1.11	17.10.2026	original weights of a route for a RoutingProfile
+ * @version 1.10	17.10.2026	computeFastRoute added
+ * @version 1.00	17.10.2026	first version
+ */
+public class ContractionHierarchy {
+
+	/**
+	 * Magic number and version of the file format.
+	 */
+	private static final int MAGIC = 0x43480001;
+	/**
+	 * Maximum number of settled nodes of a witness search during contraction.
+	 */
+	private static final int WITNESS_LIMIT = 1000;
+	/**
+	 * Maximum number of settled nodes of a witness search during the computation of priorities.
+	 */
+	private static final int SIMULATION_LIMIT = 100;
+
+	/**
+	 * The graph of the network.
+	 */
+	protected CompactGraph graph = null;
+	/**
+	 * Checksum of the graph and the metric.
+	 */
+	private long checksum = 0;
+	/**
+	 * Position of the nodes in the contraction order.
+	 */
+	private int[] rank = null;
+
+	/**
+	 * Number of arcs (original edges and shortcuts).
+	 */
+	private int numOfArcs = 0;
+	/**
+	 * First and second node of the arcs.
+	 */
+	private int[] arcU = null, arcV = null;
+	/**
+	 * Weights of the arcs.
+	 */
+	private double[] arcWeight = null;
+	/**
+	 * Ordinal of the original edge of an arc (-1 for shortcuts).
+	 */
+	private int[] arcEdge = null;
+	/**
+	 * Replaced arcs of a shortcut: from arcU to arcMid and from arcMid to arcV.
+	 */
+	private int[] arcChild1 = null, arcChild2 = null;
+	/**
+	 * Contracted node of a shortcut.
+	 */
+	private int[] arcMid = null;
+
+	/**
+	 * Upward graph in CSR representation.
+	 */
+	private int[] upFirst = null, upTarget = null, upArc = null;
+
+	/**
+	 * Query state of the threads.
+	 */
+	private ThreadLocal queries = new ThreadLocal();
+
+	/**
+	 * Temporary data of the contraction.
+	 */
+	private int[][] adj = null;
+	private int[] adjNum = null;
+	private boolean[] contracted = null;
+	private int[] deletedNeighbours = null;
+	private int[] nbNode = new int[16], nbArc = new int[16], nbPos = null;
+	private double[] nbWeight = new double[16];
+	private double[] wDist = null;
+	private int[] wStamp = null;
+	private int wGeneration = 0;
+	private double[] wHeapKey = new double[256];
+	private int[] wHeapNode = new int[256];
+	private int wHeapNum = 0;
+
+	/**
+	 * State of a query.
+	 */
+	private class Query {
+		int generation = 0;
+		int[][] stamp = new int[2][];
+		double[][] dist = new double[2][];
+		int[][] pred = new int[2][];
+		double[][] heapKey = {new double[256],new double[256]};
+		int[][] heapNode = {new int[256],new int[256]};
+		int[] heapNum = new int[2];
+		Query (int n) {
+			for (int d=0; d<2; d++) {
+				stamp[d] = new int[n];
+				dist[d] = new double[n];
+				pred[d] = new int[n];
+			}
+		}
+	}
+
+/**
+ * Constructor for reading a hierarchy.
+ * @param graph the graph
+ */
+private ContractionHierarchy (CompactGraph graph) {
+	this.graph = graph;
+}
+
+/**
+ * Builds the contraction hierarchy.
+ * @param graph the graph of the network
+ * @param weight the weights of the edges indexed by their ordinals
+ */
+public ContractionHierarchy (CompactGraph graph, double[] weight) {
+	this.graph = graph;
+	this.checksum = computeChecksum(graph,weight);
+	contract (weight);
+	buildUpwardGraph();
+}
+
+/**
+ * Adds an arc.
+ * @return the id of the arc
+ */
+private int addArc (int u, int v, double weight, int edge, int child1, int child2, int mid) {
+	if (numOfArcs == arcU.length) {
+		int size = 2*arcU.length;
+		arcU = grow(arcU,size); arcV = grow(arcV,size);
+		arcEdge = grow(arcEdge,size); arcChild1 = grow(arcChild1,size);
+		arcChild2 = grow(arcChild2,size); arcMid = grow(arcMid,size);
+		double[] newWeight = new double[size];
+		System.arraycopy (arcWeight,0,newWeight,0,numOfArcs);
+		arcWeight = newWeight;
+	}
+	int a = numOfArcs++;
+	arcU[a] = u; arcV[a] = v; arcWeight[a] = weight;
+	arcEdge[a] = edge; arcChild1[a] = child1; arcChild2[a] = child2; arcMid[a] = mid;
+	addToAdjacency (u,a);
+	addToAdjacency (v,a);
+	return a;
+}
+
+/**
+ * Adds an arc to the adjacency list of a node during the contraction.
+ */
+private void addToAdjacency (int node, int arc) {
+	if (adj[node] == null)
+		adj[node] = new int[4];
+	else if (adjNum[node] == adj[node].length)
+		adj[node] = grow(adj[node],2*adjNum[node]);
+	adj[node][adjNum[node]++] = arc;
+}
+
+/**
+ * Builds the upward graph from the arcs and the ranks.
+ */
+private void buildUpwardGraph () {
+	int n = graph.numOfNodes();
+	upFirst = new int[n+1];
+	for (int a=0; a<numOfArcs; a++)
+		upFirst[lower(a)+1]++;
+	for (int i=0; i<n; i++)
+		upFirst[i+1] += upFirst[i];
+	upTarget = new int[numOfArcs];
+	upArc = new int[numOfArcs];
+	int[] fill = new int[n];
+	for (int a=0; a<numOfArcs; a++) {
+		int u = lower(a);
+		int s = upFirst[u]+fill[u]++;
+		upTarget[s] = (u == arcU[a]) ? arcV[a] : arcU[a];
+		upArc[s] = a;
+	}
+}
+
+/**
+ * Computes the checksum of the graph and the metric.
+ * @return checksum
+ * @param graph the graph
+ * @param weight the weights of the edges
+ */
+public static long computeChecksum (CompactGraph graph, double[] weight) {
+	long h = 1125899906842597L;
+	h = 31*h + graph.numOfNodes();
+	h = 31*h + graph.numOfEdges();
+	for (int e=0; e<graph.numOfEdges(); e++) {
+		Edge edge = graph.edge[e];
+		h = 31*h + edge.getID();
+		h = 31*h + edge.node1.index;
+		h = 31*h + edge.node2.index;
+		h = 31*h + Double.doubleToLongBits(weight[e]);
+	}
+	return h;
+}
+
+/**
+ * Computes a fast way between two nodes by a bidirectional search in the
+ * upward graph (see computeFastRoute).
+ * @return the path from start to stop or null
+ * @param start start node
+ * @param stop destination node
+ */
+public PathEdge computeFastWay (Node start, Node stop) {
+	Route route = computeFastRoute (start,stop,RoutingProfile.DEFAULT);
+	return (route != null) ? route.toPathEdge() : null;
+}
+
+/**
+ * Computes a fast way between two nodes by a bidirectional search in the
+ * upward graph. The shortcuts of the result are unpacked.
+ * @return the route from start to stop or null
+ * @param start start node
+ * @param stop destination node
+ * @param profile routing profile of the original weights of the route
+ */
+public Route computeFastRoute (Node start, Node stop, RoutingProfile profile) {
+	if ((start == null) || (stop == null) || (start.equals(stop)))
+		return null;
+	Query q = getQuery();
+	q.generation++;
+	int s = start.index;
+	int t = stop.index;
+	q.heapNum[0] = 0;
+	q.heapNum[1] = 0;
+	reach (q,0,s,0,-1);
+	reach (q,1,t,0,-1);
+	double best = Double.MAX_VALUE;
+	int meet = -1;
+	while ((q.heapNum[0] > 0) || (q.heapNum[1] > 0)) {
+		// direction with the smaller minimum
+		int d = 0;
+		if ((q.heapNum[0] == 0) || ((q.heapNum[1] > 0) && (q.heapKey[1][0] < q.heapKey[0][0])))
+			d = 1;
+		double key = q.heapKey[d][0];
+		if (key >= best)
+			break;
+		int x = q.heapNode[d][0];
+		popQuery (q,d);
+		if (key > q.dist[d][x])
+			continue;	// outdated entry
+		if ((q.stamp[1-d][x] == q.generation) && (key+q.dist[1-d][x] < best)) {
+			best = key+q.dist[1-d][x];
+			meet = x;
+		}
+		for (int i=upFirst[x]; i<upFirst[x+1]; i++) {
+			int y = upTarget[i];
+			double nd = key+arcWeight[upArc[i]];
+			if ((q.stamp[d][y] != q.generation) || (nd < q.dist[d][y]))
+				reach (q,d,y,nd,upArc[i]);
+		}
+	}
+	if (meet < 0)
+		return null;
+	// collect the arcs from start to the meeting node and from there to stop
+	int numOfForwardArcs = 0;
+	for (int x=meet; x!=s; x=otherNode(q.pred[0][x],x))
+		numOfForwardArcs++;
+	int[] arcs = new int[numOfForwardArcs];
+	int k = numOfForwardArcs;
+	for (int x=meet; x!=s; x=otherNode(q.pred[0][x],x))
+		arcs[--k] = q.pred[0][x];
+	EdgeList list = new EdgeList();
+	int x = s;
+	for (int i=0; i<numOfForwardArcs; i++) {
+		unpack (arcs[i],x,list);
+		x = otherNode(arcs[i],x);
+	}
+	for (x=meet; x!=t; x=otherNode(q.pred[1][x],x))
+		unpack (q.pred[1][x],x,list);
+	// build the route
+	Route.Builder route = new Route.Builder(graph);
+	for (int i=0; i<list.num; i++)
+		route.append (list.edge[i],list.forwards[i],graph.edge[list.edge[i]].getWeight(list.forwards[i],profile));
+	return route.build();
+}
+
+/**
+ * Contracts all nodes.
+ * @param weight the weights of the edges
+ */
+private void contract (double[] weight) {
+	int n = graph.numOfNodes();
+	int m = graph.numOfEdges();
+	// arcs of the original edges (without loops)
+	int size = Math.max(16,2*m);
+	arcU = new int[size]; arcV = new int[size]; arcWeight = new double[size];
+	arcEdge = new int[size]; arcChild1 = new int[size]; arcChild2 = new int[size]; arcMid = new int[size];
+	adj = new int[n][];
+	adjNum = new int[n];
+	for (int e=0; e<m; e++) {
+		int u = graph.edge[e].node1.index;
+		int v = graph.edge[e].node2.index;
+		if (u != v)
+			addArc (u,v,weight[e],e,-1,-1,-1);
+	}
+	// initial priorities
+	contracted = new boolean[n];
+	deletedNeighbours = new int[n];
+	nbPos = new int[n];
+	java.util.Arrays.fill (nbPos,-1);
+	wDist = new double[n];
+	wStamp = new int[n];
+	rank = new int[n];
+	double[] prio = new double[n];
+	int[] heap = new int[n];
+	int[] pos = new int[n];
+	for (int v=0; v<n; v++) {
+		prio[v] = computePriority(v);
+		heap[v] = v;
+		pos[v] = v;
+	}
+	int num = n;
+	for (int i=n/2-1; i>=0; i--)
+		siftDown (heap,pos,prio,num,i);
+	// contraction in the order of the priorities (lazy updates)
+	int order = 0;
+	while (num > 0) {
+		int v = heap[0];
+		double p = computePriority(v);
+		if (p > prio[v]) {
+			prio[v] = p;
+			siftDown (heap,pos,prio,num,0);
+			if (heap[0] != v)
+				continue;
+		}
+		// remove v from the queue
+		num--;
+		pos[v] = -1;
+		if (num > 0) {
+			heap[0] = heap[num];
+			pos[heap[0]] = 0;
+			siftDown (heap,pos,prio,num,0);
+		}
+		contractNode (v,false,WITNESS_LIMIT);
+		contracted[v] = true;
+		rank[v] = order++;
+		// update the neighbours
+		for (int i=0; i<adjNum[v]; i++) {
+			int u = otherNode(adj[v][i],v);
+			if (!contracted[u]) {
+				deletedNeighbours[u]++;
+				double newPrio = computePriority(u);
+				double oldPrio = prio[u];
+				prio[u] = newPrio;
+				if (newPrio < oldPrio)
+					siftUp (heap,pos,prio,pos[u]);
+				else
+					siftDown (heap,pos,prio,num,pos[u]);
+			}
+		}
+	}
+	// release temporary data
+	adj = null; adjNum = null; contracted = null; deletedNeighbours = null;
+	nbPos = null; wDist = null; wStamp = null;
+}
+
+/**
+ * Contracts a node or simulates its contraction.
+ * @return number of (necessary) shortcuts
+ * @param v the node
+ * @param simulate only simulate?
+ * @param limit maximum number of settled nodes of a witness search
+ */
+private int contractNode (int v, boolean simulate, int limit) {
+	int k = collectNeighbours(v);
+	int shortcuts = 0;
+	for (int i=0; i<k-1; i++) {
+		double maxDist = 0;
+		for (int j=i+1; j<k; j++)
+			if (nbWeight[i]+nbWeight[j] > maxDist)
+				maxDist = nbWeight[i]+nbWeight[j];
+		witnessSearch (nbNode[i],v,maxDist,limit);
+		for (int j=i+1; j<k; j++) {
+			double d = nbWeight[i]+nbWeight[j];
+			int w = nbNode[j];
+			if ((wStamp[w] != wGeneration) || (wDist[w] > d)) {
+				shortcuts++;
+				if (!simulate)
+					addArc (nbNode[i],w,d,-1,nbArc[i],nbArc[j],v);
+			}
+		}
+	}
+	return shortcuts;
+}
+
+/**
+ * Collects the uncontracted neighbours of a node together with the lightest arc to each of them.
+ * @return number of neighbours
+ * @param v the node
+ */
+private int collectNeighbours (int v) {
+	int k = 0;
+	for (int i=0; i<adjNum[v]; i++) {
+		int a = adj[v][i];
+		int u = otherNode(a,v);
+		if (contracted[u] || (u == v))
+			continue;
+		int p = nbPos[u];
+		if (p >= 0) {
+			if (arcWeight[a] < nbWeight[p]) {
+				nbWeight[p] = arcWeight[a];
+				nbArc[p] = a;
+			}
+		}
+		else {
+			if (k == nbNode.length) {
+				nbNode = grow(nbNode,2*k);
+				nbArc = grow(nbArc,2*k);
+				double[] newWeight = new double[2*k];
+				System.arraycopy (nbWeight,0,newWeight,0,k);
+				nbWeight = newWeight;
+			}
+			nbNode[k] = u;
+			nbArc[k] = a;
+			nbWeight[k] = arcWeight[a];
+			nbPos[u] = k++;
+		}
+	}
+	for (int i=0; i<k; i++)
+		nbPos[nbNode[i]] = -1;
+	return k;
+}
+
+/**
+ * Computes the priority of a node.
+ * @return priority
+ * @param v the node
+ */
+private double computePriority (int v) {
+	int shortcuts = contractNode (v,true,SIMULATION_LIMIT);
+	int degree = collectNeighbours(v);
+	return shortcuts-degree+deletedNeighbours[v];
+}
+
+/**
+ * Returns the query state of the current thread.
+ * @return query state
+ */
+private Query getQuery () {
+	Query q = (Query)queries.get();
+	if (q == null) {
+		q = new Query(graph.numOfNodes());
+		queries.set(q);
+	}
+	return q;
+}
+
+/**
+ * Returns the graph of the hierarchy.
+ * @return the graph
+ */
+public CompactGraph getGraph () {
+	return graph;
+}
+
+/**
+ * Returns the number of arcs (original edges and shortcuts).
+ * @return number of arcs
+ */
+public int getNumOfArcs () {
+	return numOfArcs;
+}
+
+/**
+ * Enlarges an array.
+ */
+private static int[] grow (int[] array, int size) {
+	int[] newArray = new int[size];
+	System.arraycopy (array,0,newArray,0,Math.min(size,array.length));
+	return newArray;
+}
+
+/**
+ * Reads the hierarchy from a file or builds it and writes it to the file.
+ * @return the hierarchy
+ * @param graph the graph of the network
+ * @param weight the weights of the edges indexed by their ordinals
+ * @param filename the file (may be null)
+ */
+public static ContractionHierarchy loadOrCreate (CompactGraph graph, double[] weight, String filename) {
+	ContractionHierarchy ch = null;
+	if (filename != null)
+		ch = read (graph,weight,filename);
+	if (ch == null) {
+		System.out.println("build contraction hierarchy ...");
+		ch = new ContractionHierarchy (graph,weight);
+		if (filename != null)
+			ch.write (filename);
+	}
+	return ch;
+}
+
+/**
+ * Returns the node of the arc with the lower rank.
+ */
+private int lower (int a) {
+	return (rank[arcU[a]] < rank[arcV[a]]) ? arcU[a] : arcV[a];
+}
+
+/**
+ * Builds the contraction hierarchy of a network for the standard weights and writes
+ * it next to the network files.
+ * @param args base name of the network files
+ */
+public static void main (String[] args) {
+	if (args.length < 1) {
+		System.err.println("usage: java routing.ContractionHierarchy <network base name>");
+		return;
+	}
+	Network net = new Network();
+	if (!net.createByNetworkFiles(args[0],null))
+		return;
+	long t = System.currentTimeMillis();
+	ContractionHierarchy ch = new ContractionHierarchy (net.getCompactGraph(),net.computeWeights());
+	System.out.println("contraction: "+(System.currentTimeMillis()-t)+" ms, "+ch.getNumOfArcs()+" arcs");
+	ch.write (args[0]+".ch");
+}
+
+/**
+ * Returns the other node of an arc.
+ */
+private int otherNode (int a, int x) {
+	return (arcU[a] == x) ? arcV[a] : arcU[a];
+}
+
+/**
+ * Removes the first element from the heap of a query direction.
+ */
+private void popQuery (Query q, int d) {
+	double[] key = q.heapKey[d];
+	int[] node = q.heapNode[d];
+	int num = --q.heapNum[d];
+	if (num == 0)
+		return;
+	double vKey = key[num];
+	int vNode = node[num];
+	int k = 0;
+	while (2*k+1 < num) {
+		int j = 2*k+1;
+		if ((j+1 < num) && (key[j+1] < key[j]))
+			j++;
+		if (vKey <= key[j])
+			break;
+		key[k] = key[j];
+		node[k] = node[j];
+		k = j;
+	}
+	key[k] = vKey;
+	node[k] = vNode;
+}
+
+/**
+ * Reads the hierarchy from a file.
+ * Returns null if the file does not exist or does not fit to the graph and the metric.
+ * @return the hierarchy or null
+ * @param graph the graph of the network
+ * @param weight the weights of the edges indexed by their ordinals
+ * @param filename the file
+ */
+public static ContractionHierarchy read (CompactGraph graph, double[] weight, String filename) {
+	File file = new File(filename);
+	if (!file.exists())
+		return null;
+	try {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if ((in.readInt() != MAGIC) || (in.readInt() != graph.numOfNodes()) || (in.readLong() != computeChecksum(graph,weight)))
+				return null;
+			ContractionHierarchy ch = new ContractionHierarchy(graph);
+			ch.checksum = computeChecksum(graph,weight);
+			int n = graph.numOfNodes();
+			ch.rank = new int[n];
+			for (int i=0; i<n; i++)
+				ch.rank[i] = in.readInt();
+			int num = in.readInt();
+			ch.numOfArcs = num;
+			ch.arcU = new int[num]; ch.arcV = new int[num]; ch.arcWeight = new double[num];
+			ch.arcEdge = new int[num]; ch.arcChild1 = new int[num]; ch.arcChild2 = new int[num]; ch.arcMid = new int[num];
+			for (int a=0; a<num; a++) {
+				ch.arcU[a] = in.readInt();
+				ch.arcV[a] = in.readInt();
+				ch.arcWeight[a] = in.readDouble();
+				ch.arcEdge[a] = in.readInt();
+				ch.arcChild1[a] = in.readInt();
+				ch.arcChild2[a] = in.readInt();
+				ch.arcMid[a] = in.readInt();
+			}
+			ch.buildUpwardGraph();
+			return ch;
+		}
+		finally {
+			in.close();
+		}
+	}
+	catch (IOException ex) {
+		System.err.println("ContractionHierarchy.read: I/O-Error "+ex);
+		return null;
+	}
+}
+
+/**
+ * Sets the distance of a node in a query direction and inserts it into the heap.
+ */
+private void reach (Query q, int d, int x, double dist, int arc) {
+	q.stamp[d][x] = q.generation;
+	q.dist[d][x] = dist;
+	q.pred[d][x] = arc;
+	int k = q.heapNum[d]++;
+	if (k == q.heapKey[d].length) {
+		double[] newKey = new double[2*k];
+		System.arraycopy (q.heapKey[d],0,newKey,0,k);
+		q.heapKey[d] = newKey;
+		q.heapNode[d] = grow(q.heapNode[d],2*k);
+	}
+	double[] key = q.heapKey[d];
+	int[] node = q.heapNode[d];
+	while (k > 0) {
+		int p = (k-1)/2;
+		if (key[p] <= dist)
+			break;
+		key[k] = key[p];
+		node[k] = node[p];
+		k = p;
+	}
+	key[k] = dist;
+	node[k] = x;
+}
+
+/**
+ * Moves an element down in the priority queue of the contraction.
+ */
+private static void siftDown (int[] heap, int[] pos, double[] prio, int num, int k) {
+	int v = heap[k];
+	while (2*k+1 < num) {
+		int j = 2*k+1;
+		if ((j+1 < num) && (prio[heap[j+1]] < prio[heap[j]]))
+			j++;
+		if (prio[v] <= prio[heap[j]])
+			break;
+		heap[k] = heap[j];
+		pos[heap[k]] = k;
+		k = j;
+	}
+	heap[k] = v;
+	pos[v] = k;
+}
+
+/**
+ * Moves an element up in the priority queue of the contraction.
+ */
+private static void siftUp (int[] heap, int[] pos, double[] prio, int k) {
+	int v = heap[k];
+	while (k > 0) {
+		int p = (k-1)/2;
+		if (prio[heap[p]] <= prio[v])
+			break;
+		heap[k] = heap[p];
+		pos[heap[k]] = k;
+		k = p;
+	}
+	heap[k] = v;
+	pos[v] = k;
+}
+
+/**
+ * Unpacks an arc into original edges.
+ * @param a the arc
+ * @param from the node at which the arc is entered
+ * @param list list receiving the edges
+ */
+private void unpack (int a, int from, EdgeList list) {
+	if (arcEdge[a] >= 0) {
+		Edge edge = graph.edge[arcEdge[a]];
+		list.add (arcEdge[a],edge.node1.index == from);
+	}
+	else if (from == arcU[a]) {
+		unpack (arcChild1[a],from,list);
+		unpack (arcChild2[a],arcMid[a],list);
+	}
+	else {
+		unpack (arcChild2[a],from,list);
+		unpack (arcChild1[a],arcMid[a],list);
+	}
+}
+
+/**
+ * Dijkstra search from a node in the remaining graph avoiding a node.
+ * @param source start node
+ * @param avoid node to be avoided
+ * @param maxDist maximum distance of interest
+ * @param limit maximum number of settled nodes
+ */
+private void witnessSearch (int source, int avoid, double maxDist, int limit) {
+	wGeneration++;
+	wHeapNum = 0;
+	wStamp[source] = wGeneration;
+	wDist[source] = 0;
+	pushWitness (source,0);
+	int settled = 0;
+	while ((wHeapNum > 0) && (settled < limit)) {
+		double key = wHeapKey[0];
+		int x = wHeapNode[0];
+		popWitness();
+		if (key > wDist[x])
+			continue;
+		if (key > maxDist)
+			break;
+		settled++;
+		for (int i=0; i<adjNum[x]; i++) {
+			int a = adj[x][i];
+			int y = otherNode(a,x);
+			if (contracted[y] || (y == avoid))
+				continue;
+			double nd = key+arcWeight[a];
+			if ((wStamp[y] != wGeneration) || (nd < wDist[y])) {
+				wStamp[y] = wGeneration;
+				wDist[y] = nd;
+				pushWitness (y,nd);
+			}
+		}
+	}
+}
+
+/**
+ * Inserts a node into the heap of the witness search.
+ */
+private void pushWitness (int x, double dist) {
+	int k = wHeapNum++;
+	if (k == wHeapKey.length) {
+		double[] newKey = new double[2*k];
+		System.arraycopy (wHeapKey,0,newKey,0,k);
+		wHeapKey = newKey;
+		wHeapNode = grow(wHeapNode,2*k);
+	}
+	while (k > 0) {
+		int p = (k-1)/2;
+		if (wHeapKey[p] <= dist)
+			break;
+		wHeapKey[k] = wHeapKey[p];
+		wHeapNode[k] = wHeapNode[p];
+		k = p;
+	}
+	wHeapKey[k] = dist;
+	wHeapNode[k] = x;
+}
+
+/**
+ * Removes the first element from the heap of the witness search.
+ */
+private void popWitness () {
+	int num = --wHeapNum;
+	if (num == 0)
+		return;
+	double vKey = wHeapKey[num];
+	int vNode = wHeapNode[num];
+	int k = 0;
+	while (2*k+1 < num) {
+		int j = 2*k+1;
+		if ((j+1 < num) && (wHeapKey[j+1] < wHeapKey[j]))
+			j++;
+		if (vKey <= wHeapKey[j])
+			break;
+		wHeapKey[k] = wHeapKey[j];
+		wHeapNode[k] = wHeapNode[j];
+		k = j;
+	}
+	wHeapKey[k] = vKey;
+	wHeapNode[k] = vNode;
+}
+
+/**
+ * Writes the hierarchy into a file.
+ * @return successful?
+ * @param filename the file
+ */
+public boolean write (String filename) {
+	try {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+		out.writeInt(MAGIC);
+		out.writeInt(graph.numOfNodes());
+		out.writeLong(checksum);
+		for (int i=0; i<rank.length; i++)
+			out.writeInt(rank[i]);
+		out.writeInt(numOfArcs);
+		for (int a=0; a<numOfArcs; a++) {
+			out.writeInt(arcU[a]);
+			out.writeInt(arcV[a]);
+			out.writeDouble(arcWeight[a]);
+			out.writeInt(arcEdge[a]);
+			out.writeInt(arcChild1[a]);
+			out.writeInt(arcChild2[a]);
+			out.writeInt(arcMid[a]);
+		}
+		out.close();
+		return true;
+	}
+	catch (IOException ex) {
+		System.err.println("ContractionHierarchy.write: I/O-Error "+ex);
+		return false;
+	}
+}
+
+/**
+ * Growable list of directed edges.
+ */
+private static class EdgeList {
+	int num = 0;
+	int[] edge = new int[64];
+	boolean[] forwards = new boolean[64];
+	void add (int e, boolean fw) {
+		if (num == edge.length) {
+			edge = grow(edge,2*num);
+			boolean[] newForwards = new boolean[2*num];
+			System.arraycopy (forwards,0,newForwards,0,num);
+			forwards = newForwards;
+		}
+		edge[num] = e;
+		forwards[num++] = fw;
+	}
+}
+
+}
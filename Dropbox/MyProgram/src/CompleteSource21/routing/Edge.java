@@ -8,6 +8,10 @@ import util.*;
 /**
  * Class representing edges.
  * 
+ * @version	4.31	17.10.2026	usage changes announced atomically and to the overlay
+ * @version	4.30	17.10.2026	weight for a RoutingProfile
+ * @version	4.20	17.10.2026	usage stamp added
+ * @version	4.10	17.10.2026	ordinal index for CompactGraph, modifications announced to the container
  * @version	4.00	17.08.2003	superclass DrawableLine replaced by Drawable, length become double, weight removed, additional constructor
  * @version	3.30	03.07.2001	getContainer renamed to getEdgeContainer
  * @version	3.20	24.05.2901	marking added
@@ -56,6 +60,14 @@ public class Edge extends Drawable implements Comparable {
 	 * Link to the container.
 	 */
 	private Edges edges = null;	
+	/**
+	 * Ordinal of the edge in the CompactGraph (-1 if not numbered).
+	 */
+	protected int index = -1;
+	/**
+	 * Value of the usage clock of the container at the last change of the usage.
+	 */
+	private long usageStamp = 0;
 
 /**
  * Constructor.
@@ -112,6 +124,27 @@ public Edge (long id, int edgeClass, Node node1, Node node2, String name, Edges
  */
 public void announceMove (Node node) {
 	this.length = node1.distanceTo(node2);
+	announceModification();
+}
+
+/**
+ * Announces a change of the usage to the container.
+ */
+private void announceUsageChange () {
+	if (edges != null) {
+		usageStamp = edges.usageClock.incrementAndGet();
+		Overlay overlay = edges.overlay;
+		if (overlay != null)
+			overlay.announceUsageChange (this,usageStamp);
+	}
+}
+
+/**
+ * Announces a structural modification to the container.
+ */
+private void announceModification () {
+	if (edges != null)
+		edges.modCount++;
 }
 
 /**
@@ -144,6 +177,7 @@ public void debugPrint () {
 public void decUsage() {
 	if (usage < 1) System.out.println("Edge "+id+": "+usage+"--");
 	usage--;
+	announceUsageChange();
 }
 
 /**
@@ -199,6 +233,13 @@ public Edges getEdgeContainer () {
 public long getID () {
 	return id;
 }
+/**
+ * Returns the ordinal of the edge in the CompactGraph.
+ * @return ordinal (-1 if not numbered)
+ */
+public int getIndex () {
+	return index;
+}
 /**
  * Gibt die Lnge der Kante zurck.
  * @return Lnge
@@ -265,6 +306,14 @@ public Node getOppositeNode (Node oneNode) {
 	else
 		return node1;
 }
+/**
+ * Returns the value of the usage clock of the container at the last change of the usage.
+ * Edges with a higher stamp have been changed later.
+ * @return usage stamp
+ */
+public long getUsageStamp() {
+	return usageStamp;
+}
 /**
  * Returns the usage of the edge.
  * @return usage
@@ -296,6 +345,15 @@ public double getWeight (Node from) {
 public double getWeight (boolean forwards) {
 	return edges.getWeightManager().getWeight(this,forwards);
 }
+/**
+ * Returns the directed weight of the edge for a routing profile by the WeightManager.
+ * @return weight of the edge
+ * @param forwards is the edge traversed from node1 to node2?
+ * @param profile the routing profile
+ */
+public double getWeight (boolean forwards, RoutingProfile profile) {
+	return edges.getWeightManager().getWeight(this,forwards,profile);
+}
 /**
  * Testet, ob die Kante den bergebenen Knoten als Start- oder Endknoten besitzt.
  * @return besitzt den Knoten?
@@ -317,6 +375,7 @@ public int hashCode () {
 public void incUsage() {
 	/*if (usage > 2) System.out.println("Edge "+id+": "+usage+"++");*/
 	usage++;
+	announceUsageChange();
 }
 
 /*
@@ -389,6 +448,7 @@ public void replaceNode (Node oldNode, Node newNode) {
 		node2.addEdge (this);
 	}
 	length = node1.distanceTo(node2);
+	announceModification();
 }
 /**
  * Setzt die Klasse der Kante neu.
@@ -400,6 +460,7 @@ public void setEdgeClass (short edgeClass) {
 		getNode2().adaptClass(edgeClass);
 	}
 	this.edgeClass = edgeClass;
+	announceModification();
 	setPresentation(DrawablePresentation.get("Edge"+edgeClass));
 }
 /**
@@ -428,6 +489,7 @@ public void setStandardAppearance () {
  */
 public void setUsage (short usage) {
 	this.usage = usage;
+	announceUsageChange();
 }
 /**
  * Schreibt die Kante in den DataOutput.
@@ -3,12 +3,18 @@ package routing;
 import java.awt.*;
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import drawables.*;
+import util.LongIntMap;
 import util.Num;
 
 /**
  * Container class for edges.
  * 
+ * @version 1.51	17.10.26	usageClock atomic, overlay informed about usage changes
+ * @version 1.50	17.10.26	Hashtable replaced by an array and a LongIntMap
+ * @version 1.40	17.10.26	usageClock added
+ * @version 1.30	17.10.26	modCount added
  * @version 1.20	24.05.01	Marking added
  * @version 1.12	28.06.00	Timer removed
  * @version	1.11	24.04.00	superclass corrected, support of edge with null-strings
@@ -19,9 +25,17 @@ import util.Num;
 public class Edges {
 	
 	/**
-	 * Container
+	 * Container (in the order of the insertion)
 	 */
-	protected Hashtable hashTable =  null;
+	private Edge[] edge = null;
+	/**
+	 * Number of edges
+	 */
+	private int num = 0;
+	/**
+	 * Position of the edges in the array by their IDs
+	 */
+	private LongIntMap index = null;
 	/**
 	 * Highest id of a node
 	 */
@@ -35,15 +49,23 @@ public class Edges {
 	 * Number of edge classes (a change requires also to adapt speed, minscale and the class Node!)
 	 */
 	private int numOfClasses = 7;
-	/**
-	 * Edge used for searching
-	 */
-	private Edge searchEdge = new Edge (0);
 
 	/**
 	 * Value of the mark which corresponds to unmarked
 	 */
 	protected int nullMark = 0;
+	/**
+	 * Number of structural modifications (used for detecting an outdated CompactGraph)
+	 */
+	protected int modCount = 0;
+	/**
+	 * Number of usage changes of the edges (see Edge.getUsageStamp)
+	 */
+	protected final AtomicLong usageClock = new AtomicLong();
+	/**
+	 * Overlay informed about usage changes (see Network.getOverlay)
+	 */
+	protected volatile Overlay overlay = null;
 
 	/**
 	 * Speed of the edge classes
@@ -58,7 +80,8 @@ public class Edges {
  * Konstruktor.
  */
 public Edges() {
-	hashTable = new Hashtable (10000);
+	edge = new Edge[10000];
+	index = new LongIntMap (10000);
 }
 /**
  * Clears all marks.
@@ -71,7 +94,17 @@ public void clearAllMarks () {
  * @return Enumeration der Kanten
  */
 public Enumeration elements () {
-	return hashTable.elements();
+	return new Enumeration() {
+		private int i = 0;
+		public boolean hasMoreElements () {
+			return i < num;
+		}
+		public Object nextElement () {
+			if (i >= num)
+				throw new NoSuchElementException();
+			return edge[i++];
+		}
+	};
 }
 /**
  * Gibt die Kante zurck, dieer die angegebene ID besitzt.
@@ -80,8 +113,8 @@ public Enumeration elements () {
  * @param id ID der Kante
  */
 public Edge get (long id) {
-	searchEdge.setID (id);
-	return (Edge) hashTable.get (searchEdge);
+	int i = index.get(id);
+	return (i != LongIntMap.NONE) ? edge[i] : null;
 }
 /**
  * Returns the next free identifier.
@@ -139,9 +172,16 @@ public Edge newEdge (long id, int edgeClass, Node node1, Node node2, String name
 	if (edge != null)
 		return edge;
 	edge = new Edge (id, edgeClass, node1, node2, name, this);
-	hashTable.put (edge,edge);
+	if (num == this.edge.length) {
+		Edge[] newEdge = new Edge[2*num];
+		System.arraycopy (this.edge,0,newEdge,0,num);
+		this.edge = newEdge;
+	}
+	index.put (id,num);
+	this.edge[num++] = edge;
 	node1.addEdge (edge);
 	node2.addEdge (edge);
+	modCount++;
 	if (id > maxId)
 		maxId = id;
 	return edge;
@@ -151,7 +191,7 @@ public Edge newEdge (long id, int edgeClass, Node node1, Node node2, String name
  * @return Anzahl
  */
 public int numOfEdges () {
-	return hashTable.size();
+	return num;
 }
 /**
  * Liest eine Kante vom DataInput.
@@ -191,7 +231,15 @@ public boolean removeEdge (Edge edge) {
 		return false;
 	edge.getNode1().removeEdge (edge);
 	edge.getNode2().removeEdge (edge);
-	hashTable.remove (edge);
+	int i = index.remove(edge.getID());
+	if (i != LongIntMap.NONE) {
+		// the last edge fills the gap
+		this.edge[i] = this.edge[--num];
+		this.edge[num] = null;
+		if (i < num)
+			index.put (this.edge[i].getID(),i);
+	}
+	modCount++;
 	return true;
 }
 /**
@@ -0,0 +1,391 @@
+package routing;
+
+import java.io.*;
+
+/**
+ * Landmarks for the goal-directed search by ALT (A*, landmarks, triangle
+ * inequality). For each landmark L, the distances from L to all nodes and from
+ * all nodes to L are computed for a metric that never exceeds the actual
+ * weights (e.g. the free-flow weights of the generator); then
+ * max(d(L,t)-d(L,v), d(v,L)-d(t,L)) over all landmarks is a lower bound of the
+ * distance from v to t. The landmarks are selected by the farthest heuristic.
+ * The distances are stored as floats in node-major order; a small margin per
+ * landmark compensates the rounding. The landmarks can be written to and read
+ * from a file, which contains a checksum of the graph and the metric.
+ *
+ * @version 1.00	17.10.2026	first version
+ */
+public class Landmarks {
+
+	/**
+	 * Magic number and version of the file format.
+	 */
+	private static final int MAGIC = 0x4c4d0001;
+	/**
+	 * Default number of landmarks.
+	 */
+	public static final int DEFAULT_NUMBER = 16;
+
+	/**
+	 * The graph of the network.
+	 */
+	protected CompactGraph graph = null;
+	/**
+	 * Checksum of the graph and the metric.
+	 */
+	private long checksum = 0;
+	/**
+	 * Number of landmarks.
+	 */
+	private int num = 0;
+	/**
+	 * Ordinals of the landmark nodes.
+	 */
+	private int[] landmark = null;
+	/**
+	 * Distances from the landmarks (index: node*num + landmark).
+	 */
+	private float[] fromDist = null;
+	/**
+	 * Distances to the landmarks (index: node*num + landmark).
+	 */
+	private float[] toDist = null;
+	/**
+	 * Rounding margin of each landmark.
+	 */
+	private double[] margin = null;
+
+/**
+ * Constructor for reading landmarks.
+ * @param graph the graph
+ */
+private Landmarks (CompactGraph graph) {
+	this.graph = graph;
+}
+
+/**
+ * Selects the landmarks and computes their distances.
+ * @param graph the graph of the network
+ * @param weightF weights of the edges in forward direction indexed by their ordinals
+ * @param weightB weights of the edges in backward direction indexed by their ordinals
+ * @param num number of landmarks
+ */
+public Landmarks (CompactGraph graph, double[] weightF, double[] weightB, int num) {
+	this.graph = graph;
+	this.checksum = computeChecksum(graph,weightF,weightB);
+	int n = graph.numOfNodes();
+	this.num = Math.min(num,n);
+	landmark = new int[this.num];
+	fromDist = new float[n*this.num];
+	toDist = new float[n*this.num];
+	margin = new double[this.num];
+	if (n == 0)
+		return;
+	// farthest selection starting at the node with the highest degree
+	int first = 0;
+	for (int v=1; v<n; v++)
+		if (graph.firstEdge[v+1]-graph.firstEdge[v] > graph.firstEdge[first+1]-graph.firstEdge[first])
+			first = v;
+	double[] dist = new double[n];
+	double[] minDist = new double[n];
+	dijkstra (first,weightF,weightB,true,dist);
+	int next = farthest(dist);
+	for (int i=0; i<n; i++)
+		minDist[i] = (dist[i] == Double.MAX_VALUE) ? -1 : Double.MAX_VALUE;
+	for (int l=0; l<this.num; l++) {
+		landmark[l] = next;
+		dijkstra (next,weightF,weightB,true,dist);
+		store (fromDist,l,dist);
+		for (int i=0; i<n; i++)
+			if ((minDist[i] >= 0) && (dist[i] < minDist[i]))
+				minDist[i] = dist[i];
+		dijkstra (next,weightF,weightB,false,dist);
+		store (toDist,l,dist);
+		next = farthest(minDist);
+	}
+}
+
+/**
+ * Computes the checksum of the graph and the metric.
+ * @return checksum
+ */
+private static long computeChecksum (CompactGraph graph, double[] weightF, double[] weightB) {
+	return 31*ContractionHierarchy.computeChecksum(graph,weightF) + ContractionHierarchy.computeChecksum(graph,weightB);
+}
+
+/**
+ * Dijkstra search from or to a node.
+ * @param source the node
+ * @param weightF forward weights
+ * @param weightB backward weights
+ * @param forwards distances from the node? otherwise to the node
+ * @param dist receives the distances (Double.MAX_VALUE if unreachable)
+ */
+private void dijkstra (int source, double[] weightF, double[] weightB, boolean forwards, double[] dist) {
+	int n = graph.numOfNodes();
+	java.util.Arrays.fill (dist,Double.MAX_VALUE);
+	boolean[] settled = new boolean[n];
+	double[] heapKey = new double[n+1];
+	int[] heapNode = new int[n+1];
+	int heapNum = 0;
+	dist[source] = 0;
+	heapKey[0] = 0;
+	heapNode[heapNum++] = source;
+	while (heapNum > 0) {
+		int x = heapNode[0];
+		double key = heapKey[0];
+		// remove first
+		heapNum--;
+		double vKey = heapKey[heapNum];
+		int vNode = heapNode[heapNum];
+		int k = 0;
+		while (2*k+1 < heapNum) {
+			int j = 2*k+1;
+			if ((j+1 < heapNum) && (heapKey[j+1] < heapKey[j]))
+				j++;
+			if (vKey <= heapKey[j])
+				break;
+			heapKey[k] = heapKey[j];
+			heapNode[k] = heapNode[j];
+			k = j;
+		}
+		heapKey[k] = vKey;
+		heapNode[k] = vNode;
+		if (settled[x])
+			continue;
+		settled[x] = true;
+		for (int s=graph.firstEdge[x]; s<graph.firstEdge[x+1]; s++) {
+			int y = graph.target[s];
+			int e = graph.edgeIndex[s];
+			// traversal x->y or, for distances to the source, y->x
+			double w = (graph.forwards[s] == forwards) ? weightF[e] : weightB[e];
+			double nd = key+w;
+			if (!settled[y] && (nd < dist[y])) {
+				dist[y] = nd;
+				if (heapNum == heapKey.length) {
+					double[] newKey = new double[2*heapNum];
+					System.arraycopy (heapKey,0,newKey,0,heapNum);
+					heapKey = newKey;
+					int[] newNode = new int[2*heapNum];
+					System.arraycopy (heapNode,0,newNode,0,heapNum);
+					heapNode = newNode;
+				}
+				k = heapNum++;
+				while (k > 0) {
+					int p = (k-1)/2;
+					if (heapKey[p] <= nd)
+						break;
+					heapKey[k] = heapKey[p];
+					heapNode[k] = heapNode[p];
+					k = p;
+				}
+				heapKey[k] = nd;
+				heapNode[k] = y;
+			}
+		}
+	}
+}
+
+/**
+ * Computes a lower bound of the distance between two nodes.
+ * @return lower bound
+ * @param v ordinal of the node
+ * @param t ordinal of the destination node
+ */
+public double estimate (int v, int t) {
+	double bound = 0;
+	int iv = v*num;
+	int it = t*num;
+	for (int l=0; l<num; l++) {
+		double d = (double)fromDist[it+l]-fromDist[iv+l];
+		double d2 = (double)toDist[iv+l]-toDist[it+l];
+		if (d2 > d)
+			d = d2;
+		d -= margin[l];
+		if (d > bound)		// NaN (both unreachable) is ignored
+			bound = d;
+	}
+	return bound;
+}
+
+/**
+ * Returns the node with the largest finite distance.
+ * @return ordinal of the node
+ * @param dist the distances
+ */
+private static int farthest (double[] dist) {
+	int res = 0;
+	double max = -1;
+	for (int i=0; i<dist.length; i++)
+		if ((dist[i] != Double.MAX_VALUE) && (dist[i] > max)) {
+			max = dist[i];
+			res = i;
+		}
+	return res;
+}
+
+/**
+ * Returns the graph of the landmarks.
+ * @return the graph
+ */
+public CompactGraph getGraph () {
+	return graph;
+}
+
+/**
+ * Returns the node of a landmark.
+ * @return the node
+ * @param l index of the landmark
+ */
+public Node getLandmark (int l) {
+	return graph.node[landmark[l]];
+}
+
+/**
+ * Reads the landmarks from a file or computes them and writes them to the file.
+ * @return the landmarks
+ * @param graph the graph of the network
+ * @param weightF weights of the edges in forward direction indexed by their ordinals
+ * @param weightB weights of the edges in backward direction indexed by their ordinals
+ * @param num number of landmarks
+ * @param filename the file (may be null)
+ */
+public static Landmarks loadOrCreate (CompactGraph graph, double[] weightF, double[] weightB, int num, String filename) {
+	Landmarks lm = null;
+	if (filename != null)
+		lm = read (graph,weightF,weightB,num,filename);
+	if (lm == null) {
+		System.out.println("compute landmarks ...");
+		lm = new Landmarks (graph,weightF,weightB,num);
+		if (filename != null)
+			lm.write (filename);
+	}
+	return lm;
+}
+
+/**
+ * Computes landmarks of a network for the standard weights and writes them
+ * next to the network files.
+ * @param args base name of the network files
+ */
+public static void main (String[] args) {
+	if (args.length < 1) {
+		System.err.println("usage: java routing.Landmarks <network base name>");
+		return;
+	}
+	Network net = new Network();
+	if (!net.createByNetworkFiles(args[0],null))
+		return;
+	long t = System.currentTimeMillis();
+	Landmarks lm = new Landmarks (net.getCompactGraph(),net.computeWeights(true),net.computeWeights(false),DEFAULT_NUMBER);
+	System.out.println("landmarks: "+(System.currentTimeMillis()-t)+" ms");
+	lm.write (args[0]+".lmk");
+}
+
+/**
+ * Returns the number of landmarks.
+ * @return number of landmarks
+ */
+public int numOfLandmarks () {
+	return num;
+}
+
+/**
+ * Reads the landmarks from a file.
+ * Returns null if the file does not exist or does not fit to the graph and the metric.
+ * @return the landmarks or null
+ * @param graph the graph of the network
+ * @param weightF weights of the edges in forward direction
+ * @param weightB weights of the edges in backward direction
+ * @param num number of landmarks
+ * @param filename the file
+ */
+public static Landmarks read (CompactGraph graph, double[] weightF, double[] weightB, int num, String filename) {
+	File file = new File(filename);
+	if (!file.exists())
+		return null;
+	try {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			int n = graph.numOfNodes();
+			long checksum = computeChecksum(graph,weightF,weightB);
+			if ((in.readInt() != MAGIC) || (in.readInt() != n) || (in.readInt() != Math.min(num,n)) || (in.readLong() != checksum))
+				return null;
+			Landmarks lm = new Landmarks(graph);
+			lm.checksum = checksum;
+			lm.num = Math.min(num,n);
+			lm.landmark = new int[lm.num];
+			lm.margin = new double[lm.num];
+			for (int l=0; l<lm.num; l++) {
+				lm.landmark[l] = in.readInt();
+				lm.margin[l] = in.readDouble();
+			}
+			lm.fromDist = new float[n*lm.num];
+			lm.toDist = new float[n*lm.num];
+			for (int i=0; i<lm.fromDist.length; i++)
+				lm.fromDist[i] = in.readFloat();
+			for (int i=0; i<lm.toDist.length; i++)
+				lm.toDist[i] = in.readFloat();
+			return lm;
+		}
+		finally {
+			in.close();
+		}
+	}
+	catch (IOException ex) {
+		System.err.println("Landmarks.read: I/O-Error "+ex);
+		return null;
+	}
+}
+
+/**
+ * Stores the distances of a landmark as floats and adapts its margin.
+ * Unreachable nodes get an infinite distance.
+ * @param target distance array of all landmarks
+ * @param l index of the landmark
+ * @param dist the distances
+ */
+private void store (float[] target, int l, double[] dist) {
+	double max = 0;
+	for (int i=0; i<dist.length; i++) {
+		if (dist[i] == Double.MAX_VALUE)
+			target[i*num+l] = Float.POSITIVE_INFINITY;
+		else {
+			target[i*num+l] = (float)dist[i];
+			if (dist[i] > max)
+				max = dist[i];
+		}
+	}
+	margin[l] = Math.max(margin[l],Math.ulp((float)max));
+}
+
+/**
+ * Writes the landmarks into a file.
+ * @return successful?
+ * @param filename the file
+ */
+public boolean write (String filename) {
+	try {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+		out.writeInt(MAGIC);
+		out.writeInt(graph.numOfNodes());
+		out.writeInt(num);
+		out.writeLong(checksum);
+		for (int l=0; l<num; l++) {
+			out.writeInt(landmark[l]);
+			out.writeDouble(margin[l]);
+		}
+		for (int i=0; i<fromDist.length; i++)
+			out.writeFloat(fromDist[i]);
+		for (int i=0; i<toDist.length; i++)
+			out.writeFloat(toDist[i]);
+		out.close();
+		return true;
+	}
+	catch (IOException ex) {
+		System.err.println("Landmarks.write: I/O-Error "+ex);
+		return false;
+	}
+}
+
+}
@@ -0,0 +1,311 @@
+package routing;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import drawables.*;
+
+/**
+ * Binary image of the network files (.node, .edge) that is read by mapping
+ * the file into memory. The file consists of a header with the counts and the
+ * lengths and modification times of the network files, the nodes and edges
+ * as fixed-width columns in the order of their containers, the adjacency
+ * arrays of the CompactGraph and a string table with the names. The columns
+ * are read by absolute accesses to the mapped buffer without parsing a stream.
+ * This is a faster parser, not a zero-copy load: reading the image still
+ * creates all Node and Edge objects with their names and inserts them into
+ * the containers, and the adjacency arrays are copied into the CompactGraph.
+ * It saves the stream decoding and the sorting and building of the graph.
+ * The records are inserted in the order of the containers, so the containers
+ * (and thus the generated data) are the same as after reading the network
+ * files.
+ *
+ * Layout (big endian):
+ * header: magic, 4 longs (length and time of .node and .edge), 6 ints
+ *   (node records, edge records, nodes, edges, adjacency slots, string bytes);
+ * long: node ID, edge ID;
+ * int: node x, node y, node name, edge node1, edge node2, edge class, edge name
+ *   (names as offset into the string table or -1, nodes as record number or -1),
+ *   record of node ordinal, record of edge ordinal, firstEdge, target, edgeIndex;
+ * byte: forwards of the slots;
+ * string table: length byte followed by the bytes of the name.
+ *
+ * @version 1.02	17.10.2026	image written from the containers instead of reading the network files again
+ * @version 1.01	17.10.2026	lengths and classes of the slots removed (version 2)
+ * @version 1.00	17.10.2026	first version
+ */
+public class MappedNetwork {
+
+	/**
+	 * Magic number and version of the file format.
+	 */
+	private static final int MAGIC = 0x4d4e0002;
+	/**
+	 * Length of the header.
+	 */
+	private static final int HEADER_SIZE = 4+4*8+6*4;
+	/**
+	 * Extension of the file.
+	 */
+	public static final String EXTENSION = ".mnet";
+
+/**
+ * Computes the length of a file with the given counts.
+ * @return length in bytes
+ */
+private static long computeSize (int nodeRecords, int edgeRecords, int numOfNodes, int numOfEdges, int slots, int stringBytes) {
+	return HEADER_SIZE + 8L*(nodeRecords+edgeRecords) + 4L*(3*nodeRecords+4*edgeRecords)
+		+ 4L*(numOfNodes+numOfEdges+numOfNodes+1) + 4L*2*slots + slots + stringBytes;
+}
+
+/**
+ * Reads the network files and writes their image.
+ * @param args base name of the network files
+ */
+public static void main (String[] args) {
+	if (args.length < 1) {
+		System.err.println("usage: java routing.MappedNetwork <network base name>");
+		return;
+	}
+	Network net = new Network();
+	File file = new File(args[0]+EXTENSION);
+	file.delete();
+	long t = System.currentTimeMillis();
+	if (net.createByNetworkFiles(args[0],null))
+		System.out.println("network read and written: "+(System.currentTimeMillis()-t)+" ms");
+}
+
+/**
+ * Reads the image of the network files into empty containers.
+ * Returns null if the image does not exist or does not fit to the network files.
+ * @return the graph of the network or null
+ * @param filename base name of the network files
+ * @param nodes container of the nodes
+ * @param edges container of the edges
+ * @param objects container of the drawable objects (may be null)
+ */
+public static CompactGraph read (String filename, Nodes nodes, Edges edges, DrawableObjects objects) {
+	File file = new File(filename+EXTENSION);
+	if (!file.exists() || (nodes.numOfNodes() > 0) || (edges.numOfEdges() > 0))
+		return null;
+	ByteBuffer buf = null;
+	try {
+		FileChannel channel = new RandomAccessFile(file,"r").getChannel();
+		try {
+			buf = channel.map(FileChannel.MapMode.READ_ONLY,0,channel.size());
+		}
+		finally {
+			channel.close();
+		}
+	}
+	catch (IOException ex) {
+		System.err.println("MappedNetwork.read: I/O-Error "+ex);
+		return null;
+	}
+	// header
+	File nodeFile = new File(filename+".node");
+	File edgeFile = new File(filename+".edge");
+	if ((buf.capacity() < HEADER_SIZE) || (buf.getInt(0) != MAGIC) ||
+		(buf.getLong(4) != nodeFile.length()) || (buf.getLong(12) != nodeFile.lastModified()) ||
+		(buf.getLong(20) != edgeFile.length()) || (buf.getLong(28) != edgeFile.lastModified()))
+		return null;
+	int nodeRecords = buf.getInt(36);
+	int edgeRecords = buf.getInt(40);
+	int n = buf.getInt(44);
+	int m = buf.getInt(48);
+	int slots = buf.getInt(52);
+	int stringBytes = buf.getInt(56);
+	if (buf.capacity() != computeSize(nodeRecords,edgeRecords,n,m,slots,stringBytes))
+		return null;
+	System.out.println("read mapped network ...");
+	// positions of the columns
+	int nodeId = HEADER_SIZE;
+	int edgeId = nodeId + 8*nodeRecords;
+	int nodeX = edgeId + 8*edgeRecords;
+	int nodeY = nodeX + 4*nodeRecords;
+	int nodeName = nodeY + 4*nodeRecords;
+	int edgeNode1 = nodeName + 4*nodeRecords;
+	int edgeNode2 = edgeNode1 + 4*edgeRecords;
+	int edgeClass = edgeNode2 + 4*edgeRecords;
+	int edgeName = edgeClass + 4*edgeRecords;
+	int nodeOrdinal = edgeName + 4*edgeRecords;
+	int edgeOrdinal = nodeOrdinal + 4*n;
+	int firstEdge = edgeOrdinal + 4*m;
+	int target = firstEdge + 4*(n+1);
+	int edgeIndex = target + 4*slots;
+	int forwards = edgeIndex + 4*slots;
+	int strings = forwards + slots;
+	// nodes in the order of the node file
+	Node[] recNode = new Node[nodeRecords];
+	for (int r=0; r<nodeRecords; r++) {
+		recNode[r] = nodes.newNode (buf.getLong(nodeId+8*r),buf.getInt(nodeX+4*r),buf.getInt(nodeY+4*r),
+			readName(buf,strings,buf.getInt(nodeName+4*r)));
+		if (objects != null)
+			objects.addDrawable(recNode[r]);
+	}
+	// edges in the order of the edge file
+	Edge[] recEdge = new Edge[edgeRecords];
+	for (int r=0; r<edgeRecords; r++) {
+		int node1 = buf.getInt(edgeNode1+4*r);
+		int node2 = buf.getInt(edgeNode2+4*r);
+		recEdge[r] = edges.newEdge (buf.getLong(edgeId+8*r),buf.getInt(edgeClass+4*r),
+			(node1 >= 0) ? recNode[node1] : null, (node2 >= 0) ? recNode[node2] : null,
+			readName(buf,strings,buf.getInt(edgeName+4*r)));
+		if (recEdge[r] != null) {
+			if (objects != null)
+				objects.addDrawable(recEdge[r]);
+		}
+		else
+			System.err.println("Read error for edge on line "+(r+1));
+	}
+	// adjacency arrays
+	Node[] node = new Node[n];
+	for (int i=0; i<n; i++)
+		node[i] = recNode[buf.getInt(nodeOrdinal+4*i)];
+	Edge[] edge = new Edge[m];
+	for (int i=0; i<m; i++)
+		edge[i] = recEdge[buf.getInt(edgeOrdinal+4*i)];
+	int[] first = new int[n+1];
+	((ByteBuffer)buf.position(firstEdge)).asIntBuffer().get(first);
+	int[] tgt = new int[slots];
+	((ByteBuffer)buf.position(target)).asIntBuffer().get(tgt);
+	int[] idx = new int[slots];
+	((ByteBuffer)buf.position(edgeIndex)).asIntBuffer().get(idx);
+	boolean[] fwd = new boolean[slots];
+	for (int s=0; s<slots; s++)
+		fwd[s] = buf.get(forwards+s) != 0;
+	return new CompactGraph (node,edge,first,tgt,idx,fwd,nodes,edges);
+}
+
+/**
+ * Reads a name from the string table.
+ * @return the name or null
+ */
+private static String readName (ByteBuffer buf, int strings, int offset) {
+	if (offset < 0)
+		return null;
+	byte[] data = new byte[buf.get(strings+offset)];
+	buf.position(strings+offset+1);
+	buf.get(data);
+	return new String(data);
+}
+
+/**
+ * Writes the image of network files. The records are taken from the
+ * containers filled by reading the files, in the order of the containers,
+ * so that reading the image inserts the same objects in the same order.
+ * The network files are not read again.
+ * @param filename base name of the network files
+ * @param nodes container of the nodes
+ * @param edges container of the edges
+ * @param graph the graph of the network read from the files
+ */
+public static void write (String filename, Nodes nodes, Edges edges, CompactGraph graph) {
+	File nodeFile = new File(filename+".node");
+	File edgeFile = new File(filename+".edge");
+	File file = new File(filename+EXTENSION);
+	File tmpFile = new File(filename+EXTENSION+".tmp");
+	try {
+		int n = graph.numOfNodes();
+		int m = graph.numOfEdges();
+		int slots = graph.getNumOfSlots();
+		ByteArrayOutputStream stringTable = new ByteArrayOutputStream();
+		// node records
+		long[][] nodeRecs = new long[n][];
+		int[] nodeRecOfOrdinal = new int[n];
+		int r = 0;
+		for (Enumeration e = nodes.elements(); e.hasMoreElements(); r++) {
+			Node node = (Node)e.nextElement();
+			nodeRecOfOrdinal[node.getIndex()] = r;
+			nodeRecs[r] = new long[]{node.getID(),node.getX(),node.getY(),addName(stringTable,node.getName())};
+		}
+		// edge records
+		long[][] edgeRecs = new long[m][];
+		int[] edgeRecOfOrdinal = new int[m];
+		r = 0;
+		for (Enumeration e = edges.elements(); e.hasMoreElements(); r++) {
+			Edge edge = (Edge)e.nextElement();
+			edgeRecOfOrdinal[edge.getIndex()] = r;
+			edgeRecs[r] = new long[]{edge.getID(),nodeRecOfOrdinal[edge.getNode1().getIndex()],
+				nodeRecOfOrdinal[edge.getNode2().getIndex()],edge.getEdgeClass(),addName(stringTable,edge.getName())};
+		}
+		// write the file
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile),1<<16));
+		try {
+			out.writeInt (MAGIC);
+			out.writeLong (nodeFile.length());
+			out.writeLong (nodeFile.lastModified());
+			out.writeLong (edgeFile.length());
+			out.writeLong (edgeFile.lastModified());
+			out.writeInt (n);
+			out.writeInt (m);
+			out.writeInt (n);
+			out.writeInt (m);
+			out.writeInt (slots);
+			out.writeInt (stringTable.size());
+			writeColumn (out,nodeRecs,0,true);
+			writeColumn (out,edgeRecs,0,true);
+			for (int c=1; c<=3; c++)
+				writeColumn (out,nodeRecs,c,false);
+			for (int c=1; c<=4; c++)
+				writeColumn (out,edgeRecs,c,false);
+			for (int i=0; i<n; i++)
+				out.writeInt (nodeRecOfOrdinal[i]);
+			for (int i=0; i<m; i++)
+				out.writeInt (edgeRecOfOrdinal[i]);
+			for (int i=0; i<=n; i++)
+				out.writeInt (graph.firstEdge[i]);
+			for (int s=0; s<slots; s++)
+				out.writeInt (graph.target[s]);
+			for (int s=0; s<slots; s++)
+				out.writeInt (graph.edgeIndex[s]);
+			for (int s=0; s<slots; s++)
+				out.writeByte (graph.forwards[s] ? 1 : 0);
+			stringTable.writeTo (out);
+		}
+		finally {
+			out.close();
+		}
+		file.delete();
+		if (!tmpFile.renameTo(file))
+			throw new IOException("cannot rename "+tmpFile);
+	}
+	catch (IOException ex) {
+		System.err.println("MappedNetwork.write: I/O-Error "+ex);
+		tmpFile.delete();
+	}
+}
+
+/**
+ * Adds a name to the string table. The name is encoded like the network
+ * files are decoded by Nodes.read and Edges.read.
+ * @return offset of the name or -1 for null
+ * @exception IOException if the name is too long
+ */
+private static int addName (ByteArrayOutputStream stringTable, String s) throws IOException {
+	if (s == null)
+		return -1;
+	byte[] name = s.getBytes();
+	if (name.length > Byte.MAX_VALUE)
+		throw new IOException("name too long: "+s);
+	int offset = stringTable.size();
+	stringTable.write (name.length);
+	stringTable.write (name,0,name.length);
+	return offset;
+}
+
+/**
+ * Writes a column of records.
+ */
+private static void writeColumn (DataOutputStream out, long[][] recs, int c, boolean isLong) throws IOException {
+	for (int r=0; r<recs.length; r++) {
+		long value = recs[r][c];
+		if (isLong)
+			out.writeLong (value);
+		else
+			out.writeInt ((int)value);
+	}
+}
+
+}
@@ -10,6 +10,20 @@ import util.*;
 /**
  * Class representing a network.
  * 
+ * @version	1.98	17.10.2026	compact graph published without locking the queries
+ * @version	1.97	17.10.2026	weights of the relaxed edges computed from the adjacency slots
+ * @version	1.96	17.10.2026	overlay informed about usage changes of the edges
+ * @version	1.95	17.10.2026	decreased distances of computeFastWays adapted in the BorderHeap
+ * @version	1.94	17.10.2026	weights of the route computations for a RoutingProfile
+ * @version	1.93	17.10.2026	computeFastRoute, computeFastRoute2, computeFastRouteCH and computeFastRouteCRP return a Route
+ * @version	1.92	17.10.2026	network files read from their MappedNetwork image if available
+ * @version	1.91	17.10.2026	network files buffered and closed
+ * @version	1.90	17.10.2026	ALT landmarks as estimate of computeFastWay and computeFastWay2
+ * @version	1.80	17.10.2026	computeFastWayCRP and overlay added
+ * @version	1.70	17.10.2026	computeFastWayCH added
+ * @version	1.60	17.10.2026	adapted to the indexed BorderHeap
+ * @version	1.50	17.10.2026	search state moved into SearchContext
+ * @version	1.40	17.10.2026	adjacency iterated via CompactGraph
  * @version	1.30	19.08.2003	considered that computeFastWay2 sometimes has a wrong starting node, distance becomes double, adapted to BorderHeap
  * @version	1.22	28.06.2000	adapted to Drawables, Timer removed
  * @version	1.21	30.04.2000	optimized
@@ -29,9 +43,25 @@ public class Network {
 	 */
 	protected Edges edges = null;
 	/**
-	 * 	Heap fr den Rand
+	 * 	Suchkontexte der Threads
 	 */
-	private BorderHeap border = new BorderHeap();
+	private ThreadLocal contexts = new ThreadLocal();
+	/**
+	 * 	Adjazenz in CSR-Darstellung (wird bei Bedarf neu aufgebaut)
+	 */
+	private volatile CompactGraph graph = null;
+	/**
+	 * 	Contraction Hierarchy fr computeFastWayCH (wird bei Bedarf aufgebaut)
+	 */
+	private ContractionHierarchy hierarchy = null;
+	/**
+	 * 	Zellen-Overlay fr computeFastWayCRP (wird bei Bedarf aufgebaut)
+	 */
+	private Overlay overlay = null;
+	/**
+	 * 	Landmarken fr die Abschtzung der Restdistanz (null: euklidische Distanz)
+	 */
+	private Landmarks landmarks = null;
 	
 	/**
 	 * 	Distanz-Wert fr unendlich
@@ -49,18 +79,6 @@ public class Network {
 	 * 	allgemeine Knoten-Markierung fr Wege
 	 */
 	private static final int WAY = 1;
-	/**
-	 * 	Knoten-Markierung fr Weg1
-	 */
-	private int WAY1 = NWAY1;
-	/**
-	 * 	Knoten-Markierung fr Weg2
-	 */
-	private int WAY2 = NWAY2;
-	/**
-	 * 	Knoten-Markierung fertige Wege
-	 */
-	private int FINAL = 4;
 	/**
 	 * 	Knoten-Markierung beste Wege
 	 */
@@ -77,103 +95,146 @@ public Network () {
 
 /**
  * Berechnet nach Dijkstra den schnellsten Weg von einem Start- zu einem Endknoten.
+ * Verwendet den Suchkontext des aktuellen Threads.
  * @return berechneter Weg
  * @param start Startknoten
  * @param stop Stopknoten
  */
 public PathEdge computeFastestWay (Node start, Node stop) {
+	return computeFastestWay (start,stop,getSearchContext());
+}
+
+/**
+ * Berechnet nach Dijkstra den schnellsten Weg von einem Start- zu einem Endknoten.
+ * @return berechneter Weg
+ * @param start Startknoten
+ * @param stop Stopknoten
+ * @param ctx Kontext der Berechnung
+ */
+public PathEdge computeFastestWay (Node start, Node stop, SearchContext ctx) {
 	if ((start == null) || (stop == null) || (start.equals(stop)))
 		return null;
+	ctx.prepare (getCompactGraph(),RoutingProfile.DEFAULT);
+	BorderHeap border = ctx.border;
 	// Initialisierung
-	nodes.clearAllMarks();
-	start.clearWays();
-	start.mark(FINAL);
-	start.mark(BEST);
-	start.setDistanceOfWay(WAY,0);
+	ctx.clearAllMarks();
+	ctx.clearWays(start);
+	ctx.mark(start,ctx.FINAL);
+	ctx.mark(start,BEST);
+	ctx.setDistanceOfWay(start,WAY,0);
 	border.reset();
 	// Durchlauf
-	enlargeBorder (border, start,stop, WAY, false);
+	enlargeBorder (ctx, start,stop, WAY, false);
 	boolean elementFound = border.fetchFirst();
 	Node actNode = null;
 	while (elementFound && (!stop.equals(actNode = border.returnNode()))) {
-		actNode.mark (WAY);
-		enlargeBorder (border, actNode,stop, WAY, false);
+		ctx.mark(actNode,WAY);
+		enlargeBorder (ctx, actNode,stop, WAY, false);
 		elementFound = border.fetchFirst();
 	}
 	// Ergebnis erzeugen
-	return computeResultPath (actNode,false);
+	return computeResultPath (ctx, actNode,false);
 }
 
 /**
- * Berechnet einen schnellen Weg (oft den schnellsten) zwischen 2 Knoten.
- * Die Berechnung wird nur vom Startknoten aus durchgefhrt.
- * @return berechneter Weg
- * @param start Startknoten
- * @param stop Stopknoten
+ * Computes a fast way (often the fastest) between two nodes like computeFastWay.
+ * Uses the search context of the current thread.
+ * @return computed route or null
+ * @param start start node
+ * @param stop destination node
+ * @param profile routing profile of the weights
  */
-public PathEdge computeFastWay (Node start, Node stop) {
+public Route computeFastRoute (Node start, Node stop, RoutingProfile profile) {
+	return computeFastRoute (start,stop,getSearchContext(),profile);
+}
+
+/**
+ * Computes a fast way (often the fastest) between two nodes like computeFastWay.
+ * @return computed route or null
+ * @param start start node
+ * @param stop destination node
+ * @param ctx context of the computation
+ * @param profile routing profile of the weights
+ */
+public Route computeFastRoute (Node start, Node stop, SearchContext ctx, RoutingProfile profile) {
 	if ((start == null) || (stop == null) || (start.equals(stop)))
 		return null;
+	ctx.prepare (getCompactGraph(),profile);
+	BorderHeap border = ctx.border;
 	// Initialisierung
-	nodes.clearAllMarks();
-	start.clearWays();
-	start.mark(FINAL);
-	start.mark(BEST);
-	start.setDistanceOfWay(WAY,0);
+	ctx.clearAllMarks();
+	ctx.clearWays(start);
+	ctx.mark(start,ctx.FINAL);
+	ctx.mark(start,BEST);
+	ctx.setDistanceOfWay(start,WAY,0);
 	border.reset();
 	// Durchlauf
-	enlargeBorder (border, start,stop, WAY, true);
+	enlargeBorder (ctx, start,stop, WAY, true);
 	boolean elementFound = border.fetchFirst();
 	Node actNode = null;
 	while (elementFound && (!stop.equals(actNode = border.returnNode()))) {
-		actNode.mark(FINAL);
-		enlargeBorder (border, actNode,stop, WAY, true);
+		ctx.mark(actNode,ctx.FINAL);
+		enlargeBorder (ctx, actNode,stop, WAY, true);
 		elementFound = border.fetchFirst();
 	}
 	// Ergebnis erzeugen
-	return computeResultPath (actNode,false);
+	return computeResultRoute (ctx, actNode,false);
 }
 
 /**
- * Berechnet einen schnellen Weg (oft den schnellsten) zwischen 2 Knoten.
- * Im Gegensatz zu computeFastWay wird die Berechnung von beiden Knoten
- * gleichberechtigt durchgefhrt.
- * @return berechneter Weg
- * @param start Startknoten
- * @param stop Stopknoten
+ * Computes a fast way (often the fastest) between two nodes like computeFastWay2.
+ * Uses the search context of the current thread.
+ * @return computed route or null
+ * @param start start node
+ * @param stop destination node
+ * @param profile routing profile of the weights
  */
-public PathEdge computeFastWay2 (Node start, Node stop) {
+public Route computeFastRoute2 (Node start, Node stop, RoutingProfile profile) {
+	return computeFastRoute2 (start,stop,getSearchContext(),profile);
+}
+
+/**
+ * Computes a fast way (often the fastest) between two nodes like computeFastWay2.
+ * @return computed route or null
+ * @param start start node
+ * @param stop destination node
+ * @param ctx context of the computation
+ * @param profile routing profile of the weights
+ */
+public Route computeFastRoute2 (Node start, Node stop, SearchContext ctx, RoutingProfile profile) {
 	if ((start == null) || (stop == null) || (start.equals(stop)))
 		return null;
+	ctx.prepare (getCompactGraph(),profile);
+	BorderHeap border = ctx.border;
 	// Initialisierung
-	nodes.clearAllMarks();
-	start.clearWays();
-	start.mark(WAY1);
-	start.setDistanceOfWay(WAY1,0);
-	stop.clearWays();
-	stop.mark(WAY2);
-	stop.setDistanceOfWay(WAY2,0);
+	ctx.clearAllMarks();
+	ctx.clearWays(start);
+	ctx.mark(start,ctx.WAY1);
+	ctx.setDistanceOfWay(start,ctx.WAY1,0);
+	ctx.clearWays(stop);
+	ctx.mark(stop,ctx.WAY2);
+	ctx.setDistanceOfWay(stop,ctx.WAY2,0);
 	border.reset();
 	// Durchlauf
-	enlargeBorder (border, start,stop, WAY1, true);
-	enlargeBorder (border, stop,start, WAY2, true);
+	enlargeBorder (ctx, start,stop, ctx.WAY1, true);
+	enlargeBorder (ctx, stop,start, ctx.WAY2, true);
 	boolean elementFound = border.fetchFirst();
 	Node actNode = null;
 	while (elementFound) {
 		//System.out.print("markiere: "); element.debugPrint(); System.out.println();
 		actNode = border.returnNode();
 		// Fall 1: Knoten gehrt zu WAY1
-		if (actNode.isMarked(WAY1)) {
-			actNode.mark(FINAL);
+		if (ctx.isMarked(actNode,ctx.WAY1)) {
+			ctx.mark(actNode,ctx.FINAL);
 			// falls er auch zu WAY2 gehrt, sind beide Wege nun aufeinander getroffen => fertig
-			if (actNode.isMarked(WAY2))
+			if (ctx.isMarked(actNode,ctx.WAY2))
 				break;
-			enlargeBorder (border, actNode,stop, WAY1, true);
+			enlargeBorder (ctx, actNode,stop, ctx.WAY1, true);
 		}	
 		// Fall 2: Knoten gehrt zu WAY2
-		else if (actNode.isMarked(WAY2)) {
-			actNode.mark(FINAL);
-			enlargeBorder (border, actNode,start,WAY2, true);
+		else if (ctx.isMarked(actNode,ctx.WAY2)) {
+			ctx.mark(actNode,ctx.FINAL);
+			enlargeBorder (ctx, actNode,start,ctx.WAY2, true);
 		}	
 		// Fall 3: gibt es nicht!
 		else
@@ -181,14 +242,14 @@ public PathEdge computeFastWay2 (Node start, Node stop) {
 		elementFound = border.fetchFirst();
 	}
 	// Ergebnis erzeugen
-	PathEdge res = computeResultPath (actNode,true);
+	Route res = computeResultRoute (ctx, actNode,true);
 	if (res == null)
 		return null;
-	if (res.getStartingNode() != start) {
-		res = computeFastWay (start,stop);
+	if (res.getStartingNode(0) != start) {
+		res = computeFastRoute (start,stop,ctx,profile);
 		if (res == null)
 			return null;
-		if (res.getStartingNode() != start) {
+		if (res.getStartingNode(0) != start) {
 			//System.err.println("### start wrong ###");
 			return null;
 		}
@@ -196,39 +257,191 @@ public PathEdge computeFastWay2 (Node start, Node stop) {
 	return res;
 }
 
+/**
+ * Computes the fastest way between two nodes by the given contraction hierarchy
+ * like computeFastWayCH.
+ * @return computed route or null
+ * @param start start node
+ * @param stop destination node
+ * @param ch contraction hierarchy built for the graph of this network and the weights of the profile
+ * @param profile routing profile of the weights
+ */
+public Route computeFastRouteCH (Node start, Node stop, ContractionHierarchy ch, RoutingProfile profile) {
+	if (ch.getGraph() != getCompactGraph()) {
+		System.err.println("Network.computeFastRouteCH: contraction hierarchy is outdated!");
+		return computeFastRoute2 (start,stop,profile);
+	}
+	return ch.computeFastRoute (start,stop,profile);
+}
+
+/**
+ * Computes the fastest way between two nodes by a customizable metric on the
+ * overlay of the network like computeFastWayCRP.
+ * @return computed route or null
+ * @param start start node
+ * @param stop destination node
+ * @param metric customized metric on the overlay of this network
+ */
+public Route computeFastRouteCRP (Node start, Node stop, OverlayMetric metric) {
+	if (metric.getOverlay().getGraph() != getCompactGraph()) {
+		System.err.println("Network.computeFastRouteCRP: overlay is outdated!");
+		return computeFastRoute2 (start,stop,metric.getProfile());
+	}
+	return metric.computeFastRoute (start,stop);
+}
+
+/**
+ * Berechnet einen schnellen Weg (oft den schnellsten) zwischen 2 Knoten.
+ * Die Berechnung wird nur vom Startknoten aus durchgefhrt.
+ * Verwendet den Suchkontext des aktuellen Threads.
+ * @return berechneter Weg
+ * @param start Startknoten
+ * @param stop Stopknoten
+ */
+public PathEdge computeFastWay (Node start, Node stop) {
+	return computeFastWay (start,stop,getSearchContext());
+}
+
+/**
+ * Berechnet einen schnellen Weg (oft den schnellsten) zwischen 2 Knoten.
+ * Die Berechnung wird nur vom Startknoten aus durchgefhrt.
+ * @return berechneter Weg
+ * @param start Startknoten
+ * @param stop Stopknoten
+ * @param ctx Kontext der Berechnung
+ */
+public PathEdge computeFastWay (Node start, Node stop, SearchContext ctx) {
+	return toPathEdge (computeFastRoute (start,stop,ctx,RoutingProfile.DEFAULT));
+}
+
+/**
+ * Berechnet einen schnellen Weg (oft den schnellsten) zwischen 2 Knoten.
+ * Im Gegensatz zu computeFastWay wird die Berechnung von beiden Knoten
+ * gleichberechtigt durchgefhrt.
+ * Verwendet den Suchkontext des aktuellen Threads.
+ * @return berechneter Weg
+ * @param start Startknoten
+ * @param stop Stopknoten
+ */
+public PathEdge computeFastWay2 (Node start, Node stop) {
+	return computeFastWay2 (start,stop,getSearchContext());
+}
+
+/**
+ * Computes a fast way (often the fastest) between two nodes like computeFastWay2
+ * by the weights of a routing profile.
+ * Uses the search context of the current thread.
+ * @return computed way or null
+ * @param start start node
+ * @param stop destination node
+ * @param profile routing profile of the weights
+ */
+public PathEdge computeFastWay2 (Node start, Node stop, RoutingProfile profile) {
+	return toPathEdge (computeFastRoute2 (start,stop,getSearchContext(),profile));
+}
+
+/**
+ * Berechnet einen schnellen Weg (oft den schnellsten) zwischen 2 Knoten.
+ * Im Gegensatz zu computeFastWay wird die Berechnung von beiden Knoten
+ * gleichberechtigt durchgefhrt.
+ * @return berechneter Weg
+ * @param start Startknoten
+ * @param stop Stopknoten
+ * @param ctx Kontext der Berechnung
+ */
+public PathEdge computeFastWay2 (Node start, Node stop, SearchContext ctx) {
+	return toPathEdge (computeFastRoute2 (start,stop,ctx,RoutingProfile.DEFAULT));
+}
+
+/**
+ * Computes the fastest way between two nodes by the contraction hierarchy of
+ * the network (see getContractionHierarchy). The result is a chain of original
+ * edges like the one of computeFastWay2. The weights must not change after the
+ * construction of the hierarchy.
+ * @return computed way or null
+ * @param start start node
+ * @param stop destination node
+ */
+public PathEdge computeFastWayCH (Node start, Node stop) {
+	return computeFastWayCH (start,stop,getContractionHierarchy());
+}
+
+/**
+ * Computes the fastest way between two nodes by the given contraction hierarchy.
+ * @return computed way or null
+ * @param start start node
+ * @param stop destination node
+ * @param ch contraction hierarchy built for the graph of this network
+ */
+public PathEdge computeFastWayCH (Node start, Node stop, ContractionHierarchy ch) {
+	return toPathEdge (computeFastRouteCH (start,stop,ch,RoutingProfile.DEFAULT));
+}
+
+/**
+ * Computes the fastest way between two nodes by a customizable metric on the
+ * overlay of the network (see getOverlay). The result is exact concerning the
+ * weights of the last customization of the metric.
+ * @return computed way or null
+ * @param start start node
+ * @param stop destination node
+ * @param metric customized metric on the overlay of this network
+ */
+public PathEdge computeFastWayCRP (Node start, Node stop, OverlayMetric metric) {
+	return toPathEdge (computeFastRouteCRP (start,stop,metric));
+}
+
 /**
  * Berechnet die Wege zwischen 2 Knoten, die nicht um den angegebenen Prozentsatz
  * schlechter sind als der krzeste Weg. <BR>
  * Einschrnkungen: <BR>
  * - keine Zyklen <BR>
  * - keine Rckwege (kann evtl. auch ungnstige Querverbindungen treffen <BR>
+ * Verwendet den Suchkontext des aktuellen Threads.
  * @return berechneter Weg
  * @param start Startknoten
  * @param stop Stopknoten
  * @param threshold Prozentsatz, um den ein Weg schlechter sein darf
  */
 public PathEdge computeFastWays (Node start, Node stop, int threshold) {
+	return computeFastWays (start,stop,threshold,getSearchContext());
+}
+
+/**
+ * Berechnet die Wege zwischen 2 Knoten, die nicht um den angegebenen Prozentsatz
+ * schlechter sind als der krzeste Weg. <BR>
+ * Einschrnkungen: <BR>
+ * - keine Zyklen <BR>
+ * - keine Rckwege (kann evtl. auch ungnstige Querverbindungen treffen <BR>
+ * @return berechneter Weg
+ * @param start Startknoten
+ * @param stop Stopknoten
+ * @param threshold Prozentsatz, um den ein Weg schlechter sein darf
+ * @param ctx Kontext der Berechnung
+ */
+public PathEdge computeFastWays (Node start, Node stop, int threshold, SearchContext ctx) {
 	// Prfen, ob Weg berechenbar
 	if ((start == null) || (stop == null) || (start.equals(stop)))
 		return null;
+	ctx.prepare (getCompactGraph(),RoutingProfile.DEFAULT);
+	BorderHeap border = ctx.border;
 	// Initialisierung
 	border.reset();					// Rand
 	PathEdge resPath = null;					// Ergebnis
 	double shortestDistance = maxDistance;		// Distanz des krzesten Wegs
 	// Knoten initilisieren und markieren
-	nodes.clearAllMarks();
-	start.clearWays();
-	start.mark(WAY1);
-	start.setDistanceOfWay(NWAY1,0);
-	stop.clearWays();
-	stop.mark(WAY2);
-	stop.setDistanceOfWay(NWAY2,0);
+	ctx.clearAllMarks();
+	ctx.clearWays(start);
+	ctx.mark(start,ctx.WAY1);
+	ctx.setDistanceOfWay(start,NWAY1,0);
+	ctx.clearWays(stop);
+	ctx.mark(stop,ctx.WAY2);
+	ctx.setDistanceOfWay(stop,NWAY2,0);
 	// zweifacher Durchlauf
 	for (int numOfLoops=1; true; numOfLoops++) {
 		System.out.println ("** Durchlauf "+numOfLoops+" **");
 		// Start- und Zielknoten in Rand aufnehmen
-		enlargeBorder (border, start,stop, WAY1, threshold,shortestDistance,resPath);
-		enlargeBorder (border, stop,start, WAY2, threshold,shortestDistance,resPath);
+		enlargeBorder (ctx, start,stop, ctx.WAY1, threshold,shortestDistance,resPath);
+		enlargeBorder (ctx, stop,start, ctx.WAY2, threshold,shortestDistance,resPath);
 		// Abarbeiten und Ergnzen des Randes
 		boolean elementFound = border.fetchFirst();
 		while (elementFound) {
@@ -236,45 +449,45 @@ public PathEdge computeFastWays (Node start, Node stop, int threshold) {
 			if (border.returnDistance()*100/(100+threshold) > shortestDistance)
 				break;
 			Node actNode = border.returnNode();
-			actNode.mark(FINAL);
+			ctx.mark(actNode,ctx.FINAL);
 			// Fall 1: Knoten gehrt zu NWAY1
-			if (actNode.isMarked(WAY1)) {
+			if (ctx.isMarked(actNode,ctx.WAY1)) {
 				// Fall 1a: BEST-Knoten => diesen im ersten Durchlauf ignorieren
-				if ( (numOfLoops == 1) && (actNode.isMarked(BEST)) ) {
-					//System.out.print("BEST: "); actNode.debugPrint(NWAY1); System.out.println();
+				if ( (numOfLoops == 1) && (ctx.isMarked(actNode,BEST)) ) {
+					//System.out.print("BEST: "); ctx.debugPrint(actNode,NWAY1); System.out.println();
 				}
 				// Fall 1b: Knoten gehrt auch zu NWAY2
-				else if (actNode.isMarked(WAY2)) {
+				else if (ctx.isMarked(actNode,ctx.WAY2)) {
 					// im ersten Durchgang ggf. Wege berechnen
 					if (numOfLoops == 1) {
 						// Es handelt sich um den ersten Weg
 						if (resPath == null) {
-							resPath = computeResultPath (actNode,true);
+							resPath = computeResultPath (ctx, actNode,true);
 							if (resPath == null)
 								return null;	// Sollte nicht vorkommen
-							shortestDistance = actNode.getDistanceOfWay(NWAY1)+actNode.getDistanceOfWay(NWAY2);
+							shortestDistance = ctx.getDistanceOfWay(actNode,NWAY1)+ctx.getDistanceOfWay(actNode,NWAY2);
 						}
 						// oder einen weiteren, hinreichend kurzen Weg
-						else if ((actNode.getDistanceOfWay(NWAY1)+actNode.getDistanceOfWay(NWAY2))*100/(100+threshold) <= shortestDistance) {
-							resPath.addPath (computeResultPath(actNode,true));
+						else if ((ctx.getDistanceOfWay(actNode,NWAY1)+ctx.getDistanceOfWay(actNode,NWAY2))*100/(100+threshold) <= shortestDistance) {
+							resPath.addPath (computeResultPath (ctx, actNode,true));
 							// mglicherweise ist dieser Pfad sogar krzer!
-							if (actNode.getDistanceOfWay(NWAY1)+actNode.getDistanceOfWay(NWAY2) < shortestDistance)
-								shortestDistance = actNode.getDistanceOfWay(NWAY1)+actNode.getDistanceOfWay(NWAY2);	
+							if (ctx.getDistanceOfWay(actNode,NWAY1)+ctx.getDistanceOfWay(actNode,NWAY2) < shortestDistance)
+								shortestDistance = ctx.getDistanceOfWay(actNode,NWAY1)+ctx.getDistanceOfWay(actNode,NWAY2);	
 						}
 					}	
 				}
 				// Fall 1c: Knoten gehrt nur zu NWAY1 => Rand vergrssern
 				else {
-					enlargeBorder (border, actNode,stop, WAY1, threshold,shortestDistance,resPath);
+					enlargeBorder (ctx, actNode,stop, ctx.WAY1, threshold,shortestDistance,resPath);
 				}
 			}
 			// Fall 2: Knoten gehrt nur zu NWAY2 => Rand vergrssern
-			else if (actNode.isMarked(WAY2)) {
-				enlargeBorder (border, actNode,start,WAY2, threshold,shortestDistance,resPath);
+			else if (ctx.isMarked(actNode,ctx.WAY2)) {
+				enlargeBorder (ctx, actNode,start,ctx.WAY2, threshold,shortestDistance,resPath);
 			}
 			// Fall 3: Knoten gehrt weder zu NWAY1 noch zu NWAY2 => Fehler
 			else {
-				actNode.debugPrint(WAY1); actNode.debugPrint(WAY2); System.err.println(" ist falsch markiert!");
+				ctx.debugPrint(actNode,ctx.WAY1); ctx.debugPrint(actNode,ctx.WAY2); System.err.println(" ist falsch markiert!");
 			}	
 			elementFound = border.fetchFirst();
 			// wenn Knoten mehrfach kommt, ihn berspringen
@@ -287,26 +500,26 @@ public PathEdge computeFastWays (Node start, Node stop, int threshold) {
 		if (numOfLoops == 2)
 			break;
 		// Knotenmarkierungen neu setzen
-		WAY1 = BEST*2;
-		WAY2 = WAY1*2;
-		FINAL = WAY2*2;
-		start.mark(WAY1);
-		stop.mark(WAY2);
+		ctx.WAY1 = BEST*2;
+		ctx.WAY2 = ctx.WAY1*2;
+		ctx.FINAL = ctx.WAY2*2;
+		ctx.mark(start,ctx.WAY1);
+		ctx.mark(stop,ctx.WAY2);
 		// Neuer Rand
 		border.reset();
 	} // for
 	
 	// Markierungswerte zurcksetzen
-	WAY1 = NWAY1;
-	WAY2 = NWAY2;
-	FINAL = WAY2*2;
+	ctx.WAY1 = NWAY1;
+	ctx.WAY2 = NWAY2;
+	ctx.FINAL = ctx.WAY2*2;
 	// Ergebnis zurckgeben
 	return resPath;
 }
 /**
  * Berechnung der Verbindung zwischen zwei BEST-Knoten, die bergebenene Kante umfat.
  * Die Entfernung zum Zielknoten wird in den Rand-Elementen abgelegt.
- * @param border Rand gem Dijkstra als Heap
+ * @param ctx Kontext der Berechnung
  * @param start Anfangsknoten von actEdge
  * @param actEdge aktuelle Kante
  * @param stop Zielknoten des Routings
@@ -315,47 +528,47 @@ public PathEdge computeFastWays (Node start, Node stop, int threshold) {
  * @param shortestDistance Lnge des krzesten Weges
  * @param resPath Ergebnispfad mit allen bislang berechneter Wege
  */
-protected void computeNewConnection (BorderHeap border, Node start, Edge actEdge, Node stop, int wayMark, int threshold, double shortestDistance, PathEdge resPath) {
+protected void computeNewConnection (SearchContext ctx, Node start, Edge actEdge, Node stop, int wayMark, int threshold, double shortestDistance, PathEdge resPath) {
 	// Vorbereitungen
-	int way = wayMark / WAY1;
+	int way = wayMark / ctx.WAY1;
 	int theOtherWay = NWAY1;
 	if (way == NWAY1)
 		theOtherWay = NWAY2;
 	Node oppositeNode = actEdge.getOppositeNode (start);
-	boolean bothBest = oppositeNode.isMarked(BEST) && start.isMarked(BEST);
+	boolean bothBest = ctx.isMarked(oppositeNode,BEST) && ctx.isMarked(start,BEST);
 	// Endpunkt der Verbindung feststellen und die Weglnge dahin berechnen
 	long addDistance = 0;
-	while (!oppositeNode.isMarked(BEST)) {
-		Edge nextEdge = oppositeNode.getWayEdge(way);
+	while (!ctx.isMarked(oppositeNode,BEST)) {
+		Edge nextEdge = ctx.getWayEdge(oppositeNode,way);
 		if (nextEdge == null)
 			break;
 		addDistance += nextEdge.getWeight();
-		oppositeNode = oppositeNode.getWayEdge(way).getOppositeNode (oppositeNode);
+		oppositeNode = ctx.getWayEdge(oppositeNode,way).getOppositeNode (oppositeNode);
 	}
 	// Ausgangspunkt feststellen
 	Node searchNode = start;
-	while (!searchNode.isMarked(BEST)) {
-		Edge nextEdge = searchNode.getWayEdge(way);
+	while (!ctx.isMarked(searchNode,BEST)) {
+		Edge nextEdge = ctx.getWayEdge(searchNode,way);
 		if (nextEdge == null)
 			break;
-		searchNode = searchNode.getWayEdge(way).getOppositeNode (searchNode);
+		searchNode = ctx.getWayEdge(searchNode,way).getOppositeNode (searchNode);
 	}
 	// Falls beide zuvor BEST-Knoten, prfen ob Verbindung in Resultat vorliegt
 	if (bothBest) {
 		bothBest = (resPath.findEdge (actEdge) != null);
 		if (!bothBest) {
-			System.out.print("bothBest: "); searchNode.debugPrint(way); System.out.print(" -> "); oppositeNode.debugPrint(way); System.out.print(" bislang nicht in Lsung."); System.out.println();
+			System.out.print("bothBest: "); ctx.debugPrint(searchNode,way); System.out.print(" -> "); ctx.debugPrint(oppositeNode,way); System.out.print(" bislang nicht in Lsung."); System.out.println();
 		}
 	}	
 
 	// Falls man ber die Verbindung vorangekommen ist und den Schwellenwert nicht berschreitet: Pfad als Ergebnis aufnehmen
-	if ( (searchNode.getDistanceOfWay(way) < oppositeNode.getDistanceOfWay(way)) &&
+	if ( (ctx.getDistanceOfWay(searchNode,way) < ctx.getDistanceOfWay(oppositeNode,way)) &&
 		(!bothBest)) {
 		double actWeight = actEdge.getWeight();
-		if ((start.getDistanceOfWay(way)+actWeight+addDistance+oppositeNode.getDistanceOfWay(theOtherWay))*100/(threshold+100) <= shortestDistance) {
+		if ((ctx.getDistanceOfWay(start,way)+actWeight+addDistance+ctx.getDistanceOfWay(oppositeNode,theOtherWay))*100/(threshold+100) <= shortestDistance) {
 			if (addDistance > 0)
-				resPath.addPath (computeResultPathBackwards (actEdge.getOppositeNode(start),way));
-			resPath.addPath (computeResultPath (start,way,actEdge.getOppositeNode(start).getDistanceOfWay(theOtherWay)+actEdge.getWeight()));
+				resPath.addPath (computeResultPathBackwards (ctx, actEdge.getOppositeNode(start),way));
+			resPath.addPath (computeResultPath (ctx, start,way,ctx.getDistanceOfWay(actEdge.getOppositeNode(start),theOtherWay)+actEdge.getWeight()));
 			resPath.addPath (new PathEdge (actEdge,actEdge.isStartingFrom(start),actWeight));
 		}
 	}	
@@ -370,7 +583,7 @@ protected void computeNewConnection (BorderHeap border, Node start, Edge actEdge
  * @param way Index des gewnschten Weges
  * @param distOfOtherWay Distanz des anderen Weges bei actNode
  */
-protected PathEdge computeResultPath (Node actNode, int way, double distOfOtherWay) {
+protected PathEdge computeResultPath (SearchContext ctx, Node actNode, int way, double distOfOtherWay) {
 	// Vorbereitung
 	if (actNode == null)
 		return null;
@@ -379,95 +592,26 @@ protected PathEdge computeResultPath (Node actNode, int way, double distOfOtherW
 		theOtherWay = NWAY2;
 	// Berechnung des Weges
 	PathEdge path = null;
-	Edge actEdge = actNode.getWayEdge(way);
-	while ((!actNode.isMarked(BEST)) && (actEdge != null)) {
-		actNode.mark (BEST);
-		actNode.setDistanceOfWay (theOtherWay,distOfOtherWay);
+	Edge actEdge = ctx.getWayEdge(actNode,way);
+	while ((!ctx.isMarked(actNode,BEST)) && (actEdge != null)) {
+		ctx.mark(actNode,BEST);
+		ctx.setDistanceOfWay(actNode,theOtherWay,distOfOtherWay);
 		double actWeight = actEdge.getWeight(actEdge.isDirectedTo(actNode));
 		path = new PathEdge (actEdge,actEdge.isDirectedTo(actNode),actWeight,path);
 		distOfOtherWay += actWeight;
 		actNode = actEdge.getOppositeNode (actNode);
-		actEdge = actNode.getWayEdge(way);
+		actEdge = ctx.getWayEdge(actNode,way);
 	}	
 	return path;
 }
 /**
- * Berechnung des Ergebnispfad von einem Knoten ausgehend.
- * Ggf. wird neben dem NWAY1-Weg auch der NWAY2-Weg hinzugefgt.
- * Dabei wird der Pfad jeweils in der Normalrichtung abgelaufen.
- * Die Distanzen des jeweils anderen Weges werden an den Pfadknoten gesetzt
- * und diese mit BEST markiert.
+ * Berechnung des Ergebnispfad von einem Knoten ausgehend (siehe computeResultRoute).
  * @return berechneter Pfad
  * @param firstNode Ausgangsknoten
  * @param computeWAY2 Soll auch der mit NWAY2-Weg berechnet werden?
  */
-protected PathEdge computeResultPath (Node firstNode, boolean computeNWAY2) {
-	// Fall, da Knoten nicht gesetzt, abfangen
-	if (firstNode == null)
-		return null;
-		
-	// Berechnung NWAY1
-	firstNode.mark(BEST);
-	double actDist = firstNode.getDistanceOfWay(NWAY2);
-	PathEdge path = null;
-	PathEdge firstPath = null;
-	Node actNode = null;
-	// Nur falls es eine NWAY1-Kante gibt, Pfad ablaufen
-	if (firstNode.getWayEdge(NWAY1) != null) {
-		Edge actEdge = firstNode.getWayEdge(NWAY1);
-		double actWeight = actEdge.getWeight(actEdge.isDirectedTo(firstNode));
-		firstPath = new PathEdge (actEdge,actEdge.isDirectedTo(firstNode),actWeight);
-		path = firstPath;
-		actDist += actWeight;
-		actNode = actEdge.getOppositeNode (firstNode);
-		while ((!actNode.isMarked(BEST)) && (actNode.getWayEdge(NWAY1) != null)) {
-			actNode.mark (BEST);
-			actNode.setDistanceOfWay (NWAY2,actDist);
-			actEdge = actNode.getWayEdge(NWAY1);
-			actWeight = actEdge.getWeight(actEdge.isDirectedTo(actNode));
-			path = new PathEdge (actEdge,actEdge.isDirectedTo(actNode),actWeight,path);
-			actDist += actWeight;
-			actNode = actEdge.getOppositeNode (actNode);
-		}
-	}
-	// Ggf. Ergebnis zurckgeben	
-	if (!computeNWAY2) {
-		return path;
-	}
-		
-	// Berechnung NWAY2
-	// Fall bercksichtigen, da es keine NWAY2-Kante gibt, 
-	if (firstNode.getWayEdge(NWAY2) == null) {
-		return path;
-	}
-	// In Abhngigkeit vom NWAY1-Weg Resultat verketten
-	PathEdge resPath = null;
-	Edge actEdge = firstNode.getWayEdge(NWAY2);
-	double actWeight = actEdge.getWeight(actEdge.isStartingFrom(firstNode));
-	if (path != null) {
-		resPath = path;
-		firstPath.next = new PathEdge (actEdge,actEdge.isStartingFrom(firstNode),actWeight);
-		path = firstPath.next;
-	}	
-	else {
-		path = new PathEdge (actEdge,actEdge.isStartingFrom(firstNode),actWeight);
-		resPath = path;
-	}
-	// Pfad ablaufen
-	actDist = firstNode.getDistanceOfWay (NWAY1) + actWeight;
-	actNode = actEdge.getOppositeNode (firstNode);
-	actEdge = actNode.getWayEdge(NWAY2);
-	while ((!actNode.isMarked(BEST)) && (actEdge != null)) {
-		actNode.mark(BEST);
-		actNode.setDistanceOfWay (NWAY1,actDist);
-		actWeight = actEdge.getWeight(actEdge.isStartingFrom(actNode));
-		path.next = new PathEdge (actEdge,actEdge.isStartingFrom(actNode),actWeight);
-		path = path.next;
-		actDist += actWeight;
-		actNode = actEdge.getOppositeNode (actNode);
-		actEdge = actNode.getWayEdge(NWAY2);
-	}
-	return resPath;				
+protected PathEdge computeResultPath (SearchContext ctx, Node firstNode, boolean computeNWAY2) {
+	return toPathEdge (computeResultRoute (ctx,firstNode,computeNWAY2));
 }
 /**
  * Berechnung des Ergebnispfad von einem Knoten ausgehend entlang eines Weges.
@@ -478,7 +622,7 @@ protected PathEdge computeResultPath (Node firstNode, boolean computeNWAY2) {
  * @param actNode Ausgangsknoten
  * @param way Index des gewnschten Weges
  */
-protected PathEdge computeResultPathBackwards (Node firstNode, int way) {
+protected PathEdge computeResultPathBackwards (SearchContext ctx, Node firstNode, int way) {
 	// Vorbereitungen
 	if (firstNode == null)
 		return null;
@@ -489,22 +633,22 @@ protected PathEdge computeResultPathBackwards (Node firstNode, int way) {
 	Node actNode = firstNode;
 	PathEdge path = null;
 	long distOfOtherWay = 0;
-	double distOfWay = actNode.getDistanceOfWay(way);
-	Edge actEdge = actNode.getWayEdge(way);
-	while ((!actNode.isMarked(BEST)) && (actEdge != null)) {
-		actNode.mark (BEST);
-		actNode.setDistanceOfWay(way,distOfWay);
+	double distOfWay = ctx.getDistanceOfWay(actNode,way);
+	Edge actEdge = ctx.getWayEdge(actNode,way);
+	while ((!ctx.isMarked(actNode,BEST)) && (actEdge != null)) {
+		ctx.mark(actNode,BEST);
+		ctx.setDistanceOfWay(actNode,way,distOfWay);
 		double actWeight = actEdge.getWeight(actEdge.isStartingFrom(actNode));
 		path = new PathEdge (actEdge,actEdge.isStartingFrom(actNode),actWeight,path);
 		distOfOtherWay += actWeight;
 		distOfWay += actWeight;
 		actNode = actEdge.getOppositeNode (actNode);
-		actEdge = actNode.getWayEdge(way);
+		actEdge = ctx.getWayEdge(actNode,way);
 	}
 	// Setzen der Distanzen des anderen Wegs
-	distOfOtherWay += actNode.getDistanceOfWay(theOtherWay);
+	distOfOtherWay += ctx.getDistanceOfWay(actNode,theOtherWay);
 	while (!firstNode.equals(actNode)) {
-		firstNode.setDistanceOfWay(theOtherWay,distOfOtherWay);
+		ctx.setDistanceOfWay(firstNode,theOtherWay,distOfOtherWay);
 System.err.println("Ich glaube das nachfolgende ist falsch, da sich path nicht ndert");
 		distOfOtherWay -= path.edge.getWeight();
 		firstNode = path.edge.getOppositeNode (firstNode);
@@ -512,6 +656,72 @@ System.err.println("Ich glaube das nachfolgende ist falsch, da sich path nicht 
 
 	return path;
 }
+/**
+ * Berechnung des Ergebnispfad von einem Knoten ausgehend.
+ * Ggf. wird neben dem NWAY1-Weg auch der NWAY2-Weg hinzugefgt.
+ * Dabei wird der Pfad jeweils in der Normalrichtung abgelaufen.
+ * Die Distanzen des jeweils anderen Weges werden an den Pfadknoten gesetzt
+ * und diese mit BEST markiert.
+ * @return berechnete Route
+ * @param firstNode Ausgangsknoten
+ * @param computeWAY2 Soll auch der mit NWAY2-Weg berechnet werden?
+ */
+protected Route computeResultRoute (SearchContext ctx, Node firstNode, boolean computeNWAY2) {
+	// Fall, da Knoten nicht gesetzt, abfangen
+	if (firstNode == null)
+		return null;
+		
+	// Berechnung NWAY1
+	ctx.mark(firstNode,BEST);
+	double actDist = ctx.getDistanceOfWay(firstNode,NWAY2);
+	Route.Builder path = new Route.Builder(ctx.getGraph());
+	Node actNode = null;
+	// Nur falls es eine NWAY1-Kante gibt, Pfad ablaufen
+	if (ctx.getWayEdge(firstNode,NWAY1) != null) {
+		Edge actEdge = ctx.getWayEdge(firstNode,NWAY1);
+		double actWeight = actEdge.getWeight(actEdge.isDirectedTo(firstNode),ctx.profile);
+		path.prepend (actEdge.index,actEdge.isDirectedTo(firstNode),actWeight);
+		actDist += actWeight;
+		actNode = actEdge.getOppositeNode (firstNode);
+		while ((!ctx.isMarked(actNode,BEST)) && (ctx.getWayEdge(actNode,NWAY1) != null)) {
+			ctx.mark(actNode,BEST);
+			ctx.setDistanceOfWay(actNode,NWAY2,actDist);
+			actEdge = ctx.getWayEdge(actNode,NWAY1);
+			actWeight = actEdge.getWeight(actEdge.isDirectedTo(actNode),ctx.profile);
+			path.prepend (actEdge.index,actEdge.isDirectedTo(actNode),actWeight);
+			actDist += actWeight;
+			actNode = actEdge.getOppositeNode (actNode);
+		}
+	}
+	// Ggf. Ergebnis zurckgeben	
+	if (!computeNWAY2) {
+		return path.build();
+	}
+		
+	// Berechnung NWAY2
+	// Fall bercksichtigen, da es keine NWAY2-Kante gibt, 
+	if (ctx.getWayEdge(firstNode,NWAY2) == null) {
+		return path.build();
+	}
+	// In Abhngigkeit vom NWAY1-Weg Resultat verketten
+	Edge actEdge = ctx.getWayEdge(firstNode,NWAY2);
+	double actWeight = actEdge.getWeight(actEdge.isStartingFrom(firstNode),ctx.profile);
+	path.append (actEdge.index,actEdge.isStartingFrom(firstNode),actWeight);
+	// Pfad ablaufen
+	actDist = ctx.getDistanceOfWay(firstNode,NWAY1) + actWeight;
+	actNode = actEdge.getOppositeNode (firstNode);
+	actEdge = ctx.getWayEdge(actNode,NWAY2);
+	while ((!ctx.isMarked(actNode,BEST)) && (actEdge != null)) {
+		ctx.mark(actNode,BEST);
+		ctx.setDistanceOfWay(actNode,NWAY1,actDist);
+		actWeight = actEdge.getWeight(actEdge.isStartingFrom(actNode),ctx.profile);
+		path.append (actEdge.index,actEdge.isStartingFrom(actNode),actWeight);
+		actDist += actWeight;
+		actNode = actEdge.getOppositeNode (actNode);
+		actEdge = ctx.getWayEdge(actNode,NWAY2);
+	}
+	return path.build();
+}
 /**
  * Erzeugt Netzwerk aus Netzwerk-Dateien.
  * @param nodeIn DataInputStream fr Knoten
@@ -552,18 +762,38 @@ public void createByNetworkFiles (DataInputStream nodeIn, DataInputStream edgeIn
 			eof = true;
 		}
 	}	
+	System.out.println("build graph ...");
+	graph = new CompactGraph (nodes,edges);
 }
 /**
  * Erzeugt Netzwerk aus Netzwerk-Dateien.
+ * Is there an up-to-date image of the files (see MappedNetwork), the image is read;
+ * otherwise the image is written after reading the files.
  * @return erfolgreich?
  * @param filename Basiname der Dateien
  * @param objects Container fr drawable objects
  */
 public boolean createByNetworkFiles (String filename, DrawableObjects objects) {
+	CompactGraph mapped = MappedNetwork.read (filename,nodes,edges,objects);
+	if (mapped != null) {
+		graph = mapped;
+		return true;
+	}
 	try {
-		DataInputStream nodeStream = new DataInputStream(new FileInputStream(filename+".node"));
-		DataInputStream edgeStream = new DataInputStream(new FileInputStream(filename+".edge"));
-		createByNetworkFiles (nodeStream,edgeStream,objects);
+		DataInputStream nodeStream = new DataInputStream(new BufferedInputStream(new FileInputStream(filename+".node")));
+		try {
+			DataInputStream edgeStream = new DataInputStream(new BufferedInputStream(new FileInputStream(filename+".edge")));
+			try {
+				createByNetworkFiles (nodeStream,edgeStream,objects);
+			}
+			finally {
+				edgeStream.close();
+			}
+		}
+		finally {
+			nodeStream.close();
+		}
+		MappedNetwork.write (filename,nodes,edges,graph);
 		return true;
 	}		
 	catch (IOException e) {
@@ -606,7 +836,7 @@ public void createByNetworkFiles (URL nodeURL, URL edgeURL, DrawableObjects obje
  * Diese Version der Methode untersttzt die Berechnung von Verbindungen,
  * fr den Fall, da die Erweiterung auf einen FINAL- oder BEST-Knoten trifft.
  * Die Entfernung zum Zielknoten wird grundstzlich in den Rand-Elementen abgelegt.
- * @param border Rand gem Dijkstra als Heap
+ * @param ctx Kontext der Berechnung
  * @param start aktueller Knoten
  * @param stop Zielknoten
  * @param wayMark Index des betrachteten Wegs (WAY1 oder WAY2)
@@ -614,94 +844,164 @@ public void createByNetworkFiles (URL nodeURL, URL edgeURL, DrawableObjects obje
  * @param shortestDistance Lnge des krzesten Weges
  * @param resPath Ergebnispfad mit allen bislang berechneter Wege
  */
-protected void enlargeBorder (BorderHeap border, Node start, Node stop, int wayMark, int threshold, double shortestDistance, PathEdge resPath) {
+protected void enlargeBorder (SearchContext ctx, Node start, Node stop, int wayMark, int threshold, double shortestDistance, PathEdge resPath) {
 	// Vorbereitungen
-	int way = wayMark / WAY1;
+	int way = wayMark / ctx.WAY1;
 	// ber alle Kanten des aktuellen Knotens iterieren
-	Edge actEdge = start.getFirstEdge();
-	while (actEdge != null) {
+	CompactGraph g = ctx.graph;
+	int s = start.index;
+	for (int i=g.firstEdge[s], end=g.firstEdge[s+1]; i<end; i++) {
+		Edge actEdge = g.edge[g.edgeIndex[i]];
 		// Ausschlieen, da Zurckgelaufen wird
-		if (actEdge != start.getWayEdge(way)) {
+		if (actEdge != ctx.getWayEdge(start,way)) {
 			Node oppositeNode = actEdge.getOppositeNode(start);
-			boolean newInBorder = (!oppositeNode.isMarked(wayMark));
+			boolean newInBorder = (!ctx.isMarked(oppositeNode,wayMark));
 			// neue Knoten mit max. Distanz versehen
 			if (newInBorder)
-				oppositeNode.setDistanceOfWay (way,maxDistance);
+				ctx.setDistanceOfWay(oppositeNode,way,maxDistance);
 			// den akt. Knoten in Rand aufnehmen, falls dieser nicht mit FINAL markiert
 			// und Distanz sich verringert
-			if ((!oppositeNode.isMarked(FINAL)) &&
-				(start.getDistanceOfWay(way)+actEdge.getWeight() <= oppositeNode.getDistanceOfWay(way)) ) {
+			if ((!ctx.isMarked(oppositeNode,ctx.FINAL)) &&
+				(ctx.getDistanceOfWay(start,way)+actEdge.getWeight() <= ctx.getDistanceOfWay(oppositeNode,way)) ) {
 				// Distanz am Knoten vermerken
-				oppositeNode.setDistanceOfWay (way,start.getDistanceOfWay(way)+actEdge.getWeight());
+				ctx.setDistanceOfWay(oppositeNode,way,ctx.getDistanceOfWay(start,way)+actEdge.getWeight());
 				// Knoten neu in Rand aufnehmen
 				if (newInBorder) {
-					oppositeNode.setWay (way,actEdge);
-					oppositeNode.mark (wayMark);
+					ctx.setWay(oppositeNode,way,actEdge);
+					ctx.mark(oppositeNode,wayMark);
 					//System.out.print("neu im Heap: "); element.debugPrint(); System.out.println();
-					border.insert (oppositeNode,way,edges.getWeightManager().computeWeight (oppositeNode.distanceTo(stop)));
+					ctx.border.insert (oppositeNode,way,edges.getWeightManager().computeWeight (oppositeNode.distanceTo(stop)));
 				}
-				// oder Gewicht anpassen (bei akt. Heap-Implementierung ist dazu nichts ntig)
+				// oder Gewicht anpassen (der Heap speichert die Schlssel, daher neu einordnen)
 				else {
-					//System.out.print("gendert im Heap: "); oppositeNode.debugPrint(way); System.out.println();
+					//System.out.print("gendert im Heap: "); ctx.debugPrint(oppositeNode,way); System.out.println();
 					// Prfen, ob ber alten Weg neue Verbindung anlegbar ist
-					if (oppositeNode.isMarked(BEST)) {
-						Edge oldEdge = oppositeNode.getWayEdge(way);
-						computeNewConnection (border, oldEdge.getOppositeNode(oppositeNode),oldEdge,stop, wayMark, threshold,shortestDistance, resPath);
+					if (ctx.isMarked(oppositeNode,BEST)) {
+						Edge oldEdge = ctx.getWayEdge(oppositeNode,way);
+						computeNewConnection (ctx, oldEdge.getOppositeNode(oppositeNode),oldEdge,stop, wayMark, threshold,shortestDistance, resPath);
 					}
-					oppositeNode.setWay (way,actEdge);
+					ctx.setWay(oppositeNode,way,actEdge);
+					// der Ausgangsknoten des Wegs ist nicht im Heap (Kanten mit Gewicht 0)
+					if (ctx.border.contains(oppositeNode,way))
+						ctx.border.adaptToDecreasedDistance(oppositeNode,way);
 				}	
 			}
 			
 			// ansonsten, Prfen, ob eine neue Verbindung anlegbar ist
-			else if ((resPath!=null) && (oppositeNode.isMarked(BEST) || oppositeNode.isMarked(FINAL)) && (!start.isMarked(BEST) || (oppositeNode.isMarked(BEST) && start.getDistanceOfWay(way) < oppositeNode.getDistanceOfWay(way))) )
-				computeNewConnection (border, start,actEdge,stop, wayMark, threshold,shortestDistance, resPath);
+			else if ((resPath!=null) && (ctx.isMarked(oppositeNode,BEST) || ctx.isMarked(oppositeNode,ctx.FINAL)) && (!ctx.isMarked(start,BEST) || (ctx.isMarked(oppositeNode,BEST) && ctx.getDistanceOfWay(start,way) < ctx.getDistanceOfWay(oppositeNode,way))) )
+				computeNewConnection (ctx, start,actEdge,stop, wayMark, threshold,shortestDistance, resPath);
 		}	// if 		
-		actEdge = start.getNextEdge();
-	}	// while
+	}	// for
 }
 /**
  * (Standard-)Erweiterung des Randes.
- * @param border Rand gem Dijkstra als Heap
+ * @param ctx Kontext der Berechnung
  * @param start Startknoten
  * @param stop Zielknoten
  * @param way betrachteter Weg
  * @param considerDistToDest Soll die Entfernung zum Zielknoten bercksichtigt werden?
  */
-protected void enlargeBorder (BorderHeap border, Node start, Node stop, int way, boolean considerDistToDest) {
-	Edge actEdge = start.getFirstEdge();
-	while (actEdge != null) {
-		Node oppositeNode = actEdge.getOppositeNode(start);
+protected void enlargeBorder (SearchContext ctx, Node start, Node stop, int way, boolean considerDistToDest) {
+	CompactGraph g = ctx.graph;
+	WeightManager wm = edges.getWeightManager();
+	Landmarks lm = landmarks;
+	if ((lm != null) && (lm.graph != g))
+		lm = null;
+	int s = start.index;
+	double startDist = ctx.getDistanceOfWay(s,way);
+	for (int i=g.firstEdge[s], end=g.firstEdge[s+1]; i<end; i++) {
+		int opposite = g.target[i];
 		// verbundenen Knoten in Rand aufnehmen, falls Knoten nicht mit FINAL markiert
-		if (!oppositeNode.isMarked(FINAL)) {
-			boolean newInBorder = (!oppositeNode.isMarked(way));
+		if (!ctx.isMarked(opposite,ctx.FINAL)) {
+			boolean newInBorder = (!ctx.isMarked(opposite,way));
 			// neue Knoten mit max. Distanz versehen
 			if (newInBorder)
-				oppositeNode.setDistanceOfWay (way,maxDistance);
+				ctx.setDistanceOfWay(opposite,way,maxDistance);
 			// und Distanz sich verringert
-			double actWeight = actEdge.getWeight(start);
-			if (start.getDistanceOfWay(way)+actWeight < oppositeNode.getDistanceOfWay(way)) {
+			double actWeight = wm.getWeight(g,i,ctx.profile);
+			if (startDist+actWeight < ctx.getDistanceOfWay(opposite,way)) {
+				ctx.setDistanceOfWay(opposite,way,startDist+actWeight);
+				ctx.setWay(opposite,way,g.edgeIndex[i]);
 				// case 1: insert into heap
 				if (newInBorder) {
-					oppositeNode.setDistanceOfWay (way,start.getDistanceOfWay(way)+actWeight);
-					oppositeNode.setWay (way,actEdge);
-					oppositeNode.mark (way);
-					if (considerDistToDest)
-						border.insert(oppositeNode,way,edges.getWeightManager().computeWeight (oppositeNode.distanceTo(stop)));
+					ctx.mark(opposite,way);
+					if (considerDistToDest && (lm != null))
+						ctx.border.insert(opposite,way,lm.estimate(opposite,stop.index));
+					else if (considerDistToDest)
+						ctx.border.insert(opposite,way,wm.computeWeight (g.node[opposite].distanceTo(stop)));
 					else
-						border.insert(oppositeNode,way,0);
+						ctx.border.insert(opposite,way,0);
 				}
 				// case 2: change 
 				else {
-					oppositeNode.setDistanceOfWay (way,start.getDistanceOfWay(way)+actWeight);
-					oppositeNode.setWay (way,actEdge);
-					border.adaptToDecreasedDistance(oppositeNode,way);
-					//System.out.print("gendert im Heap: "); oppositeNode.debugPrint(way); System.out.println();
+					ctx.border.adaptToDecreasedDistance(opposite,way);
+					//System.out.print("gendert im Heap: "); ctx.debugPrint(g.node[opposite],way); System.out.println();
 				}	
 			}
 		}	
-		actEdge = start.getNextEdge();
 	}
 }
+/**
+ * Returns the adjacency of the network in CSR representation.
+ * The graph is rebuilt if nodes or edges have been modified since its construction.
+ * Only the rebuild is synchronized, so the queries of several threads do not
+ * wait for each other.
+ * @return the graph
+ */
+public CompactGraph getCompactGraph () {
+	CompactGraph g = graph;
+	if ((g != null) && g.isValidFor(nodes,edges))
+		return g;
+	synchronized (this) {
+		if ((graph == null) || !graph.isValidFor(nodes,edges))
+			graph = new CompactGraph (nodes,edges);
+		return graph;
+	}
+}
+/**
+ * Returns the contraction hierarchy of the network. If none has been set or the
+ * graph has been modified, the hierarchy is built for the current weights.
+ * @return the contraction hierarchy
+ */
+public synchronized ContractionHierarchy getContractionHierarchy () {
+	CompactGraph g = getCompactGraph();
+	if ((hierarchy == null) || (hierarchy.getGraph() != g))
+		hierarchy = new ContractionHierarchy (g,computeWeights());
+	return hierarchy;
+}
+/**
+ * Returns the search context of the current thread.
+ * @return the search context
+ */
+public SearchContext getSearchContext () {
+	SearchContext ctx = (SearchContext)contexts.get();
+	if (ctx == null) {
+		ctx = newSearchContext();
+		contexts.set(ctx);
+	}
+	else
+		ctx.prepare (getCompactGraph());
+	return ctx;
+}
+/**
+ * Computes the current weights of all edges.
+ * @return the weights indexed by the ordinals of the edges
+ */
+public double[] computeWeights () {
+	return computeWeights (true);
+}
+/**
+ * Computes the current weights of all edges in the given direction.
+ * @return the weights indexed by the ordinals of the edges
+ * @param forwards forwards direction?
+ */
+public double[] computeWeights (boolean forwards) {
+	CompactGraph g = getCompactGraph();
+	double[] weight = new double[g.numOfEdges()];
+	for (int e=0; e<weight.length; e++)
+		weight[e] = g.edge[e].getWeight(forwards);
+	return weight;
+}
 /**
  * Gibt Kanten-Container zurck.
  * @return Kanten-Container
@@ -716,6 +1016,50 @@ public Edges getEdges() {
 public Nodes getNodes() {
 	return nodes;
 }
+/**
+ * Returns the landmarks used for estimating the remaining distance.
+ * @return the landmarks or null
+ */
+public Landmarks getLandmarks () {
+	return landmarks;
+}
+/**
+ * Returns the metric-independent cell overlay of the network.
+ * The overlay is rebuilt if the graph has been modified.
+ * @return the overlay
+ */
+public synchronized Overlay getOverlay () {
+	CompactGraph g = getCompactGraph();
+	if ((overlay == null) || (overlay.getGraph() != g)) {
+		overlay = new Overlay (g);
+		edges.overlay = overlay;
+	}
+	return overlay;
+}
+/**
+ * Creates a new search context for route computations in this network.
+ * @return the search context
+ */
+public SearchContext newSearchContext () {
+	return new SearchContext (getCompactGraph());
+}
+/**
+ * Sets the landmarks used by computeFastWay and computeFastWay2 for estimating
+ * the remaining distance. The landmarks must be computed for weights that are
+ * never greater than the actual weights. null switches back to the Euclidean
+ * estimate.
+ * @param landmarks the landmarks or null
+ */
+public void setLandmarks (Landmarks landmarks) {
+	this.landmarks = landmarks;
+}
+/**
+ * Sets the contraction hierarchy used by computeFastWayCH.
+ * @param ch the contraction hierarchy
+ */
+public synchronized void setContractionHierarchy (ContractionHierarchy ch) {
+	hierarchy = ch;
+}
 /**
  * Saves the network in network files.
  * @param filename path and basic name of the files
@@ -769,5 +1113,12 @@ public void saveAsText (String filename) {
 	catch (IOException ioe) {
 		System.err.println("Network.saveAsText: I/O-Error" + ioe.getMessage());
 	}
+}/**
+ * Converts a route into a chain of path edges.
+ * @return the first path edge or null
+ * @param route the route (may be null)
+ */
+private static PathEdge toPathEdge (Route route) {
+	return (route != null) ? route.toPathEdge() : null;
 }
 }
@@ -8,6 +8,8 @@ import util.*;
 /**
  * Class for representing nodes.
  * 
+ * @version	4.20	17.10.2026	marks, distances, way edges and heap positions moved into SearchContext
+ * @version	4.10	17.10.2026	ordinal index for CompactGraph, getEdge added
  * @version	4.00	18.08.2003	super class Symbol replaced by Drawable, distance becomes double, dynamic number of edge per node, heapPos added
  * @version	3.30	03.07.2001	getContainer renamed to getNodeContainer
  * @version	3.21	01.06.2000	adapted to new versions of drawable classes
@@ -59,22 +61,9 @@ public class Node extends Drawable {
 	private Nodes nodes = null;
 
 	/**
-	 * The current mark.
+	 * Ordinal of the node in the CompactGraph (-1 if not numbered)
 	 */
-	private int mark = 0;
-	
-	/**
-	 * distances of the path 1 and 2
-	 */
-	private double distanceOfWay[] = {0.0,0.0};
-	/**
-	 * marks of edges using path 1 and 2
-	 */
-	private byte wayEdge[] = {-1,-1};
-	/**
-	 * Positions in a heap depending of the path (1 and 2)
-	 */
-	protected short heapPos[] = {0,0};
+	protected int index = -1;
 
 /**
  * Constructor.
@@ -172,21 +161,6 @@ public void addEdge (Edge newEdge) {
 		System.out.println("ex "+ex);
 	}
 }
-/**
- * Lscht die angegebene Markierung vom Knoten.
- * @param value Wert der Markierung
- */
-public void clearMark (int value) {
-	if (isMarked (value))
-		mark = mark-value;
-}
-/**
- * Lscht alle Wege, die vom Knoten ausgehen.
- */
-public void clearWays () {
-	wayEdge[0] = -1;
-	wayEdge[1] = -1;
-}
 /**
  * Computes the distance of the drawing primitive to a point.
  * @return distance
@@ -196,12 +170,6 @@ public void clearWays () {
 public double computeDistanceTo (int x, int y) {
 	return computeDistance (this.x,this.y, x,y);
 }
-/**
- * Ausgabe des Knotens zu Debugging-Zwecken.
- */
-public void debugPrint (int way) {
-	System.out.print(name+ " - "+ getDistanceOfWay(way));
-}
 /**
  * Berechnet den Abstand des Knotens zu dem angegebenen Knoten.
  * @return Abstand
@@ -251,12 +219,12 @@ public boolean equals (Object node) {
 	return (id == ((Node)node).id); 
 }
 /**
- * Gibt die Distanz bei dem Knoten bezglich des angegebenen Weges zurck.
- * @return Distanz
- * @param Index des Weges
+ * Returns the i-th edge of the node.
+ * @return the edge
+ * @param i index of the edge (0 .. getNumOfEdges()-1)
  */
-public double getDistanceOfWay (int way) {
-	return distanceOfWay[way-1];
+public Edge getEdge (int i) {
+	return edge[i];
 }
 /**
  * Gibt die erste Kante des Knotens zurck.
@@ -277,6 +245,14 @@ public long getID () {
 	return id;
 }
 
+/**
+ * Returns the ordinal of the node in the CompactGraph.
+ * @return ordinal (-1 if not numbered)
+ */
+public int getIndex () {
+	return index;
+}
+
 /**
  * Returns the minimum bounding rectangle of the primitive.
  * @return  the MBR
@@ -327,17 +303,6 @@ public Nodes getNodeContainer () {
 public int getNumOfEdges () {
 	return numOfEdges;
 }
-/**
- * Gibt die Kante zurck, ber die der angefragte Weg verluft.
- * @return  Kante, ber die der Weg verluft
- * @param  way  Index des Weges
- */
-public Edge getWayEdge (int way) {
-	if (wayEdge[way-1] < 0)
-		return null;
-	else
-		return edge[wayEdge[way-1]];
-}
 /**
  * Gibt Hashcode fr den Knoten zurck.
  * @return Hashcode
@@ -388,29 +353,6 @@ public boolean interacts (int px, int py, int scale) {
 		   (py >= y-size/2*scale-1) && (py <= y+size/2*scale);
 }
 
-/**
- * Gibt zurck, ob der Knoten mit dem angegebenen Wert markiert ist.
- * @return markiert?
- * @param value Markierungswert
- */
-public boolean isMarked (int value) {
-	if (mark > nodes.nullMark)
-		return ((mark-nodes.nullMark) & value) > 0;
-	else
-		return false;
-}
-/**
- * Markiert den Knoten mit dem angegebenen Wert.
- * @param value Markierunsgwert
- */
-public void mark (int value) {
-	if (mark > nodes.nullMark)
-		mark = nodes.nullMark + ((mark-nodes.nullMark) | value);
-	else
-		mark = nodes.nullMark + value;
-	if (nodes.maxMark < mark)
-		nodes.maxMark = mark;
-}
 /**
  * Moves the node to a new position.
  * @param x new x-coordinate
@@ -457,14 +399,6 @@ public void replaceBy (Node node) {
 	if (numOfEdges != 0)
 		System.err.println("Node.replaceBy: numOfEdges != 0");
 }
-/**
- * Setzt die Distanz bezglich des angegebenen Weges.
- * @param way Index des Weges
- * @param distance Distanz
- */
-public void setDistanceOfWay (int way, double distance) {
-	distanceOfWay[way-1] = distance;
-}
 /**
  * Sets the ID of the node.
  * @param newID the new ID
@@ -490,22 +424,6 @@ public void setStandardAppearance () {
 	setPresentation(DrawablePresentation.get("Node"+nodeClass));
 }
 
-/**
- * Merkt sich die angegebene Kante als weiteren Verlauf des angegebenen Weges.
- * @param way Index des Wegs
- * @param e Kante, ber der der Weg verluft
- */
-public void setWay (int way, Edge e) {
-	// ggf. alte Wegkanten zurcksetzen
-	if (!isMarked(1))
-		wayEdge[0] = -1;
-	if (!isMarked(2))
-		wayEdge[1] = -1;
-	// Kante merken
-	for (int i=0; i < numOfEdges; i++)
-		if (edge[i] == e)
-			wayEdge[way-1] = (byte)i;
-}
 /**
  * Schreibt den Knoten in den DataOutput.
  * @return  erfolgreich?
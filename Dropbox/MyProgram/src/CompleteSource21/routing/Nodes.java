@@ -4,10 +4,14 @@ import java.awt.*;
 import java.io.*;
 import java.util.*;
 import drawables.*;
+import util.LongIntMap;
 
 /**
  * Container class for the class Node.
  * 
+ * @version	1.40	17.10.2026	Hashtable replaced by an array and a LongIntMap
+ * @version	1.31	17.10.2026	marks moved into SearchContext
+ * @version	1.30	17.10.2026	modCount added
  * @version	1.21	16.08.2003	distance becomes double
  * @version	1.20	03.07.2001	parameter DrawableObjects removed from findNearest
  * @version	1.12	28.06.2000	adapted to DrawableObjects v4.0, Timer removed
@@ -20,9 +24,17 @@ import drawables.*;
 public class Nodes {
 
 	/**
-	 * Container of all nodes
+	 * Container of all nodes (in the order of their insertion)
 	 */
-	private Hashtable hashTable = null;
+	private Node[] node = null;
+	/**
+	 * Number of nodes
+	 */
+	private int num = 0;
+	/**
+	 * Position of the nodes in the array by their IDs
+	 */
+	private LongIntMap index = null;
 	/**
 	 * Container of all drawable objects
 	 */
@@ -42,17 +54,9 @@ public class Nodes {
 	 */
 	private int actEdge = 0;
 	/**
-	 * Value of the mark which corresponds to unmarked
-	 */
-	protected int nullMark = 0;
-	/**
-	 * Highest existing mark
-	 */
-	protected int maxMark = 0;
-	/**
-	 * Index of the actual edge
+	 * Number of structural modifications (used for detecting an outdated CompactGraph)
 	 */
-	private Node searchNode = new Node(0,0,0);
+	protected int modCount = 0;
 
 	/**
 	 * Scale boundaries for the visiblity of the nodes
@@ -69,7 +73,8 @@ public class Nodes {
  */
 public Nodes (int numOfClasses) {
 	this.numOfClasses = numOfClasses;
-	hashTable = new Hashtable (10000);
+	node = new Node[10000];
+	index = new LongIntMap (10000);
 }
 /**
  * Konstruktor.
@@ -77,21 +82,25 @@ public Nodes (int numOfClasses) {
  */
 public Nodes (Edges edges) {
 	this.numOfClasses = edges.getNumOfClasses()+1;
-	hashTable = new Hashtable (10000);
-}
-/**
- * Die Markierungen aller Knoten werden gelscht.
- */
-public void clearAllMarks () {
-	maxMark++;
-	nullMark = maxMark;
+	node = new Node[10000];
+	index = new LongIntMap (10000);
 }
 /**
  * Gibt Enumeration ber alle Knoten zurck.
  * @return Enumeration der Knoten
  */
 public Enumeration elements () {
-	return hashTable.elements();
+	return new Enumeration() {
+		private int i = 0;
+		public boolean hasMoreElements () {
+			return i < num;
+		}
+		public Object nextElement () {
+			if (i >= num)
+				throw new NoSuchElementException();
+			return node[i++];
+		}
+	};
 }
 /**
  * Finds the nearest node to the position (x,y).
@@ -105,7 +114,7 @@ public Node findNearest (int x, int y) {
 	Enumeration e = null;
 	Node node = null;
 	if (objects == null) {
-		e = hashTable.elements();
+		e = elements();
 		node = (Node)e.nextElement();
 		objects = node.getContainer();
 	}
@@ -136,8 +145,8 @@ public Node findNearest (int x, int y) {
  * @param id ID des Knotens
  */
 public Node get (long id) {
-	searchNode.setID(id);
-	return (Node) hashTable.get (searchNode);
+	int i = index.get(id);
+	return (i != LongIntMap.NONE) ? node[i] : null;
 }
 /**
  * Returns the next free identifier.
@@ -179,7 +188,19 @@ public Node newNode (long id, int x, int y, String name) {
 		node = new Node (id, x,y, name, this);
 	else
 		node = new Node (id, x,y, this);
-	hashTable.put (node,node);
+	// a node with the same ID is replaced
+	int i = index.get(id);
+	if (i == LongIntMap.NONE) {
+		if (num == this.node.length) {
+			Node[] newNode = new Node[2*num];
+			System.arraycopy (this.node,0,newNode,0,num);
+			this.node = newNode;
+		}
+		i = num++;
+		index.put (id,i);
+	}
+	this.node[i] = node;
+	modCount++;
 	if (id > maxId)
 		maxId = id;
 	return node;
@@ -189,7 +210,7 @@ public Node newNode (long id, int x, int y, String name) {
  * @return Anzahl
  */
 public int numOfNodes () {
-	return hashTable.size();
+	return num;
 }
 /**
  * Liest einen Knoten vom DataInput.
@@ -228,7 +249,15 @@ public Node read (DataInput in) {
  */
 public boolean removeNode (Node node) {
 	if ((node != null) && (node.getNumOfEdges() == 0)) {
-		hashTable.remove (node);
+		int i = index.remove(node.getID());
+		if (i != LongIntMap.NONE) {
+			// the last node fills the gap
+			this.node[i] = this.node[--num];
+			this.node[num] = null;
+			if (i < num)
+				index.put (this.node[i].getID(),i);
+		}
+		modCount++;
 		return true;
 	}
 	return false;
@@ -0,0 +1,238 @@
+package routing;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Metric-independent partition of a network into cells for customizable route
+ * planning (see OverlayMetric). The cells are computed by recursive bisection
+ * of the node coordinates; a node is a boundary node of its cell if it has an
+ * edge to a node of another cell. The overlay only depends on the graph, so
+ * it is built once per network and shared by all metrics.
+ * The overlay of a network (see Network.getOverlay) records for each cell the
+ * usage stamp of the last edge with a changed usage that has a node in the
+ * cell, so that a metric only has to check the edges of those cells.
+ *
+ * @version 1.11	17.10.2026	Integer.valueOf instead of the deprecated constructor
+ * @version 1.10	17.10.2026	usage stamps of the cells
+ * @version 1.00	17.10.2026	first version
+ */
+public class Overlay {
+
+	/**
+	 * Default maximum number of nodes of a cell.
+	 */
+	public static final int DEFAULT_CELL_SIZE = 1024;
+
+	/**
+	 * The graph of the network.
+	 */
+	protected final CompactGraph graph;
+	/**
+	 * Number of cells.
+	 */
+	protected int numOfCells = 0;
+	/**
+	 * Cell of each node.
+	 */
+	protected final int[] cellOf;
+	/**
+	 * Nodes of cell c are cellNode[cellFirst[c]] .. cellNode[cellFirst[c+1]-1].
+	 */
+	protected int[] cellFirst = null;
+	protected final int[] cellNode;
+	/**
+	 * Position of each node in the node list of its cell.
+	 */
+	protected final int[] localIndex;
+	/**
+	 * Boundary nodes of cell c are boundaryNode[boundaryFirst[c]] .. boundaryNode[boundaryFirst[c+1]-1].
+	 */
+	protected int[] boundaryFirst = null;
+	protected int[] boundaryNode = null;
+	/**
+	 * Position of each node in the boundary list of its cell (-1 if no boundary node).
+	 */
+	protected final int[] boundaryIndex;
+	/**
+	 * Maximum number of nodes of a cell.
+	 */
+	private int maxCellSize = 0;
+	/**
+	 * Highest usage stamp of the edges of each cell (see Edge.getUsageStamp).
+	 */
+	private AtomicLongArray cellStamp = null;
+
+/**
+ * Builds the overlay with cells of at most DEFAULT_CELL_SIZE nodes.
+ * @param graph the graph of the network
+ */
+public Overlay (CompactGraph graph) {
+	this (graph,DEFAULT_CELL_SIZE);
+}
+
+/**
+ * Builds the overlay.
+ * @param graph the graph of the network
+ * @param maxCellSize maximum number of nodes of a cell
+ */
+public Overlay (CompactGraph graph, int maxCellSize) {
+	this.graph = graph;
+	int n = graph.numOfNodes();
+	cellOf = new int[n];
+	cellNode = new int[n];
+	localIndex = new int[n];
+	boundaryIndex = new int[n];
+	// partition
+	for (int i=0; i<n; i++)
+		cellNode[i] = i;
+	Vector firsts = new Vector();
+	bisect (0,n,Math.max(1,maxCellSize),new long[n],firsts);
+	numOfCells = firsts.size();
+	cellFirst = new int[numOfCells+1];
+	for (int c=0; c<numOfCells; c++)
+		cellFirst[c] = ((Integer)firsts.elementAt(c)).intValue();
+	cellFirst[numOfCells] = n;
+	for (int c=0; c<numOfCells; c++) {
+		this.maxCellSize = Math.max(this.maxCellSize,cellFirst[c+1]-cellFirst[c]);
+		for (int i=cellFirst[c]; i<cellFirst[c+1]; i++) {
+			cellOf[cellNode[i]] = c;
+			localIndex[cellNode[i]] = i-cellFirst[c];
+		}
+	}
+	// boundary nodes
+	boundaryFirst = new int[numOfCells+1];
+	int num = 0;
+	int[] boundary = new int[n];
+	for (int c=0; c<numOfCells; c++) {
+		boundaryFirst[c] = num;
+		for (int i=cellFirst[c]; i<cellFirst[c+1]; i++) {
+			int v = cellNode[i];
+			boundaryIndex[v] = -1;
+			for (int s=graph.firstEdge[v]; s<graph.firstEdge[v+1]; s++)
+				if (cellOf[graph.target[s]] != c) {
+					boundaryIndex[v] = num-boundaryFirst[c];
+					boundary[num++] = v;
+					break;
+				}
+		}
+	}
+	boundaryFirst[numOfCells] = num;
+	boundaryNode = new int[num];
+	System.arraycopy (boundary,0,boundaryNode,0,num);
+	cellStamp = new AtomicLongArray(numOfCells);
+}
+
+/**
+ * Records a change of the usage of an edge in the cells of its nodes.
+ * May be called by several threads.
+ * @param edge the edge
+ * @param stamp its new usage stamp
+ */
+void announceUsageChange (Edge edge, long stamp) {
+	int e = edge.index;
+	if ((e < 0) || (e >= graph.numOfEdges()) || (graph.edge[e] != edge))
+		return;
+	raiseCellStamp (cellOf[edge.node1.index],stamp);
+	raiseCellStamp (cellOf[edge.node2.index],stamp);
+}
+
+/**
+ * Splits the nodes cellNode[from] .. cellNode[to-1] at the median of the
+ * coordinate with the larger extent until the cells are small enough.
+ * @param from first position
+ * @param to position after the last node
+ * @param maxSize maximum number of nodes of a cell
+ * @param key temporary array for sorting
+ * @param firsts receives the first positions of the cells
+ */
+private void bisect (int from, int to, int maxSize, long[] key, Vector firsts) {
+	if (to-from <= maxSize) {
+		firsts.addElement(Integer.valueOf(from));
+		return;
+	}
+	int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+	int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+	for (int i=from; i<to; i++) {
+		Node node = graph.node[cellNode[i]];
+		minX = Math.min(minX,node.getX()); maxX = Math.max(maxX,node.getX());
+		minY = Math.min(minY,node.getY()); maxY = Math.max(maxY,node.getY());
+	}
+	boolean byX = (long)maxX-minX >= (long)maxY-minY;
+	for (int i=from; i<to; i++) {
+		Node node = graph.node[cellNode[i]];
+		long coord = byX ? node.getX() : node.getY();
+		key[i] = (coord << 32) | cellNode[i];
+	}
+	Arrays.sort (key,from,to);
+	for (int i=from; i<to; i++)
+		cellNode[i] = (int)key[i];
+	int mid = (from+to) >>> 1;
+	bisect (from,mid,maxSize,key,firsts);
+	bisect (mid,to,maxSize,key,firsts);
+}
+
+/**
+ * Returns the cell of a node.
+ * @return the cell
+ * @param node ordinal of the node
+ */
+public int getCell (int node) {
+	return cellOf[node];
+}
+
+/**
+ * Returns the highest usage stamp of the edges of a cell; edges connecting
+ * two cells count for both cells.
+ * @return usage stamp
+ * @param c the cell
+ */
+public long getCellStamp (int c) {
+	return cellStamp.get(c);
+}
+
+/**
+ * Returns the graph of the overlay.
+ * @return the graph
+ */
+public CompactGraph getGraph () {
+	return graph;
+}
+
+/**
+ * Returns the maximum number of nodes of a cell.
+ * @return maximum cell size
+ */
+public int getMaxCellSize () {
+	return maxCellSize;
+}
+
+/**
+ * Returns the number of boundary nodes of a cell.
+ * @return number of boundary nodes
+ * @param c the cell
+ */
+public int numOfBoundaryNodes (int c) {
+	return boundaryFirst[c+1]-boundaryFirst[c];
+}
+
+/**
+ * Returns the number of cells.
+ * @return number of cells
+ */
+public int numOfCells () {
+	return numOfCells;
+}
+
+/**
+ * Raises the usage stamp of a cell to the given value.
+ * @param c the cell
+ * @param stamp the usage stamp
+ */
+private void raiseCellStamp (int c, long stamp) {
+	long old = cellStamp.get(c);
+	while ((old < stamp) && !cellStamp.compareAndSet(c,old,stamp))
+		old = cellStamp.get(c);
+}
+
+}
@@ -0,0 +1,434 @@
+package routing;
+
+/**
+ * Customizable metric on an Overlay. For each cell, the distances between its
+ * boundary nodes (the clique of the cell) are computed from a snapshot of the
+ * edge weights of the WeightManager. The customization only recomputes the
+ * cliques of cells whose internal edges have changed their weights; by default,
+ * only the edges of cells with a changed usage are checked (see Overlay.getCellStamp).
+ * A query searches the cells of the start and the destination node in the
+ * original graph and all other cells by their cliques; the clique arcs of the
+ * result are unpacked by a search inside the cell. The overlay has a single
+ * level, so a query is not sublinear; it only skips the inner nodes of the
+ * cells that contain neither the start nor the destination.
+ * The metric must not be customized while queries are running.
+ *
+ * @version 1.30	17.10.2026	customize checks only the edges of cells with changed usage
+ * @version 1.20	17.10.2026	weights of a RoutingProfile
+ * @version 1.10	17.10.2026	computeFastRoute added
+ * @version 1.00	17.10.2026	first version
+ */
+public class OverlayMetric {
+
+	/**
+	 * Distance value for unreachable nodes.
+	 */
+	private static final double INFINITE = Double.MAX_VALUE;
+
+	/**
+	 * The overlay.
+	 */
+	protected final Overlay overlay;
+	/**
+	 * The graph of the overlay.
+	 */
+	protected final CompactGraph graph;
+	/**
+	 * The routing profile of the weights.
+	 */
+	protected final RoutingProfile profile;
+	/**
+	 * Weights of the edges in forward and backward direction.
+	 */
+	private final double[] weightF, weightB;
+	/**
+	 * Distances between the boundary nodes of each cell (row: from, column: to).
+	 */
+	private final double[][] clique;
+	/**
+	 * Cells whose clique must be recomputed.
+	 */
+	private final boolean[] dirty;
+	/**
+	 * Highest usage stamp considered by the last customization.
+	 */
+	private long lastStamp = 0;
+	/**
+	 * Search inside of a cell used for the customization.
+	 */
+	private CellSearch customSearch = null;
+	/**
+	 * Query state of the threads.
+	 */
+	private ThreadLocal queries = new ThreadLocal();
+
+	/**
+	 * Heap of nodes with distances; outdated entries are skipped by the users.
+	 */
+	private static class Heap {
+		double[] key = new double[256];
+		int[] node = new int[256];
+		int num = 0;
+		void clear () {
+			num = 0;
+		}
+		int pop () {
+			int ret = node[0];
+			num--;
+			if (num > 0) {
+				double vKey = key[num];
+				int vNode = node[num];
+				int k = 0;
+				while (2*k+1 < num) {
+					int j = 2*k+1;
+					if ((j+1 < num) && (key[j+1] < key[j]))
+						j++;
+					if (vKey <= key[j])
+						break;
+					key[k] = key[j];
+					node[k] = node[j];
+					k = j;
+				}
+				key[k] = vKey;
+				node[k] = vNode;
+			}
+			return ret;
+		}
+		void push (int v, double dist) {
+			if (num == key.length) {
+				double[] newKey = new double[2*num];
+				System.arraycopy (key,0,newKey,0,num);
+				key = newKey;
+				int[] newNode = new int[2*num];
+				System.arraycopy (node,0,newNode,0,num);
+				node = newNode;
+			}
+			int k = num++;
+			while (k > 0) {
+				int p = (k-1)/2;
+				if (key[p] <= dist)
+					break;
+				key[k] = key[p];
+				node[k] = node[p];
+				k = p;
+			}
+			key[k] = dist;
+			node[k] = v;
+		}
+	}
+
+	/**
+	 * Dijkstra search restricted to the nodes of one cell.
+	 */
+	private class CellSearch {
+		int generation = 0;
+		int[] stamp = new int[overlay.getMaxCellSize()];
+		double[] dist = new double[overlay.getMaxCellSize()];
+		int[] predSlot = new int[overlay.getMaxCellSize()];
+		int[] predNode = new int[overlay.getMaxCellSize()];
+		Heap heap = new Heap();
+		/**
+		 * Searches from source; stops when target (-1: none) is settled.
+		 */
+		void search (int c, int source, int target) {
+			generation++;
+			heap.clear();
+			reach (source,0,-1,-1);
+			while (heap.num > 0) {
+				double key = heap.key[0];
+				int x = heap.pop();
+				int lx = overlay.localIndex[x];
+				if (key > dist[lx])
+					continue;
+				if (x == target)
+					break;
+				for (int s=graph.firstEdge[x]; s<graph.firstEdge[x+1]; s++) {
+					int y = graph.target[s];
+					if (overlay.cellOf[y] != c)
+						continue;
+					double nd = key+slotWeight(s);
+					int ly = overlay.localIndex[y];
+					if ((stamp[ly] != generation) || (nd < dist[ly]))
+						reach (y,nd,x,s);
+				}
+			}
+		}
+		double distanceTo (int v) {
+			int lv = overlay.localIndex[v];
+			return (stamp[lv] == generation) ? dist[lv] : INFINITE;
+		}
+		void reach (int v, double d, int pred, int slot) {
+			int lv = overlay.localIndex[v];
+			stamp[lv] = generation;
+			dist[lv] = d;
+			predNode[lv] = pred;
+			predSlot[lv] = slot;
+			heap.push (v,d);
+		}
+	}
+
+	/**
+	 * State of a query.
+	 */
+	private class Query {
+		int generation = 0;
+		int[] stamp = new int[graph.numOfNodes()];
+		double[] dist = new double[graph.numOfNodes()];
+		int[] predNode = new int[graph.numOfNodes()];
+		int[] predSlot = new int[graph.numOfNodes()];
+		Heap heap = new Heap();
+		CellSearch cellSearch = new CellSearch();
+	}
+
+/**
+ * Creates the metric and customizes all cells by the current weights of the
+ * edges for the default routing profile.
+ * @param overlay the overlay
+ */
+public OverlayMetric (Overlay overlay) {
+	this (overlay,RoutingProfile.DEFAULT);
+}
+
+/**
+ * Creates the metric and customizes all cells by the current weights of the
+ * edges for a routing profile.
+ * @param overlay the overlay
+ * @param profile the routing profile
+ */
+public OverlayMetric (Overlay overlay, RoutingProfile profile) {
+	this.overlay = overlay;
+	this.graph = overlay.graph;
+	this.profile = profile;
+	int m = graph.numOfEdges();
+	weightF = new double[m];
+	weightB = new double[m];
+	clique = new double[overlay.numOfCells()][];
+	dirty = new boolean[overlay.numOfCells()];
+	for (int c=0; c<clique.length; c++) {
+		int k = overlay.numOfBoundaryNodes(c);
+		clique[c] = new double[k*k];
+		dirty[c] = true;
+	}
+	customSearch = new CellSearch();
+	customizeAll();
+}
+
+/**
+ * Computes a fastest way between two nodes concerning the customized weights
+ * (see computeFastRoute).
+ * @return the path from start to stop or null
+ * @param start start node
+ * @param stop destination node
+ */
+public PathEdge computeFastWay (Node start, Node stop) {
+	Route route = computeFastRoute (start,stop);
+	return (route != null) ? route.toPathEdge() : null;
+}
+
+/**
+ * Computes a fastest way between two nodes concerning the customized weights.
+ * @return the route from start to stop or null
+ * @param start start node
+ * @param stop destination node
+ */
+public Route computeFastRoute (Node start, Node stop) {
+	if ((start == null) || (stop == null) || (start.equals(stop)))
+		return null;
+	Query q = getQuery();
+	q.generation++;
+	q.heap.clear();
+	int s = start.index;
+	int t = stop.index;
+	int cs = overlay.cellOf[s];
+	int ct = overlay.cellOf[t];
+	reach (q,s,0,-1,-1);
+	while (q.heap.num > 0) {
+		double key = q.heap.key[0];
+		int x = q.heap.pop();
+		if (key > q.dist[x])
+			continue;
+		if (x == t)
+			break;
+		int cx = overlay.cellOf[x];
+		boolean open = (cx == cs) || (cx == ct);
+		// original edges (only leaving edges in other cells)
+		for (int i=graph.firstEdge[x]; i<graph.firstEdge[x+1]; i++) {
+			int y = graph.target[i];
+			if (!open && (overlay.cellOf[y] == cx))
+				continue;
+			double nd = key+slotWeight(i);
+			if ((q.stamp[y] != q.generation) || (nd < q.dist[y]))
+				reach (q,y,nd,x,i);
+		}
+		// clique of the cell
+		if (!open) {
+			int bx = overlay.boundaryIndex[x];
+			int first = overlay.boundaryFirst[cx];
+			int k = overlay.boundaryFirst[cx+1]-first;
+			double[] row = clique[cx];
+			for (int j=0; j<k; j++) {
+				if ((j == bx) || (row[bx*k+j] == INFINITE))
+					continue;
+				int y = overlay.boundaryNode[first+j];
+				double nd = key+row[bx*k+j];
+				if ((q.stamp[y] != q.generation) || (nd < q.dist[y]))
+					reach (q,y,nd,x,-1);
+			}
+		}
+	}
+	if ((q.stamp[t] != q.generation) || (q.dist[t] == INFINITE))
+		return null;
+	// build the route backwards; clique arcs are unpacked inside their cell
+	Route.Builder route = new Route.Builder(graph);
+	for (int x=t; x!=s; x=q.predNode[x]) {
+		if (q.predSlot[x] >= 0)
+			prepend (route,q.predSlot[x]);
+		else {
+			int c = overlay.cellOf[x];
+			CellSearch cellSearch = q.cellSearch;
+			cellSearch.search (c,q.predNode[x],x);
+			for (int v=x; v!=q.predNode[x]; v=cellSearch.predNode[overlay.localIndex[v]])
+				prepend (route,cellSearch.predSlot[overlay.localIndex[v]]);
+		}
+	}
+	return route.build();
+}
+
+/**
+ * Recomputes the weights of the edges of the cells whose usage has changed
+ * since the last customization and the cliques of the affected cells.
+ * Requires the overlay of the network (see Network.getOverlay), which is
+ * informed about the usage changes; otherwise customizeAll must be used.
+ * @return number of recomputed cells
+ */
+public int customize () {
+	long maxStamp = lastStamp;
+	for (int c=0; c<overlay.numOfCells(); c++) {
+		long stamp = overlay.getCellStamp(c);
+		if (stamp > lastStamp) {
+			for (int i=overlay.cellFirst[c]; i<overlay.cellFirst[c+1]; i++) {
+				int v = overlay.cellNode[i];
+				for (int s=graph.firstEdge[v]; s<graph.firstEdge[v+1]; s++)
+					updateWeights (graph.edgeIndex[s]);
+			}
+			if (stamp > maxStamp)
+				maxStamp = stamp;
+		}
+	}
+	lastStamp = maxStamp;
+	return customizeDirtyCells();
+}
+
+/**
+ * Recomputes the weights of all edges and the cliques of the affected cells.
+ * Must be used if the weights do not only depend on the usage of the edges.
+ * @return number of recomputed cells
+ */
+public int customizeAll () {
+	for (int c=0; c<overlay.numOfCells(); c++)
+		lastStamp = Math.max(lastStamp,overlay.getCellStamp(c));
+	for (int e=0; e<graph.numOfEdges(); e++)
+		updateWeights (e);
+	return customizeDirtyCells();
+}
+
+/**
+ * Recomputes the cliques of all dirty cells.
+ * @return number of recomputed cells
+ */
+private int customizeDirtyCells () {
+	int num = 0;
+	for (int c=0; c<dirty.length; c++)
+		if (dirty[c]) {
+			int first = overlay.boundaryFirst[c];
+			int k = overlay.boundaryFirst[c+1]-first;
+			for (int i=0; i<k; i++) {
+				customSearch.search (c,overlay.boundaryNode[first+i],-1);
+				for (int j=0; j<k; j++)
+					clique[c][i*k+j] = customSearch.distanceTo(overlay.boundaryNode[first+j]);
+			}
+			dirty[c] = false;
+			num++;
+		}
+	return num;
+}
+
+/**
+ * Returns the overlay of the metric.
+ * @return the overlay
+ */
+public Overlay getOverlay () {
+	return overlay;
+}
+
+/**
+ * Returns the routing profile of the weights.
+ * @return the routing profile
+ */
+public RoutingProfile getProfile () {
+	return profile;
+}
+
+/**
+ * Returns the query state of the current thread.
+ * @return query state
+ */
+private Query getQuery () {
+	Query q = (Query)queries.get();
+	if (q == null) {
+		q = new Query();
+		queries.set(q);
+	}
+	return q;
+}
+
+/**
+ * Prepends the edge of an adjacency slot to a route.
+ * @param route the route
+ * @param slot the adjacency slot
+ */
+private void prepend (Route.Builder route, int slot) {
+	Edge edge = graph.edge[graph.edgeIndex[slot]];
+	boolean forwards = graph.forwards[slot];
+	route.prepend (graph.edgeIndex[slot],forwards,edge.getWeight(forwards,profile));
+}
+
+/**
+ * Sets the distance of a node in a query and inserts it into the heap.
+ */
+private void reach (Query q, int v, double dist, int pred, int slot) {
+	q.stamp[v] = q.generation;
+	q.dist[v] = dist;
+	q.predNode[v] = pred;
+	q.predSlot[v] = slot;
+	q.heap.push (v,dist);
+}
+
+/**
+ * Returns the customized weight of an adjacency slot.
+ * @return the weight
+ * @param slot the adjacency slot
+ */
+private double slotWeight (int slot) {
+	int e = graph.edgeIndex[slot];
+	return graph.forwards[slot] ? weightF[e] : weightB[e];
+}
+
+/**
+ * Takes over the current weights of an edge and marks its cell as dirty if they have changed.
+ * @param e ordinal of the edge
+ */
+private void updateWeights (int e) {
+	Edge edge = graph.edge[e];
+	double wF = edge.getWeight(true,profile);
+	double wB = edge.getWeight(false,profile);
+	if ((wF != weightF[e]) || (wB != weightB[e])) {
+		weightF[e] = wF;
+		weightB[e] = wB;
+		int c = overlay.cellOf[edge.node1.index];
+		if (c == overlay.cellOf[edge.node2.index])
+			dirty[c] = true;
+	}
+}
+
+}
@@ -5,6 +5,7 @@ import drawables.*;
 /**
  * Class for representing pathes of edges.
  * 
+ * @version 1.61	17.10.2026	debugPrint uses the SearchContext
  * @version 1.60	19.08.2003	checkForDestinationNode added, distance and weight becomes double
  * @version	1.51	24.05.2001	simple constructor added
  * @version	1.50	30.04.2000	constructors changed, computeDegree added
@@ -134,14 +135,15 @@ public int computeNumber () {
 }
 /**
  * Gibt den Pfad zu Debugging-Zwecken aus.
+ * @param ctx Kontext der Berechnung des Pfades
  */
-public void debugPrint () {
+public void debugPrint (SearchContext ctx) {
 	Node node = getStartingNode();
-	System.out.print("1: "); node.debugPrint(1); System.out.println(" - "+node.getDistanceOfWay(2));
+	System.out.print("1: "); ctx.debugPrint(node,1); System.out.println(" - "+ctx.getDistanceOfWay(node,2));
 	node = edge.getOppositeNode(node);
-	System.out.print("2: "); node.debugPrint(1); System.out.println(" - "+node.getDistanceOfWay(2));
+	System.out.print("2: "); ctx.debugPrint(node,1); System.out.println(" - "+ctx.getDistanceOfWay(node,2));
 	if (next != null)
-		next.debugPrint();
+		next.debugPrint(ctx);
 	else
 		System.out.println("***");
 }
@@ -0,0 +1,241 @@
+package routing;
+
+/**
+ * Compact representation of a path of edges. In contrast to a chain of
+ * PathEdge objects, a route stores the ordinals of its edges in the
+ * CompactGraph, their directions as bits and their original weights in
+ * arrays; the edges are addressed by their position on the route (0 .. size()-1).
+ * A route is not changed after its creation; a rerouting creates a new route
+ * by concat.
+ *
+ * @version 1.00	17.10.2026	first version
+ */
+public class Route {
+
+	/**
+	 * Builder of a route. Edges can be appended and prepended, so that a path
+	 * can be collected from both ends of a search.
+	 */
+	static class Builder {
+		/**
+		 * The graph of the edges.
+		 */
+		private CompactGraph graph = null;
+		/**
+		 * Ordinals, directions and original weights of the edges.
+		 */
+		private int[] edge;
+		private boolean[] forwards;
+		private double[] origWeight;
+		/**
+		 * Position of the first edge and end of the edges in the arrays.
+		 */
+		private int first, end;
+
+		/**
+		 * Constructor.
+		 * @param graph the graph of the edges
+		 */
+		Builder (CompactGraph graph) {
+			this.graph = graph;
+			allocate (32,16);
+		}
+		/**
+		 * Allocates the arrays; the edges are moved to a given position.
+		 * @param capacity new capacity
+		 * @param pos new position of the first edge
+		 */
+		private void allocate (int capacity, int pos) {
+			int[] newEdge = new int[capacity];
+			boolean[] newForwards = new boolean[capacity];
+			double[] newOrigWeight = new double[capacity];
+			if (edge != null) {
+				System.arraycopy (edge,first,newEdge,pos,end-first);
+				System.arraycopy (forwards,first,newForwards,pos,end-first);
+				System.arraycopy (origWeight,first,newOrigWeight,pos,end-first);
+			}
+			end = pos+end-first;
+			first = pos;
+			edge = newEdge;
+			forwards = newForwards;
+			origWeight = newOrigWeight;
+		}
+		/**
+		 * Appends an edge.
+		 * @param e ordinal of the edge
+		 * @param fw is the edge traversed from node1 to node2?
+		 * @param weight original weight of the edge
+		 */
+		void append (int e, boolean fw, double weight) {
+			if (end == edge.length)
+				allocate (2*edge.length,first);
+			edge[end] = e;
+			forwards[end] = fw;
+			origWeight[end] = weight;
+			end++;
+		}
+		/**
+		 * Prepends an edge.
+		 * @param e ordinal of the edge
+		 * @param fw is the edge traversed from node1 to node2?
+		 * @param weight original weight of the edge
+		 */
+		void prepend (int e, boolean fw, double weight) {
+			if (first == 0)
+				allocate (2*edge.length,edge.length+first);
+			first--;
+			edge[first] = e;
+			forwards[first] = fw;
+			origWeight[first] = weight;
+		}
+		/**
+		 * Creates the route.
+		 * @return the route or null if no edge has been added
+		 */
+		Route build () {
+			int size = end-first;
+			if (size == 0)
+				return null;
+			Route route = new Route(graph,size);
+			System.arraycopy (edge,first,route.edge,0,size);
+			System.arraycopy (origWeight,first,route.origWeight,0,size);
+			for (int k=0; k<size; k++)
+				if (forwards[first+k])
+					route.forwards[k>>5] |= 1<<(k&31);
+			return route;
+		}
+	}
+
+	/**
+	 * The graph of the edges.
+	 */
+	private final CompactGraph graph;
+	/**
+	 * Ordinals of the edges.
+	 */
+	private final int[] edge;
+	/**
+	 * Directions of the edges (bit k%32 of element k/32 is set if edge k is traversed from node1 to node2).
+	 */
+	private final int[] forwards;
+	/**
+	 * Original weights of the edges.
+	 */
+	private final double[] origWeight;
+
+/**
+ * Constructor of an empty route of a given size.
+ * @param graph the graph of the edges
+ * @param size number of edges
+ */
+private Route (CompactGraph graph, int size) {
+	this.graph = graph;
+	edge = new int[size];
+	forwards = new int[(size+31)>>5];
+	origWeight = new double[size];
+}
+/**
+ * Computes the degrees of starting nodes of the edges from a position to the
+ * end of the route without the last edge (see PathEdge.computeDegree).
+ * @return total degree
+ * @param from position of the first edge
+ */
+public int computeDegree (int from) {
+	int degree = 0;
+	for (int k=from; k<edge.length-1; k++)
+		degree += getStartingNode(k).getNumOfEdges();
+	return degree;
+}
+/**
+ * Creates a route consisting of a part of this route and another route.
+ * Both routes must refer to the same graph.
+ * @return the new route
+ * @param from position of the first edge to be taken
+ * @param to end of the edges to be taken
+ * @param tail the following route (may be null)
+ */
+public Route concat (int from, int to, Route tail) {
+	int tailSize = (tail != null) ? tail.size() : 0;
+	Route route = new Route(graph,to-from+tailSize);
+	System.arraycopy (edge,from,route.edge,0,to-from);
+	System.arraycopy (origWeight,from,route.origWeight,0,to-from);
+	for (int k=from; k<to; k++)
+		if (getForwards(k))
+			route.forwards[(k-from)>>5] |= 1<<((k-from)&31);
+	if (tail != null) {
+		System.arraycopy (tail.edge,0,route.edge,to-from,tailSize);
+		System.arraycopy (tail.origWeight,0,route.origWeight,to-from,tailSize);
+		for (int k=0; k<tailSize; k++)
+			if (tail.getForwards(k))
+				route.forwards[(to-from+k)>>5] |= 1<<((to-from+k)&31);
+	}
+	return route;
+}
+/**
+ * Returns the node where an edge of the route ends.
+ * @return destination node
+ * @param k position of the edge
+ */
+public Node getDestinationNode (int k) {
+	Edge e = graph.edge[edge[k]];
+	return getForwards(k) ? e.getNode2() : e.getNode1();
+}
+/**
+ * Returns an edge of the route.
+ * @return the edge
+ * @param k position of the edge
+ */
+public Edge getEdge (int k) {
+	return graph.edge[edge[k]];
+}
+/**
+ * Returns the ordinal of an edge of the route in the CompactGraph.
+ * @return ordinal
+ * @param k position of the edge
+ */
+public int getEdgeIndex (int k) {
+	return edge[k];
+}
+/**
+ * Returns the direction of an edge of the route.
+ * @return is the edge traversed from node1 to node2?
+ * @param k position of the edge
+ */
+public boolean getForwards (int k) {
+	return (forwards[k>>5] & (1<<(k&31))) != 0;
+}
+/**
+ * Returns the original weight of an edge of the route.
+ * @return original weight
+ * @param k position of the edge
+ */
+public double getOrigWeight (int k) {
+	return origWeight[k];
+}
+/**
+ * Returns the node where an edge of the route starts.
+ * @return starting node
+ * @param k position of the edge
+ */
+public Node getStartingNode (int k) {
+	Edge e = graph.edge[edge[k]];
+	return getForwards(k) ? e.getNode1() : e.getNode2();
+}
+/**
+ * Returns the number of edges.
+ * @return number of edges
+ */
+public int size () {
+	return edge.length;
+}
+/**
+ * Converts the route into a chain of path edges.
+ * @return the first path edge
+ */
+public PathEdge toPathEdge () {
+	PathEdge path = null;
+	for (int k=edge.length-1; k>=0; k--)
+		path = new PathEdge (getEdge(k),getForwards(k),origWeight[k],path);
+	return path;
+}
+}
@@ -0,0 +1,37 @@
+package routing;
+
+/**
+ * Profile of a route computation: the class of the moving object for which
+ * the weights of the edges are computed. A profile is passed to the
+ * WeightManager with each query, so that queries for different object
+ * classes may run at the same time.
+ *
+ * @version 1.00	17.10.2026	first version
+ */
+public class RoutingProfile {
+
+	/**
+	 * Profile of object class 0, used if no profile is given.
+	 */
+	public static final RoutingProfile DEFAULT = new RoutingProfile(0);
+
+	/**
+	 * The object class.
+	 */
+	private final int objClass;
+
+/**
+ * Constructor.
+ * @param objClass the object class
+ */
+public RoutingProfile (int objClass) {
+	this.objClass = objClass;
+}
+/**
+ * Returns the object class.
+ * @return the object class
+ */
+public int getObjectClass () {
+	return objClass;
+}
+}
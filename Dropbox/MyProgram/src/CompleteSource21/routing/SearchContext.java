@@ -0,0 +1,275 @@
+package routing;
+
+import java.util.*;
+
+/**
+ * State of a route computation in a network: marks, distances and way edges
+ * of the nodes as well as the heap of the border. The data are
+ * stored in dense arrays indexed by the ordinals of the CompactGraph; the marks
+ * are invalidated by incrementing a generation stamp. A context may be reused
+ * for any number of computations, but must not be used by two threads at the
+ * same time.
+ *
+ * @version 1.10	17.10.2026	routing profile of the computation
+ * @version 1.01	17.10.2026	heap positions kept by the BorderHeap
+ * @version 1.00	17.10.2026	first version
+ */
+public class SearchContext {
+
+	/**
+	 * The graph, the arrays belong to.
+	 */
+	protected CompactGraph graph = null;
+	/**
+	 * The routing profile of the current computation.
+	 */
+	protected RoutingProfile profile = RoutingProfile.DEFAULT;
+	/**
+	 * The heap for the border.
+	 */
+	protected BorderHeap border = null;
+	/**
+	 * Current generation; marks of other generations are invalid.
+	 */
+	private int generation = 1;
+	/**
+	 * Generation in which the mark of a node has been set.
+	 */
+	private int[] stamp = null;
+	/**
+	 * Marks of the nodes.
+	 */
+	private int[] mark = null;
+	/**
+	 * Distances of the nodes concerning path 1 and 2.
+	 */
+	protected double[][] distanceOfWay = new double[2][];
+	/**
+	 * Ordinals of the edges used by path 1 and 2 (-1 if none).
+	 */
+	protected int[][] wayEdge = new int[2][];
+
+	/**
+	 * Mark of the nodes of path 1 (changed by Network.computeFastWays).
+	 */
+	protected int WAY1 = 1;
+	/**
+	 * Mark of the nodes of path 2 (changed by Network.computeFastWays).
+	 */
+	protected int WAY2 = 2;
+	/**
+	 * Mark of finished nodes (changed by Network.computeFastWays).
+	 */
+	protected int FINAL = 4;
+
+/**
+ * Constructor.
+ * @param graph the graph of the network
+ */
+public SearchContext (CompactGraph graph) {
+	border = new BorderHeap(this);
+	prepare (graph);
+}
+
+/**
+ * Removes all marks.
+ */
+public void clearAllMarks () {
+	generation++;
+	if (generation == Integer.MAX_VALUE) {
+		Arrays.fill (stamp,0);
+		generation = 1;
+	}
+}
+
+/**
+ * Removes the given mark from the node.
+ * @param node ordinal of the node
+ * @param value the mark
+ */
+public void clearMark (int node, int value) {
+	if (isMarked(node,value))
+		mark[node] -= value;
+}
+
+/**
+ * Removes all ways starting at the node.
+ * @param node the node
+ */
+public void clearWays (Node node) {
+	wayEdge[0][node.index] = -1;
+	wayEdge[1][node.index] = -1;
+}
+
+/**
+ * Prints the node and its distance for debugging.
+ * @param node the node
+ * @param way index of the way
+ */
+public void debugPrint (Node node, int way) {
+	System.out.print(node.getName()+ " - "+ getDistanceOfWay(node,way));
+}
+
+/**
+ * Returns the distance of the node concerning the given way.
+ * @return distance
+ * @param node ordinal of the node
+ * @param way index of the way
+ */
+public double getDistanceOfWay (int node, int way) {
+	return distanceOfWay[way-1][node];
+}
+
+/**
+ * Returns the distance of the node concerning the given way.
+ * @return distance
+ * @param node the node
+ * @param way index of the way
+ */
+public double getDistanceOfWay (Node node, int way) {
+	return distanceOfWay[way-1][node.index];
+}
+
+/**
+ * Returns the graph the context is prepared for.
+ * @return the graph
+ */
+public CompactGraph getGraph () {
+	return graph;
+}
+
+/**
+ * Returns the edge used by the given way at the node.
+ * @return the edge or null
+ * @param node the node
+ * @param way index of the way
+ */
+public Edge getWayEdge (Node node, int way) {
+	int e = wayEdge[way-1][node.index];
+	if (e < 0)
+		return null;
+	else
+		return graph.edge[e];
+}
+
+/**
+ * Tests whether the node is marked by the given value.
+ * @return marked?
+ * @param node ordinal of the node
+ * @param value the mark
+ */
+public boolean isMarked (int node, int value) {
+	return (stamp[node] == generation) && ((mark[node] & value) > 0);
+}
+
+/**
+ * Tests whether the node is marked by the given value.
+ * @return marked?
+ * @param node the node
+ * @param value the mark
+ */
+public boolean isMarked (Node node, int value) {
+	return isMarked (node.index,value);
+}
+
+/**
+ * Marks the node by the given value.
+ * @param node ordinal of the node
+ * @param value the mark
+ */
+public void mark (int node, int value) {
+	if (stamp[node] == generation)
+		mark[node] |= value;
+	else {
+		stamp[node] = generation;
+		mark[node] = value;
+	}
+}
+
+/**
+ * Marks the node by the given value.
+ * @param node the node
+ * @param value the mark
+ */
+public void mark (Node node, int value) {
+	mark (node.index,value);
+}
+
+/**
+ * Prepares the context for a computation on the given graph by the given
+ * routing profile.
+ * @param newGraph the graph
+ * @param profile the routing profile
+ */
+public void prepare (CompactGraph newGraph, RoutingProfile profile) {
+	this.profile = profile;
+	prepare (newGraph);
+}
+
+/**
+ * Prepares the context for the given graph; the arrays are reallocated if
+ * the graph has changed.
+ * @param newGraph the graph
+ */
+public void prepare (CompactGraph newGraph) {
+	if (graph == newGraph)
+		return;
+	graph = newGraph;
+	int n = graph.numOfNodes();
+	stamp = new int[n];
+	mark = new int[n];
+	generation = 1;
+	for (int w=0; w<2; w++) {
+		distanceOfWay[w] = new double[n];
+		wayEdge[w] = new int[n];
+		Arrays.fill (wayEdge[w],-1);
+	}
+	border.prepare (n);
+}
+
+/**
+ * Sets the distance of the node concerning the given way.
+ * @param node ordinal of the node
+ * @param way index of the way
+ * @param distance the distance
+ */
+public void setDistanceOfWay (int node, int way, double distance) {
+	distanceOfWay[way-1][node] = distance;
+}
+
+/**
+ * Sets the distance of the node concerning the given way.
+ * @param node the node
+ * @param way index of the way
+ * @param distance the distance
+ */
+public void setDistanceOfWay (Node node, int way, double distance) {
+	distanceOfWay[way-1][node.index] = distance;
+}
+
+/**
+ * Stores the edge as continuation of the given way at the node.
+ * The way edges of unmarked ways are reset.
+ * @param node ordinal of the node
+ * @param way index of the way
+ * @param edge ordinal of the edge
+ */
+public void setWay (int node, int way, int edge) {
+	if (!isMarked(node,1))
+		wayEdge[0][node] = -1;
+	if (!isMarked(node,2))
+		wayEdge[1][node] = -1;
+	wayEdge[way-1][node] = edge;
+}
+
+/**
+ * Stores the edge as continuation of the given way at the node.
+ * @param node the node
+ * @param way index of the way
+ * @param edge the edge
+ */
+public void setWay (Node node, int way, Edge edge) {
+	setWay (node.index,way,edge.index);
+}
+
+}
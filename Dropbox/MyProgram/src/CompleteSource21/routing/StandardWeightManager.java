@@ -3,6 +3,8 @@ package routing;
 /**
  * Standard class for weighting the edges.
  * 
+ * @version	2.20	17.10.2026	getWeight for an adjacency slot
+ * @version	2.10	17.10.2026	getWeight for a RoutingProfile
  * @version	2.00	17.08.2003	long become double, adapted to Edge
  * @version	1.01	09.03.2000	constructor corrected
  * @version	1.00	04.01.2000	first version
@@ -69,4 +71,31 @@ public class StandardWeightManager implements WeightManager {
 		else
 			return edge.getLength();
 	}
+
+	/**
+	 * Computation of the weight of an edge in a given direction for a profile.
+	 * The weight does not depend on the profile.
+	 * @return  the weight
+	 * @param  distance  the edge
+	 * @param  forwards  true: in direction of the edge; false: in the other direction
+	 * @param  profile  the routing profile
+	 */
+	public double getWeight(Edge edge, boolean forwards, RoutingProfile profile) {
+		return getWeight(edge,forwards);
+	}
+
+	/**
+	 * Computation of the weight of the edge of an adjacency slot.
+	 * The weight does not depend on the direction and the profile.
+	 * @return  the weight
+	 * @param  graph  the graph
+	 * @param  slot  the adjacency slot
+	 * @param  profile  the routing profile
+	 */
+	public double getWeight(CompactGraph graph, int slot, RoutingProfile profile) {
+		if (edges != null)
+			return graph.getLength(slot)/edges.getSpeed(graph.getEdgeClass(slot));
+		else
+			return graph.getLength(slot);
+	}
 }
@@ -3,6 +3,8 @@ package routing;
 /**
  * Interface for classes that weight the edges.
  * 
+ * @version	2.20	17.10.2026	weights of the adjacency slots of a CompactGraph
+ * @version	2.10	17.10.2026	weights for a RoutingProfile
  * @version	2.00	16.08.2003	long become double
  * @version	1.00	04.01.2000	first version
  * @author Thomas Brinkhoff
@@ -26,17 +28,39 @@ public interface WeightManager {
 	double computeWeight (double distance, double speed);
 	
 	/**
-	 * Computation of the weight of an edge.
+	 * Computation of the weight of an edge for the default profile.
 	 * @return  the weight
 	 * @param  distance  the edge
 	 */
 	double getWeight (Edge edge);
 	
 	/**
-	 * Computation of the weight of an edge in a given direction.
+	 * Computation of the weight of an edge in a given direction for the default profile.
 	 * @return  the weight
 	 * @param  distance  the edge
 	 * @param  forwards  true: in direction of the edge; false: in the other direction
 	 */
 	double getWeight (Edge edge, boolean forwards);
+	
+	/**
+	 * Computation of the weight of an edge in a given direction for a profile.
+	 * May be called by several threads at the same time.
+	 * @return  the weight
+	 * @param  distance  the edge
+	 * @param  forwards  true: in direction of the edge; false: in the other direction
+	 * @param  profile  the routing profile
+	 */
+	double getWeight (Edge edge, boolean forwards, RoutingProfile profile);
+	
+	/**
+	 * Computation of the weight of the edge of an adjacency slot in the direction
+	 * of the slot for a profile. Must return the same weight as
+	 * getWeight(Edge,boolean,RoutingProfile), but takes the length and the class
+	 * of the edge from the graph. May be called by several threads at the same time.
+	 * @return  the weight
+	 * @param  graph  the graph
+	 * @param  slot  the adjacency slot
+	 * @param  profile  the routing profile
+	 */
+	double getWeight (CompactGraph graph, int slot, RoutingProfile profile);
 }
@@ -0,0 +1,144 @@
+package util;
+
+/**
+ * Map from long keys to non-negative int values using open addressing with
+ * linear probing. Keys and values are stored in primitive arrays, so neither
+ * lookups nor insertions allocate objects. The class is not synchronized;
+ * concurrent lookups are safe as long as the map is not modified.
+ *
+ * @version 1.00	17.10.2026	first version
+ */
+public class LongIntMap {
+
+	/**
+	 * Value returned for a missing key.
+	 */
+	public static final int NONE = -1;
+
+	/**
+	 * Keys of the slots.
+	 */
+	private long[] keys;
+	/**
+	 * Values of the slots (NONE for an empty slot).
+	 */
+	private int[] values;
+	/**
+	 * Number of stored keys.
+	 */
+	private int size = 0;
+
+/**
+ * Constructor.
+ * @param expectedSize expected number of keys
+ */
+public LongIntMap (int expectedSize) {
+	int capacity = 16;
+	while (capacity*3 < expectedSize*4)
+		capacity <<= 1;
+	allocate (capacity);
+}
+/**
+ * Allocates empty slots.
+ * @param capacity number of slots (power of 2)
+ */
+private void allocate (int capacity) {
+	keys = new long[capacity];
+	values = new int[capacity];
+	java.util.Arrays.fill (values,NONE);
+}
+/**
+ * Returns the value of a key.
+ * @return the value or NONE
+ * @param key the key
+ */
+public int get (long key) {
+	int mask = keys.length-1;
+	for (int i = slot(key,mask); values[i] != NONE; i = (i+1) & mask)
+		if (keys[i] == key)
+			return values[i];
+	return NONE;
+}
+/**
+ * Stores a value for a key.
+ * @return the previous value or NONE
+ * @param key the key
+ * @param value the value (>= 0)
+ */
+public int put (long key, int value) {
+	int mask = keys.length-1;
+	int i = slot(key,mask);
+	for (; values[i] != NONE; i = (i+1) & mask)
+		if (keys[i] == key) {
+			int old = values[i];
+			values[i] = value;
+			return old;
+		}
+	keys[i] = key;
+	values[i] = value;
+	if (++size*4 > keys.length*3)
+		rehash (keys.length*2);
+	return NONE;
+}
+/**
+ * Rehashes the map into a new number of slots.
+ * @param capacity new number of slots (power of 2)
+ */
+private void rehash (int capacity) {
+	long[] oldKeys = keys;
+	int[] oldValues = values;
+	allocate (capacity);
+	int mask = capacity-1;
+	for (int j=0; j<oldKeys.length; j++)
+		if (oldValues[j] != NONE) {
+			int i = slot(oldKeys[j],mask);
+			while (values[i] != NONE)
+				i = (i+1) & mask;
+			keys[i] = oldKeys[j];
+			values[i] = oldValues[j];
+		}
+}
+/**
+ * Removes a key. The following slots of the probe sequence are shifted
+ * back, so that no deletion marks are necessary.
+ * @return the previous value or NONE
+ * @param key the key
+ */
+public int remove (long key) {
+	int mask = keys.length-1;
+	int i = slot(key,mask);
+	for (; values[i] != NONE; i = (i+1) & mask)
+		if (keys[i] == key)
+			break;
+	int old = values[i];
+	if (old == NONE)
+		return NONE;
+	// shift back the entries which are not at their home slot
+	int gap = i;
+	for (int j = (gap+1) & mask; values[j] != NONE; j = (j+1) & mask) {
+		int home = slot(keys[j],mask);
+		if (((j-home) & mask) >= ((j-gap) & mask)) {
+			keys[gap] = keys[j];
+			values[gap] = values[j];
+			gap = j;
+		}
+	}
+	values[gap] = NONE;
+	size--;
+	return old;
+}
+/**
+ * Returns the number of keys.
+ * @return number of keys
+ */
+public int size () {
+	return size;
+}
+/**
+ * Computes the home slot of a key.
+ */
+private static int slot (long key, int mask) {
+	long h = key * 0x9E3779B97F4A7C15L;
+	return (int)(h ^ (h >>> 32)) & mask;
+}
+}
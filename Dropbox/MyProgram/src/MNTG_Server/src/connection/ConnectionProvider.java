@@ -10,7 +10,11 @@ public abstract class ConnectionProvider {
 
 	public static String HOST_NAME = "siwa-umh.cs.umn.edu";
 
-	private static Connection connection;
+	/**
+	 * One connection per thread, so that the workers of the queue do not share
+	 * statements and batches.
+	 */
+	private static final ThreadLocal<Connection> connection = new ThreadLocal<Connection>();
 
 	/**
 	 * Return a database connection.
@@ -20,15 +24,38 @@ public abstract class ConnectionProvider {
 	public abstract Connection createConnection();
 
 	public static void resetConnection() {
-		connection = null;
+		connection.remove();
 	}
 
+	/**
+	 * Close the database connection of the current thread, e.g. before the
+	 * thread terminates.
+	 */
+	public static void closeConnection() {
+		Connection conn = connection.get();
+		connection.remove();
+		if (conn != null) {
+			try {
+				conn.close();
+			} catch (SQLException e) {
+				// can't do anything about this...just ignore it.
+			}
+		}
+	}
+
+	/**
+	 * Return the database connection of the current thread.
+	 * 
+	 * @return
+	 */
 	public static Connection getConnection() {
-		if (connection == null) {
+		Connection conn = connection.get();
+		if (conn == null) {
 			ConnectionProvider cp = new MysqlConnectionProvider();
-			connection = cp.createConnection();
+			conn = cp.createConnection();
+			connection.set(conn);
 		}
-		return connection;
+		return conn;
 	}
 
 	public static void safeClose(Statement statement) {
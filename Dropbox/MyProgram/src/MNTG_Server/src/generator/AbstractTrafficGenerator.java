@@ -16,7 +16,7 @@ public abstract class AbstractTrafficGenerator implements TrafficGenerator {
 
     int requestid;
     
-    public List<File> getCounties(TrafficRequest trafficRequest) {
+    public static List<File> getCounties(TrafficRequest trafficRequest) {
         List<File> counties = new ArrayList<File>();
         Connection conn = ConnectionProvider.getConnection();
         PreparedStatement pstatement = null;
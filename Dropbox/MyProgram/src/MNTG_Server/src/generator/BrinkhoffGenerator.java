@@ -3,6 +3,7 @@ package generator;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Properties;
 import java.util.Scanner;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -13,12 +14,32 @@ import util.ProcessLauncher;
 
 public class BrinkhoffGenerator extends AbstractTrafficGenerator {
 
-    public static File GENERATED_FILE_NAME;     //outputfiles
-    public static File GENERATED_SHAPE_FILES;
-    public static File RESULT_FILES;
-    public static String GENERATED_FOLDER;
+    // per request, several requests may run at the same time
+    private File GENERATED_FILE_NAME;     //outputfiles
+    private File GENERATED_SHAPE_FILES;
+    private File RESULT_FILES;
+    private File RECORD_FILE;     //result records written by the generator
+    private String GENERATED_FOLDER;
     public static final File TRAFFIC_GENERATOR_JAR = new File(
             "/home/yackel/TrafficGenerator/CompleteSource21/newGenerator.jar");
+    public static final File ROAD_CONVERTER_JAR = new File(
+            "/home/yackel/TrafficGenerator/Test_Jie/RoadConverter.jar");
+    /**
+     * Names of the generator parameters in the order of the command line
+     * (see generator2.DataGenerator.PARAMETERS).
+     */
+    private static final String[] PARAMETERS = { "objBegin", "extObjBegin", "objPerTime", "extObjPerTime",
+            "numObjClasses", "numExtObjClasses", "maxTime", "reportProb", "msd" };
+    private static final int PAGE_SIZE = 10000;
+    private InProcessLauncher.Run run;
+    /**
+     * Reader of the result records, while the pages are returned.
+     */
+    private TrafficRecordReader recordReader;
+    /**
+     * Must the network be put into the cache after the generation?
+     */
+    private boolean storeNetwork = false;
     public static final String SHAPE_NETWORK_FILE_MANAGER_CLASSPATH = "/home/yackel/TrafficGenerator/ShapeNetworkFileManager/generator21.jar"
             + File.pathSeparator
             + "/home/yackel/TrafficGenerator/ShapeNetworkFileManager/geotool2.jar"
@@ -48,6 +69,10 @@ public class BrinkhoffGenerator extends AbstractTrafficGenerator {
                     outFilePrint.println(line);
                 }
             }
+            if (isRecordOutput()) {
+                // overrides the text output of common.txt
+                outFilePrint.println("outputFile = " + RECORD_FILE.getAbsolutePath());
+            }
 
             in.close();
             outFilePrint.close();
@@ -65,6 +90,7 @@ public class BrinkhoffGenerator extends AbstractTrafficGenerator {
         GENERATED_SHAPE_FILES = new File("/home/yackel/TrafficGenerator/" + this.requestid + "/");
         GENERATED_FILE_NAME = new File("/home/yackel/TrafficGenerator/" + this.requestid + "/output.txt");
         RESULT_FILES = new File("/home/yackel/TrafficGenerator/" + this.requestid + "/result.txt");
+        RECORD_FILE = new File("/home/yackel/TrafficGenerator/" + this.requestid + "/output.mtr");
         try {
             File parameterfile= new File(GENERATED_FOLDER + "parameter"+this.requestid+".txt");
             FileWriter parameterOut = new FileWriter(parameterfile);
@@ -77,8 +103,116 @@ public class BrinkhoffGenerator extends AbstractTrafficGenerator {
         CreateNewPropertyFile();
     }
 
+    /**
+     * Returns whether the generator writes result records (output.mtr),
+     * which are read without parsing, instead of output.txt; can be switched
+     * off by the system property "mntg.textOutput".
+     */
+    public static boolean isRecordOutput() {
+        return !Boolean.getBoolean("mntg.textOutput");
+    }
+
+    /**
+     * Returns the next page of the result records. Every page is a new list,
+     * because the pages are still used after the next call.
+     */
+    private List<TrafficResult> nextRecordPage(TrafficRequest trafficRequest) {
+        List<TrafficResult> trafficResults = new ArrayList<TrafficResult>(PAGE_SIZE);
+        try {
+            if (recordReader.read(trafficResults, PAGE_SIZE) < PAGE_SIZE) {
+                recordReader.close();
+                recordReader = null;
+                hasTraffic = false;
+                copyNetworkFiles();
+                storeNetwork(trafficRequest);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read traffic file.");
+        }
+        return trafficResults;
+    }
+
+    /**
+     * Converts the roads and runs the data generator in-process; the
+     * positions are returned page by page instead of being read from
+     * output.txt.
+     */
+    private List<TrafficResult> getTrafficInProcess(TrafficRequest trafficRequest) {
+        if (run == null) {
+            convertRoads(trafficRequest);
+            Properties properties = new Properties();
+            try {
+                FileInputStream in = new FileInputStream(GENERATED_FOLDER + "properties.txt");
+                try {
+                    properties.load(in);
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read the generator properties.", e);
+            }
+            int[] values = { trafficRequest.getObjBegin(), trafficRequest.getExtObjBegin(),
+                    trafficRequest.getObjPerTime(), trafficRequest.getExtObjPerTime(),
+                    trafficRequest.getNumObjClasses(), trafficRequest.getNumExtObjClasses(),
+                    trafficRequest.getMaxTime(), trafficRequest.getReportProb(), trafficRequest.getMsd() };
+            for (int i = 0; i < PARAMETERS.length; i++) {
+                properties.setProperty(PARAMETERS[i], String.valueOf(values[i]));
+            }
+            run = InProcessLauncher.startDataGenerator(TRAFFIC_GENERATOR_JAR, properties,
+                    new File(GENERATED_SHAPE_FILES, "output").getAbsolutePath(), trafficRequest);
+        }
+        List<TrafficResult> trafficResults = run.nextPage();
+        if (trafficResults == null) {
+            hasTraffic = false;
+            copyNetworkFiles();
+            storeNetwork(trafficRequest);
+            return new ArrayList<TrafficResult>();
+        }
+        return trafficResults;
+    }
+
+    /**
+     * Converts the extracted roads into the network files output.node and
+     * output.edge unless they have been taken from the network cache. The
+     * network is put into the cache after the generation, so that the image
+     * output.mnet written by the generator is cached, too.
+     */
+    private void convertRoads(TrafficRequest trafficRequest) {
+        if (new File(GENERATED_SHAPE_FILES, "output.node").exists()
+                && new File(GENERATED_SHAPE_FILES, "output.edge").exists()) {
+            storeNetwork = !new File(GENERATED_SHAPE_FILES, "output.mnet").exists();
+            return;
+        }
+        if (InProcessLauncher.isEnabled()) {
+            InProcessLauncher.convertRoads(ROAD_CONVERTER_JAR, GENERATED_FOLDER);
+        } else {
+            ProcessLauncher.exec("java -jar " + ROAD_CONVERTER_JAR + " " + GENERATED_FOLDER, false);
+            System.out.println("java -jar " + ROAD_CONVERTER_JAR + " " + GENERATED_FOLDER);
+        }
+        storeNetwork = true;
+    }
+
+    private void storeNetwork(TrafficRequest trafficRequest) {
+        if (storeNetwork && NetworkCache.isEnabled()) {
+            NetworkCache.store(NetworkCache.getKey(trafficRequest), GENERATED_SHAPE_FILES);
+        }
+        storeNetwork = false;
+    }
+
+    private void copyNetworkFiles() {
+        ProcessLauncher.exec("cp /home/yackel/TrafficGenerator/"+this.requestid+"/output.edge /home/yackel/public_html/app/webroot/downloads/"+this.requestid+".edge", false);
+        ProcessLauncher.exec("cp /home/yackel/TrafficGenerator/"+this.requestid+"/output.node /home/yackel/public_html/app/webroot/downloads/"+this.requestid+".node", false);
+        ProcessLauncher.exec("cp /home/yackel/TrafficGenerator/"+this.requestid+"/parameter"+this.requestid+".txt /home/yackel/public_html/app/webroot/downloads/parameter"+this.requestid+".txt", false);
+    }
+
     @Override
     public List<TrafficResult> getTraffic(TrafficRequest trafficRequest) {
+        if (InProcessLauncher.isEnabled()) {
+            return getTrafficInProcess(trafficRequest);
+        }
+        if (recordReader != null) {
+            return nextRecordPage(trafficRequest);
+        }
         System.out.println(GENERATED_FILE_NAME.toString());
         FileWriter outFile;
         PrintWriter outFilePrint = null;
@@ -98,8 +232,7 @@ public class BrinkhoffGenerator extends AbstractTrafficGenerator {
         }
 
         //ProcessLauncher.exec("java -classpath " + SHAPE_NETWORK_FILE_MANAGER_CLASSPATH                + " conversion.ShapeNetworkFileManager "                + sb.toString(), false);
-        ProcessLauncher.exec("java -jar /home/yackel/TrafficGenerator/Test_Jie/RoadConverter.jar " +GENERATED_FOLDER, false);
-        System.out.println("java -jar /home/yackel/TrafficGenerator/Test_Jie/RoadConverter.jar " +GENERATED_FOLDER);
+        convertRoads(trafficRequest);
         
         //ProcessLauncher.exec("cp /home/yackel/TrafficGenerator/output.* /home.yackel/TrafficGenerator/"+this.requestid+"/", false);
         //System.out.println("cp /home/yackel/TrafficGenerator/output.* /home/yackel/TrafficGenerator/"+this.requestid+"/");
@@ -133,10 +266,25 @@ public class BrinkhoffGenerator extends AbstractTrafficGenerator {
      //   System.out.println("java -classpath " + TRAFFIC_GENERATOR_JAR + " generator2.DefaultDataGenerator " + this.requestid + " " + sb.toString());
         
         
-        if (GENERATED_FILE_NAME.exists()) {
+        File textFile = GENERATED_FILE_NAME;
+        if (isRecordOutput() && RECORD_FILE.exists()) {
+            if (TrafficRecordReader.isRecordFile(RECORD_FILE)) {
+                try {
+                    recordReader = new TrafficRecordReader(RECORD_FILE, trafficRequest);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Failed to read traffic file.");
+                }
+                return nextRecordPage(trafficRequest);
+            }
+            // written by a generator without record output
+            Logger.getLogger(BrinkhoffGenerator.class.getName()).log(Level.WARNING,
+                    "No result records in {0}, read as text", RECORD_FILE);
+            textFile = RECORD_FILE;
+        }
+        if (textFile.exists()) {
             try {
                 BufferedReader bfr = new BufferedReader(new FileReader(
-                        GENERATED_FILE_NAME));
+                        textFile));
                 String line = null;
                 
                 //outFilePrint.append("Object_Id"+" "+" Timestamp" +" "+"Type"+" "+ "Lat"+" "+ "Lng \n");
@@ -162,9 +310,8 @@ public class BrinkhoffGenerator extends AbstractTrafficGenerator {
                 //outFilePrint.close();
                 
                 //ProcessLauncher.exec("cp /home/yackel/TrafficGenerator/"+this.requestid+"/result.txt /home/yackel/public_html/app/webroot/downloads/"+this.requestid+".txt", false);
-                ProcessLauncher.exec("cp /home/yackel/TrafficGenerator/"+this.requestid+"/output.edge /home/yackel/public_html/app/webroot/downloads/"+this.requestid+".edge", false);
-                ProcessLauncher.exec("cp /home/yackel/TrafficGenerator/"+this.requestid+"/output.node /home/yackel/public_html/app/webroot/downloads/"+this.requestid+".node", false);
-                ProcessLauncher.exec("cp /home/yackel/TrafficGenerator/"+this.requestid+"/parameter"+this.requestid+".txt /home/yackel/public_html/app/webroot/downloads/parameter"+this.requestid+".txt", false);
+                copyNetworkFiles();
+                storeNetwork(trafficRequest);
             } catch (FileNotFoundException e) {
                 throw new IllegalStateException("Failed to generate traffic.");
             } catch (IOException e) {
@@ -191,6 +338,17 @@ public class BrinkhoffGenerator extends AbstractTrafficGenerator {
 
     @Override
     public void endTraffic() {
+        if (run != null) {
+            run.cancel();
+        }
+        if (recordReader != null) {
+            try {
+                recordReader.close();
+            } catch (IOException e) {
+                // can't do anything about this...just ignore it.
+            }
+            recordReader = null;
+        }
     }
 
     @Override
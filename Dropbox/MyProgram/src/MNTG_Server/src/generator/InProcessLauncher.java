@@ -0,0 +1,212 @@
+package generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import traffic.TrafficRequest;
+import traffic.TrafficResult;
+
+/**
+ * Runs the generator jars in the server process instead of launching a JVM
+ * per call (see ProcessLauncher). Every call gets its own class loader,
+ * because the generators keep the state of a run (object ids, random
+ * generators, timers) in static fields; so concurrent requests do not
+ * interfere. The class loader is closed when the call has finished, so the
+ * jar file is not kept open. Enabled by the system property "mntg.inProcess".
+ */
+public class InProcessLauncher {
+
+    private static final int PAGE_SIZE = 10000;
+    private static final int QUEUE_SIZE = 16;
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("mntg.inProcess");
+    }
+
+    private static URLClassLoader createClassLoader(File jar) {
+        try {
+            // no parent except the bootstrap loader: the jar only sees the platform classes
+            return new URLClassLoader(new URL[] { jar.toURI().toURL() }, null);
+        } catch (MalformedURLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void close(URLClassLoader loader) {
+        try {
+            loader.close();
+        } catch (IOException e) {
+            Logger.getLogger(InProcessLauncher.class.getName()).log(Level.WARNING, "Could not close the class loader.", e);
+        }
+    }
+
+    private static Object invokeStatic(ClassLoader loader, String className, String methodName,
+            Class<?>[] parameterTypes, Object... args) {
+        Thread thread = Thread.currentThread();
+        ClassLoader contextLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try {
+            Method method = loader.loadClass(className).getMethod(methodName, parameterTypes);
+            return method.invoke(null, args);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(className + "." + methodName + " failed.", e.getCause());
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not call " + className + "." + methodName + ".", e);
+        } finally {
+            thread.setContextClassLoader(contextLoader);
+        }
+    }
+
+    /**
+     * Converts node.txt and edge.txt of a folder into the network files
+     * output.node and output.edge by roadconverter.RoadNetworks.convert.
+     */
+    public static void convertRoads(File jar, String folder) {
+        URLClassLoader loader = createClassLoader(jar);
+        try {
+            invokeStatic(loader, "roadconverter.RoadNetworks", "convert",
+                    new Class<?>[] { String.class }, folder);
+        } finally {
+            close(loader);
+        }
+    }
+
+    /**
+     * Starts generator2.DefaultDataGenerator.generate by a background thread.
+     * The reported positions are returned page by page by the run.
+     */
+    public static Run startDataGenerator(File jar, Properties properties, String networkBaseName,
+            TrafficRequest trafficRequest) {
+        Run run = new Run(createClassLoader(jar), properties, networkBaseName, trafficRequest);
+        run.thread.start();
+        return run;
+    }
+
+    /**
+     * A data generator running in-process. Its positions are collected in
+     * pages, which are handed over by a bounded queue; if the pages are not
+     * consumed, the generator waits.
+     */
+    public static class Run implements Runnable, InvocationHandler {
+
+        private static final List<TrafficResult> END = new ArrayList<TrafficResult>();
+
+        private final URLClassLoader loader;
+        private final Properties properties;
+        private final String networkBaseName;
+        private final TrafficRequest trafficRequest;
+        private final Thread thread;
+        private final BlockingQueue<List<TrafficResult>> pages = new ArrayBlockingQueue<List<TrafficResult>>(QUEUE_SIZE);
+        private List<TrafficResult> page = new ArrayList<TrafficResult>(PAGE_SIZE);
+        private volatile Throwable failure = null;
+        private boolean finished = false;
+
+        private Run(URLClassLoader loader, Properties properties, String networkBaseName,
+                TrafficRequest trafficRequest) {
+            this.loader = loader;
+            this.properties = properties;
+            this.networkBaseName = networkBaseName;
+            this.trafficRequest = trafficRequest;
+            thread = new Thread(this, "generator-" + trafficRequest.getRequestId());
+            thread.setDaemon(true);
+        }
+
+        public void run() {
+            try {
+                Class<?> sinkClass = loader.loadClass("generator2.ResultSink");
+                Object sink = Proxy.newProxyInstance(loader, new Class<?>[] { sinkClass }, this);
+                Boolean ok = (Boolean) invokeStatic(loader, "generator2.DefaultDataGenerator", "generate",
+                        new Class<?>[] { Properties.class, String.class, sinkClass },
+                        properties, networkBaseName, sink);
+                if (!ok.booleanValue()) {
+                    throw new IllegalStateException("Could not read the network " + networkBaseName + ".");
+                }
+                if (!page.isEmpty()) {
+                    pages.put(page);
+                }
+                pages.put(END);
+            } catch (Throwable t) {
+                failure = t;
+                // the remaining pages are useless, but the consumer must not wait forever
+                pages.clear();
+                pages.offer(END);
+            } finally {
+                close(loader);
+            }
+        }
+
+        /**
+         * Receives the calls of generator2.ResultSink.
+         */
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("report")) {
+                TrafficResult trafficResult = new TrafficResult();
+                trafficResult.setType((String) args[0]);
+                trafficResult.setId(((Long) args[1]).intValue());
+                trafficResult.setTime(((Integer) args[4]).intValue());
+                trafficResult.setLatByPoint(trafficRequest, ((Double) args[5]).doubleValue());
+                trafficResult.setLngByPoint(trafficRequest, ((Double) args[6]).doubleValue());
+                page.add(trafficResult);
+                if (page.size() >= PAGE_SIZE) {
+                    pages.put(page);
+                    page = new ArrayList<TrafficResult>(PAGE_SIZE);
+                }
+                return null;
+            } else if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            } else if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            } else {
+                return "ResultSink of request #" + trafficRequest.getRequestId();
+            }
+        }
+
+        /**
+         * Returns the next page of positions.
+         *
+         * @return the page or null after the last page
+         */
+        public List<TrafficResult> nextPage() {
+            if (finished) {
+                return null;
+            }
+            List<TrafficResult> trafficResults;
+            try {
+                trafficResults = pages.take();
+            } catch (InterruptedException e) {
+                cancel();
+                throw new IllegalStateException("Interrupted while generating traffic.", e);
+            }
+            if (trafficResults == END) {
+                finished = true;
+                if (failure != null) {
+                    throw new IllegalStateException("Failed to generate traffic.", failure);
+                }
+                return null;
+            }
+            return trafficResults;
+        }
+
+        /**
+         * Stops the generator if its pages are not consumed any longer.
+         */
+        public void cancel() {
+            finished = true;
+            thread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package generator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import traffic.TrafficRequest;
+
+/**
+ * Cache of the road networks prepared for a request: the extracted roads
+ * (node.txt, edge.txt), the converted network files (output.node,
+ * output.edge) and their image written by the generator (output.mnet). An
+ * entry is addressed by a hash of the bounding box of the request, from which
+ * the roads are extracted, and NETWORK_VERSION, so requests for the same area
+ * skip the extraction and conversion. The key is computed without a database
+ * query.
+ *
+ * The entries are directories below CACHE_DIR. The least recently used
+ * entries are deleted if the cache exceeds its quota, which is set by the
+ * system property "mntg.networkCacheMB" (default: 2048, 0 disables the
+ * cache). All changes of the cache are made under a lock, which also
+ * excludes other server processes.
+ */
+public class NetworkCache {
+
+    public static final String CACHE_DIR = "/home/yackel/TrafficGenerator/cache/";
+
+    /**
+     * Version of the extraction and conversion; must be increased if
+     * MNTGExtractor or RoadConverter produce different files or the road
+     * data is updated.
+     */
+    public static final int NETWORK_VERSION = 1;
+
+    public static final String[] FILES = { "node.txt", "edge.txt", "output.node", "output.edge", "output.mnet" };
+
+    private static final ReentrantLock lock = new ReentrantLock();
+
+    private static long getQuota() {
+        return Long.getLong("mntg.networkCacheMB", 2048) * 1024 * 1024;
+    }
+
+    public static boolean isEnabled() {
+        return getQuota() > 0;
+    }
+
+    /**
+     * Returns the key of the network of a request.
+     */
+    public static String getKey(TrafficRequest trafficRequest) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(NETWORK_VERSION).append('|');
+        sb.append(trafficRequest.getUpperlat()).append(' ').append(trafficRequest.getUpperlong()).append(' ');
+        sb.append(trafficRequest.getLowerlat()).append(' ').append(trafficRequest.getLowerlong());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(sb.toString().getBytes("UTF-8"));
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest) {
+                key.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Copies the files of a cached network into a folder.
+     *
+     * @return false if the network is not cached
+     */
+    public static boolean restore(String key, File folder) {
+        if (!isEnabled()) {
+            return false;
+        }
+        FileLock fileLock = acquire();
+        try {
+            File entry = new File(CACHE_DIR, key);
+            if (!entry.isDirectory()) {
+                return false;
+            }
+            for (String name : FILES) {
+                File file = new File(entry, name);
+                if (file.exists()) {
+                    copy(file, new File(folder, name));
+                }
+            }
+            entry.setLastModified(System.currentTimeMillis());
+            System.out.println("Network " + key + " taken from the cache.");
+            return true;
+        } catch (IOException e) {
+            System.err.println("NetworkCache.restore: " + e);
+            return false;
+        } finally {
+            release(fileLock);
+        }
+    }
+
+    /**
+     * Puts the network files of a folder into the cache, replacing an
+     * existing entry, and evicts the least recently used entries.
+     */
+    public static void store(String key, File folder) {
+        if (!isEnabled()) {
+            return;
+        }
+        File entry = new File(CACHE_DIR, key);
+        File tmp = new File(CACHE_DIR, key + ".tmp-" + Thread.currentThread().getId() + "-" + System.nanoTime());
+        try {
+            // the files are copied without holding the lock
+            deleteRecursively(tmp);
+            tmp.mkdirs();
+            for (String name : FILES) {
+                File file = new File(folder, name);
+                if (file.exists()) {
+                    copy(file, new File(tmp, name));
+                }
+            }
+            FileLock fileLock = acquire();
+            try {
+                deleteRecursively(entry);
+                if (!tmp.renameTo(entry)) {
+                    throw new IOException("Could not rename " + tmp + ".");
+                }
+                evict(entry);
+            } finally {
+                release(fileLock);
+            }
+        } catch (IOException e) {
+            System.err.println("NetworkCache.store: " + e);
+            deleteRecursively(tmp);
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache fits into its
+     * quota. Must be called under the lock.
+     */
+    private static void evict(File keep) {
+        File[] entries = new File(CACHE_DIR).listFiles();
+        if (entries == null) {
+            return;
+        }
+        final long[] lastUsed = new long[entries.length];
+        long total = 0;
+        List<Integer> candidates = new ArrayList<Integer>();
+        final long[] size = new long[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            if (!entries[i].isDirectory() || entries[i].getName().contains(".tmp-")) {
+                continue;
+            }
+            size[i] = sizeOf(entries[i]);
+            lastUsed[i] = entries[i].lastModified();
+            total += size[i];
+            if (!entries[i].equals(keep)) {
+                candidates.add(i);
+            }
+        }
+        Collections.sort(candidates, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return (lastUsed[a] < lastUsed[b]) ? -1 : ((lastUsed[a] == lastUsed[b]) ? 0 : 1);
+            }
+        });
+        long quota = getQuota();
+        for (int i = 0; i < candidates.size() && total > quota; i++) {
+            int c = candidates.get(i);
+            deleteRecursively(entries[c]);
+            total -= size[c];
+        }
+    }
+
+    /**
+     * Acquires the lock of the cache for this and other processes.
+     */
+    private static FileLock acquire() {
+        lock.lock();
+        RandomAccessFile file = null;
+        try {
+            new File(CACHE_DIR).mkdirs();
+            file = new RandomAccessFile(new File(CACHE_DIR, ".lock"), "rw");
+            return file.getChannel().lock();
+        } catch (IOException e) {
+            // work without the lock of other processes
+            System.err.println("NetworkCache.acquire: " + e);
+            close(file);
+            return null;
+        } catch (RuntimeException e) {
+            close(file);
+            lock.unlock();
+            throw e;
+        }
+    }
+
+    private static void close(RandomAccessFile file) {
+        try {
+            if (file != null) {
+                file.close();
+            }
+        } catch (IOException e) {
+            // can't do anything about this...just ignore it.
+        }
+    }
+
+    private static void release(FileLock fileLock) {
+        try {
+            if (fileLock != null) {
+                fileLock.release();
+                fileLock.channel().close();
+            }
+        } catch (IOException e) {
+            // can't do anything about this...just ignore it.
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copies a file and its modification time, which is checked by the
+     * generator before using output.mnet.
+     */
+    private static void copy(File from, File to) throws IOException {
+        FileChannel in = new FileInputStream(from).getChannel();
+        try {
+            FileChannel out = new FileOutputStream(to).getChannel();
+            try {
+                long position = 0;
+                long size = in.size();
+                while (position < size) {
+                    position += in.transferTo(position, size - position, out);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+        to.setLastModified(from.lastModified());
+    }
+
+    private static long sizeOf(File dir) {
+        long size = 0;
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                size += file.length();
+            }
+        }
+        return size;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,135 @@
+package generator;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import traffic.TrafficRequest;
+import traffic.TrafficResult;
+
+/**
+ * Reads the result records written by generator2.PositionReporter into a
+ * file ending with ".mtr". The file starts with a header of the size of a
+ * record: int MAGIC, int VERSION, zeros. A record has 32 bytes (big-endian order): long id,
+ * int time, int action (0 = new, 1 = moving, 2 = disappearing object), int x,
+ * int y, int object class, int report number. The records are not parsed,
+ * and no objects are created per record except the TrafficResults of a page.
+ */
+public class TrafficRecordReader {
+
+    public static final int RECORD_SIZE = 32;
+    /**
+     * Magic number of the header (see generator2.PositionReporter.RESULT_MAGIC).
+     */
+    public static final int MAGIC = 0x4d545200;
+    /**
+     * Supported version of the records.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Types of the results by action code (see generator2.Reporter).
+     */
+    private static final String[] TYPES = { "newpoint", "point", "disappearpoint" };
+
+    private final TrafficRequest trafficRequest;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE << 12);
+
+    public TrafficRecordReader(File file, TrafficRequest trafficRequest) throws IOException {
+        this.trafficRequest = trafficRequest;
+        channel = new FileInputStream(file).getChannel();
+        buffer.limit(RECORD_SIZE);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        if (buffer.remaining() < RECORD_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            channel.close();
+            throw new IOException("No result records: " + file);
+        }
+        buffer.clear();
+        buffer.limit(0);
+    }
+
+    /**
+     * Returns whether a file starts with the header of the result records.
+     * A generator without record output writes text into the file instead.
+     */
+    public static boolean isRecordFile(File file) {
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new FileInputStream(file));
+            return in.readInt() == MAGIC && in.readInt() == VERSION;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills a result with the next record.
+     *
+     * @return false if there are no more records
+     */
+    public boolean next(TrafficResult trafficResult) throws IOException {
+        if (buffer.remaining() < RECORD_SIZE) {
+            buffer.compact();
+            while (buffer.position() < RECORD_SIZE) {
+                if (channel.read(buffer) < 0) {
+                    buffer.flip();
+                    return false;
+                }
+            }
+            buffer.flip();
+        }
+        long id = buffer.getLong();
+        int time = buffer.getInt();
+        int action = buffer.getInt();
+        int x = buffer.getInt();
+        int y = buffer.getInt();
+        // object class and report number are not used
+        buffer.position(buffer.position() + 8);
+        trafficResult.setType((action >= 0 && action < TYPES.length) ? TYPES[action] : "");
+        trafficResult.setId((int) id);
+        trafficResult.setTime(time);
+        trafficResult.setLatByPoint(trafficRequest, x);
+        trafficResult.setLngByPoint(trafficRequest, y);
+        return true;
+    }
+
+    /**
+     * Adds the next records to a page. The results are not reused, because a
+     * page is still held by the ResultStore after it has been returned.
+     *
+     * @return the number of records, 0 after the last record
+     */
+    public int read(List<TrafficResult> page, int pageSize) throws IOException {
+        int num = 0;
+        while (num < pageSize) {
+            TrafficResult trafficResult = new TrafficResult();
+            if (!next(trafficResult)) {
+                break;
+            }
+            page.add(trafficResult);
+            num++;
+        }
+        return num;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+}
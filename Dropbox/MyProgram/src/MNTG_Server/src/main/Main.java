@@ -29,6 +29,7 @@ public class Main {
         ERROR_PATH.delete();
         ERROR_WRITER = new PrintStream(ERROR_PATH);
         QueueReader queue = new QueueReader();
+        queue.releaseStaleClaims();
 
         try {
             while (true) 
@@ -39,11 +40,15 @@ public class Main {
                     if (queue.isRequestPending()) {
                         System.out.println("Start to processing tasks in the queue.");
                         queue.proccessQueue();
-                        System.out.println("One run is done.");
+                        System.out.println("Pending tasks dispatched.");
                     }
+                    queue.renewClaims();
+                    queue.reportProgress();
                 } catch (Throwable t) {
-                    t.printStackTrace(ERROR_WRITER);
-                    ERROR_WRITER.flush();
+                    synchronized (ERROR_WRITER) {
+                        t.printStackTrace(ERROR_WRITER);
+                        ERROR_WRITER.flush();
+                    }
                 }
                 safeSleep(5);
 
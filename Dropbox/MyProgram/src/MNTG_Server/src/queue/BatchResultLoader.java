@@ -0,0 +1,38 @@
+package queue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import traffic.TrafficResult;
+import connection.ConnectionProvider;
+
+/**
+ * Inserts the results by a prepared statement with one batch per page.
+ */
+public class BatchResultLoader implements ResultLoader {
+
+    public void load(Connection conn, ResultStore store) throws SQLException, InterruptedException {
+        PreparedStatement pStatement = null;
+        try {
+            pStatement = conn.prepareStatement("insert into traffic_results (traffic_request_id, type, object_id, timestamp, lat, lng) values (?,?,?,?,?,?)");
+            List<TrafficResult> trafficResults;
+            while ((trafficResults = store.nextPage()) != null) {
+                for (TrafficResult trafficResult : trafficResults) {
+                    pStatement.setInt(1, store.getRequestId());
+                    pStatement.setString(2, trafficResult.getType());
+                    pStatement.setInt(3, trafficResult.getId());
+                    pStatement.setInt(4, trafficResult.getTime());
+                    pStatement.setDouble(5, trafficResult.getLat());
+                    pStatement.setDouble(6, trafficResult.getLng());
+                    pStatement.addBatch();
+                }
+                pStatement.executeBatch();
+                pStatement.clearBatch();
+            }
+        } finally {
+            ConnectionProvider.safeClose(pStatement);
+        }
+    }
+}
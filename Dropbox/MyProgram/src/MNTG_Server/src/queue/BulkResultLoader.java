@@ -0,0 +1,115 @@
+package queue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import traffic.TrafficResult;
+import connection.ConnectionProvider;
+
+/**
+ * Loads the results by a single LOAD DATA LOCAL INFILE statement. The pages
+ * taken from the store are first written as tab-separated rows into a
+ * temporary file, which is loaded after the last page. The statement is not
+ * issued while the generator is running, because the server aborts a load
+ * whose data stalls longer than net_read_timeout. Connections which are not
+ * MySQL connections (e.g. an embedded database) fall back to batched inserts.
+ */
+public class BulkResultLoader implements ResultLoader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public void load(Connection conn, ResultStore store) throws SQLException, InterruptedException {
+        Statement statement = null;
+        File file = null;
+        try {
+            statement = conn.createStatement();
+            if (!statement.isWrapperFor(com.mysql.jdbc.Statement.class)) {
+                new BatchResultLoader().load(conn, store);
+                return;
+            }
+            file = File.createTempFile("traffic_results_" + store.getRequestId() + "_", ".tsv");
+            if (spool(store, file) == 0) {
+                return;
+            }
+            InputStream in = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+            try {
+                statement.unwrap(com.mysql.jdbc.Statement.class).setLocalInfileInputStream(in);
+                statement.execute("load data local infile 'traffic_results.tsv' into table traffic_results"
+                        + " character set utf8 fields terminated by '\\t' escaped by '\\\\' lines terminated by '\\n'"
+                        + " (traffic_request_id, type, object_id, timestamp, lat, lng)");
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new SQLException("Spooling of traffic results failed.", e);
+        } finally {
+            ConnectionProvider.safeClose(statement);
+            if (file != null && !file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Writes the rows of all pages taken from a store into a file.
+     *
+     * @return the number of rows
+     */
+    private static long spool(ResultStore store, File file) throws IOException, InterruptedException {
+        long rows = 0;
+        StringBuilder row = new StringBuilder();
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+        try {
+            List<TrafficResult> trafficResults;
+            while ((trafficResults = store.nextPage()) != null) {
+                row.setLength(0);
+                for (TrafficResult trafficResult : trafficResults) {
+                    row.append(store.getRequestId()).append('\t');
+                    appendEscaped(row, trafficResult.getType());
+                    row.append('\t').append(trafficResult.getId())
+                            .append('\t').append(trafficResult.getTime())
+                            .append('\t').append(trafficResult.getLat())
+                            .append('\t').append(trafficResult.getLng()).append('\n');
+                }
+                out.write(row.toString().getBytes("UTF-8"));
+                rows += trafficResults.size();
+            }
+        } finally {
+            out.close();
+        }
+        return rows;
+    }
+
+    private static void appendEscaped(StringBuilder row, String value) {
+        if (value == null) {
+            row.append("\\N");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    row.append("\\\\");
+                    break;
+                case '\t':
+                    row.append("\\t");
+                    break;
+                case '\n':
+                    row.append("\\n");
+                    break;
+                default:
+                    row.append(c);
+            }
+        }
+    }
+}
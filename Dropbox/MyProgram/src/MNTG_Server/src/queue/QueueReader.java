@@ -1,9 +1,11 @@
 package queue;
 
+import generator.NetworkCache;
 import generator.TrafficGenerator;
 import generator.TrafficGeneratorFactory;
 
 import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -20,16 +22,28 @@ import traffic.TrafficResult;
 import util.Emailer;
 import connection.ConnectionProvider;
 import java.io.*;
-import java.util.HashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import util.ProcessLauncher;
-
+import util.ResultWriter;
+
+/**
+ * Reads the pending traffic requests and dispatches them to the workers.
+ *
+ * Several servers may share the table traffic_requests. A server claims a
+ * request by setting ready to 2 and stores its id in claimed_by and the time
+ * in claimed_at (columns claimed_by varchar(255) and claimed_at datetime,
+ * both nullable); claimed_at is renewed while the server runs. The id is set
+ * by the system property "mntg.serverId" (default: pid@host), the time after
+ * which a claim not renewed is stale by "mntg.claimTimeout" (in seconds,
+ * default: 600).
+ */
 public class QueueReader {
 
-    private final ExecutorService pool = Executors.newFixedThreadPool(5);
+    private static final String SERVER_ID = System.getProperty("mntg.serverId",
+            ManagementFactory.getRuntimeMXBean().getName());
+
+    private final ThreadPool pool = new ThreadPool();
     private List<TrafficRequest> trafficRequestQueueCache = new ArrayList<TrafficRequest>();
 
     public boolean isRequestPending() {
@@ -142,177 +156,235 @@ public class QueueReader {
     }
 
     public static void proccessTrafficRequest(TrafficRequest trafficRequest) {
+        proccessTrafficRequest(trafficRequest, null);
+    }
+
+    /**
+     * Generates the traffic of a request. The result pages are written to the
+     * download file as they arrive and, unless disabled, inserted into the
+     * database by a background thread. The progress is reported to the worker
+     * (may be null).
+     */
+    public static void proccessTrafficRequest(TrafficRequest trafficRequest, TrafficRequestThread worker) {
 
         System.out.println("Processing traffic request #" + trafficRequest.getRequestId() + " from " + trafficRequest.getEmail());
 
-        Connection conn = ConnectionProvider.getConnection();
-        PreparedStatement pStatement = null;
+        int result = 1;
+        ResultWriter resultWriter = null;
+        ResultStore resultStore = null;
+        TrafficGenerator generator = null;
         try {
-            pStatement = conn.prepareStatement("insert into traffic_results (traffic_request_id, type, object_id, timestamp, lat, lng) values (?,?,?,?,?,?)");
-
-            int result = 1;
-            File RESULT_FILES = new File("/home/yackel/public_html/app/webroot/downloads/" + trafficRequest.getRequestId() + ".txt");
-            FileWriter outFile;
-            PrintWriter outFilePrint = null;
-
-            outFile = new FileWriter(RESULT_FILES);
-            outFilePrint = new PrintWriter(outFile);
-            outFilePrint.println("Object_Id" + " " + " Timestamp" + " " + "Type" + " " + "Lat" + " " + "Lng \n");
-            try {
-                TrafficGenerator generator = TrafficGeneratorFactory.getGenerator(trafficRequest);
-                generator.startTraffic(trafficRequest);
-                while (generator.hasTraffic()) {
-                    List<TrafficResult> trafficResults = generator.getTraffic(trafficRequest);
-                    for (TrafficResult trafficResult : trafficResults) {
-
-                        pStatement.setInt(1, trafficRequest.getRequestId());
-                        pStatement.setString(2, trafficResult.getType());
-                        pStatement.setInt(3, trafficResult.getId());
-                        pStatement.setInt(4, trafficResult.getTime());
-                        pStatement.setDouble(5, trafficResult.getLat());
-                        pStatement.setDouble(6, trafficResult.getLng());
-
-                        pStatement.addBatch();
-                    }
-                    pStatement.executeBatch();
-                    pStatement.clearBatch();
+            resultWriter = new ResultWriter(trafficRequest.getRequestId());
+            if (ResultStore.isEnabled()) {
+                resultStore = new ResultStore(trafficRequest.getRequestId(), ResultLoader.Factory.getLoader(trafficRequest));
+            }
+            generator = TrafficGeneratorFactory.getGenerator(trafficRequest);
+            if (worker != null) {
+                worker.setState("generating");
+            }
+            generator.startTraffic(trafficRequest);
+            while (generator.hasTraffic()) {
+                List<TrafficResult> trafficResults = generator.getTraffic(trafficRequest);
+                if (worker != null) {
+                    worker.setState("storing");
+                    worker.addResults(trafficResults.size());
                 }
-                generator.endTraffic();
-                String query = "SELECT * from traffic_results where traffic_request_id =" + trafficRequest.getRequestId();
-                Statement st = conn.createStatement();
-                ResultSet rs = st.executeQuery(query);
-                while (rs.next()) {
-                    int id = rs.getInt("object_id");
-                    String type = rs.getString("type");
-                    if (type == "") {
-                        type = "untyped";
-                    }
-                    int time = rs.getInt("timestamp");
-                    double lat = rs.getDouble("lat");
-                    double lng = rs.getDouble("lng");
-                    outFilePrint.println(id + " " + time + " " + type + " " + lat + " " + lng);
-                    outFilePrint.flush();
+                resultWriter.write(trafficResults);
+                if (resultStore != null) {
+                    resultStore.add(trafficResults);
                 }
-
-                outFilePrint.close();
-            } catch (Throwable t) {
-                result = -1;
-                throw new RuntimeException(t);
-            } finally {
-                if (trafficRequest != null) {
-                    markTrafficRequestCompleted(trafficRequest, result);
-                    try {
-                        Emailer.sendEmail(trafficRequest, result);
-                    } catch (MessagingException e) {
-                        throw new RuntimeException(e);
-                    } catch (UnsupportedEncodingException e) {
-                        // TODO Auto-generated catch block
-                        e.printStackTrace();
-                        throw new RuntimeException(e);
-                    }
+            }
+            generator.endTraffic();
+            resultWriter.close();
+            resultWriter = null;
+            if (resultStore != null) {
+                if (worker != null) {
+                    worker.setState("finishing inserts");
                 }
+                resultStore.finish();
             }
-        } catch (IOException ex) {
-            Logger.getLogger(QueueReader.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (SQLException e) {
-            throw new IllegalStateException("Failed to insert traffic results.");
+        } catch (Throwable t) {
+            result = -1;
+            if (resultStore != null) {
+                resultStore.abort();
+            }
+            if (generator != null) {
+                // e.g. stops an in-process generator
+                try {
+                    generator.endTraffic();
+                } catch (RuntimeException e) {
+                    // the original failure is reported
+                }
+            }
+            throw new RuntimeException(t);
         } finally {
-            ConnectionProvider.safeClose(pStatement);
-        }
-        System.out.println("Processing traffic request #" + trafficRequest.getRequestId() + " from " + trafficRequest.getEmail() + " is done.");
-    }
-    public static SharedInteger runningThreadsCount;
-
-    public int hasThread(HashMap<Integer, TrafficRequestThread> threads) {
-        for (int i = 0; i < threads.size(); i++) {
-            TrafficRequestThread tr = threads.get(i);
-            if (tr.flag == true) {
-                return i;
+            if (resultWriter != null) {
+                try {
+                    resultWriter.close();
+                } catch (IOException ex) {
+                    Logger.getLogger(QueueReader.class.getName()).log(Level.SEVERE, null, ex);
+                }
+            }
+            markTrafficRequestCompleted(trafficRequest, result);
+            try {
+                Emailer.sendEmail(trafficRequest, result);
+            } catch (MessagingException e) {
+                throw new RuntimeException(e);
+            } catch (UnsupportedEncodingException e) {
+                // TODO Auto-generated catch block
+                e.printStackTrace();
+                throw new RuntimeException(e);
             }
         }
-        return -1;
+        System.out.println("Processing traffic request #" + trafficRequest.getRequestId() + " from " + trafficRequest.getEmail() + " is done.");
     }
-
+    /**
+     * Claims pending requests and dispatches them to the worker pool as long
+     * as its budgets allow. Requests which do not fit stay pending and are
+     * considered again by the next call, so small requests are not blocked by
+     * a large one.
+     */
     public void proccessQueue() {
         fillQueueCache();
         System.out.println("traffic queue filled");
-        boolean waitedLongTime = false;
-
-        int maxThreadsRunning = 25;
-        runningThreadsCount = new SharedInteger();
-        runningThreadsCount.set(0);
 
         Iterator<TrafficRequest> trafficRequestIterator = trafficRequestQueueCache.iterator();
-        /*
-         * HashMap<Integer,TrafficRequestThread> threads = new HashMap<Integer,
-         * TrafficRequestThread>();
-         *
-         * for (int i = 0; i < 5; i++) { TrafficRequestThread tr = new
-         * TrafficRequestThread(); threads.put(i, tr); }
-         */
         while (trafficRequestIterator.hasNext()) {
-            TrafficRequest trafficRequest = null;
-            try {
-
-                trafficRequest = trafficRequestIterator.next();
-
-               
-                File folder = new File("/home/yackel/TrafficGenerator/" + trafficRequest.getRequestId() + "/");  //make target directory
-                folder.mkdir();
-                folder.setWritable(true);
-                String command = " java -jar /media/Louai/MNTGExtractor.jar /media/Louai/osm/road_edges_partitioned/ /home/yackel/TrafficGenerator/" + " " + trafficRequest.getRequestId() + " " + trafficRequest.getInorderCoordinates() + " >> \\home\\yackel\\TrafficGenerator\\RoadLog.txt";// 44.891 -93.280 44.983 -93.086";
-
-                System.out.println(command);
-
-                ProcessLauncher.exec("java -jar /media/Louai/MNTGExtractor.jar /media/Louai/osm/road_edges_partitioned/ /home/yackel/TrafficGenerator/" + " " + trafficRequest.getRequestId() + " " + trafficRequest.getInorderCoordinates() , false);
-
-
-                proccessTrafficRequest(trafficRequest);
- if (trafficRequest.getMaprequestStatus() == true) {
-                    //ProcessLauncher.exec(" java -jar /media/Louai/MNTGExtractor.jar /media/Louai/osm/road_edges_partitioned/ /home/yackel/TrafficGenerator/900/ 900 44.891 -93.280 44.983 -93.086", false); //output the text file of the road network to the destination directiory
-                    ProcessLauncher.exec( "cp /home/yackel/TrafficGenerator/"+trafficRequest.getRequestId()+"/node.txt" +"/home/yackel/public_html/app/webroot/downloads/"+trafficRequest.getRequestId()+"-Nodes.txt" , false);
-                    ProcessLauncher.exec( "cp /home/yackel/TrafficGenerator/"+trafficRequest.getRequestId()+"/edge.txt" +"/home/yackel/public_html/app/webroot/downloads/"+trafficRequest.getRequestId()+"-Edges.txt" , false);
-                }
-
+            TrafficRequest trafficRequest = trafficRequestIterator.next();
+            trafficRequestIterator.remove();
+            if (!pool.tryReserve(trafficRequest)) {
+                continue;
+            }
+            if (!claimTrafficRequest(trafficRequest)) {
+                pool.release(trafficRequest);
+                continue;
+            }
+            System.out.println("Dispatching traffic request #" + trafficRequest.getRequestId() + " (" + pool.getRunningCount() + " running)");
+            pool.execute(new TrafficRequestThread(trafficRequest, pool));
+        }
+        trafficRequestQueueCache.clear();
+    }
 
+    /**
+     * Prepares the road network of a claimed request, generates its traffic
+     * and copies the map files if requested. Called by the workers.
+     */
+    public static void proccessClaimedRequest(TrafficRequest trafficRequest, TrafficRequestThread worker) {
+        File folder = new File("/home/yackel/TrafficGenerator/" + trafficRequest.getRequestId() + "/");  //make target directory
+        folder.mkdir();
+        folder.setWritable(true);
+        String networkKey = NetworkCache.isEnabled() ? NetworkCache.getKey(trafficRequest) : null;
+        if (networkKey == null || !NetworkCache.restore(networkKey, folder)) {
+            worker.setState("extracting roads");
+            ProcessLauncher.exec("java -jar /media/Louai/MNTGExtractor.jar /media/Louai/osm/road_edges_partitioned/ /home/yackel/TrafficGenerator/" + " " + trafficRequest.getRequestId() + " " + trafficRequest.getInorderCoordinates() , false);
+            if (networkKey != null) {
+                NetworkCache.store(networkKey, folder);
+            }
+        }
 
-                //pararell computing
-                // TrafficRequestThread trt = new TrafficRequestThread(trafficRequest); 
-                //pool.execute(trt);
+        proccessTrafficRequest(trafficRequest, worker);
+        if (trafficRequest.getMaprequestStatus() == true) {
+            ProcessLauncher.exec( "cp /home/yackel/TrafficGenerator/"+trafficRequest.getRequestId()+"/node.txt" +"/home/yackel/public_html/app/webroot/downloads/"+trafficRequest.getRequestId()+"-Nodes.txt" , false);
+            ProcessLauncher.exec( "cp /home/yackel/TrafficGenerator/"+trafficRequest.getRequestId()+"/edge.txt" +"/home/yackel/public_html/app/webroot/downloads/"+trafficRequest.getRequestId()+"-Edges.txt" , false);
+        }
+    }
 
-                //trt.run();;
+    public void reportProgress() {
+        pool.reportProgress();
+    }
 
-                //proccessTrafficRequest(trafficRequest);
+    /**
+     * Claims a pending request by changing its ready flag from 1 to 2 and
+     * storing the id of this server.
+     *
+     * @return false if the request has been claimed by another process
+     */
+    private static boolean claimTrafficRequest(TrafficRequest trafficRequest) {
+        Connection conn = ConnectionProvider.getConnection();
+        PreparedStatement pStatement = null;
+        try {
+            pStatement = conn.prepareStatement("update traffic_requests set ready = 2, claimed_by = ?, claimed_at = now() where id = ? and ready = 1 and finished = 0");
+            pStatement.setString(1, SERVER_ID);
+            pStatement.setInt(2, trafficRequest.getRequestId());
+            return pStatement.executeUpdate() == 1;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            ConnectionProvider.safeClose(pStatement);
+        }
+    }
 
-                /*
-                 * long start = System.currentTimeMillis(); while(true) {
-                 * if(runningThreadsCount.get() < maxThreadsRunning ||
-                 * waitedLongTime) { TrafficRequestThread trt = new
-                 * TrafficRequestThread(trafficRequest); trt.start();
-                 * threads.add(trt); runningThreadsCount.increment(); break; }
-                 * long end = System.currentTimeMillis(); if((end-start) >
-                 * 12*60*60*1000)//12 hours allowance { waitedLongTime = true;
-                 * break; } }
-                 */
-            } catch (Throwable t) {
-                throw new RuntimeException(t);
-            } finally {
-                trafficRequestIterator.remove();
+    /**
+     * Marks a claimed request as failed unless it has been completed, and
+     * informs its user. Called by a worker whose processing failed, so the
+     * request does not stay claimed until the next start of the server.
+     */
+    public static void failClaimedRequest(TrafficRequest trafficRequest) {
+        Connection conn = ConnectionProvider.getConnection();
+        PreparedStatement pStatement = null;
+        boolean marked;
+        try {
+            pStatement = conn.prepareStatement("update traffic_requests set finished = -1 where id = ? and ready = 2 and finished = 0");
+            pStatement.setInt(1, trafficRequest.getRequestId());
+            marked = pStatement.executeUpdate() == 1;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            ConnectionProvider.safeClose(pStatement);
+        }
+        if (marked) {
+            System.out.println("Traffic request #" + trafficRequest.getRequestId() + " failed before it was completed.");
+            try {
+                Emailer.sendEmail(trafficRequest, -1);
+            } catch (MessagingException e) {
+                Logger.getLogger(QueueReader.class.getName()).log(Level.SEVERE, null, e);
+            } catch (UnsupportedEncodingException e) {
+                Logger.getLogger(QueueReader.class.getName()).log(Level.SEVERE, null, e);
             }
         }
+    }
 
-        /*
-         * Iterator<TrafficRequestThread> trafficRequestThreadIterator =
-         * threads.iterator(); while (trafficRequestThreadIterator.hasNext()) {
-         * TrafficRequestThread thread = null; try{ thread =
-         * trafficRequestThreadIterator.next(); thread.join(3*60*60*1000);//3
-         * hours allowance } catch (Throwable t) { throw new
-         * RuntimeException(t); }
-         *
-         * }
-         */
+    /**
+     * Returns claimed but unfinished requests to the queue if they have been
+     * claimed by this server or their claims are stale, i.e. not renewed
+     * within the claim timeout. Must only be called when no worker of this
+     * server is running, i.e. at the start of the server.
+     */
+    public void releaseStaleClaims() {
+        Connection conn = ConnectionProvider.getConnection();
+        PreparedStatement pStatement = null;
+        try {
+            pStatement = conn.prepareStatement("update traffic_requests set ready = 1, claimed_by = null, claimed_at = null where ready = 2 and finished = 0"
+                    + " and (claimed_by = ? or claimed_at is null or claimed_at < now() - interval ? second)");
+            pStatement.setString(1, SERVER_ID);
+            pStatement.setInt(2, Integer.getInteger("mntg.claimTimeout", 600));
+            int count = pStatement.executeUpdate();
+            if (count > 0) {
+                System.out.println(count + " unfinished traffic requests returned to the queue.");
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            ConnectionProvider.safeClose(pStatement);
+        }
+    }
 
-        trafficRequestQueueCache.clear();
+    /**
+     * Renews the claims of this server, so other servers do not take them
+     * as stale. Must be called regularly, well within the claim timeout.
+     */
+    public void renewClaims() {
+        Connection conn = ConnectionProvider.getConnection();
+        PreparedStatement pStatement = null;
+        try {
+            pStatement = conn.prepareStatement("update traffic_requests set claimed_at = now() where ready = 2 and finished = 0 and claimed_by = ?");
+            pStatement.setString(1, SERVER_ID);
+            pStatement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            ConnectionProvider.safeClose(pStatement);
+        }
     }
 
     private static void markTrafficRequestCompleted(TrafficRequest trafficRequest,
@@ -0,0 +1,43 @@
+package queue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import traffic.TrafficRequest;
+
+/**
+ * Strategy inserting the result pages of a traffic request into
+ * traffic_results. The loader is run by the thread of a ResultStore and takes
+ * the pages by ResultStore.nextPage() until it returns null.
+ */
+public interface ResultLoader {
+
+    public void load(Connection conn, ResultStore store) throws SQLException, InterruptedException;
+
+    /**
+     * Selects the loader of a request: requests with at least
+     * "mntg.bulkLoadRows" (default 100000) estimated result rows are loaded
+     * by LOAD DATA, the others by batched inserts. A negative value disables
+     * the bulk loader.
+     */
+    public static class Factory {
+
+        public static ResultLoader getLoader(TrafficRequest trafficRequest) {
+            long threshold = Long.getLong("mntg.bulkLoadRows", 100000);
+            if (threshold >= 0 && estimateRows(trafficRequest) >= threshold) {
+                return new BulkResultLoader();
+            }
+            return new BatchResultLoader();
+        }
+
+        /**
+         * Upper bound of the number of result rows: every object reports a
+         * position at every time stamp.
+         */
+        public static long estimateRows(TrafficRequest trafficRequest) {
+            long objects = trafficRequest.getObjBegin()
+                    + (long) trafficRequest.getObjPerTime() * trafficRequest.getMaxTime();
+            return objects * Math.max(1, trafficRequest.getMaxTime());
+        }
+    }
+}
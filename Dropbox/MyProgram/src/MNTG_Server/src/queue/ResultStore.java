@@ -0,0 +1,108 @@
+package queue;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import traffic.TrafficResult;
+import connection.ConnectionProvider;
+
+/**
+ * Inserts the results of a traffic request into traffic_results by a
+ * background thread, so that the generator output is not held up by the
+ * database. The pages are handed over by a bounded queue; if the database
+ * is slower than the generator, add() blocks. The insertion itself is done
+ * by a ResultLoader.
+ */
+public class ResultStore implements Runnable {
+
+    private static final int QUEUE_SIZE = 8;
+    private static final List<TrafficResult> END = Collections.emptyList();
+
+    private final int requestId;
+    private final ResultLoader loader;
+    private final BlockingQueue<List<TrafficResult>> pages = new ArrayBlockingQueue<List<TrafficResult>>(QUEUE_SIZE);
+    private final Thread thread;
+    private volatile Throwable failure = null;
+
+    public ResultStore(int requestId, ResultLoader loader) {
+        this.requestId = requestId;
+        this.loader = loader;
+        thread = new Thread(this, "store-" + requestId);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns whether the results are stored in the database; can be switched
+     * off by the system property "mntg.storeResults" if the results are only
+     * downloaded.
+     */
+    public static boolean isEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty("mntg.storeResults"));
+    }
+
+    /**
+     * Hands over a page of results.
+     */
+    public void add(List<TrafficResult> trafficResults) throws SQLException, InterruptedException {
+        checkFailure();
+        if (!trafficResults.isEmpty()) {
+            pages.put(trafficResults);
+        }
+    }
+
+    /**
+     * Waits until all pages are inserted.
+     */
+    public void finish() throws SQLException, InterruptedException {
+        if (thread.isAlive()) {
+            pages.put(END);
+            thread.join();
+        }
+        checkFailure();
+    }
+
+    /**
+     * Stops the insertion after the generation has failed.
+     */
+    public void abort() {
+        thread.interrupt();
+    }
+
+    public int getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * Takes the next page; called by the loader.
+     *
+     * @return the page or null after the last page
+     */
+    public List<TrafficResult> nextPage() throws InterruptedException {
+        List<TrafficResult> trafficResults = pages.take();
+        return (trafficResults == END) ? null : trafficResults;
+    }
+
+    private void checkFailure() throws SQLException {
+        if (failure instanceof SQLException) {
+            throw (SQLException) failure;
+        } else if (failure != null) {
+            throw new IllegalStateException("Failed to insert traffic results.", failure);
+        }
+    }
+
+    public void run() {
+        try {
+            loader.load(ConnectionProvider.getConnection(), this);
+        } catch (Throwable t) {
+            failure = t;
+            // let a blocked producer continue
+            pages.clear();
+        } finally {
+            ConnectionProvider.closeConnection();
+        }
+    }
+}
@@ -1,14 +1,116 @@
-/*
- * To change this template, choose Tools | Templates
- * and open the template in the editor.
- */
 package queue;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import traffic.TrafficRequest;
+
 /**
+ * Bounded pool of workers processing claimed traffic requests. Every request
+ * runs its generator as an external process; a request is only admitted if
+ * a worker slot (CPU budget) and enough of the memory budget are free. A
+ * request exceeding the whole memory budget is admitted when no other request
+ * is running.
  *
- * @author baojie
+ * The budgets can be set by the system properties "mntg.workers" (default:
+ * number of processors) and "mntg.memoryMB" (default: 4096).
  */
 public class ThreadPool {
-    
-    
+
+    private final int maxWorkers;
+    private final long memoryBudgetMB;
+    private final ExecutorService executor;
+    private final Map<Integer, TrafficRequestThread> running = new LinkedHashMap<Integer, TrafficRequestThread>();
+    private long memoryInUseMB = 0;
+
+    public ThreadPool() {
+        this(Integer.getInteger("mntg.workers", Runtime.getRuntime().availableProcessors()),
+                Long.getLong("mntg.memoryMB", 4096));
+    }
+
+    public ThreadPool(int maxWorkers, long memoryBudgetMB) {
+        this.maxWorkers = Math.max(1, maxWorkers);
+        this.memoryBudgetMB = memoryBudgetMB;
+        this.executor = Executors.newFixedThreadPool(this.maxWorkers);
+    }
+
+    /**
+     * Rough estimate of the memory needed by the generator process of a
+     * request: a base amount per generator plus about 1 KB per moving object.
+     */
+    public static long estimateMemoryMB(TrafficRequest trafficRequest) {
+        long objects = trafficRequest.getObjBegin()
+                + (long) trafficRequest.getObjPerTime() * trafficRequest.getMaxTime();
+        switch (trafficRequest.getTrafficType()) {
+            case Brinkhoff:
+                return 256 + objects / 1000;
+            case BerlinMod:
+                return 1024;
+            default:
+                return 128 + objects / 1000;
+        }
+    }
+
+    /**
+     * Reserves a worker and memory for the request.
+     *
+     * @return false if the budgets do not allow to run the request now
+     */
+    public synchronized boolean tryReserve(TrafficRequest trafficRequest) {
+        if (running.containsKey(trafficRequest.getRequestId()) || running.size() >= maxWorkers) {
+            return false;
+        }
+        long memory = estimateMemoryMB(trafficRequest);
+        if (!running.isEmpty() && memoryInUseMB + memory > memoryBudgetMB) {
+            return false;
+        }
+        memoryInUseMB += memory;
+        running.put(trafficRequest.getRequestId(), null);
+        return true;
+    }
+
+    /**
+     * Runs a worker for a request reserved by tryReserve.
+     */
+    public synchronized void execute(TrafficRequestThread worker) {
+        running.put(worker.requestid, worker);
+        executor.execute(worker);
+    }
+
+    /**
+     * Releases the worker and the memory reserved for a request.
+     */
+    public synchronized void release(TrafficRequest trafficRequest) {
+        if (running.containsKey(trafficRequest.getRequestId())) {
+            running.remove(trafficRequest.getRequestId());
+            memoryInUseMB -= estimateMemoryMB(trafficRequest);
+        }
+    }
+
+    public synchronized int getRunningCount() {
+        return running.size();
+    }
+
+    /**
+     * Prints the progress of all running workers.
+     */
+    public void reportProgress() {
+        List<TrafficRequestThread> workers;
+        synchronized (this) {
+            workers = new ArrayList<TrafficRequestThread>(running.values());
+        }
+        for (TrafficRequestThread worker : workers) {
+            if (worker != null) {
+                System.out.println(worker.getProgress());
+            }
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
 }
@@ -1,29 +1,68 @@
 package queue;
 
+import main.Main;
 import traffic.TrafficRequest;
 
-public class TrafficRequestThread extends Thread {
+/**
+ * Worker of the ThreadPool processing one claimed traffic request.
+ */
+public class TrafficRequestThread implements Runnable {
     public boolean flag;    // if it is ocuppied
     public int requestid;
 
     public TrafficRequest trafficRequest = null;
 
-    public TrafficRequestThread(TrafficRequest trt) {
+    private final ThreadPool pool;
+    private volatile String state = "waiting";
+    private volatile long startTime = 0;
+    private volatile long resultCount = 0;
+    private volatile String workerName = "";
+
+    public TrafficRequestThread(TrafficRequest trt, ThreadPool pool) {
         flag=true;
         trafficRequest = trt;
         requestid=trt.getRequestId();
+        this.pool = pool;
     }
 
     public void run() {
         this.flag=false;
-        
-        //this.requestid=trafficRequest.getRequestId();
-        
-        QueueReader.proccessTrafficRequest(trafficRequest);
-        
-        this.flag=true;
-        //QueueReader.runningThreadsCount.decrement();
+        startTime = System.currentTimeMillis();
+        workerName = Thread.currentThread().getName();
+        try {
+            QueueReader.proccessClaimedRequest(trafficRequest, this);
+        } catch (Throwable t) {
+            synchronized (Main.ERROR_WRITER) {
+                t.printStackTrace(Main.ERROR_WRITER);
+                Main.ERROR_WRITER.flush();
+            }
+            // otherwise the request stays claimed until the server is restarted
+            try {
+                QueueReader.failClaimedRequest(trafficRequest);
+            } catch (Throwable t2) {
+                synchronized (Main.ERROR_WRITER) {
+                    t2.printStackTrace(Main.ERROR_WRITER);
+                    Main.ERROR_WRITER.flush();
+                }
+            }
+        } finally {
+            state = "done";
+            pool.release(trafficRequest);
+            this.flag=true;
+        }
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public void addResults(int count) {
+        resultCount += count;
+    }
+
+    public String getProgress() {
+        long seconds = (startTime == 0) ? 0 : (System.currentTimeMillis() - startTime) / 1000;
+        return "[" + workerName + "] request #" + requestid + " (" + trafficRequest.getTrafficType()
+                + "): " + state + ", " + resultCount + " results, " + seconds + " s";
     }
-    
-    
 }
@@ -90,7 +90,7 @@ public class Emailer {
         } catch (IOException e) {
             e.printStackTrace();
         }
-         File file = new File("/home/yackel/public_html/app/webroot/downloads/"+trafficRequest.getRequestId()+".txt");
+         File file = ResultWriter.getResultFile(trafficRequest.getRequestId());
          long filesize = file.length();
         MimeMessage message = new MimeMessage(mailSession);
         message.setSubject("Traffic Generation Request #" + trafficRequest.getRequestId() + " has finished being processed.");
@@ -120,7 +120,7 @@ public class Emailer {
                     + " \n has finished being generated.\n\n  You can download the benchmark at http://"
                     + ConnectionProvider.HOST_NAME
                     + "/downloads/"
-                    + trafficRequest.getRequestId() + ".txt."
+                    + file.getName() + "."
                     +" The estimated size of the file is "
                     +((int)filesize/1024)+"KB. The link may be expired in one week.\n"                    
                     +downloadRoad(trafficRequest)
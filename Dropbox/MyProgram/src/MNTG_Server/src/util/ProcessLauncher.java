@@ -10,8 +10,6 @@ import main.Main;
 
 public class ProcessLauncher {
 
-	private static boolean showOutput = false;
-
 	public static void exec(String[] process, File directory, boolean showOutput) {
 		if (showOutput) {
 			System.out.print("Launching Process: ");
@@ -20,8 +18,6 @@ public class ProcessLauncher {
 			}
 			System.out.println();
 		}
-		ProcessLauncher.showOutput = showOutput;
-
 		ProcessBuilder processBuilder = new ProcessBuilder(process);
 		if (directory != null) {
 			processBuilder.directory(directory);
@@ -33,9 +29,9 @@ public class ProcessLauncher {
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
-		StreamReader errorGobbler = new StreamReader(proc.getErrorStream());
+		StreamReader errorGobbler = new StreamReader(proc.getErrorStream(), showOutput);
 
-		StreamReader outputGobbler = new StreamReader(proc.getInputStream());
+		StreamReader outputGobbler = new StreamReader(proc.getInputStream(), showOutput);
 
 		// kick them off
 		errorGobbler.start();
@@ -53,9 +49,11 @@ public class ProcessLauncher {
 
 	private static class StreamReader extends Thread {
 		InputStream is;
+		boolean showOutput;
 
-		StreamReader(InputStream is) {
+		StreamReader(InputStream is, boolean showOutput) {
 			this.is = is;
+			this.showOutput = showOutput;
 		}
 
 		public void run() {
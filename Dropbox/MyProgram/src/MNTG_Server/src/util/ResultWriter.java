@@ -0,0 +1,77 @@
+package util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import traffic.TrafficResult;
+
+/**
+ * Writes the download file of a traffic request while its results are
+ * generated. The file is compressed by gzip if the system property
+ * "mntg.gzipResults" is true; then its name ends with ".txt.gz".
+ */
+public class ResultWriter {
+
+    public static final String DOWNLOAD_PATH = "/home/yackel/public_html/app/webroot/downloads/";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final File file;
+    private final Writer writer;
+
+    public ResultWriter(int requestId) throws IOException {
+        file = getResultFile(requestId);
+        OutputStream out = new FileOutputStream(file);
+        if (isCompressed()) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"), BUFFER_SIZE);
+        writer.write("Object_Id" + " " + " Timestamp" + " " + "Type" + " " + "Lat" + " " + "Lng \n");
+        newLine();
+    }
+
+    public static boolean isCompressed() {
+        return Boolean.getBoolean("mntg.gzipResults");
+    }
+
+    /**
+     * Returns the download file of a request.
+     */
+    public static File getResultFile(int requestId) {
+        return new File(DOWNLOAD_PATH + requestId + (isCompressed() ? ".txt.gz" : ".txt"));
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Appends a page of results.
+     */
+    public void write(List<TrafficResult> trafficResults) throws IOException {
+        for (TrafficResult trafficResult : trafficResults) {
+            String type = trafficResult.getType();
+            if (type == null || type.length() == 0) {
+                type = "untyped";
+            }
+            writer.write(trafficResult.getId() + " " + trafficResult.getTime() + " " + type
+                    + " " + trafficResult.getLat() + " " + trafficResult.getLng());
+            newLine();
+        }
+    }
+
+    private void newLine() throws IOException {
+        writer.write(System.getProperty("line.separator"));
+    }
+
+    public void close() throws IOException {
+        writer.close();
+    }
+}
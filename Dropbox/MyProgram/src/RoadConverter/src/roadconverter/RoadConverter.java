@@ -21,9 +21,8 @@ public class RoadConverter {
         // TODO code application logic here
         
         String Path =args[0];
-        RoadNetworks RN=new RoadNetworks(Path+"node.txt", Path+"edge.txt");
+        RoadNetworks RN=RoadNetworks.convert(Path);
         System.out.println(RN.uplat+"\t"+RN.uplng+"\t"+RN.lwlat+"\t"+RN.lwlng);
-        RN.output(Path);
         //RN.outputjavascript();
     }
 }
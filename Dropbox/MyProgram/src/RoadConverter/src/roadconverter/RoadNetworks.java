@@ -21,6 +21,17 @@ public class RoadNetworks {
     double uplat, uplng, lwlat, lwlng;
     double xinterval, yinterval;
 
+    /**
+     * Reads node.txt and edge.txt of a folder and writes the network files
+     * output.node and output.edge into the same folder. Called by the
+     * server in-process; RoadConverter.main is a wrapper around it.
+     */
+    public static RoadNetworks convert(String path) {
+        RoadNetworks RN = new RoadNetworks(path + "node.txt", path + "edge.txt");
+        RN.output(path);
+        return RN;
+    }
+
     RoadNetworks(String Nodepath, String Edgepath) {
         Edges = new HashMap<Long, Edge>();
         Nodes = new HashMap<Long, Node>();
@@ -37,7 +48,6 @@ public class RoadNetworks {
         lwlng=tmp;
         GetInterval();
         UpdateXY();
-        System.out.println("done");
     }
 
     private void UpdateXY() {
@@ -74,6 +84,7 @@ public class RoadNetworks {
                 Edges.put(Eid, e);
 
             }
+            dis.close();
 
 
         } catch (Exception ex) {
@@ -95,7 +106,6 @@ public class RoadNetworks {
                 long nid = Long.valueOf(SA[0]);
                 double latitude = Double.valueOf(SA[1]);
                 double longitude = Double.valueOf(SA[2]);
-                System.out.println(nid+"\t"+latitude+"\t"+longitude);
                 if (latitude > uplat) {
                     uplat = latitude;
                 }
@@ -105,9 +115,7 @@ public class RoadNetworks {
                 if (longitude > uplng) {
                     uplng = longitude;
                 }
-                 System.out.println(longitude+"\t"+uplng);
                 if (longitude < lwlng) {
-                    System.out.println(longitude+"\t"+lwlng);
                     lwlng = longitude;
                 }
 
@@ -115,6 +123,7 @@ public class RoadNetworks {
                 Nodes.put(nid, n);
 
             }
+            dis.close();
 
 
         } catch (Exception ex) {
@@ -161,12 +170,13 @@ public class RoadNetworks {
     
     public void writeNodes(String path){
         try {
-            DataOutputStream myout= new DataOutputStream( new FileOutputStream(path+"output.node"));
+            DataOutputStream myout= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path+"output.node")));
             
             for(Node n : Nodes.values()){
                 writeNode(myout, "",  n.ID, n.x, n.y);
             }
-        } catch (FileNotFoundException ex) {
+            myout.close();
+        } catch (IOException ex) {
             Logger.getLogger(RoadNetworks.class.getName()).log(Level.SEVERE, null, ex);
         }
        
@@ -174,12 +184,13 @@ public class RoadNetworks {
     
         public void writeEdges(String path){
         try {
-            DataOutputStream myout= new DataOutputStream( new FileOutputStream(path+"output.edge"));
+            DataOutputStream myout= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path+"output.edge")));
             
             for(Edge e : Edges.values()){
                 writeEdge(myout, e.Node1, e.Node2, "", e.ID, 3);
             }
-        } catch (FileNotFoundException ex) {
+            myout.close();
+        } catch (IOException ex) {
             Logger.getLogger(RoadNetworks.class.getName()).log(Level.SEVERE, null, ex);
         }
        